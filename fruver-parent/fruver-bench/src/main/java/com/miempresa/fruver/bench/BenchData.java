@@ -0,0 +1,71 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.model.VentaItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks: catálogo, carritos y tickets.
+ * Semilla fija para que todas las corridas midan la misma carga.
+ */
+public final class BenchData {
+
+    private BenchData() {}
+
+    /** Catálogo con mezcla de productos por peso y por unidad, precios con 2 decimales. */
+    public static List<Producto> catalogo(int n) {
+        Random rnd = new Random(42);
+        List<Producto> out = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            boolean peso = i % 3 != 0;
+            BigDecimal precio = BigDecimal.valueOf(500 + rnd.nextInt(20_000), 2);
+            out.add(new Producto(i, String.format("P%05d", i), "Producto " + i, precio,
+                    peso ? Producto.TipoProducto.PESO : Producto.TipoProducto.UNIDAD,
+                    new BigDecimal("1000000"), BigDecimal.ONE));
+        }
+        return out;
+    }
+
+    /** Cantidad típica: kilos con 3 decimales para PESO, enteros para UNIDAD. */
+    public static BigDecimal cantidad(Producto p, Random rnd) {
+        if (p.getTipo() == Producto.TipoProducto.PESO) {
+            return BigDecimal.valueOf(100 + rnd.nextInt(2900), 3);
+        }
+        return BigDecimal.valueOf(1 + rnd.nextInt(5));
+    }
+
+    /** Líneas de venta sobre productos distintos del catálogo. */
+    public static List<VentaItem> items(List<Producto> catalogo, int lineas) {
+        Random rnd = new Random(7);
+        List<VentaItem> out = new ArrayList<>(lineas);
+        for (int i = 0; i < lineas; i++) {
+            Producto p = catalogo.get(i % catalogo.size());
+            out.add(new VentaItem(null, null, p.getProductoId(), cantidad(p, rnd), p.getPrecioUnitario()));
+        }
+        return out;
+    }
+
+    /** Texto de ticket con el marcado que se imprime en caja ("--" separador, TAB valor a la derecha). */
+    public static String ticket(List<Producto> catalogo, int lineas) {
+        Random rnd = new Random(11);
+        StringBuilder sb = new StringBuilder();
+        sb.append("MERCAFRUVER\nNIT 900.000.000-0\nCajero: cajero1\n");
+        sb.append("--\n");
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lineas; i++) {
+            Producto p = catalogo.get(i % catalogo.size());
+            BigDecimal qty = cantidad(p, rnd);
+            BigDecimal sub = p.getPrecioUnitario().multiply(qty).setScale(2, java.math.RoundingMode.HALF_UP);
+            total = total.add(sub);
+            sb.append(p.getNombre()).append(' ').append(qty.toPlainString()).append('\t').append(sub.toPlainString()).append('\n');
+        }
+        sb.append("--\n");
+        sb.append("TOTAL\t").append(total.toPlainString()).append('\n');
+        sb.append("Gracias por su compra\n");
+        return sb.toString();
+    }
+}
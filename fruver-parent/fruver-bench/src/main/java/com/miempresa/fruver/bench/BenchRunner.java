@@ -0,0 +1,34 @@
+package com.miempresa.fruver.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de target/benchmarks.jar.
+ * Acepta las mismas opciones que org.openjdk.jmh.Main, pero por defecto escribe los
+ * resultados en JSON (jmh-result.json, o la ruta de -Dfruver.bench.result) para poder
+ * comparar corridas entre versiones.
+ *
+ * Uso: java -jar fruver-bench/target/benchmarks.jar [regex] [opciones JMH]
+ */
+public final class BenchRunner {
+
+    private BenchRunner() {}
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder opts = new OptionsBuilder().parent(cli);
+        if (!cli.getResultFormat().hasValue()) {
+            opts.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            opts.result(System.getProperty("fruver.bench.result", "jmh-result.json"));
+        }
+        new Runner(opts.build()).run();
+    }
+}
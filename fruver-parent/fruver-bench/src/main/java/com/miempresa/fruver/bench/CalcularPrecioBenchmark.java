@@ -0,0 +1,40 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.service.port.ScalePort;
+import com.miempresa.fruver.service.usecase.CalcularPrecioUseCase;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de subtotal por peso con una báscula simulada (lectura inmediata),
+ * para aislar el costo de conversión gramos -> kg y redondeo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalcularPrecioBenchmark {
+
+    private CalcularPrecioUseCase useCase;
+    private final BigDecimal precioKg = new BigDecimal("4590.00");
+
+    @Setup
+    public void setup() {
+        useCase = new CalcularPrecioUseCase(new ScalePort() {
+            private int gramos = 1000;
+            @Override public void open(String portName, int baudRate) { }
+            @Override public double readWeightKg() { return readWeightGrams() / 1000.0; }
+            @Override public int readWeightGrams() { gramos = gramos == 2999 ? 1000 : gramos + 1; return gramos; }
+            @Override public void close() { }
+        });
+    }
+
+    @Benchmark
+    public BigDecimal subtotalPorPeso() {
+        return useCase.calcularSubtotalPorPeso(precioKg);
+    }
+}
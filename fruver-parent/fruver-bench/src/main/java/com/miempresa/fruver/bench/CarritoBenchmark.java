@@ -0,0 +1,61 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.ui.viewmodel.CajeroViewModel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carrito del cajero: agregar/fusionar líneas y recalcular totales.
+ * Usa el CajeroViewModel real (sin Platform.runLater en esta ruta).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarritoBenchmark {
+
+    /** Líneas distintas en el carrito. */
+    @Param({"5", "20", "60"})
+    public int lineas;
+
+    private List<Producto> catalogo;
+    private BigDecimal[] cantidades;
+    private CajeroViewModel vm;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        catalogo = BenchData.catalogo(lineas);
+        Random rnd = new Random(3);
+        cantidades = new BigDecimal[lineas];
+        for (int i = 0; i < lineas; i++) cantidades[i] = BenchData.cantidad(catalogo.get(i), rnd);
+        vm = new CajeroViewModel(null, null);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        vm.getCart().clear();
+    }
+
+    /** Llena el carrito desde cero: cada alta recorre el carrito y recalcula totales. */
+    @Benchmark
+    public void llenarCarrito(Blackhole bh) {
+        for (int i = 0; i < lineas; i++) vm.addOrMergeCartItem(catalogo.get(i), cantidades[i]);
+        bh.consume(vm.totalProperty().get());
+    }
+
+    /** Llena el carrito y vuelve a escanear todo (todas las altas fusionan con una línea existente). */
+    @Benchmark
+    public void llenarYFusionar(Blackhole bh) {
+        for (int i = 0; i < lineas; i++) vm.addOrMergeCartItem(catalogo.get(i), cantidades[i]);
+        for (int i = lineas - 1; i >= 0; i--) vm.addOrMergeCartItem(catalogo.get(i), cantidades[i]);
+        bh.consume(vm.totalProperty().get());
+    }
+}
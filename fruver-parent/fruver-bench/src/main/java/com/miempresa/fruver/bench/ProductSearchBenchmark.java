@@ -0,0 +1,82 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.ui.util.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de productos de caja/supervisor: índice (prefijos sin tildes, refinamiento
+ * incremental) contra el recorrido lineal con toLowerCase().contains() que hacía filterBy.
+ * tecleo simula escribir la consulta letra por letra; el tiempo es por tecla.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] NOMBRES = {
+            "Tomate chonto", "Tomate de árbol", "Limón Tahití", "Limón mandarino", "Plátano hartón",
+            "Banano criollo", "Aguacate Hass", "Papa pastusa", "Papa criolla", "Cebolla cabezona",
+            "Cebolla larga", "Zanahoria", "Piña oro miel", "Mango Tommy", "Guayaba pera",
+            "Maracuyá", "Lulo", "Mora de Castilla", "Fresa", "Ahuyama", "Pepino cohombro", "Ajo",
+            "Cilantro", "Espinaca", "Lechuga crespa", "Brócoli", "Uchuva", "Granadilla", "Naranja Valencia"
+    };
+
+    /** Catálogo grande: nombre base + presentación + número, como un SKU real. */
+    @Param({"1500", "10000"})
+    public int productos;
+
+    @Param({"tomate", "limon mand", "pap cri", "1234"})
+    public String consulta;
+
+    private List<Producto> catalogo;
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        catalogo = new ArrayList<>(productos);
+        for (int i = 1; i <= productos; i++) {
+            String nombre = NOMBRES[i % NOMBRES.length] + " " + (i % 2 == 0 ? "orgánico" : "granel") + " " + i;
+            catalogo.add(new Producto(i, String.format("P%05d", i), nombre, BigDecimal.valueOf(1000 + i, 2),
+                    i % 3 != 0 ? Producto.TipoProducto.PESO : Producto.TipoProducto.UNIDAD,
+                    BigDecimal.TEN, BigDecimal.ONE));
+        }
+        index = new ProductSearchIndex(catalogo);
+    }
+
+    /** Escribe la consulta letra por letra con el índice (la primera tecla va al índice, el resto refina). */
+    @Benchmark
+    public void tecleoIndice(Blackhole bh) {
+        for (int i = 1; i <= consulta.length(); i++) bh.consume(index.search(consulta.substring(0, i)));
+    }
+
+    /** Lo mismo con el recorrido lineal de antes. */
+    @Benchmark
+    public void tecleoLineal(Blackhole bh) {
+        for (int i = 1; i <= consulta.length(); i++) bh.consume(lineal(consulta.substring(0, i)));
+    }
+
+    /** Construcción del índice (una vez por carga de catálogo). */
+    @Benchmark
+    public ProductSearchIndex construir() {
+        return new ProductSearchIndex(catalogo);
+    }
+
+    private List<Producto> lineal(String q) {
+        List<Producto> out = new ArrayList<>();
+        for (Producto p : catalogo) {
+            if (p.getNombre().toLowerCase().contains(q.toLowerCase())
+                    || (p.getCodigo() != null && p.getCodigo().toLowerCase().contains(q.toLowerCase()))) out.add(p);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,83 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.repository.VentaCommitRepository;
+import com.miempresa.fruver.infra.journal.FileVentaJournal;
+import com.miempresa.fruver.service.usecase.RegistrarVentaUseCase;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Registro de venta con repositorio en memoria: mide validación, totales y orquestación
+ * del caso de uso sin red ni BD. La variante con diario incluye el fsync del FileVentaJournal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrarVentaBenchmark {
+
+    @Param({"5", "30"})
+    public int lineas;
+
+    private List<VentaItem> items;
+    private final BigDecimal recibido = new BigDecimal("500000");
+    private RegistrarVentaUseCase sinDiario;
+    private RegistrarVentaUseCase conDiario;
+    private FileVentaJournal journal;
+    private Path journalDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<Producto> catalogo = BenchData.catalogo(lineas);
+        items = BenchData.items(catalogo, lineas);
+
+        Map<Integer, BigDecimal> stock = new ConcurrentHashMap<>();
+        for (Producto p : catalogo) stock.put(p.getProductoId(), p.getStockActual());
+        AtomicInteger ids = new AtomicInteger();
+        VentaCommitRepository enMemoria = (venta, its, clave) -> {
+            for (VentaItem it : its) stock.merge(it.getProductoId(), it.getCantidad(), BigDecimal::subtract);
+            Venta saved = new Venta(ids.incrementAndGet(), venta.getFecha(), venta.getCajeroId());
+            saved.addItem(venta.getTotal());
+            return saved;
+        };
+
+        journalDir = Files.createTempDirectory("fruver-bench-journal");
+        journal = new FileVentaJournal(journalDir);
+        sinDiario = new RegistrarVentaUseCase(enMemoria);
+        conDiario = new RegistrarVentaUseCase(enMemoria, journal);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(journalDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Venta registrar() {
+        return sinDiario.execute(1, items, recibido);
+    }
+
+    @Benchmark
+    public Venta registrarConDiario() {
+        return conDiario.execute(1, items, recibido);
+    }
+}
@@ -0,0 +1,52 @@
+package com.miempresa.fruver.bench;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aritmética BigDecimal de líneas y cabecera de venta (subtotal, redondeo, vuelto).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VentaItemBenchmark {
+
+    private Producto pesado;
+    private BigDecimal kilos;
+    private List<VentaItem> items;
+    private final BigDecimal recibido = new BigDecimal("200000");
+
+    @Setup
+    public void setup() {
+        List<Producto> catalogo = BenchData.catalogo(30);
+        pesado = catalogo.get(0);
+        kilos = new BigDecimal("1.235");
+        items = BenchData.items(catalogo, 30);
+    }
+
+    /** Crear una línea (precio * cantidad) como hace el cobro por cada ítem del carrito. */
+    @Benchmark
+    public VentaItem crearLinea() {
+        return new VentaItem(null, null, pesado.getProductoId(), kilos, pesado.getPrecioUnitario());
+    }
+
+    /** Totalizar una venta de 30 líneas con el redondeo por línea de RegistrarVentaUseCase. */
+    @Benchmark
+    public Venta totalizarVenta() {
+        Venta v = new Venta(null, LocalDateTime.MIN, 1);
+        for (VentaItem it : items) v.addItem(it.getSubtotal().setScale(2, RoundingMode.HALF_UP));
+        v.calcularVuelto(recibido);
+        return v;
+    }
+}
@@ -0,0 +1,45 @@
+package com.miempresa.fruver.infra.hardware.printer;
+
+import com.miempresa.fruver.bench.BenchData;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del buffer ESC/POS de un ticket (sin enviar a la impresora).
+ * Vive en el paquete de PrinterService para usar renderReceipt (package-private).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscPosBenchmark {
+
+    @Param({"5", "30"})
+    public int lineas;
+
+    @Param({"UTF-8", "CP437"})
+    public String charset;
+
+    @Param({"58", "80"})
+    public String papel;
+
+    private PrinterService printer;
+    private String ticket;
+
+    @Setup
+    public void setup() {
+        printer = new PrinterService();
+        printer.setCharset(charset);
+        printer.setPaperWidth(papel);
+        ticket = BenchData.ticket(BenchData.catalogo(lineas), lineas);
+    }
+
+    @Benchmark
+    public ByteBuffer buildReceipt() {
+        return printer.renderReceipt(ticket);
+    }
+}
@@ -0,0 +1,59 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificador de tramas aislado. Cada invocación decodifica una ráfaga de 16 tramas
+ * (lo que llega en ~1 s de una báscula a 16 Hz) con encuadres y formatos mezclados.
+ *
+ * Verificación de cero asignaciones:
+ *   java -jar fruver-bench/target/benchmarks.jar ScaleFrameDecoder -prof gc
+ * gc.alloc.rate.norm debe ser ~0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaleFrameDecoderBenchmark {
+
+    private static final String[] FRAMES = {
+            "\u0002ST,GS,+  1.235kg\u0003",
+            "ST,GS,+  1,236 kg\r\n",
+            "\u0002US,GS,+  1.240kg\u0003",
+            "   0.875\r\n",
+            "\u0002-0.005\u0003",
+            "W 1235 g\r\n",
+    };
+
+    private byte[] rafaga;
+    private int gramos;
+    private ScaleFrameDecoder decoder;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 16; i++) sb.append(FRAMES[i % FRAMES.length]);
+        rafaga = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        decoder = new ScaleFrameDecoder(128, g -> gramos += g);
+    }
+
+    @Benchmark
+    public int decodificarRafaga() {
+        decoder.feed(rafaga, 0, rafaga.length);
+        return gramos;
+    }
+
+    /** La misma ráfaga entregada de a 7 bytes, como lecturas parciales del driver. */
+    @Benchmark
+    public int decodificarFragmentada() {
+        for (int off = 0; off < rafaga.length; off += 7) {
+            decoder.feed(rafaga, off, Math.min(7, rafaga.length - off));
+        }
+        return gramos;
+    }
+}
@@ -0,0 +1,52 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ruta completa de recepción de ScaleService sin puerto serie: decodificación de la trama,
+ * buffer de muestras y detector de estabilidad. Vive en el paquete de ScaleService para
+ * usar onBytes (package-private).
+ *
+ * Con -prof gc, gc.alloc.rate.norm debe quedar en ~0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaleParseBenchmark {
+
+    private ScaleService scale;
+    private final byte[] tramaStxEtx = "\u0002ST,GS,+  1.235kg\u0003".getBytes(StandardCharsets.US_ASCII);
+    private final byte[] tramaLinea = "ST,GS,+  1,235 kg\r\n".getBytes(StandardCharsets.US_ASCII);
+    // trama partida en dos lecturas, como suele entregarla el driver serie
+    private final byte[] fragmentada = "\u0002ST,GS,+  1.235kg\u0003".getBytes(StandardCharsets.US_ASCII);
+
+    @Setup
+    public void setup() {
+        scale = new ScaleService();
+    }
+
+    @Benchmark
+    public double framingStxEtx() {
+        scale.onBytes(tramaStxEtx, 0, tramaStxEtx.length);
+        return scale.getLastWeightKg();
+    }
+
+    @Benchmark
+    public double framingLinea() {
+        scale.onBytes(tramaLinea, 0, tramaLinea.length);
+        return scale.getLastWeightKg();
+    }
+
+    @Benchmark
+    public double framingFragmentado() {
+        scale.onBytes(fragmentada, 0, 12);
+        scale.onBytes(fragmentada, 12, fragmentada.length - 12);
+        return scale.getLastWeightKg();
+    }
+}
@@ -1,5 +1,10 @@
 package com.miempresa.fruver.domain.exceptions;
 
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
 /**
  * Excepción para errores de acceso a datos (persistencia).
  */
@@ -10,4 +15,22 @@ public class DataAccessException extends DomainException {
     public DataAccessException(String message, Throwable cause) {
         super(message, cause);
     }
-}
\ No newline at end of file
+
+    /**
+     * true si el error es pasajero y reintentar más tarde puede funcionar: BD caída o red
+     * (SQLRecoverableException, errores de conexión, SQLSTATE 08xxx), timeout del pool al pedir conexión
+     * (SQLTransientConnectionException) u otros SQLTransientException (deadlock, timeout).
+     * false para errores de datos o restricciones, que fallarán igual al reintentar.
+     */
+    public boolean isTransient() {
+        for (Throwable t = getCause(); t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof SQLTransientException || t instanceof SQLRecoverableException
+                    || t instanceof SQLNonTransientConnectionException) return true;
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("08")) return true;
+            }
+        }
+        return false;
+    }
+}
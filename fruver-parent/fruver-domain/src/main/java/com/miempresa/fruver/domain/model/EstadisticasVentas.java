@@ -0,0 +1,94 @@
+package com.miempresa.fruver.domain.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Resultado agregado de ventas en un rango de fechas.
+ * Todos los valores se calculan en la BD (GROUP BY); aquí sólo viajan totales.
+ */
+public class EstadisticasVentas {
+    private final LocalDate desde;
+    private final LocalDate hasta;
+    private final BigDecimal ingresos;
+    private final long tickets;
+    private final BigDecimal ticketPromedio;
+    private final BigDecimal unidadesVendidas;
+    private final BigDecimal kilosVendidos;
+    private final List<ProductoVendido> topPorIngreso;
+    private final List<ProductoVendido> topPorCantidad;
+    private final List<TotalCajero> porCajero;
+
+    public EstadisticasVentas(LocalDate desde, LocalDate hasta,
+                              BigDecimal ingresos, long tickets, BigDecimal ticketPromedio,
+                              BigDecimal unidadesVendidas, BigDecimal kilosVendidos,
+                              List<ProductoVendido> topPorIngreso, List<ProductoVendido> topPorCantidad,
+                              List<TotalCajero> porCajero) {
+        this.desde = desde;
+        this.hasta = hasta;
+        this.ingresos = ingresos;
+        this.tickets = tickets;
+        this.ticketPromedio = ticketPromedio;
+        this.unidadesVendidas = unidadesVendidas;
+        this.kilosVendidos = kilosVendidos;
+        this.topPorIngreso = List.copyOf(topPorIngreso);
+        this.topPorCantidad = List.copyOf(topPorCantidad);
+        this.porCajero = List.copyOf(porCajero);
+    }
+
+    public LocalDate getDesde() { return desde; }
+    public LocalDate getHasta() { return hasta; }
+    public BigDecimal getIngresos() { return ingresos; }
+    public long getTickets() { return tickets; }
+    public BigDecimal getTicketPromedio() { return ticketPromedio; }
+    public BigDecimal getUnidadesVendidas() { return unidadesVendidas; }
+    public BigDecimal getKilosVendidos() { return kilosVendidos; }
+    public List<ProductoVendido> getTopPorIngreso() { return topPorIngreso; }
+    public List<ProductoVendido> getTopPorCantidad() { return topPorCantidad; }
+    public List<TotalCajero> getPorCajero() { return porCajero; }
+
+    /** Total vendido de un producto en el rango. */
+    public static class ProductoVendido {
+        private final Integer productoId;
+        private final String nombre;
+        private final Producto.TipoProducto tipo;
+        private final BigDecimal cantidad;
+        private final BigDecimal ingresos;
+
+        public ProductoVendido(Integer productoId, String nombre, Producto.TipoProducto tipo,
+                               BigDecimal cantidad, BigDecimal ingresos) {
+            this.productoId = productoId;
+            this.nombre = nombre;
+            this.tipo = tipo;
+            this.cantidad = cantidad;
+            this.ingresos = ingresos;
+        }
+
+        public Integer getProductoId() { return productoId; }
+        public String getNombre() { return nombre; }
+        public Producto.TipoProducto getTipo() { return tipo; }
+        public BigDecimal getCantidad() { return cantidad; }
+        public BigDecimal getIngresos() { return ingresos; }
+    }
+
+    /** Totales de un cajero en el rango. */
+    public static class TotalCajero {
+        private final Integer cajeroId;
+        private final String nombre;
+        private final long tickets;
+        private final BigDecimal ingresos;
+
+        public TotalCajero(Integer cajeroId, String nombre, long tickets, BigDecimal ingresos) {
+            this.cajeroId = cajeroId;
+            this.nombre = nombre;
+            this.tickets = tickets;
+            this.ingresos = ingresos;
+        }
+
+        public Integer getCajeroId() { return cajeroId; }
+        public String getNombre() { return nombre; }
+        public long getTickets() { return tickets; }
+        public BigDecimal getIngresos() { return ingresos; }
+    }
+}
@@ -15,12 +15,21 @@ public class VentaItem {
 
     public VentaItem(Integer itemId, Integer ventaId, Integer productoId,
                      BigDecimal cantidad, BigDecimal precioUnit) {
+        this(itemId, ventaId, productoId, cantidad, precioUnit, precioUnit.multiply(cantidad));
+    }
+
+    /**
+     * Ítem con importe fijo que no sale de cantidad × precio (p. ej. el precio impreso en una
+     * etiqueta de medida variable, donde la cantidad es sólo una aproximación redondeada).
+     */
+    public VentaItem(Integer itemId, Integer ventaId, Integer productoId,
+                     BigDecimal cantidad, BigDecimal precioUnit, BigDecimal subtotal) {
         this.itemId = itemId;
         this.ventaId = ventaId;
         this.productoId = productoId;
         this.cantidad = cantidad;
         this.precioUnit = precioUnit;
-        this.subtotal = precioUnit.multiply(cantidad);
+        this.subtotal = subtotal;
     }
 
     public Integer getItemId() { return itemId; }
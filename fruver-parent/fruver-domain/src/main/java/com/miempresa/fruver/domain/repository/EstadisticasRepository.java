@@ -0,0 +1,14 @@
+package com.miempresa.fruver.domain.repository;
+
+import com.miempresa.fruver.domain.model.EstadisticasVentas;
+
+import java.time.LocalDate;
+
+public interface EstadisticasRepository {
+    /**
+     * Calcula los agregados de ventas del rango [from, to] (días completos).
+     *
+     * @param topN número máximo de productos en cada ranking
+     */
+    EstadisticasVentas obtener(LocalDate from, LocalDate to, int topN);
+}
@@ -3,6 +3,7 @@ package com.miempresa.fruver.domain.repository;
 
 import com.miempresa.fruver.domain.model.Producto;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.math.BigDecimal;
 
@@ -12,6 +13,12 @@ public interface ProductoRepository {
     Optional<Producto> findById(Integer id); // nuevo
     List<Producto> findAll();
     void updateStock(Integer productoId, BigDecimal newStock);
+    /**
+     * Descuenta stock de forma atómica y relativa (stock_actual = stock_actual - cantidad)
+     * sólo si alcanza para todos los productos. Si alguno no alcanza no se aplica ningún
+     * descuento y se devuelven los ids sin stock suficiente (lista vacía = aplicado).
+     */
+    List<Integer> decrementStock(Map<Integer, BigDecimal> cantidadesPorProducto);
     Producto update(Producto p); // nuevo: actualiza y devuelve entidad actualizada
     void delete(Integer productoId); // nuevo
 }
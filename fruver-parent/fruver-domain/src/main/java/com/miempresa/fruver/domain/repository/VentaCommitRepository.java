@@ -0,0 +1,37 @@
+package com.miempresa.fruver.domain.repository;
+
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+
+import java.util.List;
+
+/**
+ * Unidad de trabajo para confirmar una venta completa:
+ * cabecera VENTA, líneas VENTA_ITEM y descuento de stock en una sola transacción.
+ */
+public interface VentaCommitRepository {
+    /**
+     * Persiste la venta y sus ítems de forma atómica.
+     * Lanza InvalidOperationException si algún producto no tiene stock suficiente
+     * (en ese caso no se persiste nada).
+     *
+     * @param claveVenta clave única de la venta (nullable). Si ya se confirmó una venta con
+     *                   esa clave no se vuelve a insertar y se devuelve la existente.
+     * @return la venta con id generado y totales
+     */
+    Venta commit(Venta venta, List<VentaItem> items, String claveVenta);
+
+    default Venta commit(Venta venta, List<VentaItem> items) {
+        return commit(venta, items, null);
+    }
+
+    /**
+     * Confirma una venta que ya se cobró en caja sin BD (réplica del diario local). No se
+     * puede rechazar por stock: el descuento es incondicional y el stock puede quedar
+     * negativo. Las implementaciones que validan stock en commit(...) deben sobrescribirlo;
+     * por defecto equivale a commit(...).
+     */
+    default Venta commitCobrada(Venta venta, List<VentaItem> items, String claveVenta) {
+        return commit(venta, items, claveVenta);
+    }
+}
@@ -0,0 +1,28 @@
+package com.miempresa.fruver.domain.repository;
+
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+
+import java.util.List;
+
+/**
+ * Diario local (durable) de ventas: cada venta se anota aquí antes de ir a la BD,
+ * de modo que una caída de la BD no pierde ventas ya cobradas.
+ */
+public interface VentaJournal {
+    /**
+     * Anota la venta de forma durable (fsync) y devuelve su clave única. La venta queda
+     * reservada para quien la anotó (la sincronización en segundo plano no la toma) hasta
+     * markDone o release.
+     */
+    String append(Venta venta, List<VentaItem> items);
+
+    /** Marca la venta como confirmada en BD (o descartada); deja de estar pendiente. */
+    void markDone(String claveVenta);
+
+    /** Libera la reserva: la venta sigue pendiente y la sincroniza el proceso en segundo plano. */
+    void release(String claveVenta);
+
+    /** Número de ventas anotadas aún no confirmadas en BD. */
+    int pendingCount();
+}
@@ -3,11 +3,25 @@ package com.miempresa.fruver.domain.repository;
 import com.miempresa.fruver.domain.model.Venta;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VentaRepository {
     Venta save(Venta v);
     Optional<Venta> findById(Integer id);
     List<Venta> findByDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Recorre las ventas del rango (ordenadas por fecha, venta_id) sin cargarlas todas en memoria.
+     * El Stream mantiene abierta una conexión: debe cerrarse (try-with-resources).
+     */
+    Stream<Venta> streamByDateRange(LocalDate from, LocalDate to);
+
+    /**
+     * Paginación por clave (fecha, venta_id): devuelve hasta {@code limit} ventas del rango
+     * posteriores a la última vista. Para la primera página, afterFecha/afterId en null.
+     */
+    List<Venta> findPageAfter(LocalDate from, LocalDate to, LocalDateTime afterFecha, Integer afterId, int limit);
 }
@@ -0,0 +1,252 @@
+package com.miempresa.fruver.infra.cache;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.repository.ProductoRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorador de ProductoRepository que mantiene el catálogo completo en memoria.
+ * - Índices O(1) por producto_id y por código (normalizado a mayúsculas, como la collation de MySQL).
+ * - Las escrituras pasan primero al repositorio real y luego parchean sólo la entrada afectada.
+ * - Cada refreshInterval se recarga el catálogo completo para ver cambios hechos desde otras cajas.
+ * - Si la recarga falla (BD caída) se sigue sirviendo el último catálogo y se reintenta
+ *   en el siguiente intervalo, para que la caja pueda seguir vendiendo.
+ * - Expone contadores de aciertos/fallos para diagnóstico.
+ */
+public class CachingProductoRepository implements ProductoRepository {
+
+    private final ProductoRepository delegate;
+    private final long refreshIntervalNanos;
+
+    private volatile Index index;
+    private final Object reloadLock = new Object();
+    // se incrementa en cada escritura; si cambia durante una recarga, el índice nuevo nace vencido
+    private final AtomicLong modCount = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong generations = new AtomicLong();
+
+    public CachingProductoRepository(ProductoRepository delegate, Duration refreshInterval) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate requerido");
+        this.refreshIntervalNanos = refreshInterval == null ? Long.MAX_VALUE : refreshInterval.toNanos();
+    }
+
+    /* ---------------------- Lecturas ---------------------- */
+
+    @Override
+    public Optional<Producto> findByCodigo(String codigo) {
+        if (codigo == null) return Optional.empty();
+        Producto p = current().byCodigo.get(key(codigo));
+        if (p != null) {
+            hits.incrementAndGet();
+            return Optional.of(p);
+        }
+        misses.incrementAndGet();
+        Optional<Producto> loaded = delegate.findByCodigo(codigo);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    @Override
+    public Optional<Producto> findById(Integer id) {
+        if (id == null) return Optional.empty();
+        Producto p = current().byId.get(id);
+        if (p != null) {
+            hits.incrementAndGet();
+            return Optional.of(p);
+        }
+        misses.incrementAndGet();
+        Optional<Producto> loaded = delegate.findById(id);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    @Override
+    public List<Producto> findAll() {
+        Index idx = current();
+        List<Producto> all = idx.all;
+        if (all == null) {
+            long mods = modCount.get();
+            List<Producto> sorted = new ArrayList<>(idx.byId.values());
+            sorted.sort(Comparator.comparing(Producto::getProductoId));
+            all = Collections.unmodifiableList(sorted);
+            if (modCount.get() == mods) idx.all = all;
+        }
+        hits.incrementAndGet();
+        return new ArrayList<>(all);
+    }
+
+    /* ---------------------- Escrituras (write-through + parche) ---------------------- */
+
+    @Override
+    public Producto save(Producto p) {
+        Producto saved = delegate.save(p);
+        put(saved);
+        return saved;
+    }
+
+    @Override
+    public Producto update(Producto p) {
+        Producto updated = delegate.update(p);
+        Index idx = current();
+        Producto old = idx.byId.get(updated.getProductoId());
+        if (old != null && !key(old.getCodigo()).equals(key(updated.getCodigo()))) {
+            idx.byCodigo.remove(key(old.getCodigo()));
+        }
+        put(updated);
+        return updated;
+    }
+
+    @Override
+    public void delete(Integer productoId) {
+        delegate.delete(productoId);
+        modCount.incrementAndGet();
+        Index idx = current();
+        Producto removed = idx.byId.remove(productoId);
+        if (removed != null) idx.byCodigo.remove(key(removed.getCodigo()));
+        idx.all = null;
+    }
+
+    @Override
+    public void updateStock(Integer productoId, BigDecimal newStock) {
+        delegate.updateStock(productoId, newStock);
+        modCount.incrementAndGet();
+        patchStock(current(), productoId, stock -> newStock);
+    }
+
+    @Override
+    public List<Integer> decrementStock(Map<Integer, BigDecimal> cantidadesPorProducto) {
+        long token = beginStockWrite();
+        List<Integer> sinStock = delegate.decrementStock(cantidadesPorProducto);
+        if (sinStock.isEmpty()) applyStockDecrement(cantidadesPorProducto, token);
+        return sinStock;
+    }
+
+    /**
+     * Se llama antes de descontar stock en BD por otra vía (p. ej. la unidad de trabajo de
+     * venta); el valor devuelto se pasa luego a applyStockDecrement.
+     */
+    public long beginStockWrite() {
+        modCount.incrementAndGet();
+        Index idx = index;
+        return idx == null ? -1 : idx.generation;
+    }
+
+    /**
+     * Refleja en memoria un descuento de stock ya confirmado en BD, sin recargar el catálogo.
+     * El descuento es relativo, así que sólo se aplica sobre el mismo índice que había en
+     * beginStockWrite: si entretanto se instaló una recarga, puede que ya lo incluya, y en
+     * lugar de restar otra vez se fuerza una recarga.
+     */
+    public void applyStockDecrement(Map<Integer, BigDecimal> cantidadesPorProducto, long token) {
+        modCount.incrementAndGet();
+        Index idx = index;
+        if (idx == null) return;
+        if (idx.generation != token) {
+            idx.stale = true;
+            return;
+        }
+        for (Map.Entry<Integer, BigDecimal> e : cantidadesPorProducto.entrySet()) {
+            BigDecimal qty = e.getValue();
+            patchStock(idx, e.getKey(), stock -> stock.subtract(qty));
+        }
+    }
+
+    /* ---------------------- Control / métricas ---------------------- */
+
+    /** Fuerza recarga completa en la próxima lectura (p. ej. tras una venta que descontó stock por otra vía). */
+    public void invalidate() {
+        modCount.incrementAndGet();
+        Index idx = index;
+        if (idx != null) idx.stale = true;
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getReloadCount() { return reloads.get(); }
+    public int size() { Index idx = index; return idx == null ? 0 : idx.byId.size(); }
+
+    /* ---------------------- Internos ---------------------- */
+
+    private Index current() {
+        Index idx = index;
+        if (isFresh(idx)) return idx;
+        synchronized (reloadLock) {
+            idx = index;
+            if (isFresh(idx)) return idx;
+            long modsBefore = modCount.get();
+            Index fresh = new Index(generations.incrementAndGet());
+            List<Producto> loaded;
+            try {
+                loaded = delegate.findAll();
+            } catch (RuntimeException ex) {
+                if (idx == null) throw ex;
+                System.err.println("[CachingProductoRepository] Recarga fallida, se usa el catálogo en memoria: " + ex.getMessage());
+                idx.loadedAtNanos = System.nanoTime();
+                idx.stale = false;
+                return idx;
+            }
+            for (Producto p : loaded) {
+                fresh.byId.put(p.getProductoId(), p);
+                fresh.byCodigo.put(key(p.getCodigo()), p);
+            }
+            fresh.loadedAtNanos = System.nanoTime();
+            fresh.stale = modCount.get() != modsBefore;
+            index = fresh;
+            reloads.incrementAndGet();
+            return fresh;
+        }
+    }
+
+    private boolean isFresh(Index idx) {
+        return idx != null && !idx.stale && System.nanoTime() - idx.loadedAtNanos < refreshIntervalNanos;
+    }
+
+    private void put(Producto p) {
+        if (p == null || p.getProductoId() == null) return;
+        modCount.incrementAndGet();
+        Index idx = current();
+        idx.byId.put(p.getProductoId(), p);
+        idx.byCodigo.put(key(p.getCodigo()), p);
+        idx.all = null;
+    }
+
+    /**
+     * Aplica stockFn sobre la entrada de idx de forma atómica (computeIfPresent serializa por
+     * producto), para que dos ventas concurrentes no pisen el descuento de la otra.
+     */
+    private static void patchStock(Index idx, Integer productoId, UnaryOperator<BigDecimal> stockFn) {
+        Producto updated = idx.byId.computeIfPresent(productoId, (id, p) -> {
+            Producto np = new Producto(p.getProductoId(), p.getCodigo(), p.getNombre(), p.getPrecioUnitario(),
+                    p.getTipo(), stockFn.apply(p.getStockActual()), p.getStockUmbral(), p.getImagenPath());
+            idx.byCodigo.put(key(np.getCodigo()), np);
+            return np;
+        });
+        if (updated != null) idx.all = null;
+    }
+
+    private static String key(String codigo) {
+        return codigo == null ? "" : codigo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Index {
+        final long generation;
+        final Map<Integer, Producto> byId = new ConcurrentHashMap<>();
+        final Map<String, Producto> byCodigo = new ConcurrentHashMap<>();
+        volatile List<Producto> all;
+        volatile long loadedAtNanos;
+        volatile boolean stale;
+
+        Index(long generation) {
+            this.generation = generation;
+        }
+    }
+}
@@ -4,24 +4,160 @@ import javax.sql.DataSource;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Properties;
+
 /**
  * Fabrica de DataSource usando HikariCP.
+ * La configuración (URL, credenciales, tamaño del pool, timeouts, detección de fugas y
+ * propiedades del driver) se lee de fruver-db.properties; ver ese archivo para el orden
+ * de precedencia (classpath, archivo externo, variables de entorno, -Dfruver.*).
+ *
+ * db.backend=embedded usa un archivo H2 local en modo MySQL (embedded.path) en lugar
+ * del servidor MySQL; el esquema lo crea EmbeddedSchema al arrancar.
  */
 public class DataSourceFactory {
+    private static final String DEFAULTS_RESOURCE = "/fruver-db.properties";
+    private static final String EXTERNAL_FILE = "fruver-db.properties";
+    private static final String ENV_PREFIX = "FRUVER_";
+    private static final String SYS_PREFIX = "fruver.";
+
+    private static final String H2_FILE_SUFFIX = ".mv.db";
+
     private static HikariDataSource ds;
+    private static Properties props;
+    private static final PoolMetrics metrics = new PoolMetrics();
 
-    public static DataSource getDataSource() {
+    public static synchronized DataSource getDataSource() {
         if (ds == null) {
-            HikariConfig cfg = new HikariConfig();
-            cfg.setJdbcUrl("jdbc:mysql://localhost:3306/fruver?serverTimezone=America/Bogota");
-            cfg.setDriverClassName("com.mysql.cj.jdbc.Driver");
-            cfg.setUsername("root");
-            cfg.setPassword("12345");
-            cfg.addDataSourceProperty("cachePrepStmts", "true");
-            cfg.addDataSourceProperty("prepStmtCacheSize", "250");
-            cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            ds = new HikariDataSource(cfg);
+            ds = new HikariDataSource(buildConfig(config()));
         }
         return ds;
     }
-}
\ No newline at end of file
+
+    /** true si se configuró el backend embebido (db.backend=embedded). */
+    public static synchronized boolean isEmbedded() {
+        return "embedded".equalsIgnoreCase(config().getProperty("db.backend", "mysql").trim());
+    }
+
+    /** Archivo de datos del backend embebido. */
+    public static synchronized Path getEmbeddedDbFile() {
+        return embeddedBasePath(config()).resolveSibling(embeddedBasePath(config()).getFileName() + H2_FILE_SUFFIX);
+    }
+
+    private static Properties config() {
+        if (props == null) props = loadProperties();
+        return props;
+    }
+
+    private static Path embeddedBasePath(Properties p) {
+        return Paths.get(p.getProperty("embedded.path", "data/fruver").trim()).toAbsolutePath();
+    }
+
+    /** Métricas del pool (vacío si aún no se creó el DataSource). */
+    public static synchronized Optional<PoolMetrics.Snapshot> getPoolMetrics() {
+        if (ds == null) return Optional.empty();
+        return Optional.of(metrics.snapshot(ds.getHikariPoolMXBean(), ds.getMaximumPoolSize()));
+    }
+
+    static HikariConfig buildConfig(Properties p) {
+        HikariConfig cfg = new HikariConfig();
+        boolean embedded = "embedded".equalsIgnoreCase(p.getProperty("db.backend", "mysql").trim());
+        if (embedded) {
+            cfg.setJdbcUrl("jdbc:h2:file:" + embeddedBasePath(p) + ";MODE=MySQL");
+            cfg.setDriverClassName("org.h2.Driver");
+            cfg.setUsername(p.getProperty("embedded.username", "sa"));
+            cfg.setPassword(p.getProperty("embedded.password", ""));
+        } else {
+            cfg.setJdbcUrl(p.getProperty("db.url"));
+            cfg.setDriverClassName(p.getProperty("db.driver"));
+            cfg.setUsername(p.getProperty("db.username"));
+            cfg.setPassword(p.getProperty("db.password"));
+        }
+
+        cfg.setPoolName(p.getProperty("pool.name", "fruver-pool"));
+        cfg.setMaximumPoolSize(intProp(p, "pool.maximumPoolSize", 10));
+        cfg.setMinimumIdle(intProp(p, "pool.minimumIdle", cfg.getMaximumPoolSize()));
+        cfg.setConnectionTimeout(longProp(p, "pool.connectionTimeoutMs", 30_000L));
+        cfg.setIdleTimeout(longProp(p, "pool.idleTimeoutMs", 600_000L));
+        cfg.setMaxLifetime(longProp(p, "pool.maxLifetimeMs", 1_800_000L));
+        cfg.setLeakDetectionThreshold(longProp(p, "pool.leakDetectionThresholdMs", 0L));
+        cfg.setMetricsTrackerFactory(metrics);
+
+        for (String key : p.stringPropertyNames()) {
+            if (!embedded && key.startsWith("ds.")) {
+                cfg.addDataSourceProperty(key.substring(3), p.getProperty(key));
+            }
+        }
+        return cfg;
+    }
+
+    /** Defaults del classpath, luego archivo externo, luego entorno, luego propiedades de sistema. */
+    static Properties loadProperties() {
+        Properties p = new Properties();
+        try (InputStream in = DataSourceFactory.class.getResourceAsStream(DEFAULTS_RESOURCE)) {
+            if (in != null) p.load(in);
+        } catch (IOException ex) {
+            System.err.println("[DataSourceFactory] No se pudo leer " + DEFAULTS_RESOURCE + ": " + ex.getMessage());
+        }
+
+        Path external = externalConfigPath();
+        if (external != null && Files.isRegularFile(external)) {
+            try (InputStream in = Files.newInputStream(external)) {
+                p.load(in);
+                System.out.println("[DataSourceFactory] Configuración de BD cargada de " + external.toAbsolutePath());
+            } catch (IOException ex) {
+                System.err.println("[DataSourceFactory] No se pudo leer " + external + ": " + ex.getMessage());
+            }
+        }
+
+        for (String key : p.stringPropertyNames()) {
+            String env = System.getenv(ENV_PREFIX + key.toUpperCase(Locale.ROOT).replace('.', '_'));
+            if (env != null && !env.isBlank()) p.setProperty(key, env);
+            String sys = System.getProperty(SYS_PREFIX + key);
+            if (sys != null && !sys.isBlank()) p.setProperty(key, sys);
+        }
+        // propiedades de driver extra sólo por -Dfruver.ds.<nombre>
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SYS_PREFIX + "ds.")) {
+                p.setProperty(name.substring(SYS_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return p;
+    }
+
+    private static Path externalConfigPath() {
+        String path = System.getProperty(SYS_PREFIX + "db.config");
+        if (path == null || path.isBlank()) path = System.getenv(ENV_PREFIX + "DB_CONFIG");
+        if (path != null && !path.isBlank()) return Paths.get(path.trim());
+        return Paths.get(EXTERNAL_FILE);
+    }
+
+    private static int intProp(Properties p, String key, int def) {
+        String v = p.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("[DataSourceFactory] Valor inválido para " + key + ": " + v + " (se usa " + def + ")");
+            return def;
+        }
+    }
+
+    private static long longProp(Properties p, String key, long def) {
+        String v = p.getProperty(key);
+        if (v == null || v.isBlank()) return def;
+        try {
+            return Long.parseLong(v.trim());
+        } catch (NumberFormatException ex) {
+            System.err.println("[DataSourceFactory] Valor inválido para " + key + ": " + v + " (se usa " + def + ")");
+            return def;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.miempresa.fruver.infra.config;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas del pool de conexiones.
+ * - Hikari informa el tiempo de adquisición de cada conexión; se guardan las últimas
+ *   SAMPLE_SIZE muestras en un buffer circular para calcular percentiles.
+ * - Los contadores instantáneos (activas, ociosas, hilos en espera) salen del MXBean del pool.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private static final int SAMPLE_SIZE = 2048;
+
+    private final long[] acquireNanos = new long[SAMPLE_SIZE];
+    private long written; // total de muestras escritas (protegido por this)
+    private final AtomicLong timeouts = new AtomicLong();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.incrementAndGet();
+            }
+        };
+    }
+
+    private synchronized void record(long nanos) {
+        acquireNanos[(int) (written % SAMPLE_SIZE)] = nanos;
+        written++;
+    }
+
+    /** Toma una foto de las métricas; mxBean puede ser null si el pool aún no arrancó. */
+    public Snapshot snapshot(HikariPoolMXBean mxBean, int maxPoolSize) {
+        long[] copy;
+        long total;
+        synchronized (this) {
+            total = written;
+            int n = (int) Math.min(total, SAMPLE_SIZE);
+            copy = Arrays.copyOf(acquireNanos, n);
+        }
+        Arrays.sort(copy);
+        return new Snapshot(
+                mxBean == null ? 0 : mxBean.getActiveConnections(),
+                mxBean == null ? 0 : mxBean.getIdleConnections(),
+                mxBean == null ? 0 : mxBean.getTotalConnections(),
+                mxBean == null ? 0 : mxBean.getThreadsAwaitingConnection(),
+                maxPoolSize,
+                percentileMillis(copy, 0.50),
+                percentileMillis(copy, 0.95),
+                percentileMillis(copy, 0.99),
+                copy.length == 0 ? 0.0 : copy[copy.length - 1] / 1_000_000.0,
+                total,
+                timeouts.get());
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    /** Foto inmutable del estado del pool. Tiempos en milisegundos. */
+    public static final class Snapshot {
+        public final int active;
+        public final int idle;
+        public final int total;
+        public final int pending;
+        public final int maxPoolSize;
+        public final double acquireP50Ms;
+        public final double acquireP95Ms;
+        public final double acquireP99Ms;
+        public final double acquireMaxMs;
+        public final long acquireCount;
+        public final long timeouts;
+
+        Snapshot(int active, int idle, int total, int pending, int maxPoolSize,
+                 double acquireP50Ms, double acquireP95Ms, double acquireP99Ms, double acquireMaxMs,
+                 long acquireCount, long timeouts) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.pending = pending;
+            this.maxPoolSize = maxPoolSize;
+            this.acquireP50Ms = acquireP50Ms;
+            this.acquireP95Ms = acquireP95Ms;
+            this.acquireP99Ms = acquireP99Ms;
+            this.acquireMaxMs = acquireMaxMs;
+            this.acquireCount = acquireCount;
+            this.timeouts = timeouts;
+        }
+    }
+}
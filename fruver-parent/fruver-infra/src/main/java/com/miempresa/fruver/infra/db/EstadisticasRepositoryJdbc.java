@@ -0,0 +1,154 @@
+package com.miempresa.fruver.infra.db;
+
+import com.miempresa.fruver.domain.model.EstadisticasVentas;
+import com.miempresa.fruver.domain.model.EstadisticasVentas.ProductoVendido;
+import com.miempresa.fruver.domain.model.EstadisticasVentas.TotalCajero;
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.repository.EstadisticasRepository;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Estadísticas de ventas calculadas en MySQL.
+ * - Modo directo: GROUP BY sobre VENTA / VENTA_ITEM.
+ * - Modo resumen: GROUP BY sobre las tablas VENTA_RESUMEN_* (ver VentaResumenJdbc),
+ *   cuyo tamaño depende de días x productos y no del número de ventas.
+ * Sólo viajan filas agregadas; todas las consultas usan la misma conexión.
+ */
+public class EstadisticasRepositoryJdbc implements EstadisticasRepository {
+    private static final String SQL_TOTALES =
+            "SELECT COUNT(*) AS tickets, COALESCE(SUM(total), 0) AS ingresos "
+                    + "FROM VENTA WHERE fecha BETWEEN ? AND ?";
+    private static final String SQL_CANTIDAD_POR_TIPO =
+            "SELECT p.tipo, COALESCE(SUM(vi.cantidad), 0) AS cantidad "
+                    + "FROM VENTA_ITEM vi "
+                    + "JOIN VENTA v ON v.venta_id = vi.venta_id "
+                    + "JOIN PRODUCTO p ON p.producto_id = vi.producto_id "
+                    + "WHERE v.fecha BETWEEN ? AND ? GROUP BY p.tipo";
+    private static final String SQL_TOP_PRODUCTOS =
+            "SELECT vi.producto_id, p.nombre, p.tipo, SUM(vi.cantidad) AS cantidad, SUM(vi.subtotal) AS ingresos "
+                    + "FROM VENTA_ITEM vi "
+                    + "JOIN VENTA v ON v.venta_id = vi.venta_id "
+                    + "JOIN PRODUCTO p ON p.producto_id = vi.producto_id "
+                    + "WHERE v.fecha BETWEEN ? AND ? "
+                    + "GROUP BY vi.producto_id, p.nombre, p.tipo "
+                    + "ORDER BY %s DESC, vi.producto_id LIMIT ?";
+    private static final String SQL_POR_CAJERO =
+            "SELECT v.cajero_id, u.nombre, COUNT(*) AS tickets, COALESCE(SUM(v.total), 0) AS ingresos "
+                    + "FROM VENTA v LEFT JOIN USUARIO u ON u.usuario_id = v.cajero_id "
+                    + "WHERE v.fecha BETWEEN ? AND ? "
+                    + "GROUP BY v.cajero_id, u.nombre ORDER BY ingresos DESC";
+
+    private static final String SQL_TOTALES_RESUMEN =
+            "SELECT COALESCE(SUM(tickets), 0) AS tickets, COALESCE(SUM(ingresos), 0) AS ingresos "
+                    + "FROM VENTA_RESUMEN_HORA WHERE fecha BETWEEN ? AND ?";
+    private static final String SQL_CANTIDAD_POR_TIPO_RESUMEN =
+            "SELECT p.tipo, COALESCE(SUM(r.cantidad), 0) AS cantidad "
+                    + "FROM VENTA_RESUMEN_PRODUCTO r JOIN PRODUCTO p ON p.producto_id = r.producto_id "
+                    + "WHERE r.fecha BETWEEN ? AND ? GROUP BY p.tipo";
+    private static final String SQL_TOP_PRODUCTOS_RESUMEN =
+            "SELECT r.producto_id, p.nombre, p.tipo, SUM(r.cantidad) AS cantidad, SUM(r.ingresos) AS ingresos "
+                    + "FROM VENTA_RESUMEN_PRODUCTO r JOIN PRODUCTO p ON p.producto_id = r.producto_id "
+                    + "WHERE r.fecha BETWEEN ? AND ? "
+                    + "GROUP BY r.producto_id, p.nombre, p.tipo "
+                    + "ORDER BY %s DESC, r.producto_id LIMIT ?";
+    private static final String SQL_POR_CAJERO_RESUMEN =
+            "SELECT NULLIF(r.cajero_id, " + VentaResumenJdbc.SIN_CAJERO + ") AS cajero_id, u.nombre, "
+                    + "SUM(r.tickets) AS tickets, SUM(r.ingresos) AS ingresos "
+                    + "FROM VENTA_RESUMEN_CAJERO r LEFT JOIN USUARIO u ON u.usuario_id = r.cajero_id "
+                    + "WHERE r.fecha BETWEEN ? AND ? "
+                    + "GROUP BY r.cajero_id, u.nombre ORDER BY ingresos DESC";
+
+    private final DataSource ds;
+    private final boolean usarResumen;
+
+    public EstadisticasRepositoryJdbc(DataSource ds) { this(ds, false); }
+
+    public EstadisticasRepositoryJdbc(DataSource ds, boolean usarResumen) {
+        this.ds = ds;
+        this.usarResumen = usarResumen;
+    }
+
+    @Override
+    public EstadisticasVentas obtener(LocalDate from, LocalDate to, int topN) {
+        // las tablas de resumen están indexadas por DATE; VENTA por DATETIME
+        Object desde = usarResumen ? java.sql.Date.valueOf(from) : Timestamp.valueOf(from.atStartOfDay());
+        Object hasta = usarResumen ? java.sql.Date.valueOf(to) : Timestamp.valueOf(to.atTime(23, 59, 59));
+        try (Connection c = ds.getConnection()) {
+            long tickets = 0;
+            BigDecimal ingresos = BigDecimal.ZERO;
+            try (PreparedStatement ps = rango(c, usarResumen ? SQL_TOTALES_RESUMEN : SQL_TOTALES, desde, hasta);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    tickets = rs.getLong("tickets");
+                    ingresos = rs.getBigDecimal("ingresos");
+                }
+            }
+
+            BigDecimal unidades = BigDecimal.ZERO;
+            BigDecimal kilos = BigDecimal.ZERO;
+            try (PreparedStatement ps = rango(c, usarResumen ? SQL_CANTIDAD_POR_TIPO_RESUMEN : SQL_CANTIDAD_POR_TIPO, desde, hasta);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    BigDecimal cant = rs.getBigDecimal("cantidad");
+                    if ("PESO".equalsIgnoreCase(rs.getString("tipo"))) kilos = kilos.add(cant);
+                    else unidades = unidades.add(cant);
+                }
+            }
+
+            List<ProductoVendido> topIngreso = topProductos(c, "ingresos", desde, hasta, topN);
+            List<ProductoVendido> topCantidad = topProductos(c, "cantidad", desde, hasta, topN);
+
+            List<TotalCajero> porCajero = new ArrayList<>();
+            try (PreparedStatement ps = rango(c, usarResumen ? SQL_POR_CAJERO_RESUMEN : SQL_POR_CAJERO, desde, hasta);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("cajero_id");
+                    Integer cajeroId = rs.wasNull() ? null : id;
+                    porCajero.add(new TotalCajero(cajeroId, rs.getString("nombre"),
+                            rs.getLong("tickets"), rs.getBigDecimal("ingresos")));
+                }
+            }
+
+            BigDecimal promedio = tickets == 0 ? BigDecimal.ZERO
+                    : ingresos.divide(BigDecimal.valueOf(tickets), 2, RoundingMode.HALF_UP);
+            return new EstadisticasVentas(from, to, ingresos, tickets, promedio,
+                    unidades, kilos, topIngreso, topCantidad, porCajero);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error calculando estadísticas de ventas", ex);
+        }
+    }
+
+    private List<ProductoVendido> topProductos(Connection c, String orden,
+                                               Object desde, Object hasta, int topN) throws SQLException {
+        List<ProductoVendido> list = new ArrayList<>();
+        if (topN <= 0) return list;
+        try (PreparedStatement ps = rango(c, String.format(usarResumen ? SQL_TOP_PRODUCTOS_RESUMEN : SQL_TOP_PRODUCTOS, orden), desde, hasta)) {
+            ps.setInt(3, topN);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new ProductoVendido(
+                            rs.getInt("producto_id"),
+                            rs.getString("nombre"),
+                            Producto.TipoProducto.valueOf(rs.getString("tipo").toUpperCase(Locale.ROOT)),
+                            rs.getBigDecimal("cantidad"),
+                            rs.getBigDecimal("ingresos")));
+                }
+            }
+        }
+        return list;
+    }
+
+    private static PreparedStatement rango(Connection c, String sql, Object desde, Object hasta) throws SQLException {
+        PreparedStatement ps = c.prepareStatement(sql);
+        ps.setObject(1, desde);
+        ps.setObject(2, hasta);
+        return ps;
+    }
+}
@@ -94,6 +94,84 @@ public class ProductoRepositoryJdbc implements ProductoRepository {
         }
     }
 
+    @Override
+    public List<Integer> decrementStock(Map<Integer, BigDecimal> cantidadesPorProducto) {
+        if (cantidadesPorProducto == null || cantidadesPorProducto.isEmpty()) return List.of();
+        try (Connection c = ds.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                List<Integer> sinStock = decrementStockBatch(c, cantidadesPorProducto);
+                if (sinStock.isEmpty()) c.commit();
+                else c.rollback();
+                return sinStock;
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error descontando stock", ex);
+        }
+    }
+
+    /**
+     * Ejecuta el descuento condicional como un único batch sobre la conexión dada
+     * (no hace commit; lo decide quien llama). Las filas se actualizan en orden de id
+     * para que dos cajas concurrentes bloqueen siempre en el mismo orden.
+     *
+     * @return ids de productos sin stock suficiente (o inexistentes)
+     */
+    static List<Integer> decrementStockBatch(Connection c, Map<Integer, BigDecimal> cantidadesPorProducto) throws SQLException {
+        String sql = "UPDATE PRODUCTO SET stock_actual = stock_actual - ? WHERE producto_id = ? AND stock_actual >= ?";
+        List<Integer> ids = new ArrayList<>(new TreeMap<>(cantidadesPorProducto).keySet());
+        int[] counts;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (Integer id : ids) {
+                BigDecimal qty = cantidadesPorProducto.get(id);
+                ps.setBigDecimal(1, qty);
+                ps.setInt(2, id);
+                ps.setBigDecimal(3, qty);
+                ps.addBatch();
+            }
+            counts = ps.executeBatch();
+        }
+        List<Integer> sinStock = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) sinStock.add(ids.get(i));
+        }
+        return sinStock;
+    }
+
+    /**
+     * Descuento incondicional en un único batch (puede dejar stock negativo), para ventas que
+     * ya se cobraron y no pueden rechazarse. Mismo orden de bloqueo que decrementStockBatch.
+     *
+     * @return ids de productos que quedaron con stock negativo
+     */
+    static List<Integer> forceDecrementStockBatch(Connection c, Map<Integer, BigDecimal> cantidadesPorProducto) throws SQLException {
+        String sql = "UPDATE PRODUCTO SET stock_actual = stock_actual - ? WHERE producto_id = ?";
+        List<Integer> ids = new ArrayList<>(new TreeMap<>(cantidadesPorProducto).keySet());
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+            for (Integer id : ids) {
+                ps.setBigDecimal(1, cantidadesPorProducto.get(id));
+                ps.setInt(2, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        List<Integer> negativos = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT stock_actual FROM PRODUCTO WHERE producto_id = ?")) {
+            for (Integer id : ids) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBigDecimal(1).signum() < 0) negativos.add(id);
+                }
+            }
+        }
+        return negativos;
+    }
+
     @Override
     public Producto update(Producto p) {
         String sql = "UPDATE PRODUCTO SET codigo = ?, nombre = ?, precio_unitario = ?, tipo = ?, stock_actual = ?, stock_umb = ?, imagen_path = ? WHERE producto_id = ?";
@@ -0,0 +1,210 @@
+package com.miempresa.fruver.infra.db;
+
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.repository.VentaCommitRepository;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.domain.exceptions.InvalidOperationException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Implementación JDBC de la unidad de trabajo de venta.
+ * Usa una sola conexión y una sola transacción:
+ *  1) INSERT de la cabecera VENTA (para obtener venta_id)
+ *  2) batch de INSERT en VENTA_ITEM
+ *  3) batch de UPDATE de stock (condicional, relativo; ver ProductoRepositoryJdbc;
+ *     incondicional en commitCobrada, para ventas ya cobradas sin BD)
+ *  4) actualización de las tablas de resumen (opcional; ver VentaResumenJdbc)
+ *  5) registro de la clave de venta en VENTA_CLAVE (si se informa; hace el commit idempotente)
+ *  6) commit (o rollback si algo falla)
+ */
+public class VentaCommitRepositoryJdbc implements VentaCommitRepository {
+    private static final String INSERT_VENTA =
+            "INSERT INTO VENTA(fecha, cajero_id, total, recibido, vuelto) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_ITEM =
+            "INSERT INTO VENTA_ITEM(venta_id, producto_id, cantidad, precio_unit, subtotal) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String DDL_CLAVE =
+            "CREATE TABLE IF NOT EXISTS VENTA_CLAVE ("
+                    + " clave CHAR(36) NOT NULL PRIMARY KEY,"
+                    + " venta_id INT NOT NULL)";
+    private static final String SELECT_CLAVE = "SELECT venta_id FROM VENTA_CLAVE WHERE clave = ?";
+    private static final String INSERT_CLAVE = "INSERT INTO VENTA_CLAVE(clave, venta_id) VALUES (?, ?)";
+
+    private final DataSource ds;
+    private final boolean mantenerResumen;
+
+    public VentaCommitRepositoryJdbc(DataSource ds) { this(ds, false); }
+
+    public VentaCommitRepositoryJdbc(DataSource ds, boolean mantenerResumen) {
+        this.ds = ds;
+        this.mantenerResumen = mantenerResumen;
+    }
+
+    /** Crea la tabla de claves de venta (necesaria para commit con clave). */
+    public static void ensureSchema(DataSource ds) {
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            st.execute(DDL_CLAVE);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error creando tabla VENTA_CLAVE", ex);
+        }
+    }
+
+    @Override
+    public Venta commit(Venta v, List<VentaItem> items, String claveVenta) {
+        return confirmar(v, items, claveVenta, false).getVenta();
+    }
+
+    @Override
+    public Venta commitCobrada(Venta v, List<VentaItem> items, String claveVenta) {
+        return confirmar(v, items, claveVenta, true).getVenta();
+    }
+
+    /**
+     * Como commit (o commitCobrada si cobrada), indicando además si esta llamada insertó la
+     * venta; false si la clave ya estaba confirmada y no se descontó stock.
+     */
+    public Resultado confirmar(Venta v, List<VentaItem> items, String claveVenta, boolean cobrada) {
+        if (items == null || items.isEmpty()) {
+            throw new InvalidOperationException("La venta no puede estar vacía");
+        }
+        try (Connection c = ds.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                if (claveVenta != null) {
+                    Integer existente = findVentaIdByClave(c, claveVenta);
+                    if (existente != null) {
+                        c.rollback();
+                        return new Resultado(withTotals(existente, v), false);
+                    }
+                }
+                int ventaId = insertVenta(c, v);
+                insertItems(c, ventaId, items);
+                decrementStock(c, items, cobrada);
+                if (mantenerResumen) {
+                    VentaResumenJdbc.aplicarVenta(c, v.getFecha(), v.getCajeroId(), v.getTotal(), items);
+                }
+                if (claveVenta != null) insertClave(c, claveVenta, ventaId);
+                c.commit();
+                return new Resultado(withTotals(ventaId, v), true);
+            } catch (SQLIntegrityConstraintViolationException dup) {
+                // otra caja/hilo confirmó la misma clave en paralelo
+                rollback(c, dup);
+                Integer existente = claveVenta == null ? null : findVentaIdByClave(c, claveVenta);
+                if (existente == null) throw dup;
+                return new Resultado(withTotals(existente, v), false);
+            } catch (SQLException | RuntimeException ex) {
+                rollback(c, ex);
+                throw ex;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error registrando venta", ex);
+        }
+    }
+
+    /** Venta confirmada y si la insertó esta llamada. */
+    public static final class Resultado {
+        private final Venta venta;
+        private final boolean insertada;
+
+        Resultado(Venta venta, boolean insertada) {
+            this.venta = venta;
+            this.insertada = insertada;
+        }
+
+        public Venta getVenta() { return venta; }
+        public boolean isInsertada() { return insertada; }
+    }
+
+    /** Rollback que no oculta el error original: si falla, queda como suprimido de éste. */
+    private static void rollback(Connection c, Throwable original) {
+        try {
+            c.rollback();
+        } catch (SQLException rbEx) {
+            original.addSuppressed(rbEx);
+        }
+    }
+
+    private static Venta withTotals(int ventaId, Venta v) {
+        Venta saved = new Venta(ventaId, v.getFecha(), v.getCajeroId());
+        saved.addItem(v.getTotal());
+        if (v.getRecibido().compareTo(BigDecimal.ZERO) > 0) saved.calcularVuelto(v.getRecibido());
+        return saved;
+    }
+
+    private Integer findVentaIdByClave(Connection c, String clave) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(SELECT_CLAVE)) {
+            ps.setString(1, clave);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    private void insertClave(Connection c, String clave, int ventaId) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(INSERT_CLAVE)) {
+            ps.setString(1, clave);
+            ps.setInt(2, ventaId);
+            ps.executeUpdate();
+        }
+    }
+
+    private int insertVenta(Connection c, Venta v) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(INSERT_VENTA, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setTimestamp(1, Timestamp.valueOf(v.getFecha()));
+            if (v.getCajeroId() == null) ps.setNull(2, Types.INTEGER);
+            else ps.setInt(2, v.getCajeroId());
+            ps.setBigDecimal(3, v.getTotal());
+            ps.setBigDecimal(4, v.getRecibido());
+            ps.setBigDecimal(5, v.getVuelto());
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) return rs.getInt(1);
+            }
+        }
+        throw new DataAccessException("No se obtuvo venta_id generado");
+    }
+
+    private void insertItems(Connection c, int ventaId, List<VentaItem> items) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(INSERT_ITEM)) {
+            for (VentaItem item : items) {
+                ps.setInt(1, ventaId);
+                ps.setInt(2, item.getProductoId());
+                ps.setBigDecimal(3, item.getCantidad());
+                ps.setBigDecimal(4, item.getPrecioUnit());
+                ps.setBigDecimal(5, item.getSubtotal());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * Agrupa cantidades por producto y las descuenta con el batch condicional
+     * compartido con ProductoRepositoryJdbc.decrementStock. Si la venta ya se cobró el
+     * descuento es incondicional y sólo se avisa de los productos que quedan en negativo.
+     */
+    private void decrementStock(Connection c, List<VentaItem> items, boolean cobrada) throws SQLException {
+        Map<Integer, BigDecimal> qtyByProduct = new HashMap<>();
+        for (VentaItem item : items) {
+            qtyByProduct.merge(item.getProductoId(), item.getCantidad(), BigDecimal::add);
+        }
+        if (cobrada) {
+            List<Integer> negativos = ProductoRepositoryJdbc.forceDecrementStockBatch(c, qtyByProduct);
+            if (!negativos.isEmpty()) {
+                System.err.println("[VentaCommitRepositoryJdbc] Venta cobrada sin BD deja stock negativo en productos: " + negativos);
+            }
+            return;
+        }
+        List<Integer> sinStock = ProductoRepositoryJdbc.decrementStockBatch(c, qtyByProduct);
+        if (!sinStock.isEmpty()) {
+            throw new InvalidOperationException("Stock insuficiente para productos: " + sinStock);
+        }
+    }
+}
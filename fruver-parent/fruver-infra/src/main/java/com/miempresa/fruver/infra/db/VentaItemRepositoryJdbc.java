@@ -23,7 +23,7 @@ public class VentaItemRepositoryJdbc implements VentaItemRepository {
             ps.setBigDecimal(5, item.getSubtotal());
             ps.executeUpdate();
             try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) item = new VentaItem(rs.getInt(1), item.getVentaId(), item.getProductoId(), item.getCantidad(), item.getPrecioUnit());
+                if (rs.next()) item = new VentaItem(rs.getInt(1), item.getVentaId(), item.getProductoId(), item.getCantidad(), item.getPrecioUnit(), item.getSubtotal());
             }
             return item;
         } catch (SQLException ex) {
@@ -49,7 +49,7 @@ public class VentaItemRepositoryJdbc implements VentaItemRepository {
     private VentaItem mapRow(ResultSet rs) throws SQLException {
         return new VentaItem(
                 rs.getInt("item_id"), rs.getInt("venta_id"), rs.getInt("producto_id"),
-                rs.getBigDecimal("cantidad"), rs.getBigDecimal("precio_unit")
+                rs.getBigDecimal("cantidad"), rs.getBigDecimal("precio_unit"), rs.getBigDecimal("subtotal")
         );
     }
 }
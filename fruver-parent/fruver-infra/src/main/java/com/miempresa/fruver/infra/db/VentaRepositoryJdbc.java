@@ -4,13 +4,32 @@ import com.miempresa.fruver.domain.model.Venta;
 import com.miempresa.fruver.domain.repository.VentaRepository;
 import com.miempresa.fruver.domain.exceptions.DataAccessException;
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class VentaRepositoryJdbc implements VentaRepository {
+    /**
+     * Con MySQL Connector/J, Integer.MIN_VALUE activa el streaming fila a fila
+     * (el driver no materializa el ResultSet completo en el heap).
+     */
+    public static final int MYSQL_STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+
     private final DataSource ds;
-    public VentaRepositoryJdbc(DataSource ds) { this.ds = ds; }
+    private final int streamFetchSize;
+
+    public VentaRepositoryJdbc(DataSource ds) { this(ds, MYSQL_STREAM_FETCH_SIZE); }
+
+    /** @param streamFetchSize fetch size del cursor de streamByDateRange (otros drivers no aceptan negativos) */
+    public VentaRepositoryJdbc(DataSource ds, int streamFetchSize) {
+        this.ds = ds;
+        this.streamFetchSize = streamFetchSize;
+    }
 
     @Override
     public Venta save(Venta v) {
@@ -63,9 +82,89 @@ public class VentaRepositoryJdbc implements VentaRepository {
         }
     }
 
+    @Override
+    public Stream<Venta> streamByDateRange(LocalDate from, LocalDate to) {
+        String sql = "SELECT * FROM VENTA WHERE fecha BETWEEN ? AND ? ORDER BY fecha, venta_id";
+        Connection c = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            c = ds.getConnection();
+            ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(streamFetchSize);
+            ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(2, Timestamp.valueOf(to.atTime(23, 59, 59)));
+            rs = ps.executeQuery();
+        } catch (SQLException ex) {
+            closeQuietly(rs, ps, c);
+            throw new DataAccessException("Error abriendo cursor de ventas por rango", ex);
+        }
+        final Connection conn = c;
+        final PreparedStatement stmt = ps;
+        final ResultSet cursor = rs;
+        Spliterator<Venta> split = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Venta> action) {
+                try {
+                    if (!cursor.next()) return false;
+                    action.accept(mapRow(cursor));
+                    return true;
+                } catch (SQLException ex) {
+                    throw new DataAccessException("Error leyendo cursor de ventas", ex);
+                }
+            }
+        };
+        return StreamSupport.stream(split, false).onClose(() -> closeQuietly(cursor, stmt, conn));
+    }
+
+    @Override
+    public List<Venta> findPageAfter(LocalDate from, LocalDate to, LocalDateTime afterFecha, Integer afterId, int limit) {
+        if (limit <= 0) return List.of();
+        boolean firstPage = afterFecha == null || afterId == null;
+        // (fecha, venta_id) > (?, ?) expandido para que MySQL use el índice sobre fecha
+        String sql = "SELECT * FROM VENTA WHERE fecha BETWEEN ? AND ?"
+                + (firstPage ? "" : " AND (fecha > ? OR (fecha = ? AND venta_id > ?))")
+                + " ORDER BY fecha, venta_id LIMIT ?";
+        List<Venta> list = new ArrayList<>(Math.min(limit, 1000));
+        try (Connection c = ds.getConnection(); PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            ps.setTimestamp(i++, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(i++, Timestamp.valueOf(to.atTime(23, 59, 59)));
+            if (!firstPage) {
+                Timestamp after = Timestamp.valueOf(afterFecha);
+                ps.setTimestamp(i++, after);
+                ps.setTimestamp(i++, after);
+                ps.setInt(i++, afterId);
+            }
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+                return list;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error paginando ventas por rango", ex);
+        }
+    }
+
     private Venta mapRow(ResultSet rs) throws SQLException {
-        return new Venta(
+        Venta v = new Venta(
                 rs.getInt("venta_id"), rs.getTimestamp("fecha").toLocalDateTime(), rs.getInt("cajero_id")
         );
+        // reconstruir totales persistidos (los reportes los necesitan)
+        BigDecimal total = rs.getBigDecimal("total");
+        BigDecimal recibido = rs.getBigDecimal("recibido");
+        if (total != null) v.addItem(total);
+        if (total != null && recibido != null && recibido.signum() > 0 && recibido.compareTo(total) >= 0) {
+            v.calcularVuelto(recibido);
+        }
+        return v;
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable r : resources) {
+            if (r == null) continue;
+            try { r.close(); } catch (Exception ignored) { }
+        }
     }
 }
\ No newline at end of file
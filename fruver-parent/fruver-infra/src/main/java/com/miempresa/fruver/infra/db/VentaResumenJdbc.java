@@ -0,0 +1,156 @@
+package com.miempresa.fruver.infra.db;
+
+import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Tablas de resumen de ventas (rollups) mantenidas incrementalmente:
+ *  - VENTA_RESUMEN_HORA     (fecha, hora)          -> tickets, ingresos
+ *  - VENTA_RESUMEN_PRODUCTO (fecha, producto_id)   -> tickets, cantidad, ingresos
+ *  - VENTA_RESUMEN_CAJERO   (fecha, cajero_id)     -> tickets, ingresos  (cajero_id 0 = sin cajero)
+ *  - VENTA_RESUMEN_META     (clave)                -> valor  (marca de reconstrucción completa)
+ *
+ * aplicarVenta(...) se ejecuta dentro de la transacción de VentaCommitRepositoryJdbc,
+ * de modo que los resúmenes nunca divergen de VENTA / VENTA_ITEM.
+ */
+public final class VentaResumenJdbc {
+    static final int SIN_CAJERO = 0;
+
+    private static final String[] DDL = {
+            "CREATE TABLE IF NOT EXISTS VENTA_RESUMEN_HORA ("
+                    + " fecha DATE NOT NULL, hora TINYINT NOT NULL,"
+                    + " tickets INT NOT NULL DEFAULT 0,"
+                    + " ingresos DECIMAL(14,2) NOT NULL DEFAULT 0,"
+                    + " PRIMARY KEY (fecha, hora))",
+            "CREATE TABLE IF NOT EXISTS VENTA_RESUMEN_PRODUCTO ("
+                    + " fecha DATE NOT NULL, producto_id INT NOT NULL,"
+                    + " tickets INT NOT NULL DEFAULT 0,"
+                    + " cantidad DECIMAL(14,3) NOT NULL DEFAULT 0,"
+                    + " ingresos DECIMAL(14,2) NOT NULL DEFAULT 0,"
+                    + " PRIMARY KEY (fecha, producto_id))",
+            "CREATE TABLE IF NOT EXISTS VENTA_RESUMEN_CAJERO ("
+                    + " fecha DATE NOT NULL, cajero_id INT NOT NULL,"
+                    + " tickets INT NOT NULL DEFAULT 0,"
+                    + " ingresos DECIMAL(14,2) NOT NULL DEFAULT 0,"
+                    + " PRIMARY KEY (fecha, cajero_id))",
+            "CREATE TABLE IF NOT EXISTS VENTA_RESUMEN_META ("
+                    + " clave VARCHAR(64) NOT NULL PRIMARY KEY,"
+                    + " valor VARCHAR(64) NOT NULL)"
+    };
+
+    private static final String META_BACKFILL = "backfill_completo";
+    private static final String SELECT_META = "SELECT valor FROM VENTA_RESUMEN_META WHERE clave = ?";
+    private static final String UPSERT_META =
+            "INSERT INTO VENTA_RESUMEN_META(clave, valor) VALUES (?, ?) "
+                    + "ON DUPLICATE KEY UPDATE valor = VALUES(valor)";
+
+    private static final String UPSERT_HORA =
+            "INSERT INTO VENTA_RESUMEN_HORA(fecha, hora, tickets, ingresos) VALUES (?, ?, 1, ?) "
+                    + "ON DUPLICATE KEY UPDATE tickets = tickets + 1, ingresos = ingresos + VALUES(ingresos)";
+    private static final String UPSERT_PRODUCTO =
+            "INSERT INTO VENTA_RESUMEN_PRODUCTO(fecha, producto_id, tickets, cantidad, ingresos) VALUES (?, ?, 1, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE tickets = tickets + 1, cantidad = cantidad + VALUES(cantidad), "
+                    + "ingresos = ingresos + VALUES(ingresos)";
+    private static final String UPSERT_CAJERO =
+            "INSERT INTO VENTA_RESUMEN_CAJERO(fecha, cajero_id, tickets, ingresos) VALUES (?, ?, 1, ?) "
+                    + "ON DUPLICATE KEY UPDATE tickets = tickets + 1, ingresos = ingresos + VALUES(ingresos)";
+
+    private VentaResumenJdbc() { }
+
+    /** Crea las tablas de resumen si no existen. */
+    public static void ensureSchema(DataSource ds) {
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            for (String ddl : DDL) st.execute(ddl);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error creando tablas de resumen de ventas", ex);
+        }
+    }
+
+    /**
+     * true mientras no conste una reconstrucción completa del histórico (markBackfillDone).
+     * No basta con mirar si los resúmenes tienen filas: las ventas nuevas los alimentan aunque
+     * la reconstrucción se haya cortado a medias. Sin ventas previas no hay nada que
+     * reconstruir y se marca como completa en el acto.
+     */
+    public static boolean needsBackfill(DataSource ds) {
+        try (Connection c = ds.getConnection()) {
+            try (PreparedStatement ps = c.prepareStatement(SELECT_META)) {
+                ps.setString(1, META_BACKFILL);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) return false;
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement("SELECT EXISTS(SELECT 1 FROM VENTA)");
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getBoolean(1)) return true;
+            }
+            markBackfillDone(c);
+            return false;
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error verificando tablas de resumen", ex);
+        }
+    }
+
+    /** Deja constancia de que los resúmenes cubren todo el histórico (tras rebuildAll()). */
+    public static void markBackfillDone(DataSource ds) {
+        try (Connection c = ds.getConnection()) {
+            markBackfillDone(c);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error marcando resúmenes como reconstruidos", ex);
+        }
+    }
+
+    private static void markBackfillDone(Connection c) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_META)) {
+            ps.setString(1, META_BACKFILL);
+            ps.setString(2, LocalDateTime.now().withNano(0).toString());
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Suma una venta confirmada a los resúmenes usando la conexión (y transacción) del llamador.
+     * Las líneas del mismo producto se agrupan para contar un solo ticket por producto.
+     */
+    static void aplicarVenta(Connection c, LocalDateTime fecha, Integer cajeroId,
+                             BigDecimal total, List<VentaItem> items) throws SQLException {
+        java.sql.Date dia = java.sql.Date.valueOf(fecha.toLocalDate());
+
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_HORA)) {
+            ps.setDate(1, dia);
+            ps.setInt(2, fecha.getHour());
+            ps.setBigDecimal(3, total);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_CAJERO)) {
+            ps.setDate(1, dia);
+            ps.setInt(2, cajeroId == null ? SIN_CAJERO : cajeroId);
+            ps.setBigDecimal(3, total);
+            ps.executeUpdate();
+        }
+
+        Map<Integer, BigDecimal[]> porProducto = new TreeMap<>();
+        for (VentaItem item : items) {
+            BigDecimal[] acc = porProducto.computeIfAbsent(item.getProductoId(),
+                    k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            acc[0] = acc[0].add(item.getCantidad());
+            acc[1] = acc[1].add(item.getSubtotal());
+        }
+        try (PreparedStatement ps = c.prepareStatement(UPSERT_PRODUCTO)) {
+            for (Map.Entry<Integer, BigDecimal[]> e : porProducto.entrySet()) {
+                ps.setDate(1, dia);
+                ps.setInt(2, e.getKey());
+                ps.setBigDecimal(3, e.getValue()[0]);
+                ps.setBigDecimal(4, e.getValue()[1]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
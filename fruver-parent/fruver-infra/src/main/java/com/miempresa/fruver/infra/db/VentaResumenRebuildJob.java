@@ -0,0 +1,127 @@
+package com.miempresa.fruver.infra.db;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.infra.task.TaskRuntime;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reconstruye las tablas de resumen (ver VentaResumenJdbc) a partir del histórico
+ * de VENTA / VENTA_ITEM. El rango se divide en bloques de días que se procesan en
+ * paralelo en el carril DB de TaskRuntime (el hilo que llama también procesa bloques);
+ * cada bloque borra y recalcula sus filas en su propia transacción.
+ *
+ * Nota: mientras se reconstruye un bloque, InnoDB bloquea el rango leído de VENTA,
+ * por lo que las ventas nuevas de esos días esperan a que termine el bloque.
+ */
+public class VentaResumenRebuildJob {
+    private static final String[] DELETE = {
+            "DELETE FROM VENTA_RESUMEN_HORA WHERE fecha BETWEEN ? AND ?",
+            "DELETE FROM VENTA_RESUMEN_PRODUCTO WHERE fecha BETWEEN ? AND ?",
+            "DELETE FROM VENTA_RESUMEN_CAJERO WHERE fecha BETWEEN ? AND ?"
+    };
+    private static final String[] INSERT_SELECT = {
+            "INSERT INTO VENTA_RESUMEN_HORA(fecha, hora, tickets, ingresos) "
+                    + "SELECT CAST(v.fecha AS DATE), HOUR(v.fecha), COUNT(*), COALESCE(SUM(v.total), 0) "
+                    + "FROM VENTA v WHERE v.fecha >= ? AND v.fecha < ? "
+                    + "GROUP BY CAST(v.fecha AS DATE), HOUR(v.fecha)",
+            "INSERT INTO VENTA_RESUMEN_PRODUCTO(fecha, producto_id, tickets, cantidad, ingresos) "
+                    + "SELECT CAST(v.fecha AS DATE), vi.producto_id, COUNT(DISTINCT vi.venta_id), SUM(vi.cantidad), SUM(vi.subtotal) "
+                    + "FROM VENTA_ITEM vi JOIN VENTA v ON v.venta_id = vi.venta_id "
+                    + "WHERE v.fecha >= ? AND v.fecha < ? "
+                    + "GROUP BY CAST(v.fecha AS DATE), vi.producto_id",
+            "INSERT INTO VENTA_RESUMEN_CAJERO(fecha, cajero_id, tickets, ingresos) "
+                    + "SELECT CAST(v.fecha AS DATE), COALESCE(v.cajero_id, " + VentaResumenJdbc.SIN_CAJERO + "), COUNT(*), COALESCE(SUM(v.total), 0) "
+                    + "FROM VENTA v WHERE v.fecha >= ? AND v.fecha < ? "
+                    + "GROUP BY CAST(v.fecha AS DATE), COALESCE(v.cajero_id, " + VentaResumenJdbc.SIN_CAJERO + ")"
+    };
+
+    private final DataSource ds;
+    private final int chunkDays;
+    private final int parallelism;
+
+    public VentaResumenRebuildJob(DataSource ds, int chunkDays, int parallelism) {
+        this.ds = Objects.requireNonNull(ds, "ds requerido");
+        this.chunkDays = Math.max(1, chunkDays);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /** Reconstruye todo el histórico (de la primera a la última venta). Devuelve bloques procesados. */
+    public int rebuildAll() {
+        String sql = "SELECT MIN(fecha) AS desde, MAX(fecha) AS hasta FROM VENTA";
+        try (Connection c = ds.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next() || rs.getTimestamp("desde") == null) return 0;
+            LocalDate from = rs.getTimestamp("desde").toLocalDateTime().toLocalDate();
+            LocalDate to = rs.getTimestamp("hasta").toLocalDateTime().toLocalDate();
+            return rebuild(from, to);
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error consultando rango de ventas", ex);
+        }
+    }
+
+    /** Reconstruye los resúmenes de los días [from, to]. Devuelve bloques procesados. */
+    public int rebuild(LocalDate from, LocalDate to) {
+        List<LocalDate[]> chunks = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(chunkDays)) {
+            LocalDate end = d.plusDays(chunkDays - 1L);
+            chunks.add(new LocalDate[]{d, end.isAfter(to) ? to : end});
+        }
+        if (chunks.isEmpty()) return 0;
+
+        List<Callable<Void>> tasks = new ArrayList<>(chunks.size());
+        for (LocalDate[] ch : chunks) {
+            tasks.add(() -> {
+                rebuildChunk(ch[0], ch[1]);
+                return null;
+            });
+        }
+        try {
+            TaskRuntime.shared().invokeAll(TaskRuntime.Pool.DB, tasks, parallelism);
+            return chunks.size();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Reconstrucción de resúmenes interrumpida", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof DataAccessException) throw (DataAccessException) cause;
+            throw new DataAccessException("Error reconstruyendo resúmenes de ventas", cause);
+        }
+    }
+
+    private void rebuildChunk(LocalDate from, LocalDate to) {
+        try (Connection c = ds.getConnection()) {
+            c.setAutoCommit(false);
+            try {
+                for (String sql : DELETE) {
+                    try (PreparedStatement ps = c.prepareStatement(sql)) {
+                        ps.setDate(1, java.sql.Date.valueOf(from));
+                        ps.setDate(2, java.sql.Date.valueOf(to));
+                        ps.executeUpdate();
+                    }
+                }
+                for (String sql : INSERT_SELECT) {
+                    try (PreparedStatement ps = c.prepareStatement(sql)) {
+                        ps.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                        ps.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                        ps.executeUpdate();
+                    }
+                }
+                c.commit();
+            } catch (SQLException | RuntimeException ex) {
+                c.rollback();
+                throw ex;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error reconstruyendo resúmenes " + from + " → " + to, ex);
+        }
+    }
+}
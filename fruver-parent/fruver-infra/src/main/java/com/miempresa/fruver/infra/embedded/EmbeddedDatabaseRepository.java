@@ -0,0 +1,35 @@
+package com.miempresa.fruver.infra.embedded;
+
+import com.miempresa.fruver.domain.repository.DatabaseRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * DatabaseRepository para el backend embebido: el tamaño es el del archivo de datos
+ * y el "datadir" es la carpeta que lo contiene (no hay information_schema de MySQL).
+ */
+public class EmbeddedDatabaseRepository implements DatabaseRepository {
+    private final Path dbFile;
+
+    public EmbeddedDatabaseRepository(Path dbFile) {
+        this.dbFile = dbFile;
+    }
+
+    @Override
+    public long getDatabaseUsedBytes() {
+        try {
+            return Files.exists(dbFile) ? Files.size(dbFile) : 0L;
+        } catch (IOException ex) {
+            throw new RuntimeException("Error consultando tamaño DB: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public Optional<String> getDataDirPath() {
+        Path dir = dbFile.toAbsolutePath().getParent();
+        return dir == null ? Optional.empty() : Optional.of(dir.toString());
+    }
+}
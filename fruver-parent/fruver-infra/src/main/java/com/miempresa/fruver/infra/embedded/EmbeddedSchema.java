@@ -0,0 +1,47 @@
+package com.miempresa.fruver.infra.embedded;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Crea el esquema del backend embebido a partir de /db/embedded-schema.sql.
+ * Las sentencias son CREATE ... IF NOT EXISTS, así que puede ejecutarse en cada arranque.
+ */
+public final class EmbeddedSchema {
+    private static final String SCHEMA_RESOURCE = "/db/embedded-schema.sql";
+
+    private EmbeddedSchema() { }
+
+    public static void bootstrap(DataSource ds) {
+        String script;
+        try (InputStream in = EmbeddedSchema.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+            if (in == null) throw new DataAccessException("No se encontró " + SCHEMA_RESOURCE);
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new DataAccessException("Error leyendo " + SCHEMA_RESOURCE, ex);
+        }
+        try (Connection c = ds.getConnection(); Statement st = c.createStatement()) {
+            for (String sql : script.split(";")) {
+                String stmt = stripComments(sql).trim();
+                if (!stmt.isEmpty()) st.execute(stmt);
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error creando esquema embebido", ex);
+        }
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        for (String line : sql.split("\n")) {
+            if (!line.trim().startsWith("--")) sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+}
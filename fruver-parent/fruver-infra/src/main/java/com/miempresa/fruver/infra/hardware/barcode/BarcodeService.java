@@ -5,20 +5,44 @@ import com.miempresa.fruver.domain.model.DeviceConfig.DeviceType;
 import com.miempresa.fruver.domain.repository.DeviceConfigRepository;
 import com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc;
 import com.miempresa.fruver.infra.config.DataSourceFactory;
-import com.fazecast.jSerialComm.SerialPort;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransport;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransports;
 
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 
 /**
  * Servicio para manejar un lector de código de barras.
  * - Si está en modo "keyboard" o no hay puerto configurado, no abre puerto.
- * - Si está en modo "serial" y hay puerto, abre el COM indicado.
+ * - Si está en modo "serial" y hay puerto, abre el COM indicado (o el lector virtual
+ *   si el puerto es "SIM:...", ver SerialTransports).
+ *
+ * En modo serial la lectura es por eventos: el data listener del puerto lee en bloque
+ * todo lo disponible, encuadra por CR/LF en un buffer reutilizable y encola cada código;
+ * un hilo propio ("barcode-dispatch") los entrega en orden al callback. Así la latencia
+ * no depende de la UI y las lecturas seguidas nunca se pierden (la cola no tiene tope).
+ * Los códigos leídos antes de setOnCodeScanned esperan en la cola hasta que haya callback.
  */
 public class BarcodeService {
 
-    private SerialPort port;
-    private Consumer<String> onCodeScanned;
+    private static final int MAX_CODE_LENGTH = 128;
+
+    private volatile SerialTransport port;
+    private volatile Consumer<String> onCodeScanned;
+    private final Object callbackLock = new Object();
+
+    // sólo hilo del data listener
+    private final byte[] readBuf = new byte[256];
+    private final byte[] lineBuf = new byte[MAX_CODE_LENGTH];
+    private int lineLen;
+    private boolean overflow;
+
+    private final BlockingQueue<String> codes = new LinkedBlockingQueue<>();
+    private volatile boolean holding; // el dispatcher retiene un código esperando callback
+    private Thread dispatcher;
 
     /** Inicializa según configuración en DB. */
     public void init() {
@@ -43,49 +67,128 @@ public class BarcodeService {
         }
 
         // Modo serial: abrir puerto
-        port = SerialPort.getCommPort(portName);
-        port.setComPortParameters(9600, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
-        port.setComPortTimeouts(SerialPort.TIMEOUT_READ_BLOCKING, 5000, 0);
-        if (!port.openPort()) {
-            throw new DataAccessException("No se pudo abrir puerto del lector: " + portName);
+        init(portName, 9600);
+    }
+
+    /** Abre directamente el puerto indicado (sin leer configuración de BD). */
+    public synchronized void init(String portName, int baudRate) {
+        close();
+        SerialTransport t;
+        try {
+            t = SerialTransports.open(portName, baudRate, 2000);
+        } catch (DataAccessException ex) {
+            throw new DataAccessException("No se pudo abrir puerto del lector: " + portName, ex);
         }
+        lineLen = 0;
+        overflow = false;
+        codes.clear();
+        startDispatcher();
+        port = t;
+        t.setDataListener(() -> drain(t));
         System.out.println("-> Lector serial inicializado en " + portName);
     }
 
-    /** Callback al escanear un código. */
+    /** Callback al escanear un código (se invoca desde el hilo "barcode-dispatch"). */
     public void setOnCodeScanned(Consumer<String> callback) {
-        this.onCodeScanned = callback;
+        synchronized (callbackLock) {
+            this.onCodeScanned = callback;
+            callbackLock.notifyAll();
+        }
     }
 
-    /** Procesa manualmente un código (teclado) o lee del serial. */
+    /**
+     * Entrada manual (teclado o pruebas). En modo serial los códigos llegan solos por el
+     * listener; un texto no vacío se encola como si lo hubiera leído el lector.
+     */
     public void handleInput(String manualCode) {
         // teclado
         if (port == null) {
-            if (onCodeScanned != null) onCodeScanned.accept(manualCode);
+            Consumer<String> cb = onCodeScanned;
+            if (cb != null) cb.accept(manualCode);
             return;
         }
-        // serial: leer hasta CR/LF
-        if (onCodeScanned != null) {
-            StringBuilder sb = new StringBuilder();
-            byte[] buf = new byte[1];
-            try {
-                while (true) {
-                    int n = port.readBytes(buf, 1);
-                    if (n <= 0) break;
-                    char c = (char) buf[0];
-                    if (c=='\n' || c=='\r') break;
-                    sb.append(c);
+        if (manualCode != null && !manualCode.isBlank()) codes.add(manualCode.trim());
+    }
+
+    /** Códigos leídos que aún no se entregaron al callback. */
+    public int pendingCodes() {
+        return codes.size() + (holding ? 1 : 0);
+    }
+
+    /** Cierra el puerto si estaba abierto y detiene el hilo de entrega. */
+    public synchronized void close() {
+        SerialTransport t = port;
+        port = null;
+        if (t != null) {
+            try { t.setDataListener(null); } catch (Throwable ignored) {}
+            if (t.isOpen()) t.close();
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+    }
+
+    /* ---------------------- Internos ---------------------- */
+
+    /** Lee en bloque lo disponible y encuadra por CR/LF (hilo del listener). */
+    private void drain(SerialTransport t) {
+        try {
+            int n;
+            while ((n = t.read(readBuf, 0, readBuf.length, 0)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = readBuf[i];
+                    if (b == '\r' || b == '\n') {
+                        // CRLF: el segundo terminador llega con la línea vacía y se ignora
+                        if (lineLen > 0 && !overflow) emit();
+                        lineLen = 0;
+                        overflow = false;
+                    } else if (lineLen < lineBuf.length) {
+                        lineBuf[lineLen++] = b;
+                    } else {
+                        overflow = true; // ruido sin terminador: se descarta hasta el próximo CR/LF
+                    }
                 }
-                String code = sb.toString().trim();
-                if (!code.isEmpty()) onCodeScanned.accept(code);
-            } catch (Exception e) {
-                throw new DataAccessException("Error leyendo lector serial", e);
             }
+        } catch (RuntimeException ex) {
+            System.err.println("[BarcodeService] Error leyendo lector serial: " + ex.getMessage());
         }
     }
 
-    /** Cierra el puerto si estaba abierto. */
-    public void close() {
-        if (port != null && port.isOpen()) port.closePort();
+    private void emit() {
+        int from = 0, to = lineLen;
+        while (from < to && lineBuf[from] == ' ') from++;
+        while (to > from && lineBuf[to - 1] == ' ') to--;
+        if (to > from) codes.add(new String(lineBuf, from, to - from, StandardCharsets.US_ASCII));
+    }
+
+    private void startDispatcher() {
+        Thread d = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    String code = codes.take();
+                    Consumer<String> cb;
+                    synchronized (callbackLock) {
+                        // sin callback todavía: el código se retiene (en orden) hasta que lo haya
+                        holding = true;
+                        try {
+                            while ((cb = onCodeScanned) == null) callbackLock.wait();
+                        } finally {
+                            holding = false;
+                        }
+                    }
+                    try {
+                        cb.accept(code);
+                    } catch (RuntimeException ex) {
+                        System.err.println("[BarcodeService] Error en callback de código " + code + ": " + ex.getMessage());
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                // close()
+            }
+        }, "barcode-dispatch");
+        d.setDaemon(true);
+        d.start();
+        dispatcher = d;
     }
 }
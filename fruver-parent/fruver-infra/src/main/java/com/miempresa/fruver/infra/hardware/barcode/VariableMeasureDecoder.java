@@ -0,0 +1,158 @@
+package com.miempresa.fruver.infra.hardware.barcode;
+
+import com.miempresa.fruver.domain.exceptions.InvalidOperationException;
+
+import java.math.BigDecimal;
+
+/**
+ * Decodifica EAN-13 de medida variable (prefijos 20-29, circulación restringida) que traen
+ * los paquetes prepesados: 2 dígitos de prefijo, PLU, valor embebido y dígito de control.
+ *
+ *   2 P | PLU (pluDigits) | valor (12 - 2 - pluDigits) | C
+ *
+ * Cada prefijo se configura como PESO (kg con decimalesPeso) o PRECIO (con decimalesPrecio).
+ * Configuración por propiedades del sistema:
+ *  - fruver.barcode.vm.prefijos       p. ej. "20-24:PESO,25-29:PRECIO" (por defecto)
+ *  - fruver.barcode.vm.pluDigits      dígitos del PLU (5)
+ *  - fruver.barcode.vm.decimalesPeso  decimales del peso (3: gramos)
+ *  - fruver.barcode.vm.decimalesPrecio decimales del precio (0: pesos)
+ * Una configuración inválida lanza IllegalArgumentException en el constructor;
+ * fromSystemProperties() la reporta y usa los valores por defecto.
+ * Instancia inmutable y thread-safe.
+ */
+public final class VariableMeasureDecoder {
+
+    public enum Measure { PESO, PRECIO }
+
+    /** Resultado de decodificar un código de medida variable. */
+    public static final class Code {
+        private final String plu;
+        private final Measure measure;
+        private final BigDecimal value;
+
+        Code(String plu, Measure measure, BigDecimal value) {
+            this.plu = plu;
+            this.measure = measure;
+            this.value = value;
+        }
+
+        /** PLU sin ceros a la izquierda ("00123" -> "123"). */
+        public String getPlu() { return plu; }
+        public Measure getMeasure() { return measure; }
+        /** Peso en kg o precio, según getMeasure(). */
+        public BigDecimal getValue() { return value; }
+    }
+
+    // medida configurada por prefijo 20..29 (null = no es de medida variable)
+    private final Measure[] byPrefix = new Measure[10];
+    private final int pluDigits;
+    private final int weightDecimals;
+    private final int priceDecimals;
+
+    private static final String DEFAULT_PREFIXES = "20-24:PESO,25-29:PRECIO";
+
+    public VariableMeasureDecoder(String prefixes, int pluDigits, int weightDecimals, int priceDecimals) {
+        if (pluDigits < 1 || pluDigits > 9)
+            throw new IllegalArgumentException("fruver.barcode.vm.pluDigits fuera de rango: " + pluDigits);
+        if (weightDecimals < 0 || priceDecimals < 0)
+            throw new IllegalArgumentException("Decimales de medida variable negativos: " + weightDecimals + "/" + priceDecimals);
+        this.pluDigits = pluDigits;
+        this.weightDecimals = weightDecimals;
+        this.priceDecimals = priceDecimals;
+        parsePrefixes(prefixes);
+    }
+
+    /** Decodificador según fruver.barcode.vm.*; si la configuración es inválida, el por defecto. */
+    public static VariableMeasureDecoder fromSystemProperties() {
+        try {
+            return new VariableMeasureDecoder(
+                    System.getProperty("fruver.barcode.vm.prefijos", DEFAULT_PREFIXES),
+                    Integer.getInteger("fruver.barcode.vm.pluDigits", 5),
+                    Integer.getInteger("fruver.barcode.vm.decimalesPeso", 3),
+                    Integer.getInteger("fruver.barcode.vm.decimalesPrecio", 0));
+        } catch (IllegalArgumentException ex) {
+            System.err.println("[VariableMeasureDecoder] Configuración fruver.barcode.vm.* inválida, se usa la por defecto: " + ex.getMessage());
+            return new VariableMeasureDecoder(DEFAULT_PREFIXES, 5, 3, 0);
+        }
+    }
+
+    private void parsePrefixes(String spec) {
+        if (spec == null || spec.isBlank()) return;
+        for (String part : spec.split(",")) {
+            String p = part.trim();
+            if (p.isEmpty()) continue;
+            int colon = p.indexOf(':');
+            if (colon < 0) throw new IllegalArgumentException("Prefijo de medida variable sin tipo: " + p);
+            Measure m;
+            try {
+                m = Measure.valueOf(p.substring(colon + 1).trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Tipo de medida variable inválido: " + p, ex);
+            }
+            String range = p.substring(0, colon).trim();
+            int dash = range.indexOf('-');
+            try {
+                int from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash).trim());
+                int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+                if (from < 20 || to > 29 || from > to)
+                    throw new IllegalArgumentException("Rango de prefijos fuera de 20-29: " + range);
+                for (int i = from; i <= to; i++) byPrefix[i - 20] = m;
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Rango de prefijos inválido: " + range, ex);
+            }
+        }
+    }
+
+    /** true si el código tiene forma de EAN-13 con un prefijo configurado (sin validar el control). */
+    public boolean matches(String code) {
+        return code != null && code.length() == 13 && allDigits(code) && measureOf(code) != null;
+    }
+
+    /**
+     * Decodifica el código o devuelve null si no es de medida variable (se busca entonces
+     * por código exacto). Si el prefijo coincide pero el dígito de control no, lanza
+     * InvalidOperationException: es una lectura corrupta, no un producto desconocido.
+     */
+    public Code decode(String code) {
+        if (code == null) return null;
+        String c = code.trim();
+        if (!matches(c)) return null;
+        if (checkDigit(c) != c.charAt(12) - '0')
+            throw new InvalidOperationException("Dígito de control inválido: " + c);
+        Measure m = measureOf(c);
+        int pluEnd = 2 + pluDigits;
+        String plu = stripLeadingZeros(c.substring(2, pluEnd));
+        long raw = Long.parseLong(c.substring(pluEnd, 12));
+        BigDecimal value = BigDecimal.valueOf(raw, m == Measure.PESO ? weightDecimals : priceDecimals);
+        return new Code(plu, m, value);
+    }
+
+    private Measure measureOf(String c) {
+        if (c.charAt(0) != '2') return null;
+        return byPrefix[c.charAt(1) - '0'];
+    }
+
+    /** Dígito de control EAN-13 sobre los 12 primeros dígitos. */
+    public static int checkDigit(CharSequence c) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            int d = c.charAt(i) - '0';
+            sum += (i & 1) == 0 ? d : d * 3;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    public static String stripLeadingZeros(String s) {
+        int i = 0;
+        while (i < s.length() - 1 && s.charAt(i) == '0') i++;
+        return s.substring(i);
+    }
+
+    private static boolean allDigits(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package com.miempresa.fruver.infra.hardware.printer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Arma el recibo ESC/POS copiando los segmentos precompilados de EscPosTemplate y
+ * codificando sólo el cuerpo variable en un ByteBuffer reutilizable (no es thread-safe:
+ * una instancia por impresora).
+ *
+ * Marcado del cuerpo, por línea:
+ *  - "--"                 separador de ancho completo
+ *  - "texto\tvalor"       valor alineado a la derecha; el texto se parte si no cabe
+ *  - cualquier otra línea se parte por palabras al ancho del papel
+ */
+public final class EscPosReceiptRenderer {
+
+    private static final byte SPACE = ' ';
+    private static final byte LF = '\n';
+
+    private final EscPosTemplate template;
+    private final int columns;
+    private final CharsetEncoder encoder;
+    private final int maxBytesPerChar;
+    private char[] chars = new char[64];
+    private CharBuffer charView = CharBuffer.wrap(chars);
+    private ByteBuffer buf = ByteBuffer.allocate(2048);
+
+    public EscPosReceiptRenderer(EscPosTemplate template) {
+        this.template = template;
+        this.columns = template.getColumns();
+        this.encoder = template.getCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .replaceWith(new byte[]{'?'});
+        this.maxBytesPerChar = (int) Math.ceil(encoder.maxBytesPerChar());
+    }
+
+    public EscPosTemplate getTemplate() { return template; }
+
+    /**
+     * Recibo completo (encabezado + cuerpo + corte). El buffer devuelto está listo para leer
+     * (posición 0, límite = largo) y se reutiliza en la siguiente llamada.
+     */
+    public ByteBuffer render(String body) {
+        buf.clear();
+        put(template.header());
+        if (body != null) {
+            int len = body.length();
+            int start = 0;
+            while (start <= len) {
+                int end = body.indexOf('\n', start);
+                if (end < 0) end = len;
+                int lineEnd = end > start && body.charAt(end - 1) == '\r' ? end - 1 : end;
+                if (!(start == len && end == len)) renderLine(body, start, lineEnd);
+                start = end + 1;
+            }
+        }
+        put(template.footer());
+        buf.flip();
+        return buf;
+    }
+
+    private void renderLine(String s, int from, int to) {
+        if (to - from == 2 && s.charAt(from) == '-' && s.charAt(from + 1) == '-') {
+            put(template.separator());
+            return;
+        }
+        int tab = s.indexOf('\t', from);
+        if (tab < 0 || tab >= to) {
+            wrap(s, from, to, 0);
+            return;
+        }
+        int valueFrom = skipSpaces(s, tab + 1, to);
+        int valueTo = trimEnd(s, valueFrom, to);
+        int valueLen = valueTo - valueFrom;
+        // la parte izquierda se parte dejando la última fila para compartir con el valor
+        int lastRow = wrap(s, from, trimEnd(s, from, tab), valueLen + 1);
+        if (lastRow < 0) {
+            // el valor no cabe junto al texto: va solo en su fila
+            pad(columns - valueLen);
+        } else {
+            pad(columns - lastRow - valueLen);
+        }
+        encode(s, valueFrom, valueTo);
+        putByte(LF);
+    }
+
+    /**
+     * Escribe [from,to) partido por palabras. Si reserve > 0 la última fila no lleva salto y
+     * se devuelve su largo (o -1 si no quedan reserve columnas libres, tras emitir el salto).
+     */
+    private int wrap(String s, int from, int to, int reserve) {
+        int pos = from;
+        while (true) {
+            int remaining = to - pos;
+            if (remaining <= columns) {
+                encode(s, pos, to);
+                if (reserve == 0) {
+                    putByte(LF);
+                    return 0;
+                }
+                if (remaining + reserve <= columns) return remaining;
+                putByte(LF);
+                return -1;
+            }
+            int cut = pos + columns;
+            int space = s.lastIndexOf(' ', cut);
+            int rowEnd = space > pos ? space : cut; // palabra más larga que la fila: corte duro
+            encode(s, pos, trimEnd(s, pos, rowEnd));
+            putByte(LF);
+            pos = skipSpaces(s, rowEnd, to);
+        }
+    }
+
+    private void encode(String s, int from, int to) {
+        int n = to - from;
+        if (n <= 0) return;
+        if (n > chars.length) {
+            chars = new char[Integer.highestOneBit(n) << 1];
+            charView = CharBuffer.wrap(chars);
+        }
+        s.getChars(from, to, chars, 0);
+        charView.clear().limit(n);
+        ensure(n * maxBytesPerChar + 8);
+        encoder.reset();
+        encoder.encode(charView, buf, true);
+        encoder.flush(buf);
+    }
+
+    private void pad(int n) {
+        if (n <= 0) n = 1;
+        ensure(n);
+        for (int i = 0; i < n; i++) buf.put(SPACE);
+    }
+
+    private void put(byte[] b) {
+        ensure(b.length);
+        buf.put(b);
+    }
+
+    private void putByte(byte b) {
+        ensure(1);
+        buf.put(b);
+    }
+
+    private void ensure(int n) {
+        if (buf.remaining() >= n) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+        buf.flip();
+        bigger.put(buf);
+        buf = bigger;
+    }
+
+    private static int skipSpaces(String s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') from++;
+        return from;
+    }
+
+    private static int trimEnd(String s, int from, int to) {
+        while (to > from && s.charAt(to - 1) == ' ') to--;
+        return to;
+    }
+}
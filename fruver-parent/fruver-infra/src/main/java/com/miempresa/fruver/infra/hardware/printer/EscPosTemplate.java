@@ -0,0 +1,101 @@
+package com.miempresa.fruver.infra.hardware.printer;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plantilla ESC/POS de recibo precompilada: los segmentos fijos (inicialización, página de
+ * códigos, encabezado, separador, corte) se codifican a byte[] una sola vez por
+ * combinación juego de caracteres + ancho de papel y se comparten entre impresoras.
+ * El cuerpo variable lo codifica EscPosReceiptRenderer.
+ */
+public final class EscPosTemplate {
+
+    /** Ancho de papel y columnas de la fuente A. */
+    public enum PaperWidth {
+        MM58(32), MM80(48);
+
+        private final int columns;
+
+        PaperWidth(int columns) { this.columns = columns; }
+
+        public int getColumns() { return columns; }
+
+        /** "58", "80", "58mm"... (por defecto 58 mm). */
+        public static PaperWidth parse(String s) {
+            if (s != null && s.trim().startsWith("80")) return MM80;
+            return MM58;
+        }
+    }
+
+    public static final String STORE_NAME = "Merca Fruver C.Y.E.";
+
+    private static final Map<String, EscPosTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final Charset charset;
+    private final PaperWidth paper;
+    private final byte[] header;
+    private final byte[] separator;
+    private final byte[] footer;
+
+    private EscPosTemplate(Charset charset, PaperWidth paper) {
+        this.charset = charset;
+        this.paper = paper;
+        this.separator = ("-".repeat(paper.getColumns()) + "\n").getBytes(StandardCharsets.US_ASCII);
+
+        ByteArrayOutputStream h = new ByteArrayOutputStream();
+        h.writeBytes(new byte[]{0x1B, 0x40});               // ESC @
+        byte[] codePage = codePageCommand(charset);
+        h.writeBytes(codePage);                             // ESC t n
+        h.writeBytes(new byte[]{0x1B, 0x61, 0x01});         // ESC a 1 (centro)
+        h.writeBytes((STORE_NAME + "\n").getBytes(charset));
+        h.writeBytes(new byte[]{0x1B, 0x61, 0x00});         // ESC a 0 (izquierda)
+        h.writeBytes(separator);
+        this.header = h.toByteArray();
+
+        this.footer = new byte[]{'\n', '\n', 0x1D, 0x56, 0x00}; // GS V 0 (corte total)
+    }
+
+    /** Plantilla compartida para el juego de caracteres y ancho dados. */
+    public static EscPosTemplate of(Charset charset, PaperWidth paper) {
+        return CACHE.computeIfAbsent(charset.name() + "@" + paper, k -> new EscPosTemplate(charset, paper));
+    }
+
+    /** Acepta "CP437", "CP1252", "UTF-8" o cualquier nombre de Charset de Java. */
+    public static Charset charsetFor(String name) {
+        if (name == null || name.isBlank()) return StandardCharsets.UTF_8;
+        String n = name.trim().toUpperCase(Locale.ROOT);
+        try {
+            switch (n) {
+                case "CP437": case "437": return Charset.forName("IBM437");
+                case "CP1252": case "1252": return Charset.forName("windows-1252");
+                case "UTF8": case "UTF-8": return StandardCharsets.UTF_8;
+                default: return Charset.forName(name.trim());
+            }
+        } catch (RuntimeException ex) {
+            throw new DataAccessException("Juego de caracteres no soportado: " + name, ex);
+        }
+    }
+
+    /** ESC t n para las páginas que la mayoría de impresoras Epson-compatibles traen. */
+    private static byte[] codePageCommand(Charset cs) {
+        String n = cs.name();
+        if (n.equals("IBM437")) return new byte[]{0x1B, 0x74, 0};
+        if (n.equals("windows-1252")) return new byte[]{0x1B, 0x74, 16};
+        return new byte[0];
+    }
+
+    public Charset getCharset() { return charset; }
+    public PaperWidth getPaper() { return paper; }
+    public int getColumns() { return paper.getColumns(); }
+
+    byte[] header() { return header; }
+    byte[] separator() { return separator; }
+    byte[] footer() { return footer; }
+}
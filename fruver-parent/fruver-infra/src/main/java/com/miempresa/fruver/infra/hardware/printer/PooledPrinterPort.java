@@ -0,0 +1,59 @@
+package com.miempresa.fruver.infra.hardware.printer;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.domain.port.PrinterPort;
+
+/**
+ * PrinterPort sobre una impresora caliente de PrinterPool: init() no reabre el puerto si ya
+ * está abierto y close() no lo cierra. Un fallo al imprimir invalida la impresora en el pool
+ * para que el siguiente intento la vuelva a resolver.
+ */
+public class PooledPrinterPort implements PrinterPort {
+
+    private final PrinterPool pool;
+    private String printerId;
+
+    public PooledPrinterPort(PrinterPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void init(String printerId) {
+        if (printerId == null || printerId.isBlank()) throw new DataAccessException("Identificador de impresora vacío");
+        pool.acquire(printerId);
+        this.printerId = printerId.trim();
+    }
+
+    @Override
+    public void printReceipt(String payload) {
+        PrinterService svc = current();
+        try {
+            svc.printReceipt(payload);
+        } catch (RuntimeException ex) {
+            pool.invalidate(printerId);
+            throw ex;
+        }
+    }
+
+    @Override
+    public void openCashDrawer() {
+        PrinterService svc = current();
+        try {
+            svc.openCashDrawer();
+        } catch (RuntimeException ex) {
+            pool.invalidate(printerId);
+            throw ex;
+        }
+    }
+
+    private PrinterService current() {
+        if (printerId == null) throw new DataAccessException("Impresora no inicializada");
+        return pool.acquire(printerId);
+    }
+
+    @Override
+    public void close() {
+        // la impresora sigue abierta en el pool
+        printerId = null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.miempresa.fruver.infra.hardware.printer;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.infra.task.TaskRuntime;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Impresoras resueltas y abiertas una sola vez por identificador (nombre de PrintService
+ * o puerto) y mantenidas calientes entre recibos. Un chequeo periódico en el carril
+ * HARDWARE_MONITOR de TaskRuntime consulta el estado de cada una cada fruver.printer.healthMs
+ * (5000 ms) y sólo vuelve a resolverla cuando la consulta falla, deja de contestar habiendo
+ * contestado antes, o cuando la configuración cambia (retainOnly / invalidate).
+ */
+public class PrinterPool implements AutoCloseable {
+
+    private final Supplier<PrinterService> factory;
+    private final long statusTimeoutMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, PrinterService.Status>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledFuture<?> health;   // null si el chequeo periódico está apagado
+
+    public PrinterPool() {
+        this(PrinterService::new,
+                Long.getLong("fruver.printer.healthMs", 5_000L),
+                Long.getLong("fruver.printer.statusTimeoutMs", 500L));
+    }
+
+    public PrinterPool(Supplier<PrinterService> factory, long healthIntervalMs, long statusTimeoutMs) {
+        this.factory = factory;
+        this.statusTimeoutMs = statusTimeoutMs;
+        this.health = healthIntervalMs > 0
+                ? TaskRuntime.shared().scheduleWithFixedDelay(TaskRuntime.Pool.HARDWARE_MONITOR,
+                        this::checkAll, healthIntervalMs, healthIntervalMs, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    /** Estado conocido de una impresora del pool. */
+    private static final class Entry {
+        final String printerId;
+        PrinterService service;      // null = hay que (re)resolver
+        PrinterService.Status status = PrinterService.Status.DESCONECTADA;
+        boolean answersStatus;       // contestó DLE EOT alguna vez
+
+        Entry(String printerId) { this.printerId = printerId; }
+    }
+
+    /**
+     * Impresora lista para usar; la resuelve y abre sólo la primera vez (o tras invalidarla).
+     * Los métodos de PrinterService son synchronized: el chequeo de salud espera al recibo en curso.
+     */
+    public PrinterService acquire(String printerId) {
+        Entry e = entries.computeIfAbsent(key(printerId), k -> new Entry(printerId.trim()));
+        synchronized (e) {
+            if (e.service == null || !e.service.isReady()) open(e);
+            return e.service;
+        }
+    }
+
+    /** Abre en segundo plano (p. ej. al arrancar o al cambiar la configuración). */
+    public void warmUp(String printerId) {
+        try {
+            TaskRuntime.shared().execute(TaskRuntime.Pool.HARDWARE_MONITOR, () -> {
+                try {
+                    acquire(printerId);
+                } catch (RuntimeException ex) {
+                    System.err.println("[PrinterPool] No se pudo abrir " + printerId + ": " + ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // carril saturado: se abrirá en el próximo chequeo o al imprimir
+        }
+    }
+
+    /** Cierra la impresora para que el siguiente uso (o chequeo) la vuelva a resolver. */
+    public void invalidate(String printerId) {
+        Entry e = entries.get(key(printerId));
+        if (e == null) return;
+        synchronized (e) {
+            closeService(e);
+            setStatus(e, PrinterService.Status.DESCONECTADA);
+        }
+    }
+
+    /** Cierra y olvida las impresoras que ya no están en la configuración. */
+    public void retainOnly(Collection<String> printerIds) {
+        Set<String> keep = new HashSet<>();
+        for (String id : printerIds) if (id != null && !id.isBlank()) keep.add(key(id));
+        entries.entrySet().removeIf(me -> {
+            if (keep.contains(me.getKey())) return false;
+            synchronized (me.getValue()) { closeService(me.getValue()); }
+            return true;
+        });
+    }
+
+    /** Último estado conocido, o null si la impresora nunca se usó. */
+    public PrinterService.Status getStatus(String printerId) {
+        Entry e = entries.get(key(printerId));
+        if (e == null) return null;
+        synchronized (e) { return e.status; }
+    }
+
+    /** Notificado (desde el chequeo de salud o el hilo de impresión) cuando cambia un estado. */
+    public void addListener(BiConsumer<String, PrinterService.Status> listener) { listeners.add(listener); }
+
+    public void removeListener(BiConsumer<String, PrinterService.Status> listener) { listeners.remove(listener); }
+
+    /** Ejecuta un chequeo de salud inmediato de todas las impresoras (también lo hace el chequeo periódico). */
+    public void checkAll() {
+        for (Entry e : entries.values()) {
+            synchronized (e) {
+                check(e);
+            }
+        }
+    }
+
+    private void check(Entry e) {
+        if (e.service == null || !e.service.isReady()) {
+            try {
+                open(e);
+            } catch (RuntimeException ex) {
+                return; // sigue DESCONECTADA; se reintenta en el próximo ciclo
+            }
+        }
+        PrinterService.Status s;
+        try {
+            s = e.service.queryStatus(statusTimeoutMs);
+        } catch (RuntimeException ex) {
+            s = PrinterService.Status.DESCONECTADA;
+        }
+        if (s == PrinterService.Status.SIN_RESPUESTA && !e.answersStatus) {
+            // el modelo no soporta DLE EOT: no se puede saber más, se asume lista
+            s = PrinterService.Status.LISTA;
+        } else if (s != PrinterService.Status.SIN_RESPUESTA && s != PrinterService.Status.DESCONECTADA) {
+            e.answersStatus = true;
+        }
+        if (s == PrinterService.Status.DESCONECTADA || s == PrinterService.Status.SIN_RESPUESTA) {
+            // dejó de contestar: se cierra y se vuelve a resolver en el próximo ciclo o uso
+            closeService(e);
+        }
+        setStatus(e, s);
+    }
+
+    private void open(Entry e) {
+        closeService(e);
+        PrinterService svc = factory.get();
+        try {
+            svc.init(e.printerId);
+        } catch (RuntimeException ex) {
+            setStatus(e, PrinterService.Status.DESCONECTADA);
+            throw ex instanceof DataAccessException ? ex
+                    : new DataAccessException("No se pudo abrir la impresora " + e.printerId, ex);
+        }
+        e.service = svc;
+        setStatus(e, PrinterService.Status.LISTA);
+    }
+
+    private static void closeService(Entry e) {
+        if (e.service == null) return;
+        try { e.service.close(); } catch (Throwable ignored) {}
+        e.service = null;
+    }
+
+    private void setStatus(Entry e, PrinterService.Status s) {
+        if (e.status == s) return;
+        e.status = s;
+        for (BiConsumer<String, PrinterService.Status> l : listeners) {
+            try { l.accept(e.printerId, s); } catch (Throwable ignored) {}
+        }
+    }
+
+    private static String key(String printerId) {
+        return printerId.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() {
+        if (health != null) health.cancel(false);
+        retainOnly(List.of());
+    }
+}
@@ -1,44 +1,72 @@
 package com.miempresa.fruver.infra.hardware.printer;
 
 import com.miempresa.fruver.domain.exceptions.DataAccessException;
-import com.fazecast.jSerialComm.SerialPort;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransport;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransports;
 
 import javax.print.*;
 import javax.print.attribute.*;
 import javax.print.attribute.standard.*;
-import java.io.*;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
- * Servicio para impresora térmica ESC/POS.
+ * Servicio para impresora térmica ESC/POS (se mantiene abierta entre recibos: ver PrinterPool).
  * - Usa Java PrintService (preferred) si la impresora está instalada como impresora en Windows.
  * - Si recibe un puerto 'COMx' usa jSerialComm para escribir bytes directamente.
+ * - Si recibe un puerto 'SIM:...' escribe en la impresora virtual (pruebas sin hardware).
+ *
+ * El recibo se arma con una plantilla precompilada (EscPosTemplate) según el juego de
+ * caracteres (fruver.printer.charset: CP437 / CP1252 / UTF-8) y el ancho de papel
+ * (fruver.printer.paper: 58 u 80 mm); sólo el cuerpo se codifica en cada impresión.
  */
 public class PrinterService {
 
     private enum Mode { PRINTSERVICE, SERIAL }
 
+    /** Estado informado por la impresora (DLE EOT en serie, atributos en PrintService). */
+    public enum Status { LISTA, FUERA_DE_LINEA, SIN_PAPEL, SIN_RESPUESTA, DESCONECTADA }
+
     private Mode mode;
     private String printerNameOrPort;
     private PrintService printService;
-    private SerialPort serialPort;
-    private Charset encoding = Charset.forName("UTF-8"); // fallback; puede cambiarse si requiere CP437/1252
+    private SerialTransport serialPort;
+    private static final byte[] CASH_DRAWER = {0x1B, 0x70, 0x00, 0x19, (byte) 0xFA}; // ESC p 0 25 250
+    private static final byte[] DLE_EOT_PRINTER = {0x10, 0x04, 0x01}; // estado de la impresora
+    private static final byte[] DLE_EOT_PAPER = {0x10, 0x04, 0x04};   // sensor de rollo de papel
+    private final byte[] statusBuf = new byte[1];
+
+    private EscPosTemplate template = EscPosTemplate.of(
+            EscPosTemplate.charsetFor(System.getProperty("fruver.printer.charset", "UTF-8")),
+            EscPosTemplate.PaperWidth.parse(System.getProperty("fruver.printer.paper", "58")));
+    private EscPosReceiptRenderer renderer;
 
     public PrinterService() {}
 
+    /** Juego de caracteres de la impresora: "CP437", "CP1252" o "UTF-8". */
+    public synchronized void setCharset(String charset) {
+        template = EscPosTemplate.of(EscPosTemplate.charsetFor(charset), template.getPaper());
+        renderer = null;
+    }
+
+    /** Ancho de papel: "58" u "80" (mm). */
+    public synchronized void setPaperWidth(String mm) {
+        template = EscPosTemplate.of(template.getCharset(), EscPosTemplate.PaperWidth.parse(mm));
+        renderer = null;
+    }
+
     /**
      * Inicializa la impresora. printerIdentifier puede ser:
      *  - nombre de impresora (conteniendo parte del nombre)
      *  - "COM4", "COM3" para puerto serie
      */
-    public void init(String printerIdentifier) {
+    public synchronized void init(String printerIdentifier) {
         if (printerIdentifier == null || printerIdentifier.isBlank()) {
             throw new DataAccessException("Identificador de impresora vacío");
         }
         this.printerNameOrPort = printerIdentifier.trim();
 
-        if (printerNameOrPort.toUpperCase().startsWith("COM")) {
+        if (printerNameOrPort.toUpperCase().startsWith("COM") || SerialTransports.isSimulated(printerNameOrPort)) {
             initSerial(printerNameOrPort);
             this.mode = Mode.SERIAL;
             return;
@@ -66,18 +94,46 @@ public class PrinterService {
     }
 
     private void initSerial(String portName) {
-        serialPort = SerialPort.getCommPort(portName);
-        if (serialPort == null) throw new DataAccessException("Puerto serial no encontrado: " + portName);
-        serialPort.setBaudRate(9600);
-        serialPort.setNumDataBits(8);
-        serialPort.setNumStopBits(SerialPort.ONE_STOP_BIT);
-        serialPort.setParity(SerialPort.NO_PARITY);
-        // intentar abrir
-        if (!serialPort.openPort(2000)) {
-            throw new DataAccessException("No se pudo abrir puerto serial: " + portName);
+        serialPort = SerialTransports.open(portName, 9600, 2000);
+        // Pequeña espera (el puerto virtual no la necesita)
+        if (!SerialTransports.isSimulated(portName)) {
+            try { Thread.sleep(200); } catch (InterruptedException ignored) {}
         }
-        // Pequeña espera
-        try { Thread.sleep(200); } catch (InterruptedException ignored) {}
+    }
+
+    /** true si init() resolvió la impresora y (en serie) el puerto sigue abierto. */
+    public synchronized boolean isReady() {
+        if (mode == Mode.PRINTSERVICE) return printService != null;
+        return mode == Mode.SERIAL && serialPort != null && serialPort.isOpen();
+    }
+
+    /**
+     * Consulta el estado sin imprimir. En serie envía DLE EOT 1 (bit 3 = fuera de línea) y
+     * DLE EOT 4 (bits 5-6 = fin de papel) y espera un byte de respuesta por consulta; si la
+     * impresora no contesta devuelve SIN_RESPUESTA (algunos modelos no soportan DLE EOT).
+     * Con PrintService sólo se consulta PrinterIsAcceptingJobs. Un error de E/S propaga
+     * DataAccessException: el puerto ya no sirve.
+     */
+    public synchronized Status queryStatus(long timeoutMs) {
+        if (mode == null) return Status.DESCONECTADA;
+        if (mode == Mode.PRINTSERVICE) {
+            if (printService == null) return Status.DESCONECTADA;
+            PrinterIsAcceptingJobs accepting = printService.getAttribute(PrinterIsAcceptingJobs.class);
+            return accepting == PrinterIsAcceptingJobs.NOT_ACCEPTING_JOBS ? Status.FUERA_DE_LINEA : Status.LISTA;
+        }
+        if (serialPort == null || !serialPort.isOpen()) return Status.DESCONECTADA;
+        serialPort.purge();
+        int printer = requestStatus(DLE_EOT_PRINTER, timeoutMs);
+        if (printer < 0) return Status.SIN_RESPUESTA;
+        if ((printer & 0x08) != 0) return Status.FUERA_DE_LINEA;
+        int paper = requestStatus(DLE_EOT_PAPER, timeoutMs);
+        if (paper >= 0 && (paper & 0x60) == 0x60) return Status.SIN_PAPEL;
+        return Status.LISTA;
+    }
+
+    private int requestStatus(byte[] command, long timeoutMs) {
+        serialPort.write(command, 0, command.length);
+        return serialPort.read(statusBuf, 0, 1, timeoutMs) == 1 ? statusBuf[0] & 0xFF : -1;
     }
 
     /** Devuelve listado de nombres de impresoras disponibles (útil para UI). */
@@ -86,44 +142,34 @@ public class PrinterService {
         return Arrays.stream(services).map(PrintService::getName).toArray(String[]::new);
     }
 
-    /** Envía un recibo (texto) a la impresora. */
-    public void printReceipt(String receiptText) {
-        byte[] body = buildEscPosReceipt(receiptText);
-        sendBytes(body);
+    /**
+     * Envía un recibo a la impresora. Marcado del texto: línea "--" = separador,
+     * "texto\tvalor" = valor alineado a la derecha (ver EscPosReceiptRenderer).
+     */
+    public synchronized void printReceipt(String receiptText) {
+        ByteBuffer body = renderReceipt(receiptText);
+        sendBytes(body.array(), body.limit());
     }
 
-    /** Construye una estructura ESC/POS sencilla: init, texto + newline, cut */
-    private byte[] buildEscPosReceipt(String text) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            // Init
-            out.write(new byte[]{0x1B, 0x40}); // ESC @
-            // Center and title example (you can extend)
-            out.write(new byte[]{0x1B, 0x61, 0x01}); // ESC a 1 (center)
-            out.write("Merca Fruver C.Y.E.\n".getBytes(encoding));
-            out.write(new byte[]{0x1B, 0x61, 0x00}); // left
-            out.write("------------------------------\n".getBytes(encoding));
-            out.write(text.getBytes(encoding));
-            out.write("\n\n".getBytes(encoding));
-            // Cut paper (full cut)
-            out.write(new byte[]{0x1D, 0x56, 0x00}); // GS V 0
-        } catch (IOException ignored) {}
-        return out.toByteArray();
+    /** Recibo ESC/POS en el buffer reutilizable del renderer (package-private para fruver-bench). */
+    synchronized ByteBuffer renderReceipt(String text) {
+        if (renderer == null) renderer = new EscPosReceiptRenderer(template);
+        return renderer.render(text);
     }
 
     /** Abre cajón de dinero enviando comando estándar ESC p 0 25 250 */
-    public void openCashDrawer() {
-        byte[] cmd = new byte[]{0x1B, 0x70, 0x00, 0x19, (byte)0xFA};
-        sendBytes(cmd);
+    public synchronized void openCashDrawer() {
+        sendBytes(CASH_DRAWER, CASH_DRAWER.length);
     }
 
     /** Envío genérico de bytes según el modo configurado. */
-    private void sendBytes(byte[] data) {
+    private void sendBytes(byte[] data, int len) {
         if (mode == null) throw new DataAccessException("Impresora no inicializada");
         if (mode == Mode.PRINTSERVICE) {
-            sendToPrintService(data);
+            // SimpleDoc no admite largo: se copia sólo lo usado del buffer
+            sendToPrintService(Arrays.copyOf(data, len));
         } else {
-            sendToSerial(data);
+            sendToSerial(data, len);
         }
     }
 
@@ -143,26 +189,25 @@ public class PrinterService {
         }
     }
 
-    private void sendToSerial(byte[] data) {
+    private void sendToSerial(byte[] data, int len) {
         if (serialPort == null || !serialPort.isOpen()) {
             throw new DataAccessException("Puerto serie no abierto");
         }
-        try (OutputStream out = serialPort.getOutputStream()) {
-            out.write(data);
-            out.flush();
-            // esperar un poco para que buffer se vacíe
-            try { Thread.sleep(200); } catch (InterruptedException ignored) {}
-        } catch (IOException ex) {
-            throw new DataAccessException("Error enviando a puerto serial: " + ex.getMessage(), ex);
-        }
+        // el puerto queda abierto entre recibos: la espera para vaciar el buffer se hace en close()
+        serialPort.write(data, 0, len);
     }
 
     /** Cierra recursos (si se usó puerto serial). */
-    public void close() {
+    public synchronized void close() {
         if (serialPort != null && serialPort.isOpen()) {
-            serialPort.flushIOBuffers();
-            serialPort.closePort();
-            serialPort = null;
+            // esperar un poco para que el buffer se vacíe (el puerto virtual ya aplica contrapresión en write)
+            if (!SerialTransports.isSimulated(printerNameOrPort)) {
+                try { Thread.sleep(200); } catch (InterruptedException ignored) {}
+            }
+            serialPort.close();
         }
+        serialPort = null;
+        printService = null;
+        mode = null;
     }
 }
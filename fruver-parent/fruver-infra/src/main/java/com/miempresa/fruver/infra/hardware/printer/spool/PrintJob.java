@@ -0,0 +1,53 @@
+package com.miempresa.fruver.infra.hardware.printer.spool;
+
+/**
+ * Trabajo de impresión encolado en el PrintSpooler.
+ * Los campos de estado se actualizan desde el hilo de la impresora; los listeners reciben
+ * la misma instancia en cada cambio.
+ */
+public final class PrintJob {
+
+    public enum Kind { RECIBO, CAJON }
+
+    public enum Status { PENDIENTE, IMPRIMIENDO, REINTENTANDO, IMPRESO, FALLIDO }
+
+    private final String id;
+    private final String printerId;
+    private final Kind kind;
+    private final String payload;
+    private final long createdAtMillis;
+
+    private volatile Status status = Status.PENDIENTE;
+    private volatile int attempts;
+    private volatile String lastError;
+
+    PrintJob(String id, String printerId, Kind kind, String payload, long createdAtMillis) {
+        this.id = id;
+        this.printerId = printerId;
+        this.kind = kind;
+        this.payload = payload == null ? "" : payload;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public String getId() { return id; }
+    public String getPrinterId() { return printerId; }
+    public Kind getKind() { return kind; }
+    public String getPayload() { return payload; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public Status getStatus() { return status; }
+    public int getAttempts() { return attempts; }
+    public String getLastError() { return lastError; }
+
+    public boolean isDone() { return status == Status.IMPRESO || status == Status.FALLIDO; }
+
+    void setStatus(Status s) { this.status = s; }
+    void setAttempts(int n) { this.attempts = n; }
+    void setLastError(String e) { this.lastError = e; }
+
+    @Override
+    public String toString() {
+        return kind + " " + id + " -> " + printerId + " [" + status
+                + (attempts > 1 ? ", intento " + attempts : "")
+                + (lastError != null && status != Status.IMPRESO ? ": " + lastError : "") + "]";
+    }
+}
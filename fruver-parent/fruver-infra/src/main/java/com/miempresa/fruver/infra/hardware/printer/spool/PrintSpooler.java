@@ -0,0 +1,344 @@
+package com.miempresa.fruver.infra.hardware.printer.spool;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.domain.port.PrinterPort;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Cola de impresión persistente y asíncrona.
+ *
+ * - submit*() escribe el trabajo en disco (archivo temporal + fsync + move atómico) y
+ *   retorna de inmediato; el cobro nunca espera al papel.
+ * - Cada impresora tiene su propio hilo, que imprime en orden de llegada y mantiene el
+ *   puerto abierto entre trabajos. Un atasco sólo retiene la cola de esa impresora.
+ * - Si la impresión falla se cierra el puerto y se reintenta con backoff exponencial
+ *   (fruver.print.backoffMs hasta fruver.print.maxBackoffMs); tras fruver.print.maxAttempts
+ *   el trabajo queda FALLIDO (archivo .failed) y puede reintentarse con retry().
+ * - Al arrancar se reencolan los trabajos que quedaron en disco (corte de luz, cierre).
+ *
+ * Formato del archivo: printerId \n KIND \n creadoMillis \n payload (UTF-8).
+ */
+public class PrintSpooler implements AutoCloseable {
+    private static final String JOB_EXT = ".job";
+    private static final String FAILED_EXT = ".failed";
+    private static final int HISTORY_SIZE = 50;
+
+    private final Path dir;
+    private final Supplier<PrinterPort> printerFactory;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+
+    private final Map<String, Worker> workers = new ConcurrentHashMap<>();
+    private final Map<String, PrintJob> failed = new ConcurrentHashMap<>();
+    private final Deque<PrintJob> history = new ArrayDeque<>();
+    private final List<Consumer<PrintJob>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong seq = new AtomicLong();
+    private volatile boolean closed;
+
+    public PrintSpooler(Path dir, Supplier<PrinterPort> printerFactory) {
+        this(dir, printerFactory,
+                Integer.getInteger("fruver.print.maxAttempts", 8),
+                Long.getLong("fruver.print.backoffMs", 500L),
+                Long.getLong("fruver.print.maxBackoffMs", 30_000L));
+    }
+
+    public PrintSpooler(Path dir, Supplier<PrinterPort> printerFactory, int maxAttempts, long backoffMs, long maxBackoffMs) {
+        this.dir = Objects.requireNonNull(dir, "dir requerido");
+        this.printerFactory = Objects.requireNonNull(printerFactory, "printerFactory requerido");
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(1, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        try {
+            Files.createDirectories(dir);
+            recover();
+        } catch (IOException ex) {
+            throw new DataAccessException("No se pudo abrir la cola de impresión en " + dir, ex);
+        }
+    }
+
+    public Path getDirectory() { return dir; }
+
+    /* ---------------------- Encolar ---------------------- */
+
+    public PrintJob submitReceipt(String printerId, String text) {
+        return submit(printerId, PrintJob.Kind.RECIBO, text);
+    }
+
+    public PrintJob submitCashDrawer(String printerId) {
+        return submit(printerId, PrintJob.Kind.CAJON, "");
+    }
+
+    private PrintJob submit(String printerId, PrintJob.Kind kind, String payload) {
+        if (closed) throw new DataAccessException("Cola de impresión cerrada");
+        if (printerId == null || printerId.isBlank()) throw new DataAccessException("Identificador de impresora vacío");
+        long now = System.currentTimeMillis();
+        // el nombre ordena por llegada también al recuperar desde disco
+        String id = String.format("%013d-%06d", now, seq.incrementAndGet() % 1_000_000);
+        PrintJob job = new PrintJob(id, printerId.trim(), kind, payload, now);
+        persist(job);
+        enqueue(job);
+        return job;
+    }
+
+    /** Vuelve a encolar un trabajo FALLIDO. */
+    public boolean retry(String jobId) {
+        PrintJob job = failed.remove(jobId);
+        if (job == null) return false;
+        try {
+            Files.move(file(jobId, FAILED_EXT), file(jobId, JOB_EXT), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            failed.put(jobId, job);
+            throw new DataAccessException("No se pudo reencolar el trabajo " + jobId, ex);
+        }
+        job.setAttempts(0);
+        job.setLastError(null);
+        enqueue(job);
+        return true;
+    }
+
+    /* ---------------------- Estado ---------------------- */
+
+    public void addListener(Consumer<PrintJob> l) { if (l != null) listeners.add(l); }
+    public void removeListener(Consumer<PrintJob> l) { listeners.remove(l); }
+
+    /** Trabajos pendientes (en cola o imprimiéndose) de todas las impresoras. */
+    public int pendingCount() {
+        int n = 0;
+        for (Worker w : workers.values()) n += w.pending();
+        return n;
+    }
+
+    public List<PrintJob> failedJobs() {
+        List<PrintJob> out = new ArrayList<>(failed.values());
+        out.sort(Comparator.comparing(PrintJob::getId));
+        return out;
+    }
+
+    /** Últimos trabajos terminados (impresos o fallidos), el más reciente primero. */
+    public List<PrintJob> recentJobs() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    /** Espera a que no queden trabajos pendientes; false si vence el tiempo. */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (pendingCount() > 0) {
+            if (System.nanoTime() - deadline >= 0) return false;
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /** Detiene los hilos y cierra las impresoras; lo pendiente queda en disco para el próximo arranque. */
+    @Override
+    public void close() {
+        closed = true;
+        for (Worker w : workers.values()) w.stop();
+        workers.clear();
+    }
+
+    /* ---------------------- Internos ---------------------- */
+
+    private void enqueue(PrintJob job) {
+        String key = job.getPrinterId().toUpperCase(Locale.ROOT);
+        workers.computeIfAbsent(key, k -> new Worker(job.getPrinterId())).offer(job);
+        fire(job);
+    }
+
+    private void fire(PrintJob job) {
+        for (Consumer<PrintJob> l : listeners) {
+            try { l.accept(job); } catch (Throwable ignored) {}
+        }
+    }
+
+    private void finished(PrintJob job) {
+        synchronized (history) {
+            history.addFirst(job);
+            while (history.size() > HISTORY_SIZE) history.removeLast();
+        }
+        fire(job);
+    }
+
+    private Path file(String id, String ext) {
+        return dir.resolve(id + ext);
+    }
+
+    private void persist(PrintJob job) {
+        String content = job.getPrinterId() + "\n" + job.getKind() + "\n" + job.getCreatedAtMillis() + "\n" + job.getPayload();
+        Path tmp = file(job.getId(), ".tmp");
+        try {
+            Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ch.force(true);
+            }
+            Files.move(tmp, file(job.getId(), JOB_EXT), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            throw new DataAccessException("Error guardando trabajo de impresión", ex);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) files.add(p);
+        }
+        Collections.sort(files);
+        int pending = 0;
+        for (Path p : files) {
+            String name = p.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                // escritura interrumpida antes del move: el trabajo nunca se confirmó
+                Files.deleteIfExists(p);
+                continue;
+            }
+            boolean isJob = name.endsWith(JOB_EXT);
+            if (!isJob && !name.endsWith(FAILED_EXT)) continue;
+            String id = name.substring(0, name.lastIndexOf('.'));
+            PrintJob job = load(id, p);
+            if (job == null) continue;
+            if (isJob) {
+                enqueue(job);
+                pending++;
+            } else {
+                job.setStatus(PrintJob.Status.FALLIDO);
+                failed.put(id, job);
+            }
+        }
+        if (pending > 0) System.out.println("[PrintSpooler] " + pending + " trabajo(s) de impresión pendientes reencolados.");
+    }
+
+    private PrintJob load(String id, Path p) {
+        try {
+            String s = new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+            int a = s.indexOf('\n');
+            int b = s.indexOf('\n', a + 1);
+            int c = s.indexOf('\n', b + 1);
+            if (a < 0 || b < 0 || c < 0) throw new IOException("formato inválido");
+            return new PrintJob(id, s.substring(0, a), PrintJob.Kind.valueOf(s.substring(a + 1, b)),
+                    s.substring(c + 1), Long.parseLong(s.substring(b + 1, c)));
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("[PrintSpooler] Trabajo ilegible " + p + ", se descarta: " + ex.getMessage());
+            try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            return null;
+        }
+    }
+
+    /** Hilo dedicado a una impresora. */
+    private final class Worker implements Runnable {
+        private final String printerId;
+        private final BlockingQueue<PrintJob> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile PrintJob current;
+        private PrinterPort port; // sólo hilo del worker
+
+        Worker(String printerId) {
+            this.printerId = printerId;
+            this.thread = new Thread(this, "print-spool-" + printerId);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void offer(PrintJob job) { queue.add(job); }
+
+        int pending() { return queue.size() + (current != null ? 1 : 0); }
+
+        void stop() {
+            running = false;
+            thread.interrupt();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    PrintJob job = queue.take();
+                    current = job;
+                    try {
+                        process(job);
+                    } finally {
+                        current = null;
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                // close()
+            } finally {
+                closePort();
+            }
+        }
+
+        private void process(PrintJob job) throws InterruptedException {
+            long delay = backoffMs;
+            while (true) {
+                job.setAttempts(job.getAttempts() + 1);
+                job.setStatus(PrintJob.Status.IMPRIMIENDO);
+                fire(job);
+                try {
+                    print(job);
+                    try { Files.deleteIfExists(file(job.getId(), JOB_EXT)); } catch (IOException ignored) {}
+                    job.setLastError(null);
+                    job.setStatus(PrintJob.Status.IMPRESO);
+                    finished(job);
+                    return;
+                } catch (RuntimeException ex) {
+                    closePort();
+                    job.setLastError(ex.getMessage());
+                    if (job.getAttempts() >= maxAttempts) {
+                        markFailed(job);
+                        return;
+                    }
+                    job.setStatus(PrintJob.Status.REINTENTANDO);
+                    fire(job);
+                    if (!running) throw new InterruptedException();
+                    Thread.sleep(delay);
+                    delay = Math.min(maxBackoffMs, delay * 2);
+                }
+            }
+        }
+
+        private void print(PrintJob job) {
+            if (port == null) {
+                PrinterPort p = printerFactory.get();
+                p.init(printerId);
+                port = p;
+            }
+            if (job.getKind() == PrintJob.Kind.CAJON) port.openCashDrawer();
+            else port.printReceipt(job.getPayload());
+        }
+
+        private void markFailed(PrintJob job) {
+            try {
+                Files.move(file(job.getId(), JOB_EXT), file(job.getId(), FAILED_EXT), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException ex) {
+                System.err.println("[PrintSpooler] No se pudo marcar como fallido " + job.getId() + ": " + ex.getMessage());
+            }
+            job.setStatus(PrintJob.Status.FALLIDO);
+            failed.put(job.getId(), job);
+            System.err.println("[PrintSpooler] " + job);
+            finished(job);
+        }
+
+        private void closePort() {
+            if (port == null) return;
+            try { port.close(); } catch (Throwable ignored) {}
+            port = null;
+        }
+    }
+}
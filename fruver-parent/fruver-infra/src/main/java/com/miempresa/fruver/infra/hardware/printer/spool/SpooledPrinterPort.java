@@ -0,0 +1,51 @@
+package com.miempresa.fruver.infra.hardware.printer.spool;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.domain.port.PrinterPort;
+
+/**
+ * PrinterPort que no imprime en el hilo llamador: encola en un PrintSpooler.
+ * Reemplazo directo de PrinterPortAdapter para casos de uso que llaman
+ * init/printReceipt/close en la ruta del cobro (GenerarFacturaUseCase lo recibe
+ * envuelto con service.port.PrinterPort.from).
+ */
+public class SpooledPrinterPort implements PrinterPort {
+
+    private final PrintSpooler spooler;
+    private volatile String printerId;
+    private volatile PrintJob lastJob;
+
+    public SpooledPrinterPort(PrintSpooler spooler) {
+        this.spooler = spooler;
+    }
+
+    @Override
+    public void init(String printerId) {
+        if (printerId == null || printerId.isBlank()) throw new DataAccessException("Identificador de impresora vacío");
+        this.printerId = printerId.trim();
+    }
+
+    @Override
+    public void printReceipt(String payload) {
+        lastJob = spooler.submitReceipt(requirePrinter(), payload);
+    }
+
+    @Override
+    public void openCashDrawer() {
+        lastJob = spooler.submitCashDrawer(requirePrinter());
+    }
+
+    /** Último trabajo encolado por este puerto (para seguir su estado). */
+    public PrintJob getLastJob() { return lastJob; }
+
+    @Override
+    public void close() {
+        // el spooler mantiene la impresora; aquí no hay nada que liberar
+    }
+
+    private String requirePrinter() {
+        String id = printerId;
+        if (id == null) throw new DataAccessException("Impresora no inicializada");
+        return id;
+    }
+}
@@ -0,0 +1,33 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Formato continuo tipo CAS (ER/PD/AP y compatibles), una línea por lectura:
+ * {@code ST,GS,+  1.235kg} — cabecera 1: ST estable / US inestable / OL sobrecarga;
+ * cabecera 2: GS bruto / NT neto. La báscula transmite sola (sin petición).
+ */
+public final class CasScaleProtocol implements ScaleProtocol {
+    public static final String ID = "CAS";
+
+    @Override public String getId() { return ID; }
+    @Override public String getDescription() { return "CAS continuo (ST/US/OL,GS/NT,peso)"; }
+    @Override public byte[] getRequestCommand() { return new byte[0]; }
+    @Override public ScaleFrameDecoder.Framing getFraming() { return ScaleFrameDecoder.Framing.LINE; }
+
+    @Override
+    public boolean decode(byte[] f, int n, ScaleReading out) {
+        if (n < 6 || f[2] != ',' || f[5] != ',') return false;
+        int h1 = (f[0] << 8) | f[1];
+        int h2 = (f[3] << 8) | f[4];
+        if (h2 != ('G' << 8 | 'S') && h2 != ('N' << 8 | 'T')) return false;
+        if (h1 == ('O' << 8 | 'L')) {
+            out.addStatus(ScaleReading.OVERLOAD);
+            return true;
+        }
+        if (h1 == ('U' << 8 | 'S')) out.addStatus(ScaleReading.MOTION);
+        else if (h1 != ('S' << 8 | 'T')) return false;
+        int grams = ScaleFrameDecoder.parseGrams(f, 6, n);
+        if (grams == Integer.MIN_VALUE) return false;
+        out.setGrams(grams);
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Comportamiento histórico de ScaleService: petición "96814C", tramas STX/ETX o por línea
+ * y se toma el primer número de la trama como kg. No informa movimiento ni sobrecarga.
+ */
+public final class GenericScaleProtocol implements ScaleProtocol {
+    public static final String ID = "GENERIC";
+    private static final byte[] REQUEST = "96814C".getBytes(StandardCharsets.US_ASCII);
+
+    @Override public String getId() { return ID; }
+    @Override public String getDescription() { return "Genérico (primer número de la trama, kg)"; }
+    @Override public byte[] getRequestCommand() { return REQUEST.clone(); }
+    @Override public ScaleFrameDecoder.Framing getFraming() { return ScaleFrameDecoder.Framing.STX_ETX_OR_LINE; }
+
+    @Override
+    public boolean decode(byte[] frame, int length, ScaleReading out) {
+        int grams = ScaleFrameDecoder.parseGrams(frame, length);
+        if (grams == Integer.MIN_VALUE) return false;
+        out.setGrams(grams);
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Protocolo NCI / Weigh-Tronix ECR, petición/respuesta:
+ * se envía {@code W CR}; responde {@code LF <peso><unidad> CR LF S <e1><e2> CR ETX}.
+ * Bytes de estado (nibble bajo): e1 bit0 = movimiento, bit1 = en cero;
+ * e2 bit0 = bajo capacidad, bit1 = sobre capacidad.
+ */
+public final class NciScaleProtocol implements ScaleProtocol {
+    public static final String ID = "NCI_ECR";
+
+    @Override public String getId() { return ID; }
+    @Override public String getDescription() { return "NCI / Weigh-Tronix ECR (W CR -> LF peso ... ETX)"; }
+    @Override public byte[] getRequestCommand() { return new byte[]{'W', '\r'}; }
+    @Override public ScaleFrameDecoder.Framing getFraming() {
+        return ScaleFrameDecoder.Framing.delimited(ScaleFrameDecoder.LF, ScaleFrameDecoder.ETX);
+    }
+
+    @Override
+    public boolean decode(byte[] f, int n, ScaleReading out) {
+        // ubicar el bloque de estado "S" tras CR LF
+        int s = -1;
+        for (int i = 0; i + 2 < n; i++) {
+            if (f[i] == '\r' && f[i + 1] == '\n' && f[i + 2] == 'S') { s = i + 3; break; }
+        }
+        if (s < 0 || s + 1 >= n) return false;
+        int e1 = f[s] & 0x0F;
+        int e2 = f[s + 1] & 0x0F;
+        if ((e1 & 0x01) != 0) out.addStatus(ScaleReading.MOTION);
+        if ((e2 & 0x01) != 0) out.addStatus(ScaleReading.NEGATIVE);
+        if ((e2 & 0x02) != 0) out.addStatus(ScaleReading.OVERLOAD);
+        int grams = ScaleFrameDecoder.parseGrams(f, 0, s - 3);
+        if (grams != Integer.MIN_VALUE && !out.isOverload()) out.setGrams(grams);
+        return true;
+    }
+}
@@ -1,5 +1,7 @@
 package com.miempresa.fruver.infra.hardware.scale;
 
+import com.miempresa.fruver.infra.task.TaskRuntime;
+
 import java.util.concurrent.*;
 import java.util.function.Consumer;
 
@@ -8,18 +10,22 @@ import java.util.function.Consumer;
  * Envuelve un ScaleService (no lo modifica).
  * Reintenta apertura con backoff exponencial cuando detecta desconexión.
  * Notifica el estado vía onStatus consumer.
+ *
+ * Si la báscula está transmitiendo (modo streaming), una muestra reciente cuenta como
+ * conexión viva y no se envía una petición de lectura extra que compita con el cajero.
+ *
+ * El chequeo corre en el carril HARDWARE_MONITOR de TaskRuntime; durante el backoff no se duerme
+ * el hilo: los turnos anteriores a la próxima reconexión simplemente no hacen nada.
  */
 public class ScaleAutoReconnectManager {
     private final ScaleService scale;
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "ScaleAutoReconnect");
-        t.setDaemon(true);
-        return t;
-    });
+    private volatile ScheduledFuture<?> monitor;
     private volatile boolean monitoring = false;
     private volatile String currentPort;
     private volatile int currentBaud;
     private Consumer<String> onStatus = s -> {};
+    private Runnable onOpened = () -> {};
+    private static final long LIVE_SAMPLE_NANOS = TimeUnit.SECONDS.toNanos(3);
 
     public ScaleAutoReconnectManager(ScaleService scale) {
         this.scale = scale;
@@ -29,6 +35,11 @@ public class ScaleAutoReconnectManager {
         this.onStatus = onStatus == null ? s -> {} : onStatus;
     }
 
+    /** Se invoca (en el hilo del monitor) cada vez que el puerto se abre o reabre. */
+    public void setOnOpened(Runnable onOpened) {
+        this.onOpened = onOpened == null ? () -> {} : onOpened;
+    }
+
     /**
      * Inicia monitor que mantiene la conexión.
      */
@@ -38,14 +49,23 @@ public class ScaleAutoReconnectManager {
         this.currentBaud = baudRate;
         monitoring = true;
 
-        scheduler.scheduleWithFixedDelay(new Runnable() {
+        monitor = TaskRuntime.shared().scheduleWithFixedDelay(TaskRuntime.Pool.HARDWARE_MONITOR, new Runnable() {
             private int attempt = 0;
+            private long nextAttemptNanos = 0;
 
             @Override
             public void run() {
                 if (!monitoring) return;
+                if (attempt > 0 && System.nanoTime() - nextAttemptNanos < 0) return; // en backoff
                 try {
                     // 1) si puerto está abierto y responde -> informamos y salimos de esta ejecución
+                    WeightSampleBuffer samples = scale.getSamples();
+                    if (scale.isOpen() && samples.count() > 0
+                            && System.nanoTime() - samples.lastNanos() < LIVE_SAMPLE_NANOS) {
+                        attempt = 0;
+                        onStatus.accept(String.format("Conectada (%.3f kg)", samples.lastKg()));
+                        return;
+                    }
                     try {
                         // readWeightKg lanza excepción si no responde
                         double w = scale.readWeightKg();
@@ -65,9 +85,10 @@ public class ScaleAutoReconnectManager {
                         scale.open(currentPort, currentBaud);
                         onStatus.accept("Puerto abierto: " + currentPort);
                         attempt = 0;
+                        onOpened.run();
                     } catch (Exception ex) {
                         onStatus.accept("Fallo apertura: " + ex.getMessage() + " -> reintento en " + backoff + "ms");
-                        try { Thread.sleep(backoff); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+                        nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff);
                     }
 
                 } catch (Throwable t) {
@@ -80,9 +101,8 @@ public class ScaleAutoReconnectManager {
 
     public void stop() {
         monitoring = false;
-        try {
-            scheduler.shutdownNow();
-        } catch (Exception ignored) {}
+        ScheduledFuture<?> m = monitor;
+        if (m != null) m.cancel(false);
         try { scale.close(); } catch (Exception ignored) {}
         onStatus.accept("Reconnector stopped");
     }
@@ -0,0 +1,236 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Decodificador de tramas de báscula a nivel de byte, sin asignaciones por trama.
+ *
+ * El encuadre lo define un {@link Framing} (lo aporta cada ScaleProtocol). El genérico
+ * acepta los dos encuadres habituales:
+ *  - STX (0x02) ... ETX (0x03)
+ *  - texto terminado en LF (CR se ignora)
+ * Los bytes se acumulan en un buffer fijo reutilizable y, al cerrar la trama, se entregan
+ * al FrameSink (buffer + longitud; el contenido sólo es válido durante la llamada).
+ * Tramas más largas que el buffer se descartan.
+ *
+ * Con el constructor de WeightSink se usa el parseo genérico: primer número (signo
+ * opcional, separador decimal '.' o ',') convertido a gramos en punto fijo; unidad kg por
+ * defecto, o gramos si el número va seguido de "g" (sin "k").
+ *
+ * No es thread-safe: lo usa sólo el hilo del listener serie.
+ */
+public final class ScaleFrameDecoder {
+
+    /** Receptor de pesos decodificados (primitivo para no boxear). */
+    public interface WeightSink {
+        void onWeight(int grams);
+    }
+
+    /** Receptor de tramas completas (sin los bytes de encuadre). */
+    public interface FrameSink {
+        void onFrame(byte[] frame, int length);
+    }
+
+    static final byte STX = 0x02;
+    static final byte ETX = 0x03;
+    static final byte LF = '\n';
+    static final byte CR = '\r';
+
+    /** Encuadre de tramas: byte de inicio/fin (-1 si no aplica) y/o tramas por línea (LF). */
+    public static final class Framing {
+        /** STX..ETX o línea terminada en LF. */
+        public static final Framing STX_ETX_OR_LINE = new Framing(STX, ETX, true);
+        /** Sólo líneas terminadas en LF. */
+        public static final Framing LINE = new Framing(-1, -1, true);
+
+        final int start;
+        final int end;
+        final boolean lines;
+
+        private Framing(int start, int end, boolean lines) {
+            this.start = start;
+            this.end = end;
+            this.lines = lines;
+        }
+
+        /** Trama delimitada por start..end (p. ej. STX..CR). */
+        public static Framing delimited(int start, int end) {
+            return new Framing(start, end, false);
+        }
+    }
+
+    private static final int OUTSIDE = 0;  // fuera de trama delimitada (acumulando línea si aplica)
+    private static final int IN_FRAME = 1; // dentro de start..end
+    private static final int DISCARD = 2;  // trama desbordada: saltar hasta el próximo terminador
+
+    private static final long[] POW10 = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private final byte[] frame;
+    private final FrameSink sink;
+    private final int start;
+    private final int end;
+    private final boolean lines;
+    private final boolean restartOnStart;
+    private int len;
+    private int state = OUTSIDE;
+    private boolean discardInFrame;
+
+    private long frames;
+    private long rejected;
+
+    /** Decodificador genérico: encuadre STX/ETX o línea y parseo a gramos. */
+    public ScaleFrameDecoder(int maxFrameLength, WeightSink sink) {
+        this(maxFrameLength, Framing.STX_ETX_OR_LINE, new FrameSink() {
+            @Override
+            public void onFrame(byte[] f, int n) {
+                int grams = parseGrams(f, n);
+                if (grams != Integer.MIN_VALUE) sink.onWeight(grams);
+            }
+        });
+    }
+
+    public ScaleFrameDecoder(int maxFrameLength, Framing framing, FrameSink sink) {
+        if (maxFrameLength < 8) throw new IllegalArgumentException("maxFrameLength debe ser >= 8");
+        this.frame = new byte[maxFrameLength];
+        this.sink = sink;
+        this.start = framing.start;
+        this.end = framing.end;
+        this.lines = framing.lines;
+        // un STX repetido dentro de la trama indica que se perdió el fin: resincronizar
+        this.restartOnStart = framing.start == STX;
+    }
+
+    /** Tramas completas entregadas al sink. */
+    public long getFrameCount() { return frames; }
+    /** Tramas descartadas por desborde. */
+    public long getRejectedCount() { return rejected; }
+
+    public void reset() {
+        len = 0;
+        state = OUTSIDE;
+    }
+
+    public void feed(byte[] buf, int off, int count) {
+        int stop = off + count;
+        for (int i = off; i < stop; i++) {
+            int b = buf[i] & 0xFF; // sin signo: -1 en Framing nunca coincide
+            switch (state) {
+                case IN_FRAME:
+                    if (b == end) {
+                        endFrame();
+                        state = OUTSIDE;
+                    } else if (restartOnStart && b == start) {
+                        len = 0;
+                    } else {
+                        append((byte) b, true);
+                    }
+                    break;
+                case DISCARD:
+                    if (discardInFrame ? b == end : b == LF) {
+                        state = OUTSIDE;
+                    } else if (restartOnStart && b == start) {
+                        len = 0;
+                        state = IN_FRAME;
+                    }
+                    break;
+                default:
+                    if (b == start) {
+                        len = 0;
+                        state = IN_FRAME;
+                    } else if (lines) {
+                        if (b == LF) endFrame();
+                        else if (b != CR) append((byte) b, false);
+                    }
+            }
+        }
+    }
+
+    private void append(byte b, boolean inFrame) {
+        if (len == frame.length) {
+            rejected++;
+            len = 0;
+            discardInFrame = inFrame;
+            state = DISCARD;
+            return;
+        }
+        frame[len++] = b;
+    }
+
+    private void endFrame() {
+        int n = len;
+        len = 0;
+        if (n == 0) return;
+        frames++;
+        sink.onFrame(frame, n);
+    }
+
+    /**
+     * Primer número de la trama convertido a gramos, o Integer.MIN_VALUE si no hay número.
+     * Usado por los drivers de protocolo.
+     */
+    public static int parseGrams(byte[] f, int n) {
+        return parseGrams(f, 0, n);
+    }
+
+    /** Igual que {@link #parseGrams(byte[], int)} sobre f[from..to). */
+    public static int parseGrams(byte[] f, int from, int to) {
+        int n = to;
+        boolean negative = false;
+        int i = from;
+        // buscar inicio del número (signo o dígito)
+        for (; i < n; i++) {
+            byte b = f[i];
+            if (b >= '0' && b <= '9') break;
+            if (b == '-') negative = true;
+            else if (b == '+') negative = false;
+        }
+        if (i == n) return Integer.MIN_VALUE;
+
+        long mantissa = 0;
+        int digits = 0;
+        int fracDigits = 0;
+        boolean inFraction = false;
+        for (; i < n; i++) {
+            byte b = f[i];
+            if (b >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (inFraction) fracDigits++;
+                }
+            } else if ((b == '.' || b == ',') && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+
+        // unidad: "g" sin "k" delante => gramos
+        boolean grams = false;
+        for (int j = i; j < n; j++) {
+            byte b = f[j];
+            if (b == ' ') continue;
+            if (b == 'k' || b == 'K') break;
+            if (b == 'g' || b == 'G') grams = true;
+            break;
+        }
+
+        long value;
+        if (grams) {
+            value = fracDigits == 0 ? mantissa : roundDiv(mantissa, pow10(fracDigits));
+        } else if (fracDigits <= 3) {
+            value = mantissa * POW10[3 - fracDigits];
+        } else {
+            value = roundDiv(mantissa, pow10(fracDigits - 3));
+        }
+        if (value > Integer.MAX_VALUE) return Integer.MIN_VALUE;
+        return negative ? (int) -value : (int) value;
+    }
+
+    private static long pow10(int e) {
+        return e < POW10.length ? POW10[e] : (long) Math.pow(10, e);
+    }
+
+    private static long roundDiv(long a, long b) {
+        return (a + b / 2) / b;
+    }
+}
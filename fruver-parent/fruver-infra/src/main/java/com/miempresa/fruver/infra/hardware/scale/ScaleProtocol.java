@@ -0,0 +1,28 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * SPI de protocolo de báscula: qué se envía para pedir peso, cómo se encuadran las
+ * respuestas y cómo se decodifican (peso + estado: movimiento, sobrecarga, negativo).
+ *
+ * Las implementaciones deben ser sin estado y no asignar memoria en decode(), que corre
+ * en el hilo del listener serie por cada trama.
+ */
+public interface ScaleProtocol {
+
+    /** Identificador estable; se guarda como "protocol" en los parámetros de BASCULA. */
+    String getId();
+
+    String getDescription();
+
+    /** Bytes de petición de peso; vacío si la báscula transmite de forma continua. */
+    byte[] getRequestCommand();
+
+    ScaleFrameDecoder.Framing getFraming();
+
+    /**
+     * Decodifica una trama (sin bytes de encuadre) en {@code out} (ya limpio).
+     *
+     * @return false si la trama no corresponde a este protocolo
+     */
+    boolean decode(byte[] frame, int length, ScaleReading out);
+}
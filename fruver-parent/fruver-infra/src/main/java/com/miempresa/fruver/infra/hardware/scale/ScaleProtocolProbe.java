@@ -0,0 +1,198 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransport;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransports;
+import com.miempresa.fruver.infra.task.TaskRuntime;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Auto-detección de protocolo y velocidad de la báscula.
+ *
+ * Un puerto serie sólo puede abrirse a una velocidad a la vez, así que por puerto se
+ * recorren las velocidades en orden; en cada una todos los drivers escuchan en paralelo
+ * el mismo flujo de bytes (cada uno con su propio ScaleFrameDecoder) mientras se envía la
+ * petición de cada protocolo. Gana el primer driver de la lista con tramas válidas: los
+ * específicos validan cabeceras/estado y van antes; el genérico (que acepta cualquier
+ * número) va último y sólo gana si ningún otro reconoció el flujo. Si hay varios puertos
+ * candidatos se prueban en paralelo en el carril HARDWARE_MONITOR de TaskRuntime. Los puertos "SIM:..." se prueban contra los
+ * dispositivos virtuales (ver SerialTransports).
+ */
+public class ScaleProtocolProbe {
+
+    public static final int[] DEFAULT_BAUD_RATES = {9600, 4800, 2400, 19200};
+
+    private final List<ScaleProtocol> protocols;
+    private final int[] baudRates;
+    private final long listenMsPerBaud;
+
+    public ScaleProtocolProbe() {
+        this(ScaleProtocols.all(), DEFAULT_BAUD_RATES, 900);
+    }
+
+    public ScaleProtocolProbe(List<ScaleProtocol> protocols, int[] baudRates, long listenMsPerBaud) {
+        this.protocols = List.copyOf(protocols);
+        this.baudRates = baudRates.clone();
+        this.listenMsPerBaud = listenMsPerBaud;
+    }
+
+    /** Puertos serie presentes en el sistema. */
+    public static List<String> listSystemPorts() {
+        List<String> out = new ArrayList<>();
+        for (SerialPort p : SerialPort.getCommPorts()) out.add(p.getSystemPortName());
+        return out;
+    }
+
+    /**
+     * Prueba los puertos indicados (en paralelo) y devuelve el primer resultado según el
+     * orden de la lista.
+     */
+    public Optional<Result> probe(List<String> ports, Consumer<String> progress) {
+        Consumer<String> log = progress == null ? s -> {} : progress;
+        if (ports == null || ports.isEmpty()) return Optional.empty();
+        List<Callable<Result>> tasks = new ArrayList<>(ports.size());
+        for (String port : ports) {
+            tasks.add(() -> {
+                try {
+                    return probePort(port, log);
+                } catch (RuntimeException ex) {
+                    log.accept("Error probando puerto: " + ex.getMessage());
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Result r : TaskRuntime.shared().invokeAll(TaskRuntime.Pool.HARDWARE_MONITOR, tasks, 4)) {
+                if (r != null) return Optional.of(r);
+            }
+            return Optional.empty();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException ex) {
+            log.accept("Error probando puertos: " + ex.getCause().getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /** Prueba un puerto en todas las velocidades; null si ningún driver reconoce tramas. */
+    public Result probePort(String portName, Consumer<String> log) {
+        for (int baud : baudRates) {
+            log.accept("Probando " + portName + "@" + baud + "...");
+            SerialTransport port;
+            try {
+                port = SerialTransports.open(portName, baud, 1000);
+            } catch (RuntimeException ex) {
+                log.accept("No se pudo abrir " + portName + " (ocupado o inexistente)");
+                return null;
+            }
+            try {
+                Result r = listen(port, portName, baud);
+                if (r != null) {
+                    log.accept("Detectado " + r);
+                    return r;
+                }
+            } finally {
+                try { port.close(); } catch (Throwable ignored) {}
+            }
+        }
+        return null;
+    }
+
+    private Result listen(SerialTransport port, String portName, int baud) {
+        int n = protocols.size();
+        int[] hits = new int[n];
+        ScaleReading reading = new ScaleReading();
+        ScaleFrameDecoder[] decoders = new ScaleFrameDecoder[n];
+        for (int i = 0; i < n; i++) {
+            ScaleProtocol p = protocols.get(i);
+            int idx = i;
+            decoders[i] = new ScaleFrameDecoder(128, p.getFraming(), (f, len) -> {
+                reading.clear();
+                if (p.decode(f, len, reading)) hits[idx]++;
+            });
+        }
+
+        // peticiones distintas (las básculas continuas no necesitan ninguna)
+        List<byte[]> requests = new ArrayList<>();
+        for (ScaleProtocol p : protocols) {
+            byte[] req = p.getRequestCommand();
+            if (req.length == 0) continue;
+            boolean dup = false;
+            for (byte[] r : requests) dup |= Arrays.equals(r, req);
+            if (!dup) requests.add(req);
+        }
+
+        long slice = Math.max(100, listenMsPerBaud / (requests.size() + 1));
+        byte[] buf = new byte[256];
+        for (int step = 0; step <= requests.size(); step++) {
+            if (step > 0) {
+                byte[] req = requests.get(step - 1);
+                port.write(req, 0, req.length);
+            }
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(slice);
+            while (System.nanoTime() < until) {
+                int read = port.read(buf, 0, buf.length, 50);
+                if (read > 0) {
+                    for (ScaleFrameDecoder d : decoders) d.feed(buf, 0, read);
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            if (hits[i] > 0) return new Result(portName, baud, protocols.get(i), hits[i]);
+        }
+        return null;
+    }
+
+    /** Resultado de la auto-detección. */
+    public static final class Result {
+        private static final Pattern BAUD = Pattern.compile("\"baudRate\"\\s*:\\s*\\d+");
+        private static final Pattern PROTOCOL = Pattern.compile("\"protocol\"\\s*:\\s*\"[^\"]*\"");
+
+        private final String port;
+        private final int baudRate;
+        private final ScaleProtocol protocol;
+        private final int frames;
+
+        public Result(String port, int baudRate, ScaleProtocol protocol, int frames) {
+            this.port = port;
+            this.baudRate = baudRate;
+            this.protocol = protocol;
+            this.frames = frames;
+        }
+
+        public String getPort() { return port; }
+        public int getBaudRate() { return baudRate; }
+        public ScaleProtocol getProtocol() { return protocol; }
+        public int getFrames() { return frames; }
+
+        /** Escribe baudRate y protocol en el JSON de parámetros, conservando el resto de claves. */
+        public String mergeInto(String paramsJson) {
+            String json = paramsJson == null || paramsJson.isBlank() ? "{}" : paramsJson.trim();
+            json = put(json, BAUD, "\"baudRate\":" + baudRate);
+            json = put(json, PROTOCOL, "\"protocol\":\"" + protocol.getId() + "\"");
+            return json;
+        }
+
+        private static String put(String json, Pattern key, String entry) {
+            Matcher m = key.matcher(json);
+            if (m.find()) return json.substring(0, m.start()) + entry + json.substring(m.end());
+            int close = json.lastIndexOf('}');
+            if (close < 0) return "{" + entry + "}";
+            String head = json.substring(0, close).trim();
+            String sep = head.endsWith("{") ? "" : ",";
+            return head + sep + entry + json.substring(close);
+        }
+
+        @Override
+        public String toString() {
+            return port + "@" + baudRate + " " + protocol.getId() + " (" + frames + " tramas)";
+        }
+    }
+}
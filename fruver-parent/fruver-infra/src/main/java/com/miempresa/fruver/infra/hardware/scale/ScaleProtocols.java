@@ -0,0 +1,34 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Registro de drivers de protocolo disponibles.
+ * El orden importa en la auto-detección: gana el primero que reconozca tramas, por eso el
+ * genérico (acepta cualquier número) va último.
+ */
+public final class ScaleProtocols {
+
+    private static final List<ScaleProtocol> ALL = List.of(
+            new CasScaleProtocol(),
+            new Toledo8217ScaleProtocol(),
+            new NciScaleProtocol(),
+            new GenericScaleProtocol());
+
+    private ScaleProtocols() {}
+
+    public static List<ScaleProtocol> all() { return ALL; }
+
+    public static ScaleProtocol generic() { return ALL.get(ALL.size() - 1); }
+
+    /** Protocolo por id (sin distinguir mayúsculas); el genérico si es null o desconocido. */
+    public static ScaleProtocol byId(String id) {
+        if (id == null || id.isBlank()) return generic();
+        String key = id.trim().toUpperCase(Locale.ROOT);
+        for (ScaleProtocol p : ALL) {
+            if (p.getId().equals(key)) return p;
+        }
+        return generic();
+    }
+}
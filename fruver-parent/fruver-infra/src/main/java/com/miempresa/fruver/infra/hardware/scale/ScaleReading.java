@@ -0,0 +1,37 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Resultado mutable de decodificar una trama (se reutiliza: sin asignaciones por trama).
+ * Una trama puede traer sólo estado (p. ej. "en movimiento") sin peso.
+ */
+public final class ScaleReading {
+    public static final int MOTION = 1;
+    public static final int OVERLOAD = 2;
+    public static final int NEGATIVE = 4;
+
+    private int grams;
+    private boolean hasWeight;
+    private int status;
+
+    public void clear() {
+        grams = 0;
+        hasWeight = false;
+        status = 0;
+    }
+
+    /** Fija el peso; marca NEGATIVE si es menor que cero. */
+    public void setGrams(int grams) {
+        this.grams = grams;
+        this.hasWeight = true;
+        if (grams < 0) status |= NEGATIVE;
+    }
+
+    public void addStatus(int flags) { status |= flags; }
+
+    public int getGrams() { return grams; }
+    public boolean hasWeight() { return hasWeight; }
+    public int getStatus() { return status; }
+    public boolean isMotion() { return (status & MOTION) != 0; }
+    public boolean isOverload() { return (status & OVERLOAD) != 0; }
+    public boolean isNegative() { return (status & NEGATIVE) != 0; }
+}
@@ -1,41 +1,74 @@
 package com.miempresa.fruver.infra.hardware.scale;
 
 import com.fazecast.jSerialComm.SerialPort;
-import com.fazecast.jSerialComm.SerialPortDataListener;
-import com.fazecast.jSerialComm.SerialPortEvent;
 import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.infra.hardware.serial.JSerialCommTransport;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransport;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransports;
 
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * ScaleService — versión con reintentos/backoff y cierre forzado en nueva instancia
  * para mitigar casos en los que el driver/OS mantiene handles nativos entre open/close.
  *
  * Conserva firmas públicas originales y comportamiento observable.
+ *
+ * Recepción sin basura: el listener lee en un byte[] reutilizable, ScaleFrameDecoder
+ * encuadra las tramas y el ScaleProtocol configurado las decodifica a gramos (entero) y
+ * estado (movimiento/sobrecarga/negativo); no se crean String ni arreglos por evento.
+ * El protocolo por defecto es GenericScaleProtocol (comportamiento histórico).
+ *
+ * Modo streaming: cada lectura recibida se guarda con su instante en un WeightSampleBuffer
+ * y pasa por un StableWeightDetector, que publica un evento cuando el peso se asienta
+ * (fruver.scale.stableSamples muestras dentro de fruver.scale.stableToleranceKg).
+ * Para básculas que sólo responden a petición, startStreaming(pollMs) envía el comando
+ * de lectura periódicamente; readStableWeightKg() devuelve el peso estable sin esperar
+ * una respuesta nueva si la báscula ya está quieta.
+ *
+ * La ruta de datos (listener, lectura, petición) va por un SerialTransport: en puertos
+ * físicos envuelve el SerialPort abierto con la secuencia de reintentos; los puertos
+ * "SIM:..." se abren directamente contra la báscula virtual (SimulatedSerialHub).
  */
 public class ScaleService {
     private static final ConcurrentHashMap<String, ReentrantLock> PORT_LOCKS = new ConcurrentHashMap<>();
 
     private SerialPort port;
-    private InputStream in;
-    private OutputStream out;
-
-    private final LinkedBlockingQueue<String> queue = new LinkedBlockingQueue<>(16);
-    private final StringBuilder buffer = new StringBuilder();
-
-    private volatile Double lastKg = null;
-    private SerialPortDataListener listener;
+    private volatile SerialTransport transport;
+
+    private volatile ScaleProtocol protocol = ScaleProtocols.generic();
+    private volatile ScaleFrameDecoder decoder = new ScaleFrameDecoder(128, protocol.getFraming(), this::onFrame);
+    private final ScaleReading reading = new ScaleReading(); // sólo hilo del listener
+    private volatile int lastStatus;
+    private volatile boolean lastFrameHadWeight;
+    private byte[] readBuf = new byte[256];
+    // cada muestra incrementa sampleSeq; readWeightKg espera un cambio tras enviar la petición
+    private final Object sampleMonitor = new Object();
+    private long sampleSeq;
+
+    private volatile double lastKg = Double.NaN;
+
+    // streaming: muestras con marca de tiempo + detector de estabilidad
+    private final WeightSampleBuffer samples = new WeightSampleBuffer(256);
+    private final StableWeightDetector stability = new StableWeightDetector(
+            Integer.getInteger("fruver.scale.stableSamples", 5),
+            Double.parseDouble(System.getProperty("fruver.scale.stableToleranceKg", "0.005")));
+    private final Object writeLock = new Object();
+    private ScheduledExecutorService poller;
+    private ScheduledFuture<?> pollTask;
 
     // configuración
-    private String requestCommand = "96814C";
+    private String requestCommand = new String(protocol.getRequestCommand(), StandardCharsets.US_ASCII);
+    private volatile byte[] requestBytes = protocol.getRequestCommand();
     private int readTimeoutMs = 1500;
     private boolean debug = false;
     // aumentamos intentos por defecto
@@ -51,18 +84,51 @@ public class ScaleService {
         }));
     }
 
-    public void setRequestCommand(String cmd) { this.requestCommand = cmd == null ? "" : cmd; }
+    public void setRequestCommand(String cmd) {
+        this.requestCommand = cmd == null ? "" : cmd;
+        this.requestBytes = requestCommand.getBytes(StandardCharsets.US_ASCII);
+    }
     public void setReadTimeoutMs(int ms) { this.readTimeoutMs = Math.max(200, ms); }
     public void setDebug(boolean d) { this.debug = d; }
 
+    /**
+     * Cambia el driver de protocolo (comando de petición, encuadre y decodificación).
+     * Debe llamarse con el puerto cerrado o antes de open().
+     */
+    public synchronized void setProtocol(ScaleProtocol p) {
+        ScaleProtocol np = p == null ? ScaleProtocols.generic() : p;
+        this.protocol = np;
+        this.decoder = new ScaleFrameDecoder(128, np.getFraming(), this::onFrame);
+        this.requestBytes = np.getRequestCommand();
+        this.requestCommand = new String(requestBytes, StandardCharsets.US_ASCII);
+    }
+
+    public ScaleProtocol getProtocol() { return protocol; }
+
+    /** Flags de la última trama (ScaleReading.MOTION / OVERLOAD / NEGATIVE). */
+    public int getLastStatus() { return lastStatus; }
+
+    public boolean isOpen() { SerialTransport t = transport; return t != null && t.isOpen(); }
+
+    public WeightSampleBuffer getSamples() { return samples; }
+    public StableWeightDetector getStabilityDetector() { return stability; }
+    public void addStableWeightListener(Consumer<StableWeightDetector.StableWeight> l) { stability.addListener(l); }
+    public void removeStableWeightListener(Consumer<StableWeightDetector.StableWeight> l) { stability.removeListener(l); }
+
     public synchronized void open(String portName, int baudRate) {
-        if (port != null && port.isOpen() && portName != null && portName.equals(port.getSystemPortName())) {
+        SerialTransport current = transport;
+        if (current != null && current.isOpen() && portName != null && portName.equalsIgnoreCase(current.getPortName())) {
             if (debug) System.out.println("ScaleService: puerto ya abierto " + portName);
             return;
         }
         // intentar cerrar cualquier estado anterior
         close();
 
+        if (SerialTransports.isSimulated(portName)) {
+            openSimulated(portName, baudRate);
+            return;
+        }
+
         // esperar hasta que el driver reporte que el puerto quedó cerrado (pequeño timeout)
         long waitStart = System.currentTimeMillis();
         long waitTimeout = 2200; // ms total máximo
@@ -173,16 +239,10 @@ public class ScaleService {
 
             if (!opened) throw new DataAccessException("No se pudo abrir puerto tras " + openAttempts + " intentos: " + portName);
 
-            // obtener streams
-            try {
-                in = port.getInputStream();
-                out = port.getOutputStream();
-            } catch (Exception ex) {
-                throw new DataAccessException("Error obteniendo streams del puerto: " + ex.getMessage(), ex);
-            }
-
-            // purga y listener
+            // purga y listener (el listener aún no corre: es seguro limpiar el estado de streaming)
             safePurge();
+            transport = new JSerialCommTransport(port);
+            resetStreamingState();
             installListener();
 
             if (debug) System.out.println("ScaleService: puerto abierto " + portName + "@" + baudRate);
@@ -195,106 +255,124 @@ public class ScaleService {
         }
     }
 
+    /** Puerto virtual: sin reintentos ni locks de driver. */
+    private void openSimulated(String portName, int baudRate) {
+        SerialTransport t = SerialTransports.forPort(portName);
+        t.open(baudRate, 1000);
+        transport = t;
+        resetStreamingState();
+        installListener();
+        if (debug) System.out.println("ScaleService: puerto simulado abierto " + portName + "@" + baudRate);
+    }
+
+    private void resetStreamingState() {
+        decoder.reset();
+        samples.clear();
+        stability.reset();
+    }
+
     private void installListener() {
-        if (listener != null) {
-            try { if (port != null) port.removeDataListener(); } catch (Throwable ignored) {}
-            listener = null;
+        SerialTransport t = transport;
+        t.setDataListener(() -> drainInput(t));
+    }
+
+    /** Lee todo lo disponible en el buffer reutilizable y lo pasa al decodificador. */
+    private void drainInput(SerialTransport t) {
+        try {
+            int avail = t.bytesAvailable();
+            if (avail > readBuf.length) readBuf = new byte[Integer.highestOneBit(avail) << 1];
+            int read;
+            while ((read = t.read(readBuf, 0, readBuf.length, 0)) > 0) {
+                if (debug) {
+                    String raw = new String(readBuf, 0, read, StandardCharsets.US_ASCII);
+                    System.out.println("ScaleService: raw incoming -> [" + raw.replace("\r","\u00B6").replace("\n","\u00B7") + "]");
+                }
+                onBytes(readBuf, 0, read);
+            }
+        } catch (Throwable ex) {
+            if (debug) System.err.println("ScaleService listener error: " + ex.getMessage());
         }
+    }
 
-        listener = new SerialPortDataListener() {
-            @Override
-            public int getListeningEvents() { return SerialPort.LISTENING_EVENT_DATA_AVAILABLE; }
+    /**
+     * Entrega bytes recibidos al decodificador (tramas STX..ETX o líneas terminadas en \n).
+     * Package-private para poder medirlo sin puerto serie (fruver-bench).
+     */
+    void onBytes(byte[] buf, int off, int len) {
+        decoder.feed(buf, off, len);
+    }
 
-            @Override
-            public void serialEvent(SerialPortEvent event) {
-                if (event.getEventType() != SerialPort.LISTENING_EVENT_DATA_AVAILABLE) return;
-                try {
-                    int avail = port.bytesAvailable();
-                    int toRead = Math.max(avail, 64);
-                    byte[] buf = new byte[toRead];
-                    int read = port.readBytes(buf, Math.min(buf.length, avail > 0 ? avail : buf.length));
-                    if (read <= 0) return;
-                    String s = new String(buf, 0, read, StandardCharsets.US_ASCII);
-                    if (debug) System.out.println("ScaleService: raw incoming -> [" + s.replace("\r","\u00B6").replace("\n","\u00B7") + "]");
-                    synchronized (buffer) {
-                        buffer.append(s);
-                        while (true) {
-                            int stx = buffer.indexOf("\u0002");
-                            if (stx < 0) break;
-                            int etx = buffer.indexOf("\u0003", stx + 1);
-                            if (etx < 0) break;
-                            String payload = buffer.substring(stx + 1, etx);
-                            buffer.delete(0, etx + 1);
-                            handlePayload(payload);
-                        }
-                        int nl;
-                        while ((nl = buffer.indexOf("\n")) >= 0) {
-                            String line = buffer.substring(0, nl).trim();
-                            buffer.delete(0, nl + 1);
-                            if (!line.isEmpty()) handlePayload(line);
-                        }
-                    }
-                } catch (Throwable t) {
-                    if (debug) System.err.println("ScaleService listener error: " + t.getMessage());
-                }
+    private void onFrame(byte[] frame, int len) {
+        ScaleReading r = reading;
+        r.clear();
+        if (!protocol.decode(frame, len, r)) return;
+        int status = r.getStatus();
+        lastStatus = status;
+        lastFrameHadWeight = r.hasWeight();
+        boolean unstable = (status & (ScaleReading.MOTION | ScaleReading.OVERLOAD)) != 0;
+        if (!r.hasWeight()) {
+            // trama sólo de estado (p. ej. "en movimiento"): también responde a la petición
+            if (unstable) stability.reset();
+            signalSample();
+            return;
+        }
+        int grams = r.getGrams();
+        double kg = grams / 1000.0;
+        if (debug) System.out.println("ScaleService: peso decodificado -> " + grams + " g (estado=" + status + ")");
+        lastKg = kg;
+        long now = System.nanoTime();
+        samples.add(kg, now);
+        // la báscula informa movimiento: el tramo actual no puede considerarse estable
+        if (unstable) stability.reset();
+        else stability.offer(kg, now);
+        signalSample();
+    }
+
+    private void signalSample() {
+        synchronized (sampleMonitor) {
+            sampleSeq++;
+            sampleMonitor.notifyAll();
+        }
+    }
+
+    /** Espera una muestra posterior a {@code seq}; devuelve false si vence el timeout. */
+    private boolean awaitSampleAfter(long seq, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (sampleMonitor) {
+            while (sampleSeq == seq) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) return false;
+                sampleMonitor.wait(remainingMs);
             }
-        };
-        try {
-            port.addDataListener(listener);
-        } catch (Throwable t) {
-            if (debug) System.err.println("ScaleService: fallo al agregar listener: " + t.getMessage());
+            return true;
         }
     }
 
-    private void handlePayload(String payload) {
-        String cleaned = payload.replaceAll("[^0-9,\\.\\-]+", "").replace(',', '.').trim();
-        if (cleaned.isEmpty()) return;
-        if (debug) System.out.println("ScaleService: payload parsed -> '" + cleaned + "'");
-        try {
-            double kg = Double.parseDouble(cleaned);
-            lastKg = kg;
-            queue.offer(cleaned);
-        } catch (NumberFormatException nfe) {
-            if (debug) System.err.println("ScaleService: parse error payload='" + cleaned + "'");
+    private long currentSampleSeq() {
+        synchronized (sampleMonitor) {
+            return sampleSeq;
         }
     }
 
     public synchronized double readWeightKg() {
-        if (port == null || !port.isOpen()) throw new DataAccessException("Puerto no abierto");
+        if (!isOpen()) throw new DataAccessException("Puerto no abierto");
 
         try {
             if (requestCommand != null && !requestCommand.isBlank()) {
-                queue.clear();
+                long seq = currentSampleSeq();
                 try {
-                    out.write(requestCommand.getBytes(StandardCharsets.US_ASCII));
-                    out.flush();
+                    sendRequest();
                     if (debug) System.out.println("ScaleService: request enviado -> " + requestCommand);
                 } catch (Exception ioe) {
                     if (debug) System.err.println("ScaleService: fallo al enviar request: " + ioe.getMessage());
                 }
 
-                String msg = queue.poll(readTimeoutMs, TimeUnit.MILLISECONDS);
-                if (msg != null) {
-                    try {
-                        double kg = Double.parseDouble(msg);
-                        lastKg = kg;
-                        return kg;
-                    } catch (NumberFormatException ex) {
-                        if (lastKg != null) return lastKg;
-                        throw new DataAccessException("Respuesta inválida de báscula: " + msg);
-                    }
-                } else {
-                    if (lastKg != null) return lastKg;
-                    throw new DataAccessException("Timeout esperando respuesta de báscula (" + readTimeoutMs + "ms)");
-                }
+                if (awaitSampleAfter(seq, readTimeoutMs)) return currentKg();
+                if (!Double.isNaN(lastKg)) return currentKg();
+                throw new DataAccessException("Timeout esperando respuesta de báscula (" + readTimeoutMs + "ms)");
             } else {
-                if (lastKg != null) return lastKg;
-                String msg = queue.poll(200, TimeUnit.MILLISECONDS);
-                if (msg != null) {
-                    double kg = Double.parseDouble(msg);
-                    lastKg = kg;
-                    return kg;
-                }
+                if (!Double.isNaN(lastKg)) return currentKg();
+                if (awaitSampleAfter(currentSampleSeq(), 200)) return currentKg();
                 throw new DataAccessException("No hay lecturas disponibles aún (modo streaming)");
             }
         } catch (InterruptedException ie) {
@@ -307,30 +385,100 @@ public class ScaleService {
         }
     }
 
+    private double currentKg() {
+        int status = lastStatus;
+        if ((status & ScaleReading.OVERLOAD) != 0) throw new DataAccessException("Báscula en sobrecarga");
+        if (!lastFrameHadWeight && (status & ScaleReading.MOTION) != 0) throw new DataAccessException("Peso en movimiento");
+        if (Double.isNaN(lastKg)) throw new DataAccessException("La báscula no informó peso");
+        return lastKg;
+    }
+
+    /**
+     * Inicia el modo streaming. Si hay comando de petición, se envía cada pollMs para que
+     * la báscula reporte continuamente; si no, la báscula ya transmite sola y sólo se
+     * alimenta el buffer/detector desde el listener.
+     */
+    public synchronized void startStreaming(int pollMs) {
+        stopStreaming();
+        if (requestCommand == null || requestCommand.isBlank()) return;
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "scale-poll");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        long period = Math.max(50, pollMs);
+        pollTask = poller.scheduleWithFixedDelay(() -> {
+            try {
+                if (isOpen()) sendRequest();
+            } catch (Throwable t) {
+                if (debug) System.err.println("ScaleService: fallo en poll de streaming: " + t.getMessage());
+            }
+        }, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopStreaming() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+    }
+
+    /**
+     * Devuelve el peso estable vigente o espera hasta timeoutMs a que el peso se asiente.
+     * No toma el monitor de la instancia: puede convivir con readWeightKg/close.
+     */
+    public double readStableWeightKg(long timeoutMs) {
+        if (!isOpen()) throw new DataAccessException("Puerto no abierto");
+        try {
+            StableWeightDetector.StableWeight s = stability.await(timeoutMs, Math.max(500, readTimeoutMs));
+            if (s == null) {
+                throw new DataAccessException("Peso no estable tras " + timeoutMs + "ms");
+            }
+            return s.getKg();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Lectura interrumpida", ie);
+        }
+    }
+
+    private void sendRequest() {
+        SerialTransport t = transport;
+        if (t == null) return;
+        byte[] req = requestBytes;
+        synchronized (writeLock) {
+            t.write(req, 0, req.length);
+        }
+    }
+
     public synchronized int readWeightGrams() {
         double kg = readWeightKg();
         return (int) Math.round(kg * 1000.0);
     }
 
     public synchronized double getLastWeightKg() {
-        return lastKg == null ? Double.NaN : lastKg;
+        return lastKg;
     }
 
     public synchronized void close() {
+        stopStreaming();
+        SerialTransport current = transport;
+        transport = null;
+        if (current != null && port == null) {
+            // puerto simulado: no hay handles nativos que liberar
+            try { current.close(); } catch (Throwable ignored) {}
+            return;
+        }
         try {
             // remover listener primero
-            if (port != null && listener != null) {
-                try { port.removeDataListener(); } catch (Throwable ignored) {}
+            if (current != null) {
+                try { current.setDataListener(null); } catch (Throwable ignored) {}
                 // dar margen para que driver procese la remoción
                 sleep(80);
-                listener = null;
             }
         } catch (Throwable ignored) {}
 
-        // cerrar streams
-        try { if (in != null) { try { in.close(); } catch (Throwable ignored) {} in = null; } } catch (Throwable ignored) {}
-        try { if (out != null) { try { out.close(); } catch (Throwable ignored) {} out = null; } } catch (Throwable ignored) {}
-
         // intentar cerrar el puerto de forma robusta y esperar a que realmente quede cerrado
         try {
             if (port != null) {
@@ -0,0 +1,116 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sesión de báscula de larga duración, única por proceso.
+ *
+ * Abre el puerto BASCULA una sola vez y lo mantiene vivo con ScaleAutoReconnectManager
+ * (reapertura con backoff si se desconecta). Todas las pesadas se atienden desde la
+ * conexión abierta: primero el peso estable del modo streaming y, si la báscula no se
+ * asienta a tiempo, una lectura petición/respuesta clásica.
+ *
+ * Evita el costo de open()/close() por pesada (toggles DTR, backoff, cierres forzados).
+ */
+public class ScaleSession implements AutoCloseable {
+
+    private final ScaleService scale;
+    private final int pollMs;
+    private final List<Consumer<String>> statusListeners = new CopyOnWriteArrayList<>();
+
+    private ScaleAutoReconnectManager manager;
+    private volatile String portName;
+    private volatile int baudRate;
+    private volatile ScaleProtocol protocol;
+    private volatile String status = "Desconectada";
+
+    public ScaleSession() {
+        this(new ScaleService(), Integer.getInteger("fruver.scale.pollMs", 200));
+    }
+
+    public ScaleSession(ScaleService scale, int pollMs) {
+        this.scale = Objects.requireNonNull(scale, "scale requerido");
+        this.pollMs = pollMs;
+    }
+
+    public void start(String portName, int baudRate) {
+        start(portName, baudRate, ScaleProtocols.generic());
+    }
+
+    /**
+     * Arranca (o re-arranca si cambió el puerto/baudios/protocolo) el monitor de conexión.
+     * No bloquea: la apertura ocurre en el hilo del monitor.
+     */
+    public synchronized void start(String portName, int baudRate, ScaleProtocol protocol) {
+        if (portName == null || portName.isBlank()) throw new DataAccessException("Puerto de báscula no configurado");
+        ScaleProtocol p = protocol == null ? ScaleProtocols.generic() : protocol;
+        if (manager != null && portName.equals(this.portName) && baudRate == this.baudRate && p == this.protocol) return;
+        stopManager();
+        this.portName = portName;
+        this.baudRate = baudRate;
+        this.protocol = p;
+        scale.setProtocol(p);
+        manager = new ScaleAutoReconnectManager(scale);
+        manager.setOnStatus(this::setStatus);
+        manager.setOnOpened(() -> scale.startStreaming(pollMs));
+        manager.startMonitoring(portName, baudRate);
+    }
+
+    public String getPortName() { return portName; }
+    public int getBaudRate() { return baudRate; }
+    public ScaleProtocol getProtocol() { return protocol; }
+    public String getStatus() { return status; }
+    public boolean isConnected() { return scale.isOpen(); }
+    public ScaleService getScaleService() { return scale; }
+
+    public void addStatusListener(Consumer<String> l) { if (l != null) statusListeners.add(l); }
+    public void removeStatusListener(Consumer<String> l) { statusListeners.remove(l); }
+
+    /**
+     * Peso en kg desde la conexión viva.
+     *
+     * @param stableTimeoutMs espera máxima a que el peso se asiente antes de caer a una
+     *                        lectura petición/respuesta
+     */
+    public double readWeightKg(long stableTimeoutMs) {
+        if (!scale.isOpen()) {
+            throw new DataAccessException("Báscula no conectada (" + status + ")");
+        }
+        try {
+            return scale.readStableWeightKg(stableTimeoutMs);
+        } catch (DataAccessException notStable) {
+            if (!scale.isOpen()) throw notStable;
+            return scale.readWeightKg();
+        }
+    }
+
+    public int readWeightGrams(long stableTimeoutMs) {
+        return (int) Math.round(readWeightKg(stableTimeoutMs) * 1000.0);
+    }
+
+    @Override
+    public synchronized void close() {
+        stopManager();
+        portName = null;
+        setStatus("Desconectada");
+    }
+
+    private void stopManager() {
+        if (manager != null) {
+            manager.stop(); // cierra también el puerto
+            manager = null;
+        }
+    }
+
+    private void setStatus(String s) {
+        status = s;
+        for (Consumer<String> l : statusListeners) {
+            try { l.accept(s); } catch (Throwable ignored) {}
+        }
+    }
+}
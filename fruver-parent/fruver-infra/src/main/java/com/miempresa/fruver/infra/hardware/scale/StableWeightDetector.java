@@ -0,0 +1,139 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Detecta peso estable sobre el flujo de muestras de la báscula.
+ *
+ * Un "tramo" es una secuencia de muestras consecutivas cuyo rango (max - min) no supera
+ * la tolerancia. Cuando el tramo alcanza {@code requiredSamples} muestras se publica un
+ * evento StableWeight con el promedio del tramo, una sola vez por tramo: el siguiente
+ * evento llega cuando el peso cambia y se vuelve a asentar (otro producto, plato vacío).
+ *
+ * offer() se llama desde el hilo del listener y no crea objetos salvo al publicar.
+ */
+public final class StableWeightDetector {
+
+    private final int requiredSamples;
+    private final double toleranceKg;
+    private final List<Consumer<StableWeight>> listeners = new CopyOnWriteArrayList<>();
+
+    // estado del tramo actual (sólo lo toca el hilo escritor)
+    private int runLength;
+    private double runMin, runMax, runSum;
+    private long runStartNanos;
+
+    private final Object monitor = new Object();
+    private volatile StableWeight current; // null si el tramo actual aún no es estable
+    private volatile long lastSampleNanos;
+
+    public StableWeightDetector(int requiredSamples, double toleranceKg) {
+        if (requiredSamples < 2) throw new IllegalArgumentException("requiredSamples debe ser >= 2");
+        if (toleranceKg < 0) throw new IllegalArgumentException("toleranceKg inválida");
+        this.requiredSamples = requiredSamples;
+        this.toleranceKg = toleranceKg;
+    }
+
+    public int getRequiredSamples() { return requiredSamples; }
+    public double getToleranceKg() { return toleranceKg; }
+
+    public void addListener(Consumer<StableWeight> l) { if (l != null) listeners.add(l); }
+    public void removeListener(Consumer<StableWeight> l) { listeners.remove(l); }
+
+    /** Procesa una muestra nueva. */
+    public void offer(double kg, long nanos) {
+        lastSampleNanos = nanos;
+        double min = Math.min(runMin, kg);
+        double max = Math.max(runMax, kg);
+        if (runLength == 0 || max - min > toleranceKg) {
+            // el peso se movió: arranca un tramo nuevo
+            runLength = 1;
+            runMin = runMax = runSum = kg;
+            runStartNanos = nanos;
+            current = null;
+            return;
+        }
+        runLength++;
+        runMin = min;
+        runMax = max;
+        runSum += kg;
+        if (runLength == requiredSamples) {
+            publish(new StableWeight(runSum / runLength, runStartNanos, nanos, runLength));
+        }
+    }
+
+    /** Olvida el tramo en curso (p. ej. tras reconectar el puerto). */
+    public void reset() {
+        runLength = 0;
+        current = null;
+    }
+
+    /**
+     * Peso estable vigente: el tramo actual ya es estable y su última muestra no tiene
+     * más de maxAgeMs. Null si el peso se está moviendo o la báscula dejó de transmitir.
+     */
+    public StableWeight current(long maxAgeMs) {
+        StableWeight s = current;
+        if (s == null) return null;
+        return System.nanoTime() - lastSampleNanos <= TimeUnit.MILLISECONDS.toNanos(maxAgeMs) ? s : null;
+    }
+
+    /**
+     * Devuelve el peso estable vigente o espera al próximo evento.
+     *
+     * @return null si no se estabiliza dentro de timeoutMs
+     */
+    public StableWeight await(long timeoutMs, long maxAgeMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (monitor) {
+            while (true) {
+                StableWeight s = current(maxAgeMs);
+                if (s != null) return s;
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) return null;
+                monitor.wait(remainingMs);
+            }
+        }
+    }
+
+    private void publish(StableWeight s) {
+        current = s;
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+        for (Consumer<StableWeight> l : listeners) {
+            try { l.accept(s); } catch (Throwable ignored) {}
+        }
+    }
+
+    /** Evento de peso estable. */
+    public static final class StableWeight {
+        private final double kg;
+        private final long firstSampleNanos;
+        private final long stableAtNanos;
+        private final int samples;
+
+        public StableWeight(double kg, long firstSampleNanos, long stableAtNanos, int samples) {
+            this.kg = kg;
+            this.firstSampleNanos = firstSampleNanos;
+            this.stableAtNanos = stableAtNanos;
+            this.samples = samples;
+        }
+
+        public double getKg() { return kg; }
+        public int getGrams() { return (int) Math.round(kg * 1000.0); }
+        /** nanoTime de la primera muestra del tramo. */
+        public long getFirstSampleNanos() { return firstSampleNanos; }
+        /** nanoTime de la muestra con la que se declaró estable. */
+        public long getStableAtNanos() { return stableAtNanos; }
+        public int getSamples() { return samples; }
+
+        @Override
+        public String toString() {
+            return String.format("StableWeight[%.3f kg, %d muestras]", kg, samples);
+        }
+    }
+}
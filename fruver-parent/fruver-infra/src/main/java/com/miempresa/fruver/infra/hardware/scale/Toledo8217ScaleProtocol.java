@@ -0,0 +1,39 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Protocolo Mettler Toledo 8217 (modo ECR), petición/respuesta:
+ * se envía 'W'; con peso estable responde {@code STX 01.234 CR}; si no hay peso válido
+ * responde {@code STX ? <estado> CR}, donde el byte de estado trae bit0 = movimiento,
+ * bit1 = sobre capacidad, bit2 = bajo cero.
+ */
+public final class Toledo8217ScaleProtocol implements ScaleProtocol {
+    public static final String ID = "TOLEDO_8217";
+
+    @Override public String getId() { return ID; }
+    @Override public String getDescription() { return "Mettler Toledo 8217 (W -> STX peso CR)"; }
+    @Override public byte[] getRequestCommand() { return new byte[]{'W'}; }
+    @Override public ScaleFrameDecoder.Framing getFraming() {
+        return ScaleFrameDecoder.Framing.delimited(ScaleFrameDecoder.STX, ScaleFrameDecoder.CR);
+    }
+
+    @Override
+    public boolean decode(byte[] f, int n, ScaleReading out) {
+        if (f[0] == '?') {
+            if (n < 2) return false;
+            int st = f[1];
+            if ((st & 0x01) != 0) out.addStatus(ScaleReading.MOTION);
+            if ((st & 0x02) != 0) out.addStatus(ScaleReading.OVERLOAD);
+            if ((st & 0x04) != 0) out.addStatus(ScaleReading.NEGATIVE);
+            return true;
+        }
+        // sólo dígitos, punto decimal y espacios
+        for (int i = 0; i < n; i++) {
+            byte b = f[i];
+            if ((b < '0' || b > '9') && b != '.' && b != ' ') return false;
+        }
+        int grams = ScaleFrameDecoder.parseGrams(f, n);
+        if (grams == Integer.MIN_VALUE) return false;
+        out.setGrams(grams);
+        return true;
+    }
+}
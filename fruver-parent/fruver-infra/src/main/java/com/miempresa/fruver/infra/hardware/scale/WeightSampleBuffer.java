@@ -0,0 +1,80 @@
+package com.miempresa.fruver.infra.hardware.scale;
+
+/**
+ * Buffer circular preasignado de muestras de peso (kg + instante System.nanoTime()).
+ *
+ * - Arreglos primitivos: el listener serie no crea objetos por muestra.
+ * - Un solo escritor (el hilo del listener) y lectores concurrentes.
+ * - El escritor publica cada muestra incrementando {@code written} (volatile) después de
+ *   escribir los arreglos; un lector que detecta que sus slots fueron sobrescritos
+ *   mientras copiaba reintenta la copia.
+ */
+public final class WeightSampleBuffer {
+
+    private final double[] kg;
+    private final long[] nanos;
+    private final int mask;
+    private volatile long written;
+
+    /** @param capacity se redondea a la siguiente potencia de 2 (mínimo 8) */
+    public WeightSampleBuffer(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(8, capacity - 1)) << 1;
+        this.kg = new double[cap];
+        this.nanos = new long[cap];
+        this.mask = cap - 1;
+    }
+
+    /** Agrega una muestra. Sólo debe llamarse desde el hilo escritor. */
+    public void add(double weightKg, long timestampNanos) {
+        long w = written;
+        int slot = (int) (w & mask);
+        kg[slot] = weightKg;
+        nanos[slot] = timestampNanos;
+        written = w + 1;
+    }
+
+    public int capacity() { return mask + 1; }
+
+    /** Total de muestras recibidas desde la creación (o el último clear). */
+    public long count() { return written; }
+
+    /** Muestras disponibles actualmente (como máximo la capacidad). */
+    public int size() { return (int) Math.min(written, mask + 1); }
+
+    /** Descarta las muestras acumuladas (sólo desde el hilo escritor o con el escritor detenido). */
+    public void clear() { written = 0; }
+
+    /**
+     * Copia las últimas muestras, de la más antigua a la más reciente.
+     *
+     * @return cantidad copiada (≤ min(outKg.length, size()))
+     */
+    public int latest(double[] outKg, long[] outNanos) {
+        int want = outKg.length;
+        if (outNanos != null) want = Math.min(want, outNanos.length);
+        while (true) {
+            long end = written;
+            int n = (int) Math.min(want, Math.min(end, mask + 1));
+            long start = end - n;
+            for (int i = 0; i < n; i++) {
+                int slot = (int) ((start + i) & mask);
+                outKg[i] = kg[slot];
+                if (outNanos != null) outNanos[i] = nanos[slot];
+            }
+            // si el escritor avanzó tanto que pisó el tramo copiado, repetir
+            if (written - start <= mask + 1) return n;
+        }
+    }
+
+    /** Peso de la última muestra, o NaN si no hay. */
+    public double lastKg() {
+        long w = written;
+        return w == 0 ? Double.NaN : kg[(int) ((w - 1) & mask)];
+    }
+
+    /** Instante (nanoTime) de la última muestra, o 0 si no hay. */
+    public long lastNanos() {
+        long w = written;
+        return w == 0 ? 0L : nanos[(int) ((w - 1) & mask)];
+    }
+}
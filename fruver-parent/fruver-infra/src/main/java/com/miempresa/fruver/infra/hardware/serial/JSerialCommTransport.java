@@ -0,0 +1,104 @@
+package com.miempresa.fruver.infra.hardware.serial;
+
+import com.fazecast.jSerialComm.SerialPort;
+import com.fazecast.jSerialComm.SerialPortDataListener;
+import com.fazecast.jSerialComm.SerialPortEvent;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+/**
+ * SerialTransport sobre un puerto físico (jSerialComm).
+ * Puede envolver un SerialPort ya abierto (ScaleService conserva su propia secuencia de
+ * apertura con reintentos) o abrirlo con open().
+ */
+public class JSerialCommTransport implements SerialTransport {
+
+    private final SerialPort port;
+
+    public JSerialCommTransport(String portName) {
+        this(SerialPort.getCommPort(portName));
+    }
+
+    public JSerialCommTransport(SerialPort port) {
+        if (port == null) throw new DataAccessException("Puerto serie nulo");
+        this.port = port;
+    }
+
+    public SerialPort getSerialPort() { return port; }
+
+    @Override
+    public String getPortName() { return port.getSystemPortName(); }
+
+    @Override
+    public void open(int baudRate, int openTimeoutMs) {
+        port.setComPortParameters(baudRate, 8, SerialPort.ONE_STOP_BIT, SerialPort.NO_PARITY);
+        port.setFlowControl(SerialPort.FLOW_CONTROL_DISABLED);
+        port.setComPortTimeouts(SerialPort.TIMEOUT_NONBLOCKING, 0, 0);
+        if (!port.openPort(openTimeoutMs)) {
+            throw new DataAccessException("No se pudo abrir puerto serial: " + getPortName());
+        }
+    }
+
+    @Override
+    public boolean isOpen() { return port.isOpen(); }
+
+    @Override
+    public int bytesAvailable() { return Math.max(0, port.bytesAvailable()); }
+
+    @Override
+    public int read(byte[] buf, int off, int len, long timeoutMs) {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        while (true) {
+            int avail = port.bytesAvailable();
+            if (avail < 0) throw new DataAccessException("Puerto serial cerrado: " + getPortName());
+            if (avail > 0) {
+                int n = port.readBytes(buf, Math.min(len, avail), off);
+                if (n < 0) throw new DataAccessException("Error leyendo puerto serial: " + getPortName());
+                return n;
+            }
+            if (System.nanoTime() - deadline >= 0) return 0;
+            try { Thread.sleep(2); } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int off, int len) {
+        int written = 0;
+        while (written < len) {
+            int n = port.writeBytes(data, len - written, off + written);
+            if (n < 0) throw new DataAccessException("Error escribiendo en puerto serial: " + getPortName());
+            written += n;
+        }
+    }
+
+    @Override
+    public void setDataListener(Runnable onDataAvailable) {
+        try { port.removeDataListener(); } catch (Throwable ignored) {}
+        if (onDataAvailable == null) return;
+        port.addDataListener(new SerialPortDataListener() {
+            @Override
+            public int getListeningEvents() { return SerialPort.LISTENING_EVENT_DATA_AVAILABLE; }
+
+            @Override
+            public void serialEvent(SerialPortEvent event) {
+                if (event.getEventType() == SerialPort.LISTENING_EVENT_DATA_AVAILABLE) onDataAvailable.run();
+            }
+        });
+    }
+
+    @Override
+    public void purge() {
+        try { port.flushIOBuffers(); } catch (Throwable ignored) {}
+    }
+
+    @Override
+    public void close() {
+        try { port.removeDataListener(); } catch (Throwable ignored) {}
+        if (port.isOpen()) {
+            purge();
+            port.closePort();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.miempresa.fruver.infra.hardware.serial;
+
+/**
+ * Transporte serie mínimo que usan báscula, lector e impresora.
+ *
+ * Implementaciones:
+ *  - JSerialCommTransport: puerto físico vía jSerialComm.
+ *  - sim.SimulatedSerialTransport: dispositivo virtual en proceso (puertos "SIM:...").
+ *
+ * Los errores de E/S se reportan como DataAccessException.
+ */
+public interface SerialTransport {
+
+    String getPortName();
+
+    /** Abre con 8N1 sin control de flujo. Lanza DataAccessException si no se puede. */
+    void open(int baudRate, int openTimeoutMs);
+
+    boolean isOpen();
+
+    /** Bytes recibidos pendientes de leer. */
+    int bytesAvailable();
+
+    /**
+     * Lee hasta len bytes esperando como máximo timeoutMs a que llegue el primero
+     * (0 = no bloquear). Devuelve la cantidad leída (0 si venció el tiempo).
+     */
+    int read(byte[] buf, int off, int len, long timeoutMs);
+
+    /** Escribe todos los bytes; puede bloquear si el dispositivo aplica contrapresión. */
+    void write(byte[] data, int off, int len);
+
+    /**
+     * Callback invocado (en un hilo del transporte) cuando llegan datos; null lo quita.
+     * Sólo hay un listener por transporte.
+     */
+    void setDataListener(Runnable onDataAvailable);
+
+    /** Descarta buffers de entrada/salida. */
+    void purge();
+
+    void close();
+}
@@ -0,0 +1,34 @@
+package com.miempresa.fruver.infra.hardware.serial;
+
+import com.miempresa.fruver.infra.hardware.serial.sim.SimulatedSerialHub;
+
+import java.util.Locale;
+
+/**
+ * Fábrica de transportes: los puertos con prefijo "SIM:" (p. ej. "SIM:BASCULA") se
+ * resuelven contra los dispositivos virtuales de SimulatedSerialHub; el resto son
+ * puertos físicos jSerialComm.
+ */
+public final class SerialTransports {
+
+    public static final String SIM_PREFIX = "SIM:";
+
+    private SerialTransports() {}
+
+    public static boolean isSimulated(String portName) {
+        return portName != null && portName.trim().toUpperCase(Locale.ROOT).startsWith(SIM_PREFIX);
+    }
+
+    /** Transporte sin abrir para el puerto indicado. */
+    public static SerialTransport forPort(String portName) {
+        if (isSimulated(portName)) return SimulatedSerialHub.transport(portName);
+        return new JSerialCommTransport(portName.trim());
+    }
+
+    /** Transporte abierto (8N1) para el puerto indicado. */
+    public static SerialTransport open(String portName, int baudRate, int openTimeoutMs) {
+        SerialTransport t = forPort(portName);
+        t.open(baudRate, openTimeoutMs);
+        return t;
+    }
+}
@@ -0,0 +1,37 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector de códigos de barras virtual en modo serie: cada lectura se transmite
+ * como el código seguido de CRLF.
+ */
+public class SimulatedBarcodeReader implements SimulatedDevice {
+
+    private volatile SimulatedSerialTransport transport;
+
+    @Override
+    public void attach(SimulatedSerialTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public void onHostBytes(byte[] data, int off, int len) {
+        // los lectores no esperan comandos
+    }
+
+    /** Simula la lectura de un código. */
+    public void scan(String code) {
+        SimulatedSerialTransport t = transport;
+        if (t == null) return;
+        t.deviceSend((code + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Ráfaga de lecturas separadas intervalMs (0 = todas seguidas). Bloquea al llamador. */
+    public void burst(String[] codes, long intervalMs) throws InterruptedException {
+        for (String code : codes) {
+            scan(code);
+            if (intervalMs > 0) Thread.sleep(intervalMs);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+/**
+ * Dispositivo virtual conectado a un SimulatedSerialTransport.
+ * Recibe lo que escribe la aplicación y responde con transport.deviceSend(...).
+ */
+public interface SimulatedDevice {
+
+    /** Se invoca al conectar el dispositivo al transporte. */
+    void attach(SimulatedSerialTransport transport);
+
+    /** Bytes escritos por la aplicación (ya descontada la contrapresión). */
+    void onHostBytes(byte[] data, int off, int len);
+
+    /** La aplicación abrió el puerto. */
+    default void onOpen(int baudRate) {}
+
+    /** La aplicación cerró el puerto. */
+    default void onClose() {}
+}
@@ -0,0 +1,88 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Impresora ESC/POS virtual: guarda lo recibido y cuenta los cortes de papel (GS V),
+ * que se toman como recibos completos. La lentitud del cabezal se modela con
+ * SimulatedSerialTransport.setConsumeRate (contrapresión sobre write()). Con setJammed(true)
+ * rechaza las escrituras, como un atasco de papel. Contesta DLE EOT 1 (bit 3 = fuera de
+ * línea, también durante el atasco) y DLE EOT 4 (bits 5-6 = sin papel, ver setPaperOut).
+ */
+public class SimulatedPrinter implements SimulatedDevice {
+
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    private int receipts;
+    private int prev = -1;
+    private int prev2 = -1;
+    private int statusQueries;
+    private volatile boolean jammed;
+    private volatile boolean paperOut;
+    private volatile SimulatedSerialTransport transport;
+
+    @Override
+    public void attach(SimulatedSerialTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public void onHostBytes(byte[] data, int off, int len) {
+        // las consultas de estado en tiempo real se contestan aun atascada
+        boolean statusOnly = len == 3 && data[off] == 0x10 && data[off + 1] == 0x04;
+        if (jammed && !statusOnly) throw new DataAccessException("Impresora simulada atascada");
+        synchronized (this) {
+            if (!statusOnly) received.write(data, off, len);
+            for (int i = off; i < off + len; i++) {
+                int b = data[i] & 0xFF;
+                if (prev == 0x1D && b == 'V') receipts++;
+                if (prev2 == 0x10 && prev == 0x04) answerStatus(b);
+                prev2 = prev;
+                prev = b;
+            }
+            notifyAll();
+        }
+    }
+
+    private void answerStatus(int n) {
+        statusQueries++;
+        SimulatedSerialTransport t = transport;
+        if (t == null) return;
+        int status = 0x12; // bits fijos de la respuesta DLE EOT
+        if (n == 1 && jammed) status |= 0x08;
+        if (n == 4 && paperOut) status |= 0x60;
+        t.deviceSend(new byte[]{(byte) status});
+    }
+
+    public void setJammed(boolean jammed) { this.jammed = jammed; }
+
+    public void setPaperOut(boolean paperOut) { this.paperOut = paperOut; }
+
+    public synchronized int getStatusQueries() { return statusQueries; }
+
+    public synchronized int getReceiptCount() { return receipts; }
+
+    public synchronized long getBytesReceived() { return received.size(); }
+
+    public synchronized byte[] getReceived() { return received.toByteArray(); }
+
+    public synchronized void clear() {
+        received.reset();
+        receipts = 0;
+        statusQueries = 0;
+        prev = prev2 = -1;
+    }
+
+    /** Espera hasta que se hayan cortado al menos n recibos. */
+    public synchronized boolean awaitReceipts(int n, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (receipts < n) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+}
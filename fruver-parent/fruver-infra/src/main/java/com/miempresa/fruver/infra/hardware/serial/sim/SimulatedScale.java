@@ -0,0 +1,178 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Báscula virtual. Modela el asentamiento del plato: tras place(kg) las lecturas oscilan
+ * alrededor del peso (con marca de movimiento si el formato la soporta) durante settleMs,
+ * y luego quedan en kg ± noiseKg.
+ *
+ * Formatos:
+ *  - CAS: transmite sola cada streamIntervalMs, {@code ST|US,GS,+  1.235kg CRLF}.
+ *  - GENERIC: responde a "96814C" con {@code STX 1.235 ETX}.
+ *  - TOLEDO_8217: responde a 'W' con {@code STX 01.235 CR} o {@code STX ? estado CR} en movimiento.
+ */
+public class SimulatedScale implements SimulatedDevice {
+
+    public enum Format { CAS, GENERIC, TOLEDO_8217 }
+
+    private final Format format;
+    private final Random random;
+    private volatile SimulatedSerialTransport transport;
+    private volatile ScheduledFuture<?> stream;
+    private volatile long streamIntervalMs = 50;
+
+    private final Object lock = new Object();
+    private double targetKg;
+    private double previousKg;
+    private long placedAtNanos;
+    private long settleNanos = TimeUnit.MILLISECONDS.toNanos(300);
+    private double noiseKg = 0.001;
+    private boolean overload;
+    private final StringBuilder pending = new StringBuilder();
+
+    public SimulatedScale(Format format) {
+        this(format, 42L);
+    }
+
+    public SimulatedScale(Format format, long seed) {
+        this.format = format;
+        this.random = new Random(seed);
+    }
+
+    public Format getFormat() { return format; }
+
+    /** Tiempo de asentamiento y ruido (± kg) de las lecturas. */
+    public SimulatedScale withSettle(long settleMs, double noiseKg) {
+        synchronized (lock) {
+            this.settleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, settleMs));
+            this.noiseKg = Math.max(0, noiseKg);
+        }
+        return this;
+    }
+
+    /** Periodo de transmisión del formato continuo (CAS). */
+    public SimulatedScale withStreamInterval(long intervalMs) {
+        this.streamIntervalMs = Math.max(1, intervalMs);
+        return this;
+    }
+
+    /** Pone un producto de kg sobre el plato (0 = retirar). */
+    public void place(double kg) {
+        synchronized (lock) {
+            previousKg = currentKgLocked(System.nanoTime());
+            targetKg = kg;
+            placedAtNanos = System.nanoTime();
+            overload = false;
+        }
+    }
+
+    public void setOverload(boolean overload) {
+        synchronized (lock) { this.overload = overload; }
+    }
+
+    /**
+     * Guion simple: coloca cada peso y lo mantiene holdMs antes del siguiente.
+     * Bloquea el hilo llamador durante todo el guion.
+     */
+    public void script(double[] kgs, long holdMs) throws InterruptedException {
+        for (double kg : kgs) {
+            place(kg);
+            Thread.sleep(holdMs);
+        }
+    }
+
+    /* ---------------------- SimulatedDevice ---------------------- */
+
+    @Override
+    public void attach(SimulatedSerialTransport transport) {
+        this.transport = transport;
+    }
+
+    @Override
+    public void onOpen(int baudRate) {
+        if (format != Format.CAS) return;
+        stopStream();
+        stream = SimulatedSerialHub.SCHEDULER.scheduleAtFixedRate(this::emit,
+                streamIntervalMs, streamIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onClose() {
+        stopStream();
+        synchronized (lock) { pending.setLength(0); }
+    }
+
+    @Override
+    public void onHostBytes(byte[] data, int off, int len) {
+        if (format == Format.CAS) return;
+        String request = format == Format.GENERIC ? "96814C" : "W";
+        int replies = 0;
+        synchronized (lock) {
+            pending.append(new String(data, off, len, StandardCharsets.US_ASCII));
+            int idx;
+            while ((idx = pending.indexOf(request)) >= 0) {
+                pending.delete(0, idx + request.length());
+                replies++;
+            }
+            if (pending.length() > 64) pending.setLength(0);
+        }
+        for (int i = 0; i < replies; i++) emit();
+    }
+
+    /* ---------------------- tramas ---------------------- */
+
+    private void emit() {
+        SimulatedSerialTransport t = transport;
+        if (t == null || !t.isOpen()) return;
+        double kg;
+        boolean moving;
+        boolean over;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            kg = currentKgLocked(now);
+            moving = now - placedAtNanos < settleNanos;
+            over = overload;
+        }
+        t.deviceSend(frame(kg, moving, over).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private double currentKgLocked(long now) {
+        long elapsed = now - placedAtNanos;
+        double kg;
+        if (settleNanos > 0 && elapsed < settleNanos) {
+            // oscilación amortiguada desde el peso anterior hacia el nuevo
+            double p = (double) elapsed / settleNanos;
+            double swing = (targetKg - previousKg) * (1 - p) * Math.cos(p * Math.PI * 3);
+            kg = targetKg - swing;
+        } else {
+            kg = targetKg;
+        }
+        if (noiseKg > 0 && targetKg != 0) kg += (random.nextDouble() * 2 - 1) * noiseKg;
+        return Math.max(0, kg);
+    }
+
+    private String frame(double kg, boolean moving, boolean over) {
+        switch (format) {
+            case CAS:
+                if (over) return "OL,GS,+ --.---kg\r\n";
+                return String.format(Locale.ROOT, "%s,GS,+%7.3fkg\r\n", moving ? "US" : "ST", kg);
+            case TOLEDO_8217:
+                if (over) return "\u0002?\u0002\r";
+                if (moving) return "\u0002?\u0001\r";
+                return String.format(Locale.ROOT, "\u0002%06.3f\r", kg);
+            default:
+                return String.format(Locale.ROOT, "\u0002%.3f\u0003", kg);
+        }
+    }
+
+    private void stopStream() {
+        ScheduledFuture<?> s = stream;
+        if (s != null) s.cancel(false);
+        stream = null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Registro en proceso de puertos simulados ("SIM:BASCULA", "SIM:LECTOR", ...).
+ * Los transportes se crean al primer uso; los dispositivos se conectan con attach().
+ */
+public final class SimulatedSerialHub {
+
+    private static final Map<String, SimulatedSerialTransport> PORTS = new ConcurrentHashMap<>();
+
+    // un solo hilo para entregas con latencia, listeners y streams de dispositivos: conserva
+    // el orden de llegada y, como jSerialComm, nunca llama a un listener en paralelo consigo mismo
+    static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "serial-sim");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private SimulatedSerialHub() {}
+
+    /** Transporte simulado para el nombre dado (se crea si no existe). */
+    public static SimulatedSerialTransport transport(String portName) {
+        String key = portName.trim().toUpperCase(Locale.ROOT);
+        return PORTS.computeIfAbsent(key, SimulatedSerialTransport::new);
+    }
+
+    /** Conecta un dispositivo virtual al puerto y devuelve su transporte. */
+    public static SimulatedSerialTransport attach(String portName, SimulatedDevice device) {
+        SimulatedSerialTransport t = transport(portName);
+        t.attachDevice(device);
+        return t;
+    }
+
+    /** Cierra y olvida todos los puertos simulados (entre escenarios). */
+    public static void reset() {
+        for (SimulatedSerialTransport t : PORTS.values()) {
+            try { t.close(); } catch (Throwable ignored) {}
+        }
+        PORTS.clear();
+    }
+}
@@ -0,0 +1,222 @@
+package com.miempresa.fruver.infra.hardware.serial.sim;
+
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+import com.miempresa.fruver.infra.hardware.serial.SerialTransport;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puerto serie virtual en proceso.
+ *
+ * - Dispositivo -> aplicación: deviceSend() entrega los bytes tras latencia ± jitter
+ *   (sin reordenar) y notifica al data listener, como el evento DATA_AVAILABLE real.
+ * - Aplicación -> dispositivo: write() pasa los bytes al SimulatedDevice. Si se configura
+ *   un ritmo de consumo (bytes/s) y un buffer, write() bloquea cuando el buffer del
+ *   dispositivo está lleno (contrapresión, p. ej. impresora lenta).
+ */
+public class SimulatedSerialTransport implements SerialTransport {
+
+    private final String portName;
+    private final Object lock = new Object();
+    private byte[] inbound = new byte[4096];
+    private int head, size;
+
+    private volatile boolean open;
+    private volatile Runnable dataListener;
+    private volatile SimulatedDevice device;
+
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private long lastDeliveryNanos;
+    private final ArrayDeque<byte[]> inFlight = new ArrayDeque<>();
+    private final Random random = new Random(17);
+
+    private volatile int consumeBytesPerSecond; // 0 = sin límite
+    private volatile int deviceBufferBytes = 4096;
+    private long deviceBusyUntilNanos;
+    private long bytesWritten;
+
+    SimulatedSerialTransport(String portName) {
+        this.portName = portName;
+    }
+
+    void attachDevice(SimulatedDevice d) {
+        this.device = d;
+        d.attach(this);
+    }
+
+    public SimulatedDevice getDevice() { return device; }
+
+    /** Latencia de entrega dispositivo -> aplicación, con jitter uniforme ± jitterMs. */
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, latencyMs));
+        this.jitterNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, jitterMs));
+    }
+
+    /** Ritmo al que el dispositivo consume lo escrito y tamaño de su buffer (contrapresión). */
+    public void setConsumeRate(int bytesPerSecond, int bufferBytes) {
+        this.consumeBytesPerSecond = Math.max(0, bytesPerSecond);
+        this.deviceBufferBytes = Math.max(1, bufferBytes);
+    }
+
+    public long getBytesWritten() {
+        synchronized (lock) { return bytesWritten; }
+    }
+
+    /* ---------------------- lado dispositivo ---------------------- */
+
+    /** El dispositivo transmite bytes hacia la aplicación. */
+    public void deviceSend(byte[] data) {
+        if (!open || data.length == 0) return;
+        byte[] copy = data.clone();
+        long delay;
+        synchronized (lock) {
+            inFlight.add(copy);
+            long now = System.nanoTime();
+            long j = jitterNanos == 0 ? 0 : (long) ((random.nextDouble() * 2 - 1) * jitterNanos);
+            long at = Math.max(now + Math.max(0, latencyNanos + j), lastDeliveryNanos);
+            lastDeliveryNanos = at;
+            delay = at - now;
+        }
+        // siempre por el hilo del hub; cada tarea entrega el bloque más antiguo en vuelo, así
+        // el desfase entre calcular el retardo y programarlo nunca invierte el orden
+        SimulatedSerialHub.SCHEDULER.schedule(this::deliverNext, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    private void deliverNext() {
+        synchronized (lock) {
+            byte[] data = inFlight.poll();
+            if (data == null || !open) return;
+            ensureCapacity(size + data.length);
+            int tail = (head + size) % inbound.length;
+            for (byte b : data) {
+                inbound[tail] = b;
+                tail = (tail + 1) % inbound.length;
+            }
+            size += data.length;
+            lock.notifyAll();
+        }
+        Runnable l = dataListener;
+        if (l != null) {
+            try { l.run(); } catch (Throwable ignored) {}
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= inbound.length) return;
+        byte[] grown = new byte[Math.max(needed, inbound.length * 2)];
+        for (int i = 0; i < size; i++) grown[i] = inbound[(head + i) % inbound.length];
+        inbound = grown;
+        head = 0;
+    }
+
+    /* ---------------------- SerialTransport ---------------------- */
+
+    @Override
+    public String getPortName() { return portName; }
+
+    @Override
+    public void open(int baudRate, int openTimeoutMs) {
+        SimulatedDevice d = device;
+        if (d == null) throw new DataAccessException("No hay dispositivo simulado en " + portName);
+        synchronized (lock) {
+            head = size = 0;
+            lastDeliveryNanos = 0;
+            deviceBusyUntilNanos = 0;
+        }
+        open = true;
+        d.onOpen(baudRate);
+    }
+
+    @Override
+    public boolean isOpen() { return open; }
+
+    @Override
+    public int bytesAvailable() {
+        synchronized (lock) { return size; }
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (lock) {
+            while (size == 0) {
+                if (!open) throw new DataAccessException("Puerto simulado cerrado: " + portName);
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return 0;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return 0;
+                }
+            }
+            int n = Math.min(len, size);
+            for (int i = 0; i < n; i++) {
+                buf[off + i] = inbound[head];
+                head = (head + 1) % inbound.length;
+            }
+            size -= n;
+            return n;
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int off, int len) {
+        if (!open) throw new DataAccessException("Puerto simulado cerrado: " + portName);
+        int rate = consumeBytesPerSecond;
+        if (rate > 0) awaitDeviceBuffer(len, rate);
+        synchronized (lock) { bytesWritten += len; }
+        SimulatedDevice d = device;
+        if (d != null) d.onHostBytes(data, off, len);
+    }
+
+    /**
+     * Reserva el tiempo de consumo de len bytes y bloquea lo que tarde el dispositivo en
+     * dejar espacio para la parte que no cabe en su buffer.
+     */
+    private void awaitDeviceBuffer(int len, int rate) {
+        long nanosPerByte = TimeUnit.SECONDS.toNanos(1) / rate;
+        long sleepNanos;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            long busy = Math.max(now, deviceBusyUntilNanos);
+            long pending = (busy - now) / nanosPerByte;
+            deviceBusyUntilNanos = busy + len * nanosPerByte;
+            sleepNanos = (pending + len - deviceBufferBytes) * nanosPerByte;
+        }
+        if (sleepNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Escritura interrumpida en " + portName, ie);
+        }
+    }
+
+    @Override
+    public void setDataListener(Runnable onDataAvailable) {
+        this.dataListener = onDataAvailable;
+    }
+
+    @Override
+    public void purge() {
+        synchronized (lock) { head = size = 0; }
+    }
+
+    @Override
+    public void close() {
+        if (!open) return;
+        open = false;
+        dataListener = null;
+        synchronized (lock) {
+            head = size = 0;
+            inFlight.clear();
+            lock.notifyAll();
+        }
+        SimulatedDevice d = device;
+        if (d != null) d.onClose();
+    }
+}
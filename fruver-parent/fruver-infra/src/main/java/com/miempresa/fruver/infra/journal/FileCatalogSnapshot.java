@@ -0,0 +1,82 @@
+package com.miempresa.fruver.infra.journal;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Copia local del catálogo leído en el último arranque con BD, junto al diario de ventas.
+ *
+ * Si al arrancar no hay BD, la caja vende con esta copia: los producto_id son los reales,
+ * así que las ventas anotadas en el diario se pueden sincronizar cuando vuelva la BD.
+ * Se escribe completa en un archivo temporal y se reemplaza con un move atómico.
+ */
+public class FileCatalogSnapshot {
+    private static final String FILE_NAME = "catalogo.snapshot";
+    private static final int VERSION = 1;
+
+    private final Path dir;
+    private final Path file;
+
+    public FileCatalogSnapshot(Path dir) {
+        this.dir = Objects.requireNonNull(dir, "dir requerido");
+        this.file = dir.resolve(FILE_NAME);
+    }
+
+    /** Reemplaza la copia con productos. */
+    public void save(List<Producto> productos) {
+        Path tmp = dir.resolve(FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(dir);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(VERSION);
+                out.writeInt(productos.size());
+                for (Producto p : productos) {
+                    out.writeInt(p.getProductoId());
+                    writeNullable(out, p.getCodigo());
+                    writeNullable(out, p.getNombre());
+                    out.writeUTF(p.getPrecioUnitario().toPlainString());
+                    out.writeUTF(p.getTipo().name());
+                    out.writeUTF(p.getStockActual().toPlainString());
+                    out.writeUTF(p.getStockUmbral().toPlainString());
+                    writeNullable(out, p.getImagenPath());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new DataAccessException("No se pudo guardar la copia local del catálogo en " + file, ex);
+        }
+    }
+
+    /** Productos de la última copia; vacío si no hay copia. */
+    public List<Producto> load() {
+        if (!Files.exists(file)) return List.of();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Versión de copia no soportada: " + version);
+            int n = in.readInt();
+            List<Producto> out = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                out.add(new Producto(in.readInt(), readNullable(in), readNullable(in),
+                        new BigDecimal(in.readUTF()), Producto.TipoProducto.valueOf(in.readUTF()),
+                        new BigDecimal(in.readUTF()), new BigDecimal(in.readUTF()), readNullable(in)));
+            }
+            return out;
+        } catch (IOException | RuntimeException ex) {
+            throw new DataAccessException("Copia local del catálogo ilegible en " + file, ex);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
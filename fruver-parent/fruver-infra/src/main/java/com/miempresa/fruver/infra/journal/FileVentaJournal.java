@@ -0,0 +1,254 @@
+package com.miempresa.fruver.infra.journal;
+
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.repository.VentaJournal;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de ventas en un archivo local de sólo-anexado (FileChannel + fsync).
+ *
+ * Formato de cada registro: [int largo][int crc32][payload UTF-8]
+ *  - "V|clave|fecha|cajeroId|recibido|total|prod:cant:precio:subtotal,..."  venta anotada
+ *    (los registros anteriores sin ":subtotal" se leen con subtotal = cant × precio)
+ *  - "A|clave"                                                              venta confirmada/descartada
+ *
+ * Al abrir se recorre el archivo, se reconstruyen las pendientes (V sin A) y se corta
+ * una cola incompleta (escritura interrumpida por un corte de luz).
+ * Las ventas recién anotadas quedan reservadas (en memoria) para el hilo que las confirma
+ * hasta markDone o release, y pending() no las devuelve: así el replayer no confirma una venta
+ * que el cajero está confirmando o que acaba de ser rechazada.
+ * Cuando no quedan pendientes el archivo se trunca; si crece demasiado con pendientes
+ * se reescribe sólo con ellas (archivo temporal + move atómico).
+ */
+public class FileVentaJournal implements VentaJournal, AutoCloseable {
+    private static final String FILE_NAME = "ventas.journal";
+    private static final long COMPACT_THRESHOLD_BYTES = 1024L * 1024L;
+
+    private final Path dir;
+    private final Path file;
+    private FileChannel channel;
+    private final Map<String, Entry> pending = new LinkedHashMap<>();
+    private final Set<String> claimed = new HashSet<>();
+
+    public FileVentaJournal(Path dir) {
+        this.dir = Objects.requireNonNull(dir, "dir requerido");
+        this.file = dir.resolve(FILE_NAME);
+        try {
+            Files.createDirectories(dir);
+            channel = open(file);
+            recover();
+        } catch (IOException ex) {
+            throw new DataAccessException("No se pudo abrir el diario de ventas en " + file, ex);
+        }
+    }
+
+    public Path getDirectory() { return dir; }
+
+    @Override
+    public synchronized String append(Venta venta, List<VentaItem> items) {
+        String clave = UUID.randomUUID().toString();
+        Entry e = new Entry(clave, venta.getFecha(), venta.getCajeroId(), venta.getRecibido(), venta.getTotal(), List.copyOf(items));
+        write(e.encode());
+        pending.put(clave, e);
+        claimed.add(clave);
+        return clave;
+    }
+
+    @Override
+    public synchronized void markDone(String claveVenta) {
+        if (claveVenta == null) return;
+        claimed.remove(claveVenta);
+        if (pending.remove(claveVenta) == null) return;
+        write("A|" + claveVenta);
+        try {
+            if (pending.isEmpty()) {
+                channel.truncate(0);
+                channel.force(true);
+            } else if (channel.size() > COMPACT_THRESHOLD_BYTES) {
+                compact();
+            }
+        } catch (IOException ex) {
+            // no es crítico: el registro A ya está en disco
+            System.err.println("[FileVentaJournal] No se pudo compactar el diario: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void release(String claveVenta) {
+        claimed.remove(claveVenta);
+    }
+
+    @Override
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /** Copia de las ventas pendientes no reservadas, en orden de anotación. */
+    public synchronized List<Entry> pending() {
+        List<Entry> out = new ArrayList<>(pending.size());
+        for (Entry e : pending.values()) {
+            if (!claimed.contains(e.getClave())) out.add(e);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) { }
+    }
+
+    /* ---------------------- Internos ---------------------- */
+
+    private static FileChannel open(Path p) throws IOException {
+        return FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void write(String payload) {
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ByteBuffer buf = ByteBuffer.allocate(8 + data.length);
+        buf.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+        try {
+            long pos = channel.size();
+            while (buf.hasRemaining()) pos += channel.write(buf, pos);
+            channel.force(true);
+        } catch (IOException ex) {
+            throw new DataAccessException("Error escribiendo en el diario de ventas", ex);
+        }
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long pos = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (pos + 8 <= size) {
+            header.clear();
+            channel.read(header, pos);
+            header.flip();
+            int len = header.getInt();
+            int crcVal = header.getInt();
+            if (len < 0 || pos + 8 + len > size) break;
+            ByteBuffer data = ByteBuffer.allocate(len);
+            while (data.hasRemaining() && channel.read(data, pos + 8 + data.position()) > 0) { }
+            CRC32 crc = new CRC32();
+            crc.update(data.array());
+            if ((int) crc.getValue() != crcVal) break;
+            apply(new String(data.array(), StandardCharsets.UTF_8));
+            pos += 8 + len;
+        }
+        if (pos < size) {
+            System.err.println("[FileVentaJournal] Cola incompleta en " + file + " (" + (size - pos) + " bytes); se descarta.");
+            channel.truncate(pos);
+            channel.force(true);
+        }
+        if (!pending.isEmpty()) {
+            System.out.println("[FileVentaJournal] " + pending.size() + " venta(s) pendientes de sincronizar.");
+        }
+    }
+
+    private void apply(String payload) {
+        if (payload.startsWith("A|")) {
+            pending.remove(payload.substring(2));
+        } else if (payload.startsWith("V|")) {
+            Entry e = Entry.decode(payload);
+            pending.put(e.getClave(), e);
+        }
+    }
+
+    private void compact() throws IOException {
+        Path tmp = dir.resolve(FILE_NAME + ".tmp");
+        Files.deleteIfExists(tmp);
+        FileChannel old = channel;
+        channel = open(tmp);
+        try {
+            for (Entry e : pending.values()) write(e.encode());
+        } catch (RuntimeException ex) {
+            channel.close();
+            channel = old;
+            throw new IOException("Error reescribiendo diario", ex);
+        }
+        channel.close();
+        old.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    /** Venta anotada en el diario. */
+    public static final class Entry {
+        private final String clave;
+        private final LocalDateTime fecha;
+        private final Integer cajeroId;
+        private final BigDecimal recibido;
+        private final BigDecimal total;
+        private final List<VentaItem> items;
+
+        Entry(String clave, LocalDateTime fecha, Integer cajeroId, BigDecimal recibido,
+              BigDecimal total, List<VentaItem> items) {
+            this.clave = clave;
+            this.fecha = fecha;
+            this.cajeroId = cajeroId;
+            this.recibido = recibido;
+            this.total = total;
+            this.items = items;
+        }
+
+        public String getClave() { return clave; }
+        public List<VentaItem> getItems() { return items; }
+
+        /** Reconstruye la cabecera con sus totales (sin id). */
+        public Venta toVenta() {
+            Venta v = new Venta(null, fecha, cajeroId);
+            v.addItem(total);
+            if (recibido.signum() > 0) v.calcularVuelto(recibido);
+            return v;
+        }
+
+        String encode() {
+            StringBuilder sb = new StringBuilder(64 + items.size() * 24);
+            sb.append("V|").append(clave)
+                    .append('|').append(fecha)
+                    .append('|').append(cajeroId == null ? "" : cajeroId)
+                    .append('|').append(recibido.toPlainString())
+                    .append('|').append(total.toPlainString())
+                    .append('|');
+            for (int i = 0; i < items.size(); i++) {
+                VentaItem it = items.get(i);
+                if (i > 0) sb.append(',');
+                sb.append(it.getProductoId()).append(':')
+                        .append(it.getCantidad().toPlainString()).append(':')
+                        .append(it.getPrecioUnit().toPlainString()).append(':')
+                        .append(it.getSubtotal().toPlainString());
+            }
+            return sb.toString();
+        }
+
+        static Entry decode(String payload) {
+            String[] f = payload.split("\\|", -1);
+            List<VentaItem> items = new ArrayList<>();
+            if (!f[6].isEmpty()) {
+                for (String s : f[6].split(",")) {
+                    String[] p = s.split(":");
+                    items.add(p.length > 3
+                            ? new VentaItem(null, null, Integer.valueOf(p[0]), new BigDecimal(p[1]), new BigDecimal(p[2]), new BigDecimal(p[3]))
+                            : new VentaItem(null, null, Integer.valueOf(p[0]), new BigDecimal(p[1]), new BigDecimal(p[2])));
+                }
+            }
+            return new Entry(f[1], LocalDateTime.parse(f[2]), f[3].isEmpty() ? null : Integer.valueOf(f[3]),
+                    new BigDecimal(f[4]), new BigDecimal(f[5]), items);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.miempresa.fruver.infra.journal;
+
+import com.miempresa.fruver.domain.repository.VentaCommitRepository;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vacía periódicamente el diario de ventas hacia la BD.
+ * - Cada venta se confirma con su clave, así que repetirla es inocuo (idempotente).
+ * - Las ventas del diario ya se cobraron: se confirman con commitCobrada, que no las
+ *   rechaza por stock insuficiente (el stock puede quedar negativo).
+ * - Si la BD no responde (DataAccessException pasajera: conexión, red, timeout del pool)
+ *   se detiene la ronda y se reintenta después.
+ * - Si la venta falla por un error permanente (restricción, dato inválido) se pone en
+ *   cuarentena en ventas.cuarentena para revisión manual, se quita del diario y se sigue
+ *   con las demás: una venta defectuosa no bloquea la sincronización del resto.
+ */
+public class VentaJournalReplayer {
+    private static final String QUARANTINE_FILE = "ventas.cuarentena";
+
+    private final FileVentaJournal journal;
+    private final VentaCommitRepository commitRepo;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public VentaJournalReplayer(FileVentaJournal journal, VentaCommitRepository commitRepo, Duration interval) {
+        this.journal = Objects.requireNonNull(journal, "journal requerido");
+        this.commitRepo = Objects.requireNonNull(commitRepo, "commitRepo requerido");
+        this.interval = interval == null ? Duration.ofSeconds(15) : interval;
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-replay");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::safeReplay, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /** Intenta confirmar todas las pendientes; devuelve cuántas se confirmaron. */
+    public int replayOnce() {
+        int done = 0;
+        for (FileVentaJournal.Entry e : journal.pending()) {
+            try {
+                commitRepo.commitCobrada(e.toVenta(), e.getItems(), e.getClave());
+                journal.markDone(e.getClave());
+                done++;
+            } catch (DataAccessException ex) {
+                // BD no disponible: se reintenta en la siguiente ronda, respetando el orden
+                if (ex.isTransient()) break;
+                quarantine(e, ex);
+            } catch (RuntimeException ex) {
+                quarantine(e, ex);
+            }
+        }
+        if (done > 0) {
+            System.out.println("[VentaJournalReplayer] " + done + " venta(s) sincronizadas desde el diario local.");
+        }
+        return done;
+    }
+
+    private void safeReplay() {
+        try {
+            if (journal.pendingCount() > 0) replayOnce();
+        } catch (Throwable t) {
+            System.err.println("[VentaJournalReplayer] Error sincronizando diario: " + t.getMessage());
+        }
+    }
+
+    /**
+     * Copia la venta a ventas.cuarentena (con la causa) y sólo entonces la quita del diario;
+     * si no se puede escribir la copia sigue pendiente y se reintenta en la próxima ronda.
+     */
+    private void quarantine(FileVentaJournal.Entry e, RuntimeException cause) {
+        String line = LocalDateTime.now() + "\t" + rootMessage(cause) + "\t" + e.encode() + System.lineSeparator();
+        try {
+            Files.writeString(journal.getDirectory().resolve(QUARANTINE_FILE), line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException io) {
+            System.err.println("[VentaJournalReplayer] No se pudo poner en cuarentena la venta " + e.getClave() + ": " + io.getMessage());
+            return;
+        }
+        journal.markDone(e.getClave());
+        System.err.println("[VentaJournalReplayer] Venta " + e.getClave() + " en cuarentena (" + QUARANTINE_FILE + "): " + rootMessage(cause));
+    }
+
+    private static String rootMessage(Throwable t) {
+        while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+        return String.valueOf(t.getMessage()).replace('\n', ' ').replace('\t', ' ');
+    }
+}
@@ -0,0 +1,426 @@
+package com.miempresa.fruver.infra.task;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime único para el trabajo en segundo plano de la aplicación.
+ *
+ * - Un carril acotado por tipo de recurso (Pool): hilos fijos y cola de capacidad fija,
+ *   configurables con fruver.tasks.&lt;carril&gt;.threads / fruver.tasks.&lt;carril&gt;.queue.
+ *   Con la cola llena la tarea se rechaza (un FutureTask, p. ej. un Task de JavaFX, queda
+ *   cancelado; cualquier otra lanza RejectedExecutionException) en vez de crear más hilos
+ *   que compitan por el pool de BD o el puerto serie.
+ * - submitLatest(carril, clave, tarea) cancela la tarea anterior con la misma clave (p. ej.
+ *   una recarga que ya quedó vieja): si estaba en cola no corre; si ya corría termina sin
+ *   interrupción (no se corta una consulta JDBC a medias) pero su resultado se descarta:
+ *   un Task de JavaFX cancelado no llama a succeeded().
+ * - invokeAll(carril, tareas, n) reparte un trabajo en paralelo sobre el carril; el hilo que
+ *   llama también ejecuta, así que no espera en cola detrás de su propio carril.
+ * - Tareas periódicas: un hilo "tasks-timer" sólo despacha al carril, y no vuelve a
+ *   despachar mientras la ejecución anterior siga pendiente.
+ * - Métricas por carril: profundidad de cola (actual y máxima), espera en cola y duración.
+ * - fruver.tasks.virtual=true ejecuta DB e IMAGE_IO en hilos virtuales (Java 21+), con la
+ *   misma cota de concurrencia. HARDWARE y HARDWARE_MONITOR siempre usan hilos de
+ *   plataforma: las llamadas nativas al puerto serie bloquean el hilo portador.
+ * - HARDWARE es para lo que espera el usuario (pesar, probar un dispositivo);
+ *   HARDWARE_MONITOR para reconexiones, chequeos y precalentamiento, que con un dispositivo
+ *   caído pueden bloquear largo rato sin retrasar al cajero.
+ */
+public final class TaskRuntime {
+
+    public enum Pool {
+        DB("db", 4, 64, true),
+        HARDWARE("hardware", 2, 32, false),
+        HARDWARE_MONITOR("hardware-monitor", 2, 16, false),
+        IMAGE_IO("image-io", 2, 256, true);
+
+        private final String id;
+        private final int defaultThreads;
+        private final int defaultQueue;
+        private final boolean virtualCapable;
+
+        Pool(String id, int defaultThreads, int defaultQueue, boolean virtualCapable) {
+            this.id = id;
+            this.defaultThreads = defaultThreads;
+            this.defaultQueue = defaultQueue;
+            this.virtualCapable = virtualCapable;
+        }
+
+        public String getId() { return id; }
+    }
+
+    private static volatile TaskRuntime shared;
+
+    private final Map<Pool, Lane> lanes = new EnumMap<>(Pool.class);
+    private final Map<String, Future<?>> latest = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tasks-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * @param threads  hilos por carril (los que falten usan el valor por defecto)
+     * @param queues   capacidad de cola por carril (ídem)
+     * @param virtual  usar hilos virtuales en los carriles que lo admiten
+     */
+    public TaskRuntime(Map<Pool, Integer> threads, Map<Pool, Integer> queues, boolean virtual) {
+        ExecutorService virtualExecutor = virtual ? newVirtualExecutor() : null;
+        for (Pool p : Pool.values()) {
+            int n = Math.max(1, threads.getOrDefault(p, p.defaultThreads));
+            int q = Math.max(1, queues.getOrDefault(p, p.defaultQueue));
+            lanes.put(p, new Lane(p, n, q, p.virtualCapable ? virtualExecutor : null));
+        }
+    }
+
+    public static TaskRuntime fromSystemProperties() {
+        Map<Pool, Integer> threads = new EnumMap<>(Pool.class);
+        Map<Pool, Integer> queues = new EnumMap<>(Pool.class);
+        for (Pool p : Pool.values()) {
+            threads.put(p, Integer.getInteger("fruver.tasks." + p.id + ".threads", p.defaultThreads));
+            queues.put(p, Integer.getInteger("fruver.tasks." + p.id + ".queue", p.defaultQueue));
+        }
+        TaskRuntime rt = new TaskRuntime(threads, queues, Boolean.getBoolean("fruver.tasks.virtual"));
+        long reportSec = Long.getLong("fruver.tasks.reportSeconds", 0L);
+        if (reportSec > 0) {
+            rt.timer.scheduleWithFixedDelay(() -> System.out.println(rt.report()), reportSec, reportSec, TimeUnit.SECONDS);
+        }
+        return rt;
+    }
+
+    /** Runtime del proceso (creado al primer uso con las propiedades fruver.tasks.*). */
+    public static TaskRuntime shared() {
+        TaskRuntime rt = shared;
+        if (rt == null) {
+            synchronized (TaskRuntime.class) {
+                if (shared == null) shared = fromSystemProperties();
+                rt = shared;
+            }
+        }
+        return rt;
+    }
+
+    /* ---------------------- Envío ---------------------- */
+
+    /**
+     * Encola task en el carril. Si la cola está llena: un FutureTask (p. ej. un Task de
+     * JavaFX) queda cancelado; cualquier otra lanza RejectedExecutionException.
+     */
+    public void execute(Pool pool, Runnable task) {
+        lanes.get(pool).execute(task);
+    }
+
+    /** Igual que execute, devolviendo un Future cancelable. */
+    public <T> Future<T> submit(Pool pool, Callable<T> task) {
+        FutureTask<T> f = new FutureTask<>(task);
+        execute(pool, f);
+        return f;
+    }
+
+    /**
+     * Encola task cancelando la anterior enviada con la misma clave. Pensado para recargas y
+     * refrescos donde sólo importa el resultado más reciente.
+     */
+    public <F extends RunnableFuture<?>> F submitLatest(Pool pool, String key, F task) {
+        Future<?> previous = latest.put(key, task);
+        if (previous != null && !previous.isDone()) {
+            previous.cancel(false);
+            lanes.get(pool).superseded.increment();
+        }
+        execute(pool, task);
+        return task;
+    }
+
+    /**
+     * Ejecuta tasks con hasta maxParallel hilos: el que llama y, si hay sitio en la cola, hilos
+     * del carril. El llamador también toma tareas, así que termina aunque el carril esté lleno u
+     * ocupado (puede llamarse desde un hilo del mismo carril). Las ayudas que no llegaron a
+     * empezar se descartan. Ante el primer error no se empiezan más tareas y, cuando terminan
+     * las que estaban en curso, se lanza ExecutionException.
+     *
+     * @return resultados en el orden de tasks
+     */
+    public <T> List<T> invokeAll(Pool pool, List<? extends Callable<T>> tasks, int maxParallel)
+            throws InterruptedException, ExecutionException {
+        int n = tasks.size();
+        AtomicReferenceArray<T> results = new AtomicReferenceArray<>(n);
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Runnable drain = () -> {
+            int i;
+            while (error.get() == null && (i = next.getAndIncrement()) < n) {
+                try {
+                    results.set(i, tasks.get(i).call());
+                } catch (Throwable t) {
+                    error.compareAndSet(null, t);
+                }
+            }
+        };
+        AtomicBoolean[] claimed = new AtomicBoolean[Math.max(0, Math.min(maxParallel, n) - 1)];
+        CountDownLatch helpersDone = new CountDownLatch(claimed.length);
+        for (int h = 0; h < claimed.length; h++) {
+            AtomicBoolean c = claimed[h] = new AtomicBoolean();
+            // FutureTask: con la cola llena queda cancelada y nunca corre (la cuenta el llamador)
+            execute(pool, new FutureTask<Void>(() -> {
+                if (!c.compareAndSet(false, true)) return;
+                try {
+                    drain.run();
+                } finally {
+                    helpersDone.countDown();
+                }
+            }, null));
+        }
+        drain.run();
+        for (AtomicBoolean c : claimed) {
+            if (c.compareAndSet(false, true)) helpersDone.countDown(); // no empezó: ya no correrá
+        }
+        helpersDone.await();
+        if (error.get() != null) throw new ExecutionException(error.get());
+        List<T> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) out.add(results.get(i));
+        return out;
+    }
+
+    /**
+     * Executor del carril, para CompletableFuture.supplyAsync(..., executor(p)). Con la cola
+     * llena supplyAsync lanza RejectedExecutionException (no devuelve un future colgado).
+     */
+    public Executor executor(Pool pool) {
+        return lanes.get(pool);
+    }
+
+    /**
+     * Ejecuta task en el carril cada delay (desde que se despachó la anterior). Si la
+     * ejecución anterior aún no terminó se salta ese turno. cancel() detiene los despachos.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Pool pool, Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        AtomicBoolean pending = new AtomicBoolean();
+        Lane lane = lanes.get(pool);
+        return timer.scheduleWithFixedDelay(() -> {
+            if (!pending.compareAndSet(false, true)) {
+                lane.skipped.increment();
+                return;
+            }
+            try {
+                lane.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        pending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                pending.set(false);
+            }
+        }, initialDelay, delay, unit);
+    }
+
+    /* ---------------------- Métricas ---------------------- */
+
+    /** Foto de las métricas de un carril. */
+    public static final class Stats {
+        private final Pool pool;
+        private final int threads, capacity, queued, maxQueued, running;
+        private final long completed, failed, rejected, superseded, skipped;
+        private final double avgWaitMs, maxWaitMs, avgRunMs;
+        private final boolean virtual;
+
+        Stats(Lane l) {
+            this.pool = l.pool;
+            this.threads = l.threads;
+            this.capacity = l.capacity;
+            this.virtual = l.virtual != null;
+            this.queued = l.queued.get();
+            this.maxQueued = l.maxQueued.get();
+            this.running = l.running.get();
+            this.completed = l.completed.sum();
+            this.failed = l.failed.sum();
+            this.rejected = l.rejected.sum();
+            this.superseded = l.superseded.sum();
+            this.skipped = l.skipped.sum();
+            long started = l.started.sum();
+            long finished = completed + failed;
+            this.avgWaitMs = started == 0 ? 0 : l.waitNanos.sum() / 1e6 / started;
+            this.maxWaitMs = l.maxWaitNanos.get() / 1e6;
+            this.avgRunMs = finished == 0 ? 0 : l.runNanos.sum() / 1e6 / finished;
+        }
+
+        public Pool getPool() { return pool; }
+        public int getThreads() { return threads; }
+        public int getCapacity() { return capacity; }
+        public boolean isVirtual() { return virtual; }
+        /** Tareas en cola (enviadas y aún sin empezar). */
+        public int getQueued() { return queued; }
+        public int getMaxQueued() { return maxQueued; }
+        public int getRunning() { return running; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public long getRejected() { return rejected; }
+        /** Canceladas por submitLatest al llegar una más reciente. */
+        public long getSuperseded() { return superseded; }
+        /** Turnos de tareas periódicas saltados porque la anterior seguía pendiente. */
+        public long getSkipped() { return skipped; }
+        public double getAvgWaitMs() { return avgWaitMs; }
+        public double getMaxWaitMs() { return maxWaitMs; }
+        public double getAvgRunMs() { return avgRunMs; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: %d hilos%s, cola %d/%d (máx %d), corriendo %d | terminadas=%d error=%d rechazadas=%d reemplazadas=%d saltadas=%d | espera prom %.1f ms (máx %.1f) | duración prom %.1f ms",
+                    pool.id, threads, virtual ? " virtuales" : "", queued, capacity, maxQueued, running,
+                    completed, failed, rejected, superseded, skipped, avgWaitMs, maxWaitMs, avgRunMs);
+        }
+    }
+
+    public Stats stats(Pool pool) {
+        return new Stats(lanes.get(pool));
+    }
+
+    public List<Stats> stats() {
+        List<Stats> out = new ArrayList<>();
+        for (Lane l : lanes.values()) out.add(new Stats(l));
+        return out;
+    }
+
+    /** Una línea por carril. */
+    public String report() {
+        StringBuilder sb = new StringBuilder("[Tareas]");
+        for (Stats s : stats()) sb.append(System.lineSeparator()).append("  ").append(s);
+        return sb.toString();
+    }
+
+    /* ---------------------- Carril ---------------------- */
+
+    private static final class Lane implements Executor {
+        final Pool pool;
+        final int threads;
+        final int capacity;
+        final ThreadPoolExecutor platform;   // null en modo virtual
+        final ExecutorService virtual;       // null en modo plataforma
+        final Semaphore permits;             // cota de concurrencia en modo virtual
+
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger maxQueued = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final LongAdder started = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder superseded = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+        final LongAdder runNanos = new LongAdder();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Lane(Pool pool, int threads, int capacity, ExecutorService virtual) {
+            this.pool = pool;
+            this.threads = threads;
+            this.capacity = capacity;
+            this.virtual = virtual;
+            if (virtual != null) {
+                this.platform = null;
+                this.permits = new Semaphore(threads);
+            } else {
+                AtomicInteger seq = new AtomicInteger();
+                this.platform = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(capacity), r -> {
+                            Thread t = new Thread(r, pool.id + "-" + seq.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+                this.platform.allowCoreThreadTimeOut(true);
+                this.permits = null;
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            long enqueued = System.nanoTime();
+            int depth = queued.incrementAndGet();
+            maxQueued.accumulateAndGet(depth, Math::max);
+            Runnable measured = () -> {
+                if (permits != null) permits.acquireUninterruptibly();
+                try {
+                    queued.decrementAndGet();
+                    running.incrementAndGet();
+                    long start = System.nanoTime();
+                    long wait = start - enqueued;
+                    started.increment();
+                    waitNanos.add(wait);
+                    maxWaitNanos.accumulateAndGet(wait, Math::max);
+                    try {
+                        task.run();
+                        completed.increment();
+                    } catch (RuntimeException | Error ex) {
+                        failed.increment();
+                        throw ex;
+                    } finally {
+                        runNanos.add(System.nanoTime() - start);
+                        running.decrementAndGet();
+                    }
+                } finally {
+                    if (permits != null) permits.release();
+                }
+            };
+            try {
+                if (virtual != null) {
+                    if (depth > capacity) throw new RejectedExecutionException("cola llena");
+                    virtual.execute(measured);
+                } else {
+                    platform.execute(measured);
+                }
+            } catch (RejectedExecutionException ex) {
+                queued.decrementAndGet();
+                rejected.increment();
+                System.err.println("[TaskRuntime] Cola " + pool.id + " llena (" + capacity + "): tarea descartada");
+                // sólo FutureTask: cancelarlo lo completa para quien espera su resultado. Otros
+                // Future (p. ej. la tarea interna de CompletableFuture.supplyAsync) no completan
+                // su future al cancelarlos: deben recibir la excepción.
+                if (task instanceof FutureTask) {
+                    ((FutureTask<?>) task).cancel(false);
+                    return;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() si el runtime es Java 21+; si no, null. */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            System.err.println("[TaskRuntime] Hilos virtuales no disponibles en Java "
+                    + Runtime.version().feature() + "; se usan hilos de plataforma.");
+            return null;
+        }
+    }
+}
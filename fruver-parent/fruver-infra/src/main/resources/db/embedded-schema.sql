@@ -0,0 +1,56 @@
+-- Esquema del backend embebido (H2 en modo MySQL). Idempotente: se ejecuta en cada arranque.
+
+CREATE TABLE IF NOT EXISTS USUARIO (
+    usuario_id    INT AUTO_INCREMENT PRIMARY KEY,
+    nombre        VARCHAR(100) NOT NULL UNIQUE,
+    rol           VARCHAR(20)  NOT NULL,
+    password_hash VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS PRODUCTO (
+    producto_id     INT AUTO_INCREMENT PRIMARY KEY,
+    codigo          VARCHAR(50)  NOT NULL UNIQUE,
+    nombre          VARCHAR(150) NOT NULL,
+    precio_unitario DECIMAL(12,2) NOT NULL,
+    tipo            VARCHAR(10)  NOT NULL,
+    stock_actual    DECIMAL(12,3) NOT NULL DEFAULT 0,
+    stock_umb       DECIMAL(12,3),
+    imagen_path     VARCHAR(500)
+);
+
+CREATE TABLE IF NOT EXISTS VENTA (
+    venta_id  INT AUTO_INCREMENT PRIMARY KEY,
+    fecha     TIMESTAMP NOT NULL,
+    cajero_id INT,
+    total     DECIMAL(14,2) NOT NULL DEFAULT 0,
+    recibido  DECIMAL(14,2) NOT NULL DEFAULT 0,
+    vuelto    DECIMAL(14,2) NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS idx_venta_fecha ON VENTA(fecha, venta_id);
+
+CREATE TABLE IF NOT EXISTS VENTA_ITEM (
+    item_id     INT AUTO_INCREMENT PRIMARY KEY,
+    venta_id    INT NOT NULL,
+    producto_id INT NOT NULL,
+    cantidad    DECIMAL(12,3) NOT NULL,
+    precio_unit DECIMAL(12,2) NOT NULL,
+    subtotal    DECIMAL(14,2) NOT NULL,
+    CONSTRAINT fk_item_venta FOREIGN KEY (venta_id) REFERENCES VENTA(venta_id)
+);
+CREATE INDEX IF NOT EXISTS idx_item_venta ON VENTA_ITEM(venta_id);
+
+CREATE TABLE IF NOT EXISTS FACTURA (
+    factura_id      INT AUTO_INCREMENT PRIMARY KEY,
+    venta_id        INT NOT NULL,
+    folio           VARCHAR(50),
+    impresa         BOOLEAN NOT NULL DEFAULT FALSE,
+    fecha_impresion TIMESTAMP NULL,
+    CONSTRAINT fk_factura_venta FOREIGN KEY (venta_id) REFERENCES VENTA(venta_id)
+);
+
+CREATE TABLE IF NOT EXISTS CONFIG_DISP (
+    config_id  INT AUTO_INCREMENT PRIMARY KEY,
+    tipo       VARCHAR(20) NOT NULL UNIQUE,
+    puerto     VARCHAR(100),
+    parametros VARCHAR(4000)
+);
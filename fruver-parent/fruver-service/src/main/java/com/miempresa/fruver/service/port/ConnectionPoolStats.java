@@ -0,0 +1,43 @@
+package com.miempresa.fruver.service.port;
+
+/**
+ * Estado del pool de conexiones a BD (tiempos de adquisición en milisegundos).
+ */
+public class ConnectionPoolStats {
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int pending;
+    private final int maxPoolSize;
+    private final double acquireP50Ms;
+    private final double acquireP95Ms;
+    private final double acquireP99Ms;
+    private final double acquireMaxMs;
+    private final long timeouts;
+
+    public ConnectionPoolStats(int active, int idle, int total, int pending, int maxPoolSize,
+                               double acquireP50Ms, double acquireP95Ms, double acquireP99Ms,
+                               double acquireMaxMs, long timeouts) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.pending = pending;
+        this.maxPoolSize = maxPoolSize;
+        this.acquireP50Ms = acquireP50Ms;
+        this.acquireP95Ms = acquireP95Ms;
+        this.acquireP99Ms = acquireP99Ms;
+        this.acquireMaxMs = acquireMaxMs;
+        this.timeouts = timeouts;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public int getPending() { return pending; }
+    public int getMaxPoolSize() { return maxPoolSize; }
+    public double getAcquireP50Ms() { return acquireP50Ms; }
+    public double getAcquireP95Ms() { return acquireP95Ms; }
+    public double getAcquireP99Ms() { return acquireP99Ms; }
+    public double getAcquireMaxMs() { return acquireMaxMs; }
+    public long getTimeouts() { return timeouts; }
+}
@@ -15,4 +15,18 @@ public interface PrinterPort {
 
     /** Libera recursos. */
     void close();
+
+    /**
+     * Adapta un PrinterPort de dominio (los adaptadores de infra, p. ej. SpooledPrinterPort)
+     * a este puerto.
+     */
+    static PrinterPort from(com.miempresa.fruver.domain.port.PrinterPort port) {
+        java.util.Objects.requireNonNull(port, "port requerido");
+        return new PrinterPort() {
+            @Override public void init(String printerId) { port.init(printerId); }
+            @Override public void printReceipt(String content) { port.printReceipt(content); }
+            @Override public void openCashDrawer() { port.openCashDrawer(); }
+            @Override public void close() { port.close(); }
+        };
+    }
 }
@@ -10,8 +10,6 @@ import com.miempresa.fruver.service.port.PrinterPort;
 import com.miempresa.fruver.domain.exceptions.DomainException;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
 /** Caso de uso para generar e imprimir factura. */
 public class GenerarFacturaUseCase implements InputPort<Venta, Factura> {
@@ -40,14 +38,16 @@ public class GenerarFacturaUseCase implements InputPort<Venta, Factura> {
         factura.markPrinted(LocalDateTime.now());
         factura = facturaRepo.save(factura);
 
-        // 2) Preparar el texto del ticket
-        List<String> lines = new ArrayList<>();
-        lines.add("Factura: " + factura.getFolio());
-        lines.add("Fecha: " + factura.getFechaImpresion());
-        lines.add("Total: " + venta.getTotal());
-        lines.add("Recibido: " + venta.getRecibido());
-        lines.add("Vuelto: " + venta.getVuelto());
-        String ticket = String.join("\n", lines);
+        // 2) Preparar el cuerpo del ticket (la impresora aplica la plantilla ESC/POS:
+        //    TAB = valor alineado a la derecha, "--" = separador)
+        String ticket = new StringBuilder(128)
+                .append("Factura\t").append(factura.getFolio()).append('\n')
+                .append("Fecha\t").append(factura.getFechaImpresion()).append('\n')
+                .append("--\n")
+                .append("Total\t").append(venta.getTotal()).append('\n')
+                .append("Recibido\t").append(venta.getRecibido()).append('\n')
+                .append("Vuelto\t").append(venta.getVuelto()).append('\n')
+                .toString();
 
         // 3) Resolver impresora desde CONFIG_DISP
         String printerId = deviceCfgRepo.findByType(DeviceType.IMPRESORA)
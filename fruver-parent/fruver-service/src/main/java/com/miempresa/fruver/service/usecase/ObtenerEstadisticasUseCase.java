@@ -1,6 +1,8 @@
 package com.miempresa.fruver.service.usecase;
 
-import com.miempresa.fruver.domain.repository.VentaRepository;
+import com.miempresa.fruver.domain.model.EstadisticasVentas;
+import com.miempresa.fruver.domain.repository.EstadisticasRepository;
+import com.miempresa.fruver.domain.exceptions.InvalidOperationException;
 import com.miempresa.fruver.service.port.InputPort;
 import java.time.LocalDate;
 import java.util.*;
@@ -8,18 +10,29 @@ import java.util.*;
 
 /**
  * Caso de uso para obtener estadísticas de ventas.
+ * La agregación se delega en EstadisticasRepository (SQL); no se cargan ventas individuales.
  */
-public class ObtenerEstadisticasUseCase implements InputPort<LocalDate[], Map<String, Object>> {
-    private final VentaRepository ventaRepo;
-    public ObtenerEstadisticasUseCase(VentaRepository vr) { this.ventaRepo = vr; }
+public class ObtenerEstadisticasUseCase implements InputPort<LocalDate[], EstadisticasVentas> {
+    public static final int TOP_N_DEFAULT = 10;
+
+    private final EstadisticasRepository estadisticasRepo;
+    public ObtenerEstadisticasUseCase(EstadisticasRepository er) {
+        this.estadisticasRepo = Objects.requireNonNull(er, "estadisticasRepo requerido");
+    }
 
     @Override
-    public Map<String, Object> execute(LocalDate[] range) {
+    public EstadisticasVentas execute(LocalDate[] range) {
+        return execute(range, TOP_N_DEFAULT);
+    }
+
+    public EstadisticasVentas execute(LocalDate[] range, int topN) {
+        if (range == null || range.length < 2 || range[0] == null || range[1] == null) {
+            throw new InvalidOperationException("Rango de fechas requerido");
+        }
         LocalDate from = range[0], to = range[1];
-        List<?> ventas = ventaRepo.findByDateRange(from, to);
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalVentas", ventas.size());
-        // otras métricas...
-        return stats;
+        if (from.isAfter(to)) {
+            throw new InvalidOperationException("'Desde' no puede ser posterior a 'Hasta'");
+        }
+        return estadisticasRepo.obtener(from, to, topN);
     }
 }
@@ -2,51 +2,129 @@ package com.miempresa.fruver.service.usecase;
 
 import com.miempresa.fruver.domain.model.*;
 import com.miempresa.fruver.domain.repository.*;
-import com.miempresa.fruver.domain.exceptions.EntityNotFoundException;
+import com.miempresa.fruver.domain.exceptions.DataAccessException;
 import com.miempresa.fruver.domain.exceptions.InvalidOperationException;
 import com.miempresa.fruver.service.port.InputPort;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Caso de uso para registrar una venta completa.
+ *
+ * La venta se confirma mediante VentaCommitRepository: una sola conexión y una sola
+ * transacción (cabecera, ítems en batch, descuento de stock en batch, commit),
+ * de modo que la latencia no crece con el número de líneas.
+ *
+ * Si hay diario local (VentaJournal), la venta se anota allí primero (fsync) y luego se
+ * confirma en BD con su clave. Si la BD no está disponible (DataAccessException pasajera)
+ * la venta queda en el diario (se devuelve sin ventaId) y el replayer la sincroniza más
+ * tarde. Tras un fallo de BD, durante DB_RETRY_WINDOW las ventas van directo al diario
+ * para no esperar el timeout de conexión en cada cobro. Un error permanente (restricción,
+ * dato inválido) no es una caída de BD: la venta no se realizó y se informa el error.
+ *
+ * Sin BD desde el arranque (constructor sólo con diario) las ventas únicamente se anotan y
+ * quedan pendientes hasta que un arranque con BD las sincronice. En ese modo los usuarios
+ * no son los de la BD, así que la venta se anota sin cajero.
  */
 public class RegistrarVentaUseCase implements InputPort<List<VentaItem>, Venta> {
-    private final ProductoRepository productoRepo;
-    private final VentaRepository ventaRepo;
-    private final VentaItemRepository itemRepo;
-    private final FacturaRepository facturaRepo;
-
-    public RegistrarVentaUseCase(ProductoRepository pr, VentaRepository vr, VentaItemRepository ir, FacturaRepository fr) {
-        this.productoRepo = pr;
-        this.ventaRepo = vr;
-        this.itemRepo = ir;
-        this.facturaRepo = fr;
+    private static final long DB_RETRY_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    private final VentaCommitRepository commitRepo; // null: sólo diario
+    private final VentaJournal journal; // nullable
+    private volatile long dbDownUntilNanos;
+    private volatile boolean dbDown;
+
+    public RegistrarVentaUseCase(VentaCommitRepository commitRepo) {
+        this(commitRepo, null);
+    }
+
+    public RegistrarVentaUseCase(VentaCommitRepository commitRepo, VentaJournal journal) {
+        this.commitRepo = Objects.requireNonNull(commitRepo, "commitRepo requerido");
+        this.journal = journal;
     }
 
+    /** Sin BD: las ventas sólo se anotan en el diario local (ver doc de la clase). */
+    public RegistrarVentaUseCase(VentaJournal journal) {
+        this.commitRepo = null;
+        this.journal = Objects.requireNonNull(journal, "journal requerido");
+        this.dbDown = true;
+    }
+
+    /**
+     * Compatibilidad: el cajero se toma del ventaId del primer ítem (contrato original).
+     */
     @Override
     public Venta execute(List<VentaItem> items) {
+        Integer cajeroId = (items == null || items.isEmpty()) ? null : items.get(0).getVentaId();
+        return execute(cajeroId, items, null);
+    }
+
+    /**
+     * Registra la venta para el cajero indicado.
+     *
+     * @param recibido monto recibido (nullable); si se informa se calcula el vuelto
+     * @return la venta confirmada; con ventaId null si quedó pendiente en el diario local
+     */
+    public Venta execute(Integer cajeroId, List<VentaItem> items, BigDecimal recibido) {
         if (items == null || items.isEmpty()) {
             throw new InvalidOperationException("La venta no puede estar vacía");
         }
-        // 1. Crear nueva venta
-        Venta venta = new Venta(null, LocalDateTime.now(), items.get(0).getVentaId());
-
-        // 2. Procesar cada item: verificar producto, ajustar stock, calcular subtotal
+        // 1. Armar cabecera con totales calculados en memoria
+        Venta venta = new Venta(null, LocalDateTime.now(), commitRepo == null ? null : cajeroId);
         for (VentaItem item : items) {
-            Producto p = productoRepo.findByCodigo(item.getProductoId().toString())
-                    .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado: " + item.getProductoId()));
-            p.adjustStock(item.getCantidad().negate());
-            productoRepo.updateStock(p.getProductoId(), p.getStockActual());
-            venta.addItem(item.getSubtotal());
-            // persistir line item
-            itemRepo.save(item);
+            if (item.getProductoId() == null) {
+                throw new InvalidOperationException("Ítem sin producto");
+            }
+            if (item.getCantidad() == null || item.getCantidad().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new InvalidOperationException("Cantidad inválida para producto " + item.getProductoId());
+            }
+            // mismo redondeo por línea que el carrito (2 decimales)
+            venta.addItem(item.getSubtotal().setScale(2, RoundingMode.HALF_UP));
+        }
+        if (recibido != null && recibido.compareTo(BigDecimal.ZERO) > 0) {
+            venta.calcularVuelto(recibido);
+        }
+
+        if (journal == null) {
+            // 2. Persistir todo en una transacción
+            return commitRepo.commit(venta, items);
         }
 
-        // 3. Persistir venta
-        venta = ventaRepo.save(venta);
+        // 2. Anotar en el diario local (durable) y luego persistir con la misma clave.
+        //    La venta queda reservada: si no se confirma aquí, release la deja al replayer.
+        String clave = journal.append(venta, items);
+        if (commitRepo == null || (dbDown && System.nanoTime() - dbDownUntilNanos < 0)) {
+            journal.release(clave);
+            return venta;
+        }
+        try {
+            Venta saved = commitRepo.commit(venta, items, clave);
+            dbDown = false;
+            journal.markDone(clave);
+            return saved;
+        } catch (DataAccessException ex) {
+            if (!ex.isTransient()) {
+                journal.markDone(clave);
+                throw ex;
+            }
+            System.err.println("[RegistrarVentaUseCase] BD no disponible, venta pendiente en diario local: " + ex.getMessage());
+            dbDownUntilNanos = System.nanoTime() + DB_RETRY_WINDOW_NANOS;
+            dbDown = true;
+            journal.release(clave);
+            return venta;
+        } catch (RuntimeException ex) {
+            // rechazo de negocio (p. ej. stock): la venta no se realizó
+            journal.markDone(clave);
+            throw ex;
+        }
+    }
 
-        return venta;
+    /** true si la última venta quedó sólo en el diario local por falta de BD. */
+    public boolean isDbDown() {
+        return dbDown;
     }
 }
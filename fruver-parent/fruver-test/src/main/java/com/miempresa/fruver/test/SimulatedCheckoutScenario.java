@@ -0,0 +1,293 @@
+package com.miempresa.fruver.test;
+
+import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.domain.model.Producto.TipoProducto;
+import com.miempresa.fruver.domain.model.Venta;
+import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.repository.VentaCommitRepository;
+import com.miempresa.fruver.infra.hardware.barcode.BarcodeService;
+import com.miempresa.fruver.infra.hardware.barcode.VariableMeasureDecoder;
+import com.miempresa.fruver.infra.hardware.printer.PooledPrinterPort;
+import com.miempresa.fruver.infra.hardware.printer.PrinterPool;
+import com.miempresa.fruver.infra.hardware.printer.PrinterService;
+import com.miempresa.fruver.infra.hardware.printer.spool.PrintSpooler;
+import com.miempresa.fruver.infra.hardware.scale.ScaleProtocols;
+import com.miempresa.fruver.infra.hardware.scale.ScaleSession;
+import com.miempresa.fruver.infra.hardware.scale.StableWeightDetector;
+import com.miempresa.fruver.infra.hardware.serial.sim.SimulatedBarcodeReader;
+import com.miempresa.fruver.infra.hardware.serial.sim.SimulatedPrinter;
+import com.miempresa.fruver.infra.hardware.serial.sim.SimulatedScale;
+import com.miempresa.fruver.infra.hardware.serial.sim.SimulatedSerialHub;
+import com.miempresa.fruver.service.usecase.RegistrarVentaUseCase;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escenarios de cobro automáticos contra dispositivos virtuales (sin hardware ni BD):
+ * lector "SIM:LECTOR" -> báscula "SIM:BASCULA" (vía ScaleSession) -> RegistrarVentaUseCase
+ * con repositorio en memoria -> PrintSpooler -> impresora "SIM:IMPRESORA".
+ *
+ * Escenarios: normal, ruido (báscula ruidosa + latencia con jitter), impresora lenta
+ * (contrapresión en el puerto) y atasco (la impresora rechaza trabajos al inicio; el
+ * spooler reintenta sin frenar los cobros). La mitad de los productos por peso llegan
+ * prepesados con EAN-13 de medida variable y no pasan por la báscula. Informa ventas/s y
+ * latencias; sale con código 1 si algún peso leído no coincide, falta un recibo o una venta falla.
+ *
+ * Uso: SimulatedCheckoutScenario [ventas=30] [itemsPorVenta=3] [escenario=todos]
+ */
+public class SimulatedCheckoutScenario {
+
+    private static final double WEIGHT_TOLERANCE_KG = 0.01;
+    private static final long STABLE_TIMEOUT_MS = 3000;
+
+    private static final List<Producto> CATALOGO = List.of(
+            new Producto(1, "7701", "Tomate", new BigDecimal("3200"), TipoProducto.PESO, new BigDecimal("1000"), BigDecimal.ONE),
+            new Producto(2, "7702", "Banano", new BigDecimal("2500"), TipoProducto.PESO, new BigDecimal("1000"), BigDecimal.ONE),
+            new Producto(3, "7703", "Aguacate", new BigDecimal("1800"), TipoProducto.UNIDAD, new BigDecimal("1000"), BigDecimal.ONE),
+            new Producto(4, "7704", "Papa", new BigDecimal("1900"), TipoProducto.PESO, new BigDecimal("1000"), BigDecimal.ONE));
+
+    /** Parámetros de un escenario. */
+    private static final class Escenario {
+        final String nombre;
+        final long settleMs;
+        final double noiseKg;
+        final long latencyMs, jitterMs;
+        final int printerBytesPerSecond, printerBufferBytes;
+        final long jamMs;
+
+        Escenario(String nombre, long settleMs, double noiseKg, long latencyMs, long jitterMs,
+                  int printerBytesPerSecond, int printerBufferBytes, long jamMs) {
+            this.nombre = nombre;
+            this.settleMs = settleMs;
+            this.noiseKg = noiseKg;
+            this.latencyMs = latencyMs;
+            this.jitterMs = jitterMs;
+            this.printerBytesPerSecond = printerBytesPerSecond;
+            this.printerBufferBytes = printerBufferBytes;
+            this.jamMs = jamMs;
+        }
+    }
+
+    private static final List<Escenario> ESCENARIOS = List.of(
+            new Escenario("normal", 120, 0.001, 1, 0, 0, 4096, 0),
+            new Escenario("ruido", 300, 0.002, 10, 8, 0, 4096, 0),
+            new Escenario("impresora-lenta", 120, 0.001, 1, 0, 1200, 32, 0),
+            new Escenario("atasco", 120, 0.001, 1, 0, 0, 4096, 1500));
+
+    public static void main(String[] args) {
+        int ventas = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int itemsPorVenta = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String filtro = args.length > 2 ? args[2] : "todos";
+
+        System.out.println("=== Escenarios de cobro simulados (" + ventas + " ventas x " + itemsPorVenta + " ítems) ===");
+        boolean ok = true;
+        for (Escenario e : ESCENARIOS) {
+            if (!filtro.equals("todos") && !filtro.equals(e.nombre)) continue;
+            try {
+                ok &= run(e, ventas, itemsPorVenta);
+            } catch (Exception ex) {
+                System.err.println("[" + e.nombre + "] ERROR: " + ex.getMessage());
+                ex.printStackTrace();
+                ok = false;
+            } finally {
+                SimulatedSerialHub.reset();
+            }
+        }
+        System.out.println(ok ? "RESULTADO: OK" : "RESULTADO: FALLÓ");
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static boolean run(Escenario e, int ventas, int itemsPorVenta) throws Exception {
+        // dispositivos virtuales
+        SimulatedScale scale = new SimulatedScale(SimulatedScale.Format.CAS).withSettle(e.settleMs, e.noiseKg)
+                .withStreamInterval(25);
+        SimulatedSerialHub.attach("SIM:BASCULA", scale).setLatency(e.latencyMs, e.jitterMs);
+        SimulatedBarcodeReader reader = new SimulatedBarcodeReader();
+        SimulatedSerialHub.attach("SIM:LECTOR", reader).setLatency(e.latencyMs, e.jitterMs);
+        SimulatedPrinter printer = new SimulatedPrinter();
+        SimulatedSerialHub.attach("SIM:IMPRESORA", printer)
+                .setConsumeRate(e.printerBytesPerSecond, e.printerBufferBytes);
+
+        // servicios reales sobre los puertos simulados
+        ScaleSession session = new ScaleSession();
+        BarcodeService barcode = new BarcodeService();
+        Path spoolDir = Files.createTempDirectory("fruver-spool");
+        AtomicInteger aperturas = new AtomicInteger();
+        PrinterPool pool = new PrinterPool(() -> { aperturas.incrementAndGet(); return new PrinterService(); }, 0, 200);
+        PrintSpooler spooler = new PrintSpooler(spoolDir, () -> new PooledPrinterPort(pool), 20, 100, 400);
+        BlockingQueue<String> scanned = new LinkedBlockingQueue<>();
+        AtomicInteger ids = new AtomicInteger();
+        VentaCommitRepository repo = (venta, items, clave) -> {
+            Venta saved = new Venta(ids.incrementAndGet(), venta.getFecha(), venta.getCajeroId());
+            saved.addItem(venta.getTotal());
+            return saved;
+        };
+        RegistrarVentaUseCase registrar = new RegistrarVentaUseCase(repo);
+        Random random = new Random(7);
+        Map<String, Producto> porCodigo = new HashMap<>();
+        for (Producto p : CATALOGO) porCodigo.put(p.getCodigo(), p);
+        VariableMeasureDecoder decoder = new VariableMeasureDecoder("20-24:PESO,25-29:PRECIO", 5, 3, 0);
+
+        int errores = 0;
+        long[] latencias = new long[ventas];
+        try {
+            session.start("SIM:BASCULA", 9600, ScaleProtocols.byId("CAS"));
+            barcode.init("SIM:LECTOR", 9600);
+            barcode.setOnCodeScanned(scanned::add);
+            if (e.jamMs > 0) {
+                printer.setJammed(true);
+                Thread unjam = new Thread(() -> {
+                    try { Thread.sleep(e.jamMs); } catch (InterruptedException ignored) {}
+                    printer.setJammed(false);
+                }, "sim-unjam");
+                unjam.setDaemon(true);
+                unjam.start();
+            }
+            awaitConnected(session, 5000);
+            StableWeightDetector detector = session.getScaleService().getStabilityDetector();
+
+            // ráfaga de lecturas seguidas: ninguna debe perderse ni desordenarse
+            String[] rafaga = new String[50];
+            for (int i = 0; i < rafaga.length; i++) rafaga[i] = CATALOGO.get(i % CATALOGO.size()).getCodigo();
+            reader.burst(rafaga, 0);
+            for (String esperado : rafaga) {
+                String code = scanned.poll(2, TimeUnit.SECONDS);
+                if (!esperado.equals(code)) {
+                    System.err.println("[" + e.nombre + "] ráfaga: esperado " + esperado + " leído " + code);
+                    errores++;
+                    break;
+                }
+            }
+
+            long inicio = System.nanoTime();
+            for (int v = 0; v < ventas; v++) {
+                long t0 = System.nanoTime();
+                List<VentaItem> items = new ArrayList<>();
+                StringBuilder recibo = new StringBuilder();
+                for (int i = 0; i < itemsPorVenta; i++) {
+                    Producto esperado = CATALOGO.get(random.nextInt(CATALOGO.size()));
+                    // la mitad de los productos por peso llegan prepesados con etiqueta 20 + PLU + gramos
+                    int gramosEtiqueta = esperado.getTipo() == TipoProducto.PESO && random.nextBoolean()
+                            ? 200 + random.nextInt(2800) : 0;
+                    reader.scan(gramosEtiqueta > 0 ? etiquetaPeso(esperado.getCodigo(), gramosEtiqueta) : esperado.getCodigo());
+                    String code = scanned.poll(2, TimeUnit.SECONDS);
+                    VariableMeasureDecoder.Code vm = code == null || porCodigo.containsKey(code) ? null : decoder.decode(code);
+                    Producto p = code == null ? null : vm != null ? porCodigo.get(vm.getPlu()) : porCodigo.get(code);
+                    if (p != esperado) {
+                        System.err.println("[" + e.nombre + "] código leído incorrecto: " + code);
+                        errores++;
+                        continue;
+                    }
+                    BigDecimal cantidad;
+                    if (vm != null) {
+                        // sin báscula: el peso viene en la etiqueta
+                        cantidad = vm.getValue().setScale(3, RoundingMode.HALF_UP);
+                        if (cantidad.compareTo(BigDecimal.valueOf(gramosEtiqueta, 3)) != 0) {
+                            System.err.println("[" + e.nombre + "] peso de etiqueta incorrecto: " + code + " -> " + cantidad);
+                            errores++;
+                        }
+                    } else if (p.getTipo() == TipoProducto.PESO) {
+                        double kg = 0.2 + random.nextInt(2800) / 1000.0;
+                        double leido = weigh(scale, detector, session, kg);
+                        if (Math.abs(leido - kg) > WEIGHT_TOLERANCE_KG) {
+                            System.err.printf(Locale.ROOT, "[%s] peso incorrecto: esperado %.3f leído %.3f%n", e.nombre, kg, leido);
+                            errores++;
+                        }
+                        cantidad = BigDecimal.valueOf(leido).setScale(3, RoundingMode.HALF_UP);
+                    } else {
+                        cantidad = BigDecimal.ONE;
+                    }
+                    items.add(new VentaItem(null, null, p.getProductoId(), cantidad, p.getPrecioUnitario()));
+                    recibo.append(p.getNombre()).append(' ').append(cantidad.toPlainString()).append('\t')
+                            .append(p.getPrecioUnitario().multiply(cantidad).setScale(2, RoundingMode.HALF_UP).toPlainString()).append('\n');
+                }
+                scale.place(0);
+                Venta venta = registrar.execute(1, items, null);
+                recibo.append("--\nTOTAL\t").append(venta.getTotal().toPlainString()).append('\n');
+                spooler.submitReceipt("SIM:IMPRESORA", recibo.toString());
+                latencias[v] = System.nanoTime() - t0;
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            if (!spooler.awaitIdle(30_000) || !printer.awaitReceipts(ventas, 1_000) || !spooler.failedJobs().isEmpty()) {
+                System.err.println("[" + e.nombre + "] recibos impresos " + printer.getReceiptCount() + " de " + ventas);
+                errores++;
+            }
+            // salud de la impresora caliente: DLE EOT detecta falta de papel sin reabrir el puerto
+            printer.setPaperOut(true);
+            pool.checkAll();
+            PrinterService.Status sinPapel = pool.getStatus("SIM:IMPRESORA");
+            printer.setPaperOut(false);
+            pool.checkAll();
+            PrinterService.Status lista = pool.getStatus("SIM:IMPRESORA");
+            if (sinPapel != PrinterService.Status.SIN_PAPEL || lista != PrinterService.Status.LISTA) {
+                System.err.println("[" + e.nombre + "] estado de impresora: " + sinPapel + " / " + lista);
+                errores++;
+            }
+            // sin atasco la impresora se abre una sola vez para todas las ventas
+            if (e.jamMs == 0 && aperturas.get() != 1) {
+                System.err.println("[" + e.nombre + "] impresora abierta " + aperturas.get() + " veces");
+                errores++;
+            }
+            Arrays.sort(latencias);
+            System.out.printf(Locale.ROOT,
+                    "[%s] ventas=%d en %.2fs -> %.1f ventas/s | latencia p50=%.0fms p95=%.0fms max=%.0fms | bytes impresora=%d (aperturas=%d) | errores=%d%n",
+                    e.nombre, ventas, segundos, ventas / segundos,
+                    percentileMs(latencias, 0.50), percentileMs(latencias, 0.95), percentileMs(latencias, 1.0),
+                    printer.getBytesReceived(), aperturas.get(), errores);
+        } finally {
+            session.close();
+            barcode.close();
+            spooler.close();
+            pool.close();
+        }
+        return errores == 0;
+    }
+
+    /** EAN-13 de medida variable: "20" + PLU (5 dígitos) + gramos (5 dígitos) + control. */
+    private static String etiquetaPeso(String plu, int gramos) {
+        String sinControl = String.format(Locale.ROOT, "20%05d%05d", Integer.parseInt(plu), gramos);
+        return sinControl + VariableMeasureDecoder.checkDigit(sinControl);
+    }
+
+    /**
+     * Pone el producto en el plato y espera el primer peso estable cuyo tramo empezó después
+     * de colocarlo (descarta el estable del producto anterior).
+     */
+    private static double weigh(SimulatedScale scale, StableWeightDetector detector, ScaleSession session,
+                                double kg) throws InterruptedException {
+        long placedAt = System.nanoTime();
+        scale.place(kg);
+        long deadline = placedAt + STABLE_TIMEOUT_MS * 1_000_000L;
+        while (System.nanoTime() < deadline) {
+            StableWeightDetector.StableWeight s = detector.await(50, 500);
+            if (s != null && s.getFirstSampleNanos() > placedAt) return session.readWeightKg(0);
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Peso no estable tras " + STABLE_TIMEOUT_MS + "ms");
+    }
+
+    private static void awaitConnected(ScaleSession session, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!session.isConnected()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Báscula simulada no conectó: " + session.getStatus());
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+}
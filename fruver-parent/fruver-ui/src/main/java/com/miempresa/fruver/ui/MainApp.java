@@ -1,6 +1,8 @@
 package com.miempresa.fruver.ui;
 
 import com.miempresa.fruver.ui.controller.SplashController;
+import com.miempresa.fruver.ui.util.StartupPipeline;
+import com.miempresa.fruver.ui.util.ViewPreloader;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -19,13 +21,27 @@ import javafx.stage.Stage;
  *   - ADMIN    -> /fxml/AdminView.fxml
  *
  * Cada controlador de rol debe exponer init(Usuario, Runnable) para inyección y logout callback.
+ *
+ * Arranque: mientras se ve el Splash, las etapas de ServiceLocator y el parseo de LoginView
+ * corren en paralelo (StartupPipeline); al terminar se parsean las vistas de rol. La
+ * navegación toma grafos ya construidos de ViewPreloader y sólo crea la Scene.
  */
 public class MainApp extends Application {
+    private static final String LOGIN_FXML = "/fxml/LoginView.fxml";
+
+    // Vistas de rol que se parsean por adelantado. SupervisorView no: su initialize() ya
+    // carga productos y estadísticas, que quedarían viejos si se precarga mucho antes.
+    private static final String[] PRELOADED_ROLE_VIEWS = {"/fxml/CajeroView.fxml", "/fxml/AdminView.fxml"};
+
     private Stage primaryStage;
+    private final StartupPipeline startup = StartupPipeline.fromSystemProperties();
+    private final ViewPreloader views = new ViewPreloader();
 
     @Override
     public void start(Stage stage) throws Exception {
         this.primaryStage = stage;
+        // LoginView no depende de ServiceLocator: se parsea junto con la inicialización
+        startup.stage("vista-login", () -> views.preload(LOGIN_FXML));
         showSplashThenLogin();
     }
 
@@ -46,18 +62,23 @@ public class MainApp extends Application {
         SplashController splashCtrl = fx.getController();
         splashCtrl.setOnFinished(() -> Platform.runLater(() -> {
             try {
+                // los controladores de rol usan ServiceLocator al cargarse: recién ahora
+                for (String fxml : PRELOADED_ROLE_VIEWS) {
+                    startup.stage("vista-" + viewName(fxml), () -> views.preload(fxml));
+                }
+                startup.finish();
                 openLogin();
             } catch (Exception e) {
                 e.printStackTrace();
                 showError("Error", "No se pudo abrir la pantalla de login.", e);
             }
         }));
+        splashCtrl.start(startup);
     }
 
     private void openLogin() throws Exception {
-        FXMLLoader fx = new FXMLLoader(getClass().getResource("/fxml/LoginView.fxml"));
-        Parent root = fx.load();
-        Scene scene = new Scene(root);
+        ViewPreloader.View view = views.take(LOGIN_FXML);
+        Scene scene = new Scene(view.getRoot());
         scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
 
         primaryStage.setScene(scene);
@@ -67,7 +88,7 @@ public class MainApp extends Application {
         primaryStage.centerOnScreen();
 
         // Inyectar usecases desde ServiceLocator (asegúrate init fue llamado)
-        var ctrl = fx.getController();
+        var ctrl = view.getController();
 
         // El controller que usamos espera init(LoginUseCase, ListUsersUseCase, onSuccess)
         try {
@@ -129,9 +150,8 @@ public class MainApp extends Application {
                 throw new IllegalStateException("Rol no soportado: " + usuario.getRol());
         }
 
-        FXMLLoader fx = new FXMLLoader(getClass().getResource(fxmlPath));
-        Parent root = fx.load();
-        Scene scene = new Scene(root);
+        ViewPreloader.View view = views.take(fxmlPath);
+        Scene scene = new Scene(view.getRoot());
         scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
 
         primaryStage.setScene(scene);
@@ -140,7 +160,7 @@ public class MainApp extends Application {
         primaryStage.setResizable(true);
         primaryStage.centerOnScreen();
 
-        var ctrl = fx.getController();
+        var ctrl = view.getController();
 
         // Si el controlador no tiene init(Usuario,Runnable) lo intentamos detectar y seguir sin crash.
         try {
@@ -165,6 +185,12 @@ public class MainApp extends Application {
         }
     }
 
+    /** "/fxml/CajeroView.fxml" -> "cajero" (nombre de etapa en el reporte de arranque). */
+    private static String viewName(String fxml) {
+        String name = fxml.substring(fxml.lastIndexOf('/') + 1).replace("View.fxml", "");
+        return name.toLowerCase(java.util.Locale.ROOT);
+    }
+
     private void showError(String title, String content, Throwable ex) {
         ex.printStackTrace();
         Alert a = new Alert(Alert.AlertType.ERROR);
@@ -5,6 +5,7 @@ import com.miempresa.fruver.domain.repository.UsuarioRepository;
 import com.miempresa.fruver.domain.model.DeviceConfig;
 import com.miempresa.fruver.domain.model.DeviceConfig.DeviceType;
 import com.miempresa.fruver.service.port.DatabaseStorageInfo;
+import com.miempresa.fruver.service.port.ConnectionPoolStats;
 import com.miempresa.fruver.service.usecase.GetDatabaseStorageUseCase;
 import com.miempresa.fruver.service.usecase.ListUsersUseCase;
 import com.miempresa.fruver.service.usecase.LoginUseCase;
@@ -26,6 +27,7 @@ import com.miempresa.fruver.service.usecase.ObtenerEstadisticasUseCase;
 
 // nuevo: RegistrarVentaUseCase
 import com.miempresa.fruver.service.usecase.RegistrarVentaUseCase;
+import com.miempresa.fruver.service.usecase.GenerarFacturaUseCase;
 
 import org.mindrot.jbcrypt.BCrypt;
 
@@ -34,8 +36,10 @@ import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -44,8 +48,9 @@ import java.util.function.Consumer;
  * ServiceLocator consolidado (versión final).
  *
  * - Inicializa usecases principales (login, usuarios, productos) en modo JDBC o in-memory.
- * - Intenta crear y registrar ObtenerEstadisticasUseCase automáticamente si encuentra VentaRepositoryJdbc.
+ * - Intenta crear y registrar ObtenerEstadisticasUseCase automáticamente (EstadisticasRepositoryJdbc).
  * - Expone AdminService (JdbcAdminService / InMemoryAdminService).
+ * - Mantiene la sesión de báscula del proceso (ScaleSession) según la configuración BASCULA.
  *
  * Nota: este fichero mantiene TU implementación original y se extiende con getters/registradores no invasivos
  * para RegistrarVentaUseCase para que la UI (Cajero) pueda recuperar/inyectar el usecase.
@@ -70,6 +75,26 @@ public final class ServiceLocator {
 
     // RegistrarVentaUseCase (opcional/inyectable para el Cajero)
     private static volatile RegistrarVentaUseCase registrarVentaUseCase;
+    private static volatile com.miempresa.fruver.infra.journal.VentaJournalReplayer ventaJournalReplayer;
+    private static volatile com.miempresa.fruver.infra.journal.FileVentaJournal ventaJournal;
+
+    // IMPRESORA configurada (null: sin leer); ver printerConfig()
+    private static volatile Optional<String[]> printerConfig;
+    private static final java.util.concurrent.atomic.AtomicLong printerConfigGen = new java.util.concurrent.atomic.AtomicLong();
+
+    // GenerarFacturaUseCase: imprime a través de la cola de impresión (no espera al papel)
+    private static volatile GenerarFacturaUseCase generarFacturaUseCase;
+
+    // Sesión de báscula compartida (abierta una vez, reconexión automática)
+    private static volatile com.miempresa.fruver.infra.hardware.scale.ScaleSession scaleSession;
+    // auto-detección en curso: la sesión no se reabre (la prueba usa el puerto)
+    private static final java.util.concurrent.atomic.AtomicBoolean scaleProbeRunning = new java.util.concurrent.atomic.AtomicBoolean();
+
+    // Cola de impresión persistente (un hilo por impresora)
+    private static volatile com.miempresa.fruver.infra.hardware.printer.spool.PrintSpooler printSpooler;
+
+    // Impresoras abiertas una vez y vigiladas con DLE EOT (se re-resuelven al cambiar la config)
+    private static volatile com.miempresa.fruver.infra.hardware.printer.PrinterPool printerPool;
 
     // Admin service
     private static volatile AdminService adminService;
@@ -88,105 +113,237 @@ public final class ServiceLocator {
      * Si algo falla, cae a modo in-memory (demo).
      */
     public static boolean initializeAndTestDb(Consumer<String> progressMsg, Consumer<Double> progressPercent) {
+        com.miempresa.fruver.ui.util.StartupPipeline pipeline = com.miempresa.fruver.ui.util.StartupPipeline.fromSystemProperties();
+        boolean ok = initializeAndTestDb(progressMsg, progressPercent, pipeline);
+        pipeline.finish();
+        return ok;
+    }
+
+    /**
+     * Igual que initializeAndTestDb(msg, progress) pero registrando las etapas en pipeline,
+     * para que corran en paralelo con otras del arranque (p. ej. el parseo de vistas):
+     *
+     *   conexion -> usuarios | catalogo | resumenes | dispositivos
+     *   catalogo -> precarga del catálogo;  resumenes + catalogo -> ventas;  resumenes -> estadisticas
+     *   dispositivos -> bascula | impresoras
+     *
+     * Retorna cuando están los casos de uso que la UI pide al navegar; la precarga del
+     * catálogo, la báscula y las impresoras siguen en segundo plano (finish() del pipeline
+     * imprime los tiempos). Si falla la conexión, usuarios o catálogo cae a modo demo.
+     */
+    public static boolean initializeAndTestDb(Consumer<String> progressMsg, Consumer<Double> progressPercent,
+                                              com.miempresa.fruver.ui.util.StartupPipeline pipeline) {
+        List<CompletableFuture<?>> own = new ArrayList<>();
         try {
             progressMsg.accept("Inicializando DataSource...");
-            progressPercent.accept(0.10);
-
-            DataSource ds = com.miempresa.fruver.infra.config.DataSourceFactory.getDataSource();
-
-            progressMsg.accept("Construyendo UsuarioRepository (JDBC)...");
-            progressPercent.accept(0.25);
-            com.miempresa.fruver.infra.db.UsuarioRepositoryJdbc repoJdbc = new com.miempresa.fruver.infra.db.UsuarioRepositoryJdbc(ds);
+            progressPercent.accept(0.05);
+
+            // DataSource + esquema embebido + primera conexión del pool (falla rápido si no hay BD)
+            boolean embedded = com.miempresa.fruver.infra.config.DataSourceFactory.isEmbedded();
+            CompletableFuture<DataSource> conexion = pipeline.stage("conexion", () -> {
+                DataSource ds = com.miempresa.fruver.infra.config.DataSourceFactory.getDataSource();
+                if (embedded) {
+                    progressMsg.accept("Preparando base de datos local (embebida)...");
+                    com.miempresa.fruver.infra.embedded.EmbeddedSchema.bootstrap(ds);
+                }
+                try (Connection c = ds.getConnection()) {
+                    if (!c.isValid(5)) throw new SQLException("La conexión a BD no responde");
+                }
+                return ds;
+            });
+            own.add(conexion);
 
-            progressMsg.accept("Construyendo casos de uso...");
-            progressPercent.accept(0.40);
+            CompletableFuture<Void> usuarios = pipeline.stage("usuarios", () -> {
+                com.miempresa.fruver.infra.db.UsuarioRepositoryJdbc repoJdbc = new com.miempresa.fruver.infra.db.UsuarioRepositoryJdbc(conexion.join());
+                // Fuerza una operación ligera para comprobar las tablas
+                repoJdbc.findByName("___test_connection___").orElse(null);
+                if (embedded) seedEmbeddedAdmin(repoJdbc);
 
-            // Usecases core de autenticación / usuarios
-            loginUseCase = new LoginUseCase(repoJdbc);
-            listUsersUseCase = new ListUsersUseCase(repoJdbc);
-            createUserUseCase = new CreateUserUseCase(repoJdbc);
-            updateUserUseCase = new UpdateUserUseCase(repoJdbc);
-            deleteUserUseCase = new DeleteUserUseCase(repoJdbc);
+                // Usecases core de autenticación / usuarios
+                loginUseCase = new LoginUseCase(repoJdbc);
+                listUsersUseCase = new ListUsersUseCase(repoJdbc);
+                createUserUseCase = new CreateUserUseCase(repoJdbc);
+                updateUserUseCase = new UpdateUserUseCase(repoJdbc);
+                deleteUserUseCase = new DeleteUserUseCase(repoJdbc);
+            }, conexion);
+            own.add(usuarios);
 
             // --- ProductoRepository (JDBC) y casos de uso de productos ---
-            com.miempresa.fruver.infra.db.ProductoRepositoryJdbc prodRepoJdbc = new com.miempresa.fruver.infra.db.ProductoRepositoryJdbc(ds);
-            listProductsUseCase = new ListProductsUseCase(prodRepoJdbc);
-            createProductUseCase = new CreateProductUseCase(prodRepoJdbc);
-            updateProductUseCase = new UpdateProductUseCase(prodRepoJdbc);
-            deleteProductUseCase = new DeleteProductUseCase(prodRepoJdbc);
+            // Catálogo cacheado en memoria; recarga periódica para ver cambios de otras cajas
+            CompletableFuture<com.miempresa.fruver.infra.cache.CachingProductoRepository> catalogo = pipeline.stage("catalogo", () -> {
+                long catalogRefreshSec = Long.getLong("fruver.catalog.refreshSeconds", 60L);
+                com.miempresa.fruver.infra.cache.CachingProductoRepository prodRepoJdbc = new com.miempresa.fruver.infra.cache.CachingProductoRepository(
+                        new com.miempresa.fruver.infra.db.ProductoRepositoryJdbc(conexion.join()),
+                        java.time.Duration.ofSeconds(catalogRefreshSec));
+                listProductsUseCase = new ListProductsUseCase(prodRepoJdbc);
+                createProductUseCase = new CreateProductUseCase(prodRepoJdbc);
+                updateProductUseCase = new UpdateProductUseCase(prodRepoJdbc);
+                deleteProductUseCase = new DeleteProductUseCase(prodRepoJdbc);
+                return prodRepoJdbc;
+            }, conexion);
+            own.add(catalogo);
+
+            // Primera carga del catálogo: la pantalla de caja lo encuentra ya en memoria
+            // (y se guarda una copia local para vender si un arranque posterior no tiene BD)
+            own.add(pipeline.stage("catalogo-precarga", () -> {
+                List<Producto> productos = catalogo.join().findAll();
+                try {
+                    new com.miempresa.fruver.infra.journal.FileCatalogSnapshot(journalDir()).save(productos);
+                } catch (Throwable t) {
+                    System.err.println("[ServiceLocator] No se pudo guardar la copia local del catálogo: " + t.getMessage());
+                }
+                return productos.size();
+            }, catalogo));
 
-            progressMsg.accept("Probando consulta mínima a BD...");
-            progressPercent.accept(0.60);
+            // Tablas de resumen de ventas (día/hora/producto/cajero)
+            CompletableFuture<Boolean> resumenes = pipeline.stage("resumenes", () -> {
+                try {
+                    com.miempresa.fruver.infra.db.VentaResumenJdbc.ensureSchema(conexion.join());
+                    return true;
+                } catch (Throwable t) {
+                    System.err.println("[ServiceLocator] Tablas de resumen no disponibles; estadísticas sobre VENTA: " + t.getMessage());
+                    return false;
+                }
+            }, conexion);
+            own.add(resumenes);
+
+            // RegistrarVentaUseCase: commit de venta en una sola transacción (incluye resúmenes)
+            // (tras confirmar, se refleja el descuento de stock en el catálogo cacheado)
+            CompletableFuture<Void> ventas = pipeline.stage("ventas", () -> {
+                DataSource ds = conexion.join();
+                com.miempresa.fruver.infra.cache.CachingProductoRepository prodRepoJdbc = catalogo.join();
+                com.miempresa.fruver.infra.db.VentaCommitRepositoryJdbc ventaCommitJdbc = new com.miempresa.fruver.infra.db.VentaCommitRepositoryJdbc(ds, resumenes.join());
+                com.miempresa.fruver.domain.repository.VentaCommitRepository ventaCommitRepo = new com.miempresa.fruver.domain.repository.VentaCommitRepository() {
+                    @Override
+                    public com.miempresa.fruver.domain.model.Venta commit(com.miempresa.fruver.domain.model.Venta venta,
+                                                                          List<com.miempresa.fruver.domain.model.VentaItem> items, String clave) {
+                        return commitAndPatch(venta, items, clave, false);
+                    }
 
-            // Fuerza una operación ligera para comprobar conexión
-            try {
-                repoJdbc.findByName("___test_connection___").orElse(null);
-            } catch (Exception ex) {
-                throw ex;
-            }
+                    @Override
+                    public com.miempresa.fruver.domain.model.Venta commitCobrada(com.miempresa.fruver.domain.model.Venta venta,
+                                                                                 List<com.miempresa.fruver.domain.model.VentaItem> items, String clave) {
+                        return commitAndPatch(venta, items, clave, true);
+                    }
 
-            progressMsg.accept("Conexión a BD OK");
-            progressPercent.accept(0.80);
+                    // sólo si esta llamada insertó la venta: una clave ya confirmada no descontó stock
+                    private com.miempresa.fruver.domain.model.Venta commitAndPatch(com.miempresa.fruver.domain.model.Venta venta,
+                                                                                   List<com.miempresa.fruver.domain.model.VentaItem> items,
+                                                                                   String clave, boolean cobrada) {
+                        long token = prodRepoJdbc.beginStockWrite();
+                        var r = ventaCommitJdbc.confirmar(venta, items, clave, cobrada);
+                        if (r.isInsertada()) {
+                            Map<Integer, BigDecimal> vendidos = new HashMap<>();
+                            for (var it : items) vendidos.merge(it.getProductoId(), it.getCantidad(), BigDecimal::add);
+                            prodRepoJdbc.applyStockDecrement(vendidos, token);
+                        }
+                        return r.getVenta();
+                    }
+                };
 
-            // Intentar construir VentaRepositoryJdbc y registrar ObtenerEstadisticasUseCase automáticamente
-            try {
-                com.miempresa.fruver.infra.db.VentaRepositoryJdbc ventaRepoJdbc = null;
+                // Diario local de ventas: se anota primero en disco; un hilo de fondo sincroniza
+                // con la BD lo que haya quedado pendiente (caídas de red/BD, ventas de sesiones previas)
+                com.miempresa.fruver.infra.journal.FileVentaJournal journal = null;
                 try {
-                    ventaRepoJdbc = new com.miempresa.fruver.infra.db.VentaRepositoryJdbc(ds);
+                    com.miempresa.fruver.infra.db.VentaCommitRepositoryJdbc.ensureSchema(ds);
+                    journal = openVentaJournal();
+                    if (ventaJournalReplayer != null) ventaJournalReplayer.stop();
+                    ventaJournalReplayer = new com.miempresa.fruver.infra.journal.VentaJournalReplayer(journal, ventaCommitRepo,
+                            java.time.Duration.ofSeconds(Long.getLong("fruver.journal.replaySeconds", 15L)));
+                    ventaJournalReplayer.start();
                 } catch (Throwable t) {
-                    // no disponible; lo ignoramos (no es fatal)
-                    ventaRepoJdbc = null;
+                    System.err.println("[ServiceLocator] Diario local de ventas no disponible: " + t.getMessage());
+                    journal = null;
                 }
-                if (ventaRepoJdbc != null) {
-                    try {
-                        obtenerEstadisticasUseCase = new ObtenerEstadisticasUseCase(ventaRepoJdbc);
-                        System.out.println("[ServiceLocator] ObtenerEstadisticasUseCase auto-registrado usando VentaRepositoryJdbc.");
-                    } catch (Throwable t) {
-                        System.err.println("[ServiceLocator] No se pudo crear ObtenerEstadisticasUseCase automáticamente: " + t.getMessage());
-                        obtenerEstadisticasUseCase = null;
-                    }
-                } else {
-                    System.out.println("[ServiceLocator] VentaRepositoryJdbc no presente; ObtenerEstadisticasUseCase no registrado automáticamente.");
+                registrarVentaUseCase = new RegistrarVentaUseCase(ventaCommitRepo, journal);
+            }, resumenes, catalogo);
+            own.add(ventas);
+
+            // Registrar ObtenerEstadisticasUseCase (agregados calculados en SQL).
+            // Hasta que conste la reconstrucción completa de los resúmenes se consultan las tablas crudas
+            // mientras un hilo de fondo los reconstruye; al terminar se pasa a los resúmenes.
+            CompletableFuture<Void> estadisticas = pipeline.stage("estadisticas", () -> {
+                DataSource ds = conexion.join();
+                boolean resumenOk = resumenes.join();
+                try {
+                    boolean backfill = resumenOk && com.miempresa.fruver.infra.db.VentaResumenJdbc.needsBackfill(ds);
+                    obtenerEstadisticasUseCase = new ObtenerEstadisticasUseCase(
+                            new com.miempresa.fruver.infra.db.EstadisticasRepositoryJdbc(ds, resumenOk && !backfill));
+                    System.out.println("[ServiceLocator] ObtenerEstadisticasUseCase auto-registrado usando EstadisticasRepositoryJdbc"
+                            + (resumenOk && !backfill ? " (resúmenes)." : "."));
+                    if (backfill) startResumenBackfill(ds);
+                } catch (Throwable t) {
+                    System.err.println("[ServiceLocator] Error intentando registrar ObtenerEstadisticasUseCase: " + t.getMessage());
+                    obtenerEstadisticasUseCase = null;
                 }
-            } catch (Throwable t) {
-                System.err.println("[ServiceLocator] Error intentando registrar ObtenerEstadisticasUseCase: " + t.getMessage());
-            }
-
-            // Construir AdminService JDBC (si las clases infra existen)
-            try {
-                com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc deviceRepo = new com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc(ds);
+            }, resumenes);
+            own.add(estadisticas);
 
-                com.miempresa.fruver.infra.db.DatabaseRepositoryJdbc dbRepo = null;
+            // Construir AdminService JDBC (si las clases infra existen) y leer la configuración de dispositivos
+            CompletableFuture<Void> dispositivos = pipeline.stage("dispositivos", () -> {
+                DataSource ds = conexion.join();
                 try {
-                    dbRepo = new com.miempresa.fruver.infra.db.DatabaseRepositoryJdbc(ds);
-                } catch (Throwable dbEx) {
-                    System.err.println("[ServiceLocator] DatabaseRepositoryJdbc no disponible: " + dbEx.getClass().getSimpleName() + " - " + dbEx.getMessage());
-                }
+                    com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc deviceRepo = new com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc(ds);
 
-                adminService = new JdbcAdminService(deviceRepo, dbRepo, ds);
-                usingInMemoryAdminService = false;
+                    com.miempresa.fruver.domain.repository.DatabaseRepository dbRepo = null;
+                    try {
+                        dbRepo = embedded
+                                ? new com.miempresa.fruver.infra.embedded.EmbeddedDatabaseRepository(
+                                        com.miempresa.fruver.infra.config.DataSourceFactory.getEmbeddedDbFile())
+                                : new com.miempresa.fruver.infra.db.DatabaseRepositoryJdbc(ds);
+                    } catch (Throwable dbEx) {
+                        System.err.println("[ServiceLocator] DatabaseRepositoryJdbc no disponible: " + dbEx.getClass().getSimpleName() + " - " + dbEx.getMessage());
+                    }
 
-                progressMsg.accept("AdminService (JDBC) listo");
-                progressMsg.accept("AdminService: JDBC inicializado correctamente.");
-                System.out.println("[ServiceLocator] AdminService inicializado: " + adminService.getClass().getName());
+                    adminService = new JdbcAdminService(deviceRepo, dbRepo, ds);
+                    usingInMemoryAdminService = false;
+                    invalidatePrinterConfig();
 
-            } catch (Throwable t) {
-                // Fallback to in-memory admin service
-                System.err.println("[ServiceLocator] No se pudo inicializar AdminService JDBC: " + t.getClass().getName() + " - " + t.getMessage());
-                t.printStackTrace();
+                    generarFacturaUseCase = new GenerarFacturaUseCase(new com.miempresa.fruver.infra.db.FacturaRepositoryJdbc(ds), deviceRepo,
+                            com.miempresa.fruver.service.port.PrinterPort.from(
+                                    new com.miempresa.fruver.infra.hardware.printer.spool.SpooledPrinterPort(getPrintSpooler())));
 
-                usingInMemoryAdminService = true;
-                adminService = new InMemoryAdminService();
+                    progressMsg.accept("AdminService: JDBC inicializado correctamente.");
+                    System.out.println("[ServiceLocator] AdminService inicializado: " + adminService.getClass().getName()
+                            + " (" + adminService.listDeviceConfigs().size() + " dispositivos configurados)");
 
-                progressMsg.accept("Modo DEMO (in-memory) activado. Algunas operaciones en AdminService no serán persistentes.");
-                System.out.println("[ServiceLocator] Fallback AdminService inicializado: " + adminService.getClass().getName());
+                } catch (Throwable t) {
+                    // Fallback to in-memory admin service
+                    System.err.println("[ServiceLocator] No se pudo inicializar AdminService JDBC: " + t.getClass().getName() + " - " + t.getMessage());
+                    t.printStackTrace();
+
+                    usingInMemoryAdminService = true;
+                    adminService = new InMemoryAdminService();
+                    invalidatePrinterConfig();
+
+                    progressMsg.accept("Modo DEMO (in-memory) activado. Algunas operaciones en AdminService no serán persistentes.");
+                    System.out.println("[ServiceLocator] Fallback AdminService inicializado: " + adminService.getClass().getName());
+                }
+            }, conexion);
+            own.add(dispositivos);
+
+            // Báscula e impresora: abrir los puertos ya en el arranque para que la primera
+            // pesada / el primer recibo no esperen el open() (ambos abren en segundo plano)
+            own.add(pipeline.stage("bascula", ServiceLocator::restartScaleSession, dispositivos));
+            own.add(pipeline.stage("impresoras", () -> { getPrinterPool(); }, dispositivos));
+
+            // Se espera sólo lo que la UI pide al navegar
+            CompletableFuture<?>[] required = {usuarios, catalogo, ventas, estadisticas, dispositivos};
+            AtomicInteger done = new AtomicInteger();
+            for (CompletableFuture<?> f : required) {
+                f.thenRun(() -> progressPercent.accept(0.05 + 0.95 * done.incrementAndGet() / required.length));
             }
+            progressMsg.accept("Conectando a BD y preparando casos de uso...");
+            com.miempresa.fruver.ui.util.StartupPipeline.await(required);
 
+            progressMsg.accept("Conexión a BD OK");
             progressPercent.accept(1.0);
             return true;
 
         } catch (Throwable t) {
             // Si falla la inicialización completa, se inicia modo demo in-memory
+            // (antes se deja terminar lo que siga corriendo para que no pise los usecases demo)
+            com.miempresa.fruver.ui.util.StartupPipeline.settle(own.toArray(new CompletableFuture<?>[0]));
             progressMsg.accept("No fue posible inicializar BD: " + t.getMessage());
             t.printStackTrace();
             progressPercent.accept(0.0);
@@ -200,6 +357,55 @@ public final class ServiceLocator {
         }
     }
 
+    private static java.nio.file.Path journalDir() {
+        return java.nio.file.Paths.get(System.getProperty("fruver.journal.dir", "data/journal"));
+    }
+
+    /** Diario de ventas del proceso (uno solo por archivo: lo comparten BD y modo sin BD). */
+    private static synchronized com.miempresa.fruver.infra.journal.FileVentaJournal openVentaJournal() {
+        if (ventaJournal == null) ventaJournal = new com.miempresa.fruver.infra.journal.FileVentaJournal(journalDir());
+        return ventaJournal;
+    }
+
+    /**
+     * Reconstruye las tablas de resumen desde el histórico en segundo plano y,
+     * al terminar, deja la marca de reconstrucción completa y cambia las estadísticas a
+     * leer los resúmenes. Si se corta, el próximo arranque vuelve a reconstruir.
+     */
+    private static void startResumenBackfill(javax.sql.DataSource ds) {
+        int parallelism = Integer.getInteger("fruver.resumen.rebuildThreads", 2);
+        int chunkDays = Integer.getInteger("fruver.resumen.chunkDays", 31);
+        Runnable backfill = () -> {
+            try {
+                long t0 = System.nanoTime();
+                int chunks = new com.miempresa.fruver.infra.db.VentaResumenRebuildJob(ds, chunkDays, parallelism).rebuildAll();
+                com.miempresa.fruver.infra.db.VentaResumenJdbc.markBackfillDone(ds);
+                obtenerEstadisticasUseCase = new ObtenerEstadisticasUseCase(
+                        new com.miempresa.fruver.infra.db.EstadisticasRepositoryJdbc(ds, true));
+                System.out.println("[ServiceLocator] Resúmenes de ventas reconstruidos (" + chunks + " bloques, "
+                        + (System.nanoTime() - t0) / 1_000_000 + " ms).");
+            } catch (Throwable ex) {
+                System.err.println("[ServiceLocator] Error reconstruyendo resúmenes de ventas: " + ex.getMessage());
+            }
+        };
+        try {
+            com.miempresa.fruver.infra.task.TaskRuntime.shared().execute(com.miempresa.fruver.infra.task.TaskRuntime.Pool.DB, backfill);
+        } catch (java.util.concurrent.RejectedExecutionException ex) {
+            // sin marca de reconstrucción completa: se reintenta en el próximo arranque
+            System.err.println("[ServiceLocator] Carril DB lleno, reconstrucción de resúmenes aplazada.");
+        }
+    }
+
+    /**
+     * En la BD embebida recién creada no hay usuarios: crea "admin" (clave "1234")
+     * para poder entrar y dar de alta al resto. Se debe cambiar la clave al primer ingreso.
+     */
+    private static void seedEmbeddedAdmin(UsuarioRepository repo) {
+        if (!repo.findAll().isEmpty()) return;
+        repo.save(new Usuario(null, "admin", Usuario.Role.ADMIN, BCrypt.hashpw("1234", BCrypt.gensalt(10))));
+        System.out.println("[ServiceLocator] BD embebida sin usuarios: creado 'admin' con clave por defecto. Cámbiala desde Admin.");
+    }
+
     private static void initInMemoryDemo() {
         InMemoryUsuarioRepository inmem = new InMemoryUsuarioRepository();
 
@@ -220,15 +426,38 @@ public final class ServiceLocator {
         updateUserUseCase = new UpdateUserUseCase(inmem);
         deleteUserUseCase = new DeleteUserUseCase(inmem);
 
-        // Productos en memoria
-        InMemoryProductoRepository prodMem = new InMemoryProductoRepository();
+        // Productos en memoria: con copia local del catálogo (último arranque con BD) la caja
+        // vende con los productos reales y las ventas quedan en el diario hasta que vuelva la BD;
+        // sin copia no hay con qué registrar ventas y la caja las rechaza.
+        List<Producto> copia = List.of();
+        try {
+            copia = new com.miempresa.fruver.infra.journal.FileCatalogSnapshot(journalDir()).load();
+        } catch (Throwable t) {
+            System.err.println("[ServiceLocator] Copia local del catálogo no disponible: " + t.getMessage());
+        }
+        InMemoryProductoRepository prodMem = copia.isEmpty()
+                ? new InMemoryProductoRepository()
+                : new InMemoryProductoRepository(copia);
         listProductsUseCase = new ListProductsUseCase(prodMem);
         createProductUseCase = new CreateProductUseCase(prodMem);
         updateProductUseCase = new UpdateProductUseCase(prodMem);
         deleteProductUseCase = new DeleteProductUseCase(prodMem);
 
+        generarFacturaUseCase = null;
+        registrarVentaUseCase = null;
+        if (!copia.isEmpty()) {
+            try {
+                registrarVentaUseCase = new RegistrarVentaUseCase(openVentaJournal());
+                System.out.println("[ServiceLocator] Sin BD: " + copia.size()
+                        + " productos de la copia local; las ventas quedan en el diario local.");
+            } catch (Throwable t) {
+                System.err.println("[ServiceLocator] Diario local de ventas no disponible: " + t.getMessage());
+            }
+        }
+
         usingInMemoryAdminService = true;
         adminService = new InMemoryAdminService();
+        invalidatePrinterConfig();
 
         System.out.println("[ServiceLocator] InMemoryAdminService inicializado (modo demo).");
     }
@@ -305,7 +534,7 @@ public final class ServiceLocator {
      */
     public static ObtenerEstadisticasUseCase getObtenerEstadisticasUseCase() {
         if (obtenerEstadisticasUseCase == null) {
-            throw new IllegalStateException("ObtenerEstadisticasUseCase no registrado. Llama a ServiceLocator.registerObtenerEstadisticasUseCase(...) durante la inicialización o asegúrate de que fruver-infra provea VentaRepositoryJdbc.");
+            throw new IllegalStateException("ObtenerEstadisticasUseCase no registrado. Llama a ServiceLocator.registerObtenerEstadisticasUseCase(...) durante la inicialización o asegúrate de que fruver-infra provea EstadisticasRepositoryJdbc.");
         }
         return obtenerEstadisticasUseCase;
     }
@@ -318,6 +547,19 @@ public final class ServiceLocator {
         obtenerEstadisticasUseCase = uc;
     }
 
+    /* ---------------------- GenerarFacturaUseCase exposure ---------------------- */
+
+    /**
+     * Retorna GenerarFacturaUseCase (factura impresa vía cola de impresión); lanza una excepción
+     * informativa si no hay BD.
+     */
+    public static GenerarFacturaUseCase getGenerarFacturaUseCase() {
+        if (generarFacturaUseCase == null) {
+            throw new IllegalStateException("GenerarFacturaUseCase no registrado: requiere conexión a la base de datos.");
+        }
+        return generarFacturaUseCase;
+    }
+
     /* ---------------------- RegistrarVentaUseCase exposure ---------------------- */
 
     /**
@@ -337,6 +579,183 @@ public final class ServiceLocator {
         registrarVentaUseCase = uc;
     }
 
+    /* ---------------------- Sesión de báscula ---------------------- */
+
+    /**
+     * Sesión de báscula compartida por todo el proceso (puerto abierto una sola vez).
+     * Null si no hay configuración BASCULA.
+     */
+    public static com.miempresa.fruver.infra.hardware.scale.ScaleSession getScaleSession() {
+        if (scaleSession == null) restartScaleSession();
+        return scaleSession;
+    }
+
+    /**
+     * (Re)arranca la sesión de báscula con la configuración BASCULA vigente; la cierra si ya
+     * no hay configuración. No bloquea: la apertura del puerto ocurre en segundo plano.
+     */
+    public static synchronized void restartScaleSession() {
+        if (scaleProbeRunning.get()) return; // autoDetectScale la reabre al terminar
+        try {
+            String[] cfg = findDeviceConfig("BASCULA");
+            if (cfg == null || cfg[0].isBlank()) {
+                if (scaleSession != null) {
+                    scaleSession.close();
+                    scaleSession = null;
+                }
+                return;
+            }
+            int baud = 9600;
+            java.util.regex.Matcher m = java.util.regex.Pattern.compile("\"baudRate\"\\s*:\\s*(\\d+)").matcher(cfg[1]);
+            if (m.find()) baud = Integer.parseInt(m.group(1));
+            java.util.regex.Matcher pm = java.util.regex.Pattern.compile("\"protocol\"\\s*:\\s*\"([^\"]*)\"").matcher(cfg[1]);
+            com.miempresa.fruver.infra.hardware.scale.ScaleProtocol protocol =
+                    com.miempresa.fruver.infra.hardware.scale.ScaleProtocols.byId(pm.find() ? pm.group(1) : null);
+            if (scaleSession == null) scaleSession = new com.miempresa.fruver.infra.hardware.scale.ScaleSession();
+            scaleSession.start(cfg[0], baud, protocol);
+            System.out.println("[ServiceLocator] Sesión de báscula en " + cfg[0] + "@" + baud + " (" + protocol.getId() + ")");
+        } catch (Throwable t) {
+            System.err.println("[ServiceLocator] No se pudo iniciar la sesión de báscula: " + t.getMessage());
+        }
+    }
+
+    /**
+     * Auto-detecta protocolo y velocidad de la báscula y los guarda en los parámetros BASCULA.
+     * Si port está vacío se prueban todos los puertos del sistema. La sesión compartida se
+     * detiene durante la prueba (necesita el puerto) y se reanuda al terminar.
+     * La prueba (varios segundos por puerto) corre fuera del monitor de ServiceLocator, para no
+     * bloquear la cola de impresión ni la báscula; sólo se admite una a la vez.
+     *
+     * @return descripción del resultado, o null si no se detectó ninguna báscula
+     */
+    static String autoDetectScale(AdminService svc, String port, Consumer<String> progressMsg) {
+        if (!scaleProbeRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una auto-detección de báscula en curso");
+        }
+        try {
+            Optional<com.miempresa.fruver.infra.hardware.scale.ScaleProtocolProbe.Result> r;
+            try {
+                synchronized (ServiceLocator.class) {
+                    if (scaleSession != null) {
+                        scaleSession.close();
+                        scaleSession = null;
+                    }
+                }
+                List<String> ports = port == null || port.isBlank()
+                        ? com.miempresa.fruver.infra.hardware.scale.ScaleProtocolProbe.listSystemPorts()
+                        : List.of(port.trim());
+                r = new com.miempresa.fruver.infra.hardware.scale.ScaleProtocolProbe().probe(ports, progressMsg);
+            } finally {
+                scaleProbeRunning.set(false);
+            }
+            if (r.isEmpty()) return null;
+            String[] cfg = findDeviceConfig("BASCULA");
+            String params = r.get().mergeInto(cfg == null ? "{}" : cfg[1]);
+            svc.saveDeviceConfig("BASCULA", r.get().getPort(), params); // re-arranca la sesión
+            return r.get().toString();
+        } finally {
+            if (scaleSession == null) restartScaleSession();
+        }
+    }
+
+    /* ---------------------- Cola de impresión ---------------------- */
+
+    /** Cola de impresión compartida; los trabajos se guardan en fruver.print.spoolDir (data/spool). */
+    public static synchronized com.miempresa.fruver.infra.hardware.printer.spool.PrintSpooler getPrintSpooler() {
+        if (printSpooler == null) {
+            printSpooler = new com.miempresa.fruver.infra.hardware.printer.spool.PrintSpooler(
+                    java.nio.file.Paths.get(System.getProperty("fruver.print.spoolDir", "data/spool")),
+                    () -> new com.miempresa.fruver.infra.hardware.printer.PooledPrinterPort(getPrinterPool()));
+        }
+        return printSpooler;
+    }
+
+    /** Pool de impresoras calientes; al crearlo abre en segundo plano la IMPRESORA configurada. */
+    public static synchronized com.miempresa.fruver.infra.hardware.printer.PrinterPool getPrinterPool() {
+        if (printerPool == null) {
+            printerPool = new com.miempresa.fruver.infra.hardware.printer.PrinterPool();
+            restartPrinters();
+        }
+        return printerPool;
+    }
+
+    /**
+     * Ajusta el pool a la configuración IMPRESORA vigente: cierra las impresoras que ya no
+     * están configuradas y abre (en segundo plano) la configurada.
+     */
+    public static synchronized void restartPrinters() {
+        com.miempresa.fruver.infra.hardware.printer.PrinterPool pool = printerPool;
+        if (pool == null) return; // se abrirá al primer uso
+        try {
+            String[] cfg = printerConfig();
+            if (cfg == null || cfg[0].isBlank()) {
+                pool.retainOnly(List.of());
+                return;
+            }
+            pool.retainOnly(List.of(cfg[0]));
+            pool.warmUp(cfg[0]);
+        } catch (Throwable t) {
+            System.err.println("[ServiceLocator] No se pudo preparar la impresora: " + t.getMessage());
+        }
+    }
+
+    /** Último estado de la IMPRESORA configurada según el pool, o null si aún no se abrió. */
+    public static com.miempresa.fruver.infra.hardware.printer.PrinterService.Status getPrinterStatus() {
+        String[] cfg = printerConfig();
+        if (cfg == null || cfg[0].isBlank()) return null;
+        return getPrinterPool().getStatus(cfg[0]);
+    }
+
+    /**
+     * Encola un recibo para la IMPRESORA configurada y retorna sin esperar al papel.
+     *
+     * @return el trabajo encolado, o null si no hay impresora configurada
+     */
+    public static com.miempresa.fruver.infra.hardware.printer.spool.PrintJob spoolReceipt(String text) {
+        String[] cfg = printerConfig();
+        if (cfg == null || cfg[0].isBlank()) return null;
+        return getPrintSpooler().submitReceipt(cfg[0], text);
+    }
+
+    /**
+     * Configuración IMPRESORA {puerto, json} o null, leída una vez (no en cada venta) y vuelta a
+     * leer tras guardar una IMPRESORA o cambiar de AdminService.
+     */
+    private static String[] printerConfig() {
+        Optional<String[]> c = printerConfig;
+        if (c != null) return c.orElse(null);
+        long gen = printerConfigGen.get();
+        c = Optional.ofNullable(findDeviceConfig("IMPRESORA"));
+        synchronized (printerConfigGen) {
+            // una invalidación durante la lectura gana: no se guarda un valor ya viejo
+            if (printerConfigGen.get() == gen) printerConfig = c;
+        }
+        return c.orElse(null);
+    }
+
+    private static void invalidatePrinterConfig() {
+        synchronized (printerConfigGen) {
+            printerConfigGen.incrementAndGet();
+            printerConfig = null;
+        }
+    }
+
+    /** Busca "TIPO@PUERTO|JSON" en la configuración de dispositivos; devuelve {puerto, json} o null. */
+    private static String[] findDeviceConfig(String tipo) {
+        AdminService svc = adminService;
+        if (svc == null) return null;
+        String prefix = tipo.toUpperCase() + "@";
+        for (String c : svc.listDeviceConfigs()) {
+            if (c == null || !c.toUpperCase().startsWith(prefix)) continue;
+            String after = c.substring(prefix.length());
+            int pipe = after.indexOf('|');
+            return pipe >= 0
+                    ? new String[]{after.substring(0, pipe), after.substring(pipe + 1)}
+                    : new String[]{after, "{}"};
+        }
+        return null;
+    }
+
     /* ---------------------- AdminService exposure ---------------------- */
 
     public interface AdminService {
@@ -346,6 +765,12 @@ public final class ServiceLocator {
         void saveDeviceConfig(String tipo, String port, String params);
         void cleanSalesData(Consumer<String> progressMsg, Consumer<Double> progressPercent) throws Exception;
         DatabaseStorageInfo getDatabaseStorageInfo();
+        ConnectionPoolStats getConnectionPoolStats(); // null si no hay pool (modo demo)
+
+        /** Detecta protocolo/velocidad de la báscula y lo guarda en BASCULA; null si no hubo respuesta. */
+        default String autoDetectScale(String port, Consumer<String> progressMsg) {
+            return ServiceLocator.autoDetectScale(this, port, progressMsg);
+        }
     }
 
     public static AdminService getAdminService() {
@@ -367,10 +792,10 @@ public final class ServiceLocator {
     /* ---------------------- JdbcAdminService (igual que tu versión) ---------------------- */
     private static class JdbcAdminService implements AdminService {
         private final com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc deviceRepo;
-        private final com.miempresa.fruver.infra.db.DatabaseRepositoryJdbc dbRepo; // puede ser null
+        private final com.miempresa.fruver.domain.repository.DatabaseRepository dbRepo; // puede ser null
         private final DataSource ds;
 
-        public JdbcAdminService(com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc deviceRepo, com.miempresa.fruver.infra.db.DatabaseRepositoryJdbc dbRepo, DataSource ds) {
+        public JdbcAdminService(com.miempresa.fruver.infra.db.DeviceConfigRepositoryJdbc deviceRepo, com.miempresa.fruver.domain.repository.DatabaseRepository dbRepo, DataSource ds) {
             this.deviceRepo = deviceRepo;
             this.dbRepo = dbRepo;
             this.ds = ds;
@@ -409,6 +834,20 @@ public final class ServiceLocator {
         public boolean testDeviceConnection(String tipo, String port, Consumer<String> progressMsg, Consumer<Double> progressPercent) {
             try {
                 if ("BASCULA".equalsIgnoreCase(tipo)) {
+                    // el puerto ya está tomado por la sesión compartida: probar sobre esa conexión
+                    com.miempresa.fruver.infra.hardware.scale.ScaleSession live = scaleSession;
+                    if (live != null && port != null && port.equals(live.getPortName())) {
+                        try {
+                            double kg = live.readWeightKg(1500);
+                            if (progressMsg != null) progressMsg.accept("Báscula probada (valor=" + kg + " kg)");
+                            if (progressPercent != null) progressPercent.accept(1.0);
+                            return true;
+                        } catch (RuntimeException ex) {
+                            if (progressMsg != null) progressMsg.accept("Error leyendo báscula: " + ex.getMessage() + " (" + live.getStatus() + ")");
+                            if (progressPercent != null) progressPercent.accept(0.0);
+                            return false;
+                        }
+                    }
                     int baud = 9600;
                     try {
                         Optional<DeviceConfig> opt = deviceRepo.findByType(DeviceType.BASCULA);
@@ -507,6 +946,15 @@ public final class ServiceLocator {
 
         @Override
         public void saveDeviceConfig(String tipo, String port, String params) {
+            persistDeviceConfig(tipo, port, params);
+            if ("BASCULA".equalsIgnoreCase(tipo)) restartScaleSession();
+            if ("IMPRESORA".equalsIgnoreCase(tipo)) {
+                invalidatePrinterConfig();
+                restartPrinters();
+            }
+        }
+
+        private void persistDeviceConfig(String tipo, String port, String params) {
             DeviceType dt = DeviceType.valueOf(tipo.toUpperCase());
             String effectiveParams = params == null ? "{}" : params;
             try {
@@ -569,6 +1017,14 @@ public final class ServiceLocator {
 
                     if (progressMsg != null) progressMsg.accept("Eliminando VENTA...");
                     int rv = delVenta.executeUpdate();
+                    if (progressPercent != null) progressPercent.accept(0.90);
+
+                    // tablas derivadas de VENTA (pueden no existir si su creación falló)
+                    for (String t : new String[]{"VENTA_RESUMEN_HORA", "VENTA_RESUMEN_PRODUCTO", "VENTA_RESUMEN_CAJERO", "VENTA_CLAVE"}) {
+                        try (Statement st = c.createStatement()) {
+                            st.executeUpdate("DELETE FROM " + t);
+                        } catch (SQLException ignored) { }
+                    }
                     if (progressPercent != null) progressPercent.accept(0.95);
 
                     c.commit();
@@ -588,7 +1044,7 @@ public final class ServiceLocator {
         public DatabaseStorageInfo getDatabaseStorageInfo() {
             try {
                 if (dbRepo == null) {
-                    System.err.println("[JdbcAdminService] DatabaseRepositoryJdbc no disponible - getDatabaseStorageInfo retorna null.");
+                    System.err.println("[JdbcAdminService] DatabaseRepository no disponible - getDatabaseStorageInfo retorna null.");
                     return null;
                 }
                 return new GetDatabaseStorageUseCase(dbRepo).execute();
@@ -597,6 +1053,14 @@ public final class ServiceLocator {
                 return null;
             }
         }
+
+        @Override
+        public ConnectionPoolStats getConnectionPoolStats() {
+            return com.miempresa.fruver.infra.config.DataSourceFactory.getPoolMetrics()
+                    .map(m -> new ConnectionPoolStats(m.active, m.idle, m.total, m.pending, m.maxPoolSize,
+                            m.acquireP50Ms, m.acquireP95Ms, m.acquireP99Ms, m.acquireMaxMs, m.timeouts))
+                    .orElse(null);
+        }
     }
 
     /* --------------------------- In-memory AdminService (fallback) --------------------------- */
@@ -655,6 +1119,11 @@ public final class ServiceLocator {
             String key = tipo + "@" + (port == null ? "" : port);
             configs.put(key, params == null ? "{}" : params);
             System.out.println("[InMemoryAdminService] saveDeviceConfig: " + key + " -> " + (params == null ? "{}" : params));
+            if ("BASCULA".equalsIgnoreCase(tipo)) restartScaleSession();
+            if ("IMPRESORA".equalsIgnoreCase(tipo)) {
+                invalidatePrinterConfig();
+                restartPrinters();
+            }
         }
 
         @Override
@@ -679,6 +1148,11 @@ public final class ServiceLocator {
         public DatabaseStorageInfo getDatabaseStorageInfo() {
             return new DatabaseStorageInfo(1024L * 1024L * 120L, Optional.of(1024L * 1024L * 300L), Optional.empty());
         }
+
+        @Override
+        public ConnectionPoolStats getConnectionPoolStats() {
+            return null;
+        }
     }
 
     /* --------------------------- In-memory UsuarioRepository --------------------------- */
@@ -732,9 +1206,31 @@ public final class ServiceLocator {
         private final Map<Integer, Producto> byId = new ConcurrentHashMap<>();
         private final Map<String, Integer> idByCode = new ConcurrentHashMap<>();
         private final AtomicInteger seq = new AtomicInteger(1);
+        private final boolean readOnly;
+
+        InMemoryProductoRepository() {
+            this.readOnly = false;
+        }
+
+        /**
+         * Catálogo de sólo lectura con los ids reales de la BD (copia local): un producto creado
+         * sin BD tendría un id inventado que las ventas del diario no podrían sincronizar.
+         */
+        InMemoryProductoRepository(List<Producto> productos) {
+            this.readOnly = true;
+            for (Producto p : productos) {
+                byId.put(p.getProductoId(), p);
+                if (p.getCodigo() != null) idByCode.put(p.getCodigo(), p.getProductoId());
+            }
+        }
+
+        private void checkWritable() {
+            if (readOnly) throw new IllegalStateException("Sin conexión a BD: el catálogo es de sólo lectura.");
+        }
 
         @Override
         public Producto save(Producto p) {
+            checkWritable();
             Integer id = seq.getAndIncrement();
             if (p.getCodigo() != null) {
                 Integer existing = idByCode.get(p.getCodigo());
@@ -758,6 +1254,7 @@ public final class ServiceLocator {
 
         @Override
         public Producto update(Producto p) {
+            checkWritable();
             Integer id = p.getProductoId();
             if (id == null || !byId.containsKey(id)) {
                 throw new IllegalArgumentException("Producto no existe: " + id);
@@ -804,6 +1301,7 @@ public final class ServiceLocator {
 
         @Override
         public void delete(Integer id) {
+            checkWritable();
             if (id == null) return;
             Producto removed = byId.remove(id);
             if (removed != null && removed.getCodigo() != null) {
@@ -813,6 +1311,7 @@ public final class ServiceLocator {
 
         @Override
         public void updateStock(Integer productoId, BigDecimal newStock) {
+            checkWritable();
             Producto p = byId.get(productoId);
             if (p == null) throw new IllegalArgumentException("Producto no existe: " + productoId);
             Producto updated = new Producto(
@@ -826,5 +1325,19 @@ public final class ServiceLocator {
             );
             byId.put(productoId, updated);
         }
+
+        @Override
+        public synchronized java.util.List<Integer> decrementStock(Map<Integer, BigDecimal> cantidadesPorProducto) {
+            java.util.List<Integer> sinStock = new ArrayList<>();
+            for (Map.Entry<Integer, BigDecimal> e : cantidadesPorProducto.entrySet()) {
+                Producto p = byId.get(e.getKey());
+                if (p == null || p.getStockActual().compareTo(e.getValue()) < 0) sinStock.add(e.getKey());
+            }
+            if (!sinStock.isEmpty()) return sinStock;
+            for (Map.Entry<Integer, BigDecimal> e : cantidadesPorProducto.entrySet()) {
+                updateStock(e.getKey(), byId.get(e.getKey()).getStockActual().subtract(e.getValue()));
+            }
+            return sinStock;
+        }
     }
 }
@@ -1,9 +1,13 @@
 package com.miempresa.fruver.ui.controller;
 
 import com.miempresa.fruver.domain.model.Usuario;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.port.DatabaseStorageInfo;
 import com.miempresa.fruver.ui.ServiceLocator;
 import com.miempresa.fruver.ui.viewmodel.AdminViewModel;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
@@ -19,6 +23,7 @@ import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 
 import java.util.Optional;
+import javafx.util.Duration;
 
 /**
  * Controller para la vista Admin.
@@ -26,6 +31,7 @@ import java.util.Optional;
  *
  */
 public class AdminController {
+    private static final Duration POOL_STATS_PERIOD = Duration.seconds(5);
 
     @FXML private Label lblTitle;
     @FXML private ComboBox<String> cbDeviceType;
@@ -34,6 +40,7 @@ public class AdminController {
     @FXML private TextArea txtParams;
     @FXML private Button btnTest;
     @FXML private Button btnSave;
+    @FXML private Button btnAutoDetect; // opcional en FXML
     @FXML private ListView<String> lvConfigs;
 
     @FXML private TextField txtBarcodeTest; // campo para probar lector
@@ -42,6 +49,7 @@ public class AdminController {
     @FXML private Button btnCleanSales;
     @FXML private ProgressBar pbCleanup;
     @FXML private Label lblCleanupStatus;
+    @FXML private Label lblPoolStats; // métricas del pool (opcional en FXML)
 
     // indicators
     @FXML private Label lblStatus;
@@ -120,12 +128,14 @@ public class AdminController {
         // Buttons device
         btnTest.setOnAction(e -> testConnection());
         btnSave.setOnAction(e -> saveDeviceConfig());
+        if (btnAutoDetect != null) btnAutoDetect.setOnAction(e -> autoDetectScale());
         btnCleanSales.setOnAction(e -> doCleanSales());
 
         // status & disable bindings
         lblStatus.textProperty().bind(vm.statusMessageProperty());
         btnTest.disableProperty().bind(vm.busyProperty());
         btnSave.disableProperty().bind(vm.busyProperty());
+        if (btnAutoDetect != null) btnAutoDetect.disableProperty().bind(vm.busyProperty());
         btnCleanSales.disableProperty().bind(vm.busyProperty());
         pbCleanup.progressProperty().bind(vm.progressProperty());
         lblCleanupStatus.textProperty().bind(vm.cleanupMessageProperty());
@@ -152,7 +162,7 @@ public class AdminController {
                     txtBarcodeTest.clear();
 
                     // Guardar LECTOR en modo keyboard (background)
-                    new Thread(() -> {
+                    TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
                         try {
                             ServiceLocator.getAdminService().saveDeviceConfig("LECTOR", "", "{\"mode\":\"keyboard\"}");
                             Platform.runLater(() -> {
@@ -163,7 +173,7 @@ public class AdminController {
                         } catch (Throwable ex) {
                             Platform.runLater(() -> showAlert(Alert.AlertType.ERROR, "Error", "No se pudo guardar config lector:\n" + ex.getMessage()));
                         }
-                    }, "save-lector-keyboard").start();
+                    });
                 }
             });
         }
@@ -247,6 +257,7 @@ public class AdminController {
         updateFieldsForType(cbDeviceType.getValue());
         loadConfigsBackground();
         fetchDbStorageInfoBackground();
+        startPoolStatsRefresh();
 
         // cargar usuarios
         vm.loadUsers();
@@ -355,11 +366,11 @@ public class AdminController {
             }
         };
         t.setOnSucceeded(e -> refreshIndicatorsBackground());
-        new Thread(t, "admin-load-configs").start();
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, t);
     }
 
     private void refreshIndicatorsBackground() {
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.HARDWARE_MONITOR, () -> {
             try {
                 for (String repr : vm.getConfigList()) {
                     if (repr == null) continue;
@@ -380,7 +391,7 @@ public class AdminController {
                     }
                 }
             } catch (Throwable ignored) {}
-        }, "admin-refresh-indicators").start();
+        });
     }
 
     private void testConnection() {
@@ -424,7 +435,7 @@ public class AdminController {
             showAlert(Alert.AlertType.ERROR, "Error", "Error probando el dispositivo:\n" + t.getException().getMessage());
         });
 
-        new Thread(t, "admin-test-device").start();
+        TaskRuntime.shared().execute(TaskRuntime.Pool.HARDWARE, t);
     }
 
     private void saveDeviceConfig() {
@@ -467,11 +478,42 @@ public class AdminController {
             showAlert(Alert.AlertType.ERROR, "Error", "No se pudo guardar la configuración:\n" + t.getException().getMessage());
         });
 
-        new Thread(t, "admin-save-config").start();
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, t);
+    }
+
+    private void autoDetectScale() {
+        final String port = txtPort.getText();
+        vm.setStatus("Auto-detectando báscula" + (port == null || port.isBlank() ? " en todos los puertos" : " en " + port) + "...");
+        Task<String> t = new Task<>() {
+            @Override
+            protected String call() {
+                return ServiceLocator.getAdminService().autoDetectScale(port, msg -> Platform.runLater(() -> vm.setStatus(msg)));
+            }
+        };
+
+        t.setOnSucceeded(evt -> {
+            String result = t.getValue();
+            if (result == null) {
+                vm.setStatus("No se detectó báscula");
+                showAlert(Alert.AlertType.WARNING, "Auto-detección", "Ningún protocolo de báscula respondió en el puerto indicado.");
+                return;
+            }
+            vm.setStatus("Báscula detectada: " + result);
+            vm.refreshConfigs();
+            cbDeviceType.setValue("BASCULA");
+            showTransientInfo("Báscula detectada", result);
+        });
+
+        t.setOnFailed(evt -> {
+            vm.setStatus("Error en auto-detección: " + t.getException().getMessage());
+            showAlert(Alert.AlertType.ERROR, "Error", "Error detectando la báscula:\n" + t.getException().getMessage());
+        });
+
+        TaskRuntime.shared().execute(TaskRuntime.Pool.HARDWARE, t);
     }
 
     private void fetchDbStorageInfoBackground() {
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
             try {
                 var info = vm.getDatabaseStorageInfo();
                 if (info == null) {
@@ -498,7 +540,36 @@ public class AdminController {
             } catch (Throwable t) {
                 Platform.runLater(() -> vm.setCleanupMessage("No se pudo obtener info DB: " + t.getMessage()));
             }
-        }, "admin-db-info").start();
+        });
+    }
+
+    /**
+     * Refresca las métricas del pool cada POOL_STATS_PERIOD mientras la vista esté en escena.
+     * La lectura es local (MXBean + buffer de muestras), por eso se hace en el hilo FX.
+     */
+    private void startPoolStatsRefresh() {
+        if (lblPoolStats == null) return;
+        refreshPoolStats();
+        Timeline tl = new Timeline(new KeyFrame(POOL_STATS_PERIOD, e -> refreshPoolStats()));
+        tl.setCycleCount(Timeline.INDEFINITE);
+        tl.play();
+        lblPoolStats.sceneProperty().addListener((obs, oldS, newS) -> {
+            if (newS == null) tl.stop();
+        });
+    }
+
+    private void refreshPoolStats() {
+        var st = vm.getConnectionPoolStats();
+        if (st == null) {
+            lblPoolStats.setText("sin datos");
+            return;
+        }
+        lblPoolStats.setText(String.format(
+                "Activas: %d • Ociosas: %d • Total: %d/%d • En espera: %d%n"
+                        + "Adquisición p50: %.1f ms • p95: %.1f ms • p99: %.1f ms • máx: %.1f ms • timeouts: %d",
+                st.getActive(), st.getIdle(), st.getTotal(), st.getMaxPoolSize(), st.getPending(),
+                st.getAcquireP50Ms(), st.getAcquireP95Ms(), st.getAcquireP99Ms(), st.getAcquireMaxMs(),
+                st.getTimeouts()));
     }
 
     private void doCleanSales() {
@@ -546,7 +617,7 @@ public class AdminController {
             showAlert(Alert.AlertType.ERROR, "Limpieza", "Error durante limpieza:\n" + t.getException().getMessage());
         });
 
-        new Thread(t, "admin-clean-sales").start();
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, t);
     }
 
     /* ------------------ Helpers UI ------------------ */
@@ -573,13 +644,10 @@ public class AdminController {
             a.initOwner(lblTitle.getScene() == null ? null : lblTitle.getScene().getWindow());
             // no-blocking
             a.show();
-            // opcional: auto-close después de X ms (no nativo en Alert) -> se puede cerrar manualmente en background
-            new Thread(() -> {
-                try {
-                    Thread.sleep(2200);
-                    Platform.runLater(a::close);
-                } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
-            }, "transient-close").start();
+            // auto-close (no nativo en Alert) con un timer del hilo FX, sin hilo dormido
+            PauseTransition autoClose = new PauseTransition(Duration.millis(2200));
+            autoClose.setOnFinished(e -> a.close());
+            autoClose.play();
         });
     }
 
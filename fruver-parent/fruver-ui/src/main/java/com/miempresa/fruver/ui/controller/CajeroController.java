@@ -5,25 +5,23 @@ import com.miempresa.fruver.domain.model.Usuario;
 import com.miempresa.fruver.service.usecase.ListProductsUseCase;
 import com.miempresa.fruver.service.usecase.RegistrarVentaUseCase;
 import com.miempresa.fruver.ui.ServiceLocator;
-import com.miempresa.fruver.ui.widge.ProductTileController;
+import com.miempresa.fruver.ui.widge.ProductGridView;
 import com.miempresa.fruver.ui.viewmodel.CajeroViewModel;
 import com.miempresa.fruver.ui.viewmodel.CajeroViewModel.CartItem;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.FlowPane;
-import javafx.scene.layout.TilePane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URL;
-import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
@@ -36,13 +34,17 @@ import java.util.ResourceBundle;
  */
 public class CajeroController implements Initializable {
 
+    // espera tras la última tecla antes de filtrar
+    private static final long SEARCH_DEBOUNCE_MS = Long.getLong("fruver.ui.searchDebounceMs", 120L);
+
     @FXML private TextField txtFilter;
-    @FXML private TilePane tileProducts;
+    @FXML private ProductGridView gridProducts;
     @FXML private ComboBox<String> cbCategoria;
     @FXML private ToggleButton tbOnlyPeso;
     @FXML private Label lblLastWeight;
     @FXML private Label lblScaleStatus;
     @FXML private Label lblReaderStatus;
+    @FXML private Label lblPrinterStatus;
     @FXML private ListView<CartItem> lvCart;
     @FXML private Label lblSubtotal;
     @FXML private Label lblIva;
@@ -91,6 +93,7 @@ public class CajeroController implements Initializable {
         lblWelcome.setText("Caja · " + (currentUser == null ? "Invitado" : currentUser.getNombre()));
         lblScaleStatus.textProperty().bind(vm.scaleStatusProperty());
         lblReaderStatus.textProperty().bind(vm.readerStatusProperty());
+        if (lblPrinterStatus != null) lblPrinterStatus.textProperty().bind(vm.printerStatusProperty());
         lblLastWeight.textProperty().bind(vm.lastWeightProperty());
 
         // Los labels de importe se formatean desde bindings (añaden $ desde Java)
@@ -125,13 +128,21 @@ public class CajeroController implements Initializable {
         btnRemoveLine.setDisable(true);
 
         // Filtros y listeners
-        txtFilter.textProperty().addListener((obs, o, n) -> vm.filterBy(n, tbOnlyPeso.isSelected()));
+        // la búsqueda espera a que se deje de teclear; el índice refina el resultado anterior
+        PauseTransition filterDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+        filterDebounce.setOnFinished(e -> vm.filterBy(txtFilter.getText(), tbOnlyPeso.isSelected()));
+        txtFilter.textProperty().addListener((obs, o, n) -> filterDebounce.playFromStart());
         tbOnlyPeso.selectedProperty().addListener((obs, o, n) -> vm.filterBy(txtFilter.getText(), n));
         cbCategoria.valueProperty().addListener((obs, o, n) -> vm.filterBy(txtFilter.getText(), tbOnlyPeso.isSelected()));
 
-        // Renderizar tiles cuando la lista filtrada cambie
+        // Grilla virtualizada: al filtrar sólo se rebindean los tiles visibles
+        gridProducts.setOnAdd(prod -> {
+            // Comportamiento al pulsar tile: si es PESO leer báscula, si UNIDAD añadir 1
+            if (prod.getTipo() == Producto.TipoProducto.PESO) vm.readWeightAndAdd(prod);
+            else vm.addOrMergeCartItem(prod, BigDecimal.ONE);
+        });
         vm.getFilteredProducts().addListener((javafx.collections.ListChangeListener<? super Producto>) c -> {
-            renderTiles(vm.getFilteredProducts());
+            gridProducts.setProducts(vm.getFilteredProducts());
         });
 
         // refresh manual (tambien existe el handler onRefreshProducts para FXML)
@@ -155,44 +166,6 @@ public class CajeroController implements Initializable {
         vm.refreshDeviceIndicators();
     }
 
-    private void renderTiles(List<Producto> products) {
-        Platform.runLater(() -> {
-            tileProducts.getChildren().clear();
-            tileProducts.setPrefColumns(4);
-            for (Producto p : products) {
-                try {
-                    Node tile = ProductTileController.createNode(p, prod -> {
-                        // Comportamiento al pulsar tile: si es PESO leer báscula, si UNIDAD añadir 1
-                        if (prod.getTipo() == Producto.TipoProducto.PESO) vm.readWeightAndAdd(prod);
-                        else vm.addOrMergeCartItem(prod, BigDecimal.ONE);
-                    });
-                    tileProducts.getChildren().add(tile);
-                } catch (IOException e) {
-                    tileProducts.getChildren().add(createFallbackTile(p));
-                }
-            }
-        });
-    }
-
-    private javafx.scene.Node createFallbackTile(Producto p) {
-        javafx.scene.layout.VBox root = new javafx.scene.layout.VBox(6);
-        root.getStyleClass().add("user-tile-root");
-        root.setPrefWidth(230);
-        root.setPrefHeight(110);
-        javafx.scene.control.Label name = new javafx.scene.control.Label(p.getNombre());
-        name.getStyleClass().add("user-tile-name");
-        javafx.scene.control.Label meta = new javafx.scene.control.Label(formatCurrency(p.getPrecioUnitario()) + " • " + (p.getTipo() == Producto.TipoProducto.PESO ? "PESO" : "UNIDAD"));
-        meta.getStyleClass().add("product-meta");
-        javafx.scene.control.Label badge = new javafx.scene.control.Label(p.getTipo() == Producto.TipoProducto.PESO ? "PESO" : "UNIDAD");
-        badge.getStyleClass().addAll("product-type-badge", p.getTipo() == Producto.TipoProducto.PESO ? "peso":"unidad");
-        root.getChildren().addAll(name, meta, badge);
-        root.setOnMouseClicked(ev -> {
-            if (p.getTipo() == Producto.TipoProducto.PESO) vm.readWeightAndAdd(p);
-            else vm.addOrMergeCartItem(p, BigDecimal.ONE);
-        });
-        return root;
-    }
-
     /* ------------------ Handlers referenciados desde FXML ------------------ */
 
     @FXML
@@ -333,6 +306,7 @@ public class CajeroController implements Initializable {
      */
     @FXML
     private void onSalir() {
+        if (vm != null) vm.dispose();
         if (onLogout != null) {
             Platform.runLater(onLogout);
             return;
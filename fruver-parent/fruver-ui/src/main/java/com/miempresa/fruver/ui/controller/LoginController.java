@@ -1,6 +1,7 @@
 package com.miempresa.fruver.ui.controller;
 
 import com.miempresa.fruver.domain.model.Usuario;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.usecase.ListUsersUseCase;
 import com.miempresa.fruver.service.usecase.LoginUseCase;
 import com.miempresa.fruver.ui.viewmodel.LoginViewModel;
@@ -234,8 +235,7 @@ public class LoginController {
             lblStatus.setText("Error cargando usuarios: " + t.getException().getMessage());
         });
 
-        Thread th = new Thread(t, "load-users");
-        th.setDaemon(true);
-        th.start();
+        // volver al login varias veces seguidas: sólo cuenta la última carga
+        TaskRuntime.shared().submitLatest(TaskRuntime.Pool.DB, "login.usuarios", t);
     }
 }
@@ -1,6 +1,7 @@
 package com.miempresa.fruver.ui.controller;
 
 import com.miempresa.fruver.ui.ServiceLocator;
+import com.miempresa.fruver.ui.util.StartupPipeline;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
@@ -16,6 +17,14 @@ public class SplashController {
 
     @FXML
     public void initialize() {
+        // la inicialización arranca con start(...), cuando MainApp ya registró sus etapas
+    }
+
+    /**
+     * Ejecuta ServiceLocator.initializeAndTestDb en segundo plano registrando sus etapas en
+     * pipeline (que puede traer otras, p. ej. el parseo de vistas, corriendo en paralelo).
+     */
+    public void start(StartupPipeline pipeline) {
         // Ejecutar inicialización en background (no bloquear UI)
         Task<Boolean> initTask = new Task<>() {
             @Override
@@ -25,7 +34,7 @@ public class SplashController {
                 Consumer<Double> progressConsumer = (p) -> updateProgress(p == null ? 0.0 : p, 1.0);
 
                 // Llamada a ServiceLocator (ahora con progress numérico)
-                boolean ok = ServiceLocator.initializeAndTestDb(msgConsumer, progressConsumer);
+                boolean ok = ServiceLocator.initializeAndTestDb(msgConsumer, progressConsumer, pipeline);
 
                 // Pequeña pausa para que el usuario vea "Listo"
                 updateMessage("Listo");
@@ -2,12 +2,14 @@ package com.miempresa.fruver.ui.controller;
 
 import com.miempresa.fruver.domain.model.Producto;
 import com.miempresa.fruver.domain.model.Usuario;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.port.DatabaseStorageInfo;
 import com.miempresa.fruver.ui.ServiceLocator;
 import com.miempresa.fruver.ui.util.ProductImageHelper;
 import com.miempresa.fruver.ui.viewmodel.SupervisorViewModel;
 import com.miempresa.fruver.ui.widget.ProductCell;
 import com.miempresa.fruver.service.security.SecurityContext;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -21,6 +23,7 @@ import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
+import javafx.util.Duration;
 
 import java.io.File;
 import java.io.IOException;
@@ -28,6 +31,7 @@ import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.FutureTask;
 
 /**
  * Controller JavaFX para la vista Supervisor (mejorado).
@@ -39,6 +43,9 @@ import java.util.*;
  */
 public class SupervisorController {
 
+    // espera tras la última tecla antes de filtrar
+    private static final long SEARCH_DEBOUNCE_MS = Long.getLong("fruver.ui.searchDebounceMs", 120L);
+
     // Filtro + listas
     @FXML private TextField txtFiltro;
     @FXML private ListView<Producto> lvProductosPeso;
@@ -79,6 +86,7 @@ public class SupervisorController {
     @FXML private Label lblUnidadCount;
 
     private SupervisorViewModel vm;
+    private long statsSeq; // última consulta de estadísticas pedida (sólo hilo FX)
 
     // Contexto / navegación (contrato con MainApp)
     private Usuario currentUser = null;
@@ -122,8 +130,10 @@ public class SupervisorController {
         // Combo tipo
         cbTipo.getItems().setAll("PESO", "UNIDAD");
 
-        // Filter reactivo
-        txtFiltro.textProperty().addListener((obs, oldV, newV) -> vm.setFilter(newV));
+        // Filter reactivo: se consulta el índice cuando se deja de teclear
+        PauseTransition filterDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MS));
+        filterDebounce.setOnFinished(e -> vm.setFilter(txtFiltro.getText()));
+        txtFiltro.textProperty().addListener((obs, oldV, newV) -> filterDebounce.playFromStart());
 
         // Selection listeners
         lvProductosPeso.getSelectionModel().selectedItemProperty().addListener((obs, old, sel) -> {
@@ -251,7 +261,7 @@ public class SupervisorController {
         File f = fc.showOpenDialog(w);
         if (f == null) return;
 
-        runBackground(() -> {
+        runBackground(TaskRuntime.Pool.IMAGE_IO, null, () -> {
             try {
                 String saved = ProductImageHelper.saveImage(f);
                 Platform.runLater(() -> {
@@ -560,9 +570,24 @@ public class SupervisorController {
     }
 
     private void runBackground(Runnable r) {
-        Thread t = new Thread(r, "supervisor-bg");
-        t.setDaemon(true);
-        t.start();
+        runBackground(TaskRuntime.Pool.DB, null, r);
+    }
+
+    /**
+     * Ejecuta r en el carril dado de TaskRuntime. Con key, un envío posterior con la misma
+     * clave descarta éste si aún no empezó.
+     */
+    private void runBackground(TaskRuntime.Pool pool, String key, Runnable r) {
+        FutureTask<Void> f = new FutureTask<>(() -> {
+            try {
+                r.run();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+                throw ex;
+            }
+        }, null);
+        if (key == null) TaskRuntime.shared().execute(pool, f);
+        else TaskRuntime.shared().submitLatest(pool, key, f);
     }
 
     /* ---------------------- Estadísticas: refresco y UI ---------------------- */
@@ -581,13 +606,22 @@ public class SupervisorController {
         }
 
         lblStatus.setText("Consultando estadísticas...");
-        runBackground(() -> {
+        // clics seguidos en refrescar/presets: la consulta pendiente se descarta y, si ya
+        // corría, su resultado no pisa al de la más reciente
+        final long seq = ++statsSeq;
+        runBackground(TaskRuntime.Pool.DB, "supervisor.estadisticas", () -> {
             try {
                 Map<String, Object> stats = vm.fetchStatistics(from, to);
                 Platform.runLater(() -> {
+                    if (seq != statsSeq) return;
                     // Mostrar totalVentas si existe
                     Object tv = stats.get("totalVentas");
-                    lblTotalVentas.setText(tv == null ? "0" : String.valueOf(tv));
+                    Object ing = stats.get("ingresos");
+                    if (ing instanceof BigDecimal) {
+                        lblTotalVentas.setText(String.format("%s ($%s)", tv == null ? "0" : tv, formatPrice((BigDecimal) ing)));
+                    } else {
+                        lblTotalVentas.setText(tv == null ? "0" : String.valueOf(tv));
+                    }
 
                     // Range info
                     lblRangeInfo.setText(String.format("%s → %s", from.toString(), to.toString()));
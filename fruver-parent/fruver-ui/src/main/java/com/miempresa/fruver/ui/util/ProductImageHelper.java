@@ -16,6 +16,7 @@ import java.util.UUID;
  *
  * - Guarda en ./data/images/{uuid}.{ext} y devuelve la ruta relativa "data/images/..."
  * - loadImage acepta ruta relativa/absoluta; si no existe, devuelve placeholder embebido en recursos.
+ * - Para listas y grillas usar ThumbnailCache (miniaturas en caché, carga en segundo plano).
  */
 public final class ProductImageHelper {
 
@@ -23,6 +24,8 @@ public final class ProductImageHelper {
     // Nota: keep placeholder consistent with resources (user-placeholder.png incluido en resources/images/)
     private static final String PLACEHOLDER_RESOURCE = "/images/user-placeholder.png";
 
+    private static volatile Image placeholder;
+
     private ProductImageHelper() {}
 
     /**
@@ -84,20 +87,47 @@ public final class ProductImageHelper {
      * @return javafx.scene.image.Image (no nulo)
      */
     public static Image loadImage(String path) {
-        if (path != null && !path.isBlank()) {
+        File f = resolveFile(path);
+        if (f != null) {
             try {
-                File f = new File(path);
-                if (!f.exists()) {
-                    f = new File(System.getProperty("user.dir"), path);
-                }
-                if (f.exists()) {
-                    return new Image(f.toURI().toString(), true);
-                }
+                return new Image(f.toURI().toString(), true);
             } catch (Throwable ignored) {
                 // caerá al placeholder
             }
         }
+        return placeholder();
+    }
+
+    /**
+     * Archivo de la imagen (ruta tal cual o relativa a user.dir), o null si no existe.
+     */
+    public static File resolveFile(String path) {
+        if (path == null || path.isBlank()) return null;
+        try {
+            File f = new File(path);
+            if (!f.exists()) f = new File(System.getProperty("user.dir"), path);
+            return f.exists() ? f : null;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /** Placeholder embebido en recursos; se carga una sola vez y se comparte. */
+    public static Image placeholder() {
+        Image p = placeholder;
+        if (p == null) {
+            synchronized (ProductImageHelper.class) {
+                p = placeholder;
+                if (p == null) {
+                    p = loadPlaceholder();
+                    placeholder = p;
+                }
+            }
+        }
+        return p;
+    }
 
+    private static Image loadPlaceholder() {
         // Cargar placeholder desde recursos del JAR
         try (InputStream is = ProductImageHelper.class.getResourceAsStream(PLACEHOLDER_RESOURCE)) {
             if (is != null) {
@@ -117,6 +147,7 @@ public final class ProductImageHelper {
      */
     public static boolean deleteImage(String path) {
         if (path == null || path.isBlank()) return false;
+        ThumbnailCache.shared().invalidate(path);
         try {
             File f = new File(path);
             if (!f.exists()) f = new File(System.getProperty("user.dir"), path);
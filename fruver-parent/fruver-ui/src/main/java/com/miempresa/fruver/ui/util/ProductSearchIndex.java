@@ -0,0 +1,196 @@
+package com.miempresa.fruver.ui.util;
+
+import com.miempresa.fruver.domain.model.Producto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de búsqueda de productos, construido una vez por carga de catálogo (inmutable salvo
+ * la caché de la última consulta).
+ *
+ * - Texto normalizado: minúsculas y sin tildes ("Limón" = "limon").
+ * - Tokens: palabras del nombre, el código completo, sus partes y la parte numérica del
+ *   código sin ceros a la izquierda ("P00123" también responde a "123").
+ * - Nombre, código y consulta se parten en palabras con los mismos separadores (todo lo que
+ *   no es letra ni dígito), así "coca-cola", "1/2" o "pera,manzana" encuentran el producto.
+ * - Cada palabra de la consulta debe ser prefijo de algún token del producto (AND). La
+ *   primera se resuelve con búsqueda binaria sobre el arreglo ordenado de tokens.
+ * - Refinamiento incremental: si la consulta extiende la anterior sólo se filtra el
+ *   resultado anterior, sin volver al índice.
+ * Los resultados salen en el orden del catálogo.
+ */
+public final class ProductSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Producto[] products;
+    private final String[][] tokensOf;   // tokens por producto (para verificar / refinar)
+    private final String[] tokens;       // todos los tokens, ordenados
+    private final int[] owners;          // producto de cada token en 'tokens'
+
+    /** Última consulta resuelta y sus índices (ascendentes). */
+    private static final class Last {
+        final String query;
+        final int[] ids;
+        Last(String query, int[] ids) { this.query = query; this.ids = ids; }
+    }
+    private volatile Last last;
+
+    public ProductSearchIndex(List<Producto> catalog) {
+        this.products = catalog == null ? new Producto[0] : catalog.toArray(new Producto[0]);
+        this.tokensOf = new String[products.length][];
+        int total = 0;
+        for (int i = 0; i < products.length; i++) {
+            tokensOf[i] = tokenize(products[i]);
+            total += tokensOf[i].length;
+        }
+        TokenRef[] refs = new TokenRef[total];
+        int n = 0;
+        for (int i = 0; i < products.length; i++) {
+            for (String t : tokensOf[i]) refs[n++] = new TokenRef(t, i);
+        }
+        Arrays.sort(refs); // estable: a igual token, orden del catálogo
+        this.tokens = new String[total];
+        this.owners = new int[total];
+        for (int i = 0; i < total; i++) {
+            tokens[i] = refs[i].token;
+            owners[i] = refs[i].owner;
+        }
+    }
+
+    private static final class TokenRef implements Comparable<TokenRef> {
+        final String token;
+        final int owner;
+        TokenRef(String token, int owner) { this.token = token; this.owner = owner; }
+        @Override public int compareTo(TokenRef o) { return token.compareTo(o.token); }
+    }
+
+    public static ProductSearchIndex empty() { return new ProductSearchIndex(Collections.emptyList()); }
+
+    public int size() { return products.length; }
+
+    public List<Producto> getProducts() { return Collections.unmodifiableList(Arrays.asList(products)); }
+
+    /** Productos que coinciden con la consulta; consulta vacía = todo el catálogo. */
+    public List<Producto> search(String query) {
+        return search(query, null);
+    }
+
+    /** Igual que search(query) restringido a un tipo (null = todos). */
+    public List<Producto> search(String query, Producto.TipoProducto tipo) {
+        String q = fold(query == null ? "" : query).trim();
+        String[] terms = words(q);
+        int[] ids = terms.length == 0 ? null : resolve(q, terms);
+        List<Producto> out = new ArrayList<>(ids == null ? products.length : ids.length);
+        if (ids == null) {
+            for (Producto p : products) if (tipo == null || p.getTipo() == tipo) out.add(p);
+        } else {
+            for (int id : ids) if (tipo == null || products[id].getTipo() == tipo) out.add(products[id]);
+        }
+        return out;
+    }
+
+    private int[] resolve(String q, String[] terms) {
+        Last prev = last;
+        int[] ids;
+        if (prev != null && q.startsWith(prev.query)) {
+            // la consulta creció: el resultado es subconjunto del anterior
+            ids = filter(prev.ids, prev.ids.length, terms);
+        } else {
+            ids = lookup(terms);
+        }
+        last = new Last(q, ids);
+        return ids;
+    }
+
+    /** Candidatos por el término más largo (rango de prefijo) y verificación del resto. */
+    private int[] lookup(String[] terms) {
+        String key = terms[0];
+        for (String t : terms) if (t.length() > key.length()) key = t;
+        int from = lowerBound(key);
+        BitSet hits = new BitSet(products.length);
+        for (int i = from; i < tokens.length && tokens[i].startsWith(key); i++) hits.set(owners[i]);
+        int[] candidates = new int[hits.cardinality()];
+        int n = 0;
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) candidates[n++] = id;
+        return terms.length == 1 ? candidates : filter(candidates, n, terms);
+    }
+
+    private int[] filter(int[] ids, int len, String[] terms) {
+        int[] out = new int[len];
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            if (matches(tokensOf[ids[i]], terms)) out[n++] = ids[i];
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static boolean matches(String[] productTokens, String[] terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String t : productTokens) {
+                if (t.startsWith(term)) { found = true; break; }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0, hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static String[] tokenize(Producto p) {
+        List<String> out = new ArrayList<>(4);
+        if (p.getNombre() != null) {
+            for (String w : words(fold(p.getNombre()))) {
+                if (!out.contains(w)) out.add(w);
+            }
+        }
+        if (p.getCodigo() != null) {
+            String code = fold(p.getCodigo()).trim();
+            if (!code.isEmpty() && !out.contains(code)) out.add(code);
+            for (String w : words(code)) {
+                if (!out.contains(w)) out.add(w);
+            }
+            // parte numérica final sin ceros: "p00123" -> "123"
+            int d = code.length();
+            while (d > 0 && Character.isDigit(code.charAt(d - 1))) d--;
+            while (d < code.length() - 1 && code.charAt(d) == '0') d++;
+            String digits = code.substring(d);
+            if (!digits.isEmpty() && !out.contains(digits)) out.add(digits);
+        }
+        return out.toArray(new String[0]);
+    }
+
+    /** Palabras de un texto ya normalizado, sin vacías (p. ej. por un separador inicial). */
+    private static String[] words(String folded) {
+        String[] parts = WORD_SEPARATORS.split(folded);
+        int n = 0;
+        for (String w : parts) if (!w.isEmpty()) parts[n++] = w;
+        return n == parts.length ? parts : Arrays.copyOf(parts, n);
+    }
+
+    /** Minúsculas y sin marcas diacríticas. */
+    public static String fold(String s) {
+        boolean ascii = true;
+        for (int i = 0; i < s.length() && ascii; i++) ascii = s.charAt(i) < 0x80;
+        if (ascii) return s.toLowerCase(Locale.ROOT);
+        String n = Normalizer.normalize(s, Normalizer.Form.NFD);
+        return MARKS.matcher(n).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
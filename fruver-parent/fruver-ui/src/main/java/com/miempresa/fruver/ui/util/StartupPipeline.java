@@ -0,0 +1,200 @@
+package com.miempresa.fruver.ui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Arranque por etapas con dependencias explícitas.
+ *
+ * - Cada etapa corre en los hilos "startup" en cuanto terminan las etapas de las que depende;
+ *   las independientes corren en paralelo (fruver.startup.threads, 4 por defecto).
+ * - Si una dependencia falla la etapa no corre: queda OMITIDA y propaga la misma causa.
+ * - Se registra el inicio (relativo a la creación del pipeline), la duración, el hilo y el
+ *   resultado de cada etapa; finish() imprime el reporte cuando todo terminó.
+ */
+public final class StartupPipeline {
+
+    public enum Outcome { OK, ERROR, OMITIDA }
+
+    /** Medición de una etapa. */
+    public static final class StageTiming {
+        private final String name;
+        private final String thread;
+        private final long startMs;
+        private final long durationMs;
+        private final Outcome outcome;
+        private final String detail;
+
+        StageTiming(String name, String thread, long startMs, long durationMs, Outcome outcome, String detail) {
+            this.name = name;
+            this.thread = thread;
+            this.startMs = startMs;
+            this.durationMs = durationMs;
+            this.outcome = outcome;
+            this.detail = detail;
+        }
+
+        public String getName() { return name; }
+        public String getThread() { return thread; }
+        public long getStartMs() { return startMs; }
+        public long getDurationMs() { return durationMs; }
+        public Outcome getOutcome() { return outcome; }
+        public String getDetail() { return detail; }
+    }
+
+    private final long t0 = System.nanoTime();
+    private final ExecutorService workers;
+    private final List<CompletableFuture<?>> stages = new CopyOnWriteArrayList<>();
+    private final List<StageTiming> timings = new CopyOnWriteArrayList<>();
+
+    public StartupPipeline(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "startup-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static StartupPipeline fromSystemProperties() {
+        return new StartupPipeline(Integer.getInteger("fruver.startup.threads", 4));
+    }
+
+    /** Registra una etapa que produce un valor; corre cuando terminan deps. */
+    public <T> CompletableFuture<T> stage(String name, Callable<T> body, CompletableFuture<?>... deps) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> ready = deps.length == 0
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.allOf(deps);
+        ready.whenComplete((v, depError) -> {
+            if (depError != null) {
+                Throwable cause = unwrap(depError);
+                timings.add(new StageTiming(name, "-", elapsedMs(), 0, Outcome.OMITIDA, firstLine(cause)));
+                result.completeExceptionally(cause);
+                return;
+            }
+            try {
+                workers.execute(() -> run(name, body, result));
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(ex);
+            }
+        });
+        stages.add(result);
+        return result;
+    }
+
+    /** Registra una etapa sin valor. */
+    public CompletableFuture<Void> stage(String name, Runnable body, CompletableFuture<?>... deps) {
+        return stage(name, () -> {
+            body.run();
+            return null;
+        }, deps);
+    }
+
+    private <T> void run(String name, Callable<T> body, CompletableFuture<T> result) {
+        long startMs = elapsedMs();
+        long start = System.nanoTime();
+        try {
+            T value = body.call();
+            timings.add(new StageTiming(name, Thread.currentThread().getName(), startMs,
+                    (System.nanoTime() - start) / 1_000_000, Outcome.OK, null));
+            result.complete(value);
+        } catch (Throwable ex) {
+            timings.add(new StageTiming(name, Thread.currentThread().getName(), startMs,
+                    (System.nanoTime() - start) / 1_000_000, Outcome.ERROR, firstLine(ex)));
+            result.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Espera las etapas dadas y relanza la primera causa de fallo (sin envolver si es
+     * Exception).
+     */
+    public static void await(CompletableFuture<?>... futures) throws Exception {
+        try {
+            CompletableFuture.allOf(futures).get();
+        } catch (ExecutionException ex) {
+            Throwable cause = unwrap(ex.getCause());
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw ex;
+        }
+    }
+
+    /** Espera las etapas dadas sin importar si fallaron. */
+    public static void settle(CompletableFuture<?>... futures) {
+        try {
+            CompletableFuture.allOf(futures).handle((v, e) -> null).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // handle() no completa con error
+        }
+    }
+
+    /**
+     * Al terminar todas las etapas registradas hasta ahora imprime el reporte y libera los
+     * hilos; después no se aceptan más etapas.
+     */
+    public CompletableFuture<Void> finish() {
+        return CompletableFuture.allOf(stages.toArray(new CompletableFuture<?>[0]))
+                .handle((v, e) -> {
+                    workers.shutdown();
+                    System.out.println(report());
+                    return null;
+                });
+    }
+
+    public List<StageTiming> getTimings() {
+        List<StageTiming> out = new ArrayList<>(timings);
+        out.sort(Comparator.comparingLong(StageTiming::getStartMs));
+        return Collections.unmodifiableList(out);
+    }
+
+    /** Tabla de etapas por orden de inicio, con el total de pared y la suma en serie. */
+    public String report() {
+        List<StageTiming> list = getTimings();
+        long wall = 0, serial = 0;
+        for (StageTiming t : list) {
+            wall = Math.max(wall, t.startMs + t.durationMs);
+            serial += t.durationMs;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("[Arranque] ").append(list.size()).append(" etapas en ").append(wall)
+                .append(" ms (en serie habrían sido ").append(serial).append(" ms)");
+        for (StageTiming t : list) {
+            sb.append(System.lineSeparator()).append(String.format("  %-18s +%6d ms %6d ms  %-10s %s",
+                    t.name, t.startMs, t.durationMs, t.thread, t.outcome));
+            if (t.detail != null) sb.append(" - ").append(t.detail);
+        }
+        return sb.toString();
+    }
+
+    private long elapsedMs() {
+        return (System.nanoTime() - t0) / 1_000_000;
+    }
+
+    /** Primera línea del mensaje (los de los drivers JDBC traen varias). */
+    private static String firstLine(Throwable t) {
+        String msg = String.valueOf(t.getMessage());
+        int nl = msg.indexOf('\n');
+        return nl < 0 ? msg : msg.substring(0, nl).trim();
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
@@ -0,0 +1,156 @@
+package com.miempresa.fruver.ui.util;
+
+import com.miempresa.fruver.infra.task.TaskRuntime;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caché compartida de miniaturas de producto.
+ *
+ * - Decodifica cada imagen ya reducida al tamaño en que se muestra (Image con ancho/alto
+ *   pedidos), en el carril IMAGE_IO de TaskRuntime, nunca en el hilo FX.
+ * - LRU acotada en bytes decodificados (ancho x alto x 4), fruver.ui.thumbCacheBytes
+ *   (32 MB por defecto).
+ * - Cargas simultáneas de la misma ruta y tamaño comparten un solo future.
+ * - Las rutas inexistentes o ilegibles se recuerdan con el placeholder, que es una sola
+ *   instancia: hacer scroll nunca vuelve a tocar el disco por la misma imagen.
+ */
+public final class ThumbnailCache {
+
+    private static final ThumbnailCache SHARED = new ThumbnailCache(
+            Long.getLong("fruver.ui.thumbCacheBytes", 32L * 1024 * 1024));
+
+    // clave pedida por cada ImageView: descarta resultados de una celda ya reciclada
+    private static final String VIEW_KEY = ThumbnailCache.class.getName() + ".key";
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Image> lru = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+    private final Map<String, CompletableFuture<Image>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger diskLoads = new AtomicInteger();
+
+    public ThumbnailCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static ThumbnailCache shared() { return SHARED; }
+
+    /**
+     * Muestra en iv la miniatura de path al tamaño fitWidth x fitHeight del ImageView. Si
+     * no está en caché pone el placeholder y la carga en segundo plano; al terminar sólo la
+     * asigna si el ImageView sigue pidiendo la misma imagen. Llamar desde el hilo FX.
+     */
+    public void bind(ImageView iv, String path) {
+        int w = (int) Math.ceil(iv.getFitWidth());
+        int h = (int) Math.ceil(iv.getFitHeight());
+        if (path == null || path.isBlank()) {
+            iv.getProperties().remove(VIEW_KEY);
+            iv.setImage(ProductImageHelper.placeholder());
+            return;
+        }
+        String key = key(path, w, h);
+        iv.getProperties().put(VIEW_KEY, key);
+        Image cached = get(key);
+        if (cached != null) {
+            iv.setImage(cached);
+            return;
+        }
+        iv.setImage(ProductImageHelper.placeholder());
+        load(path, w, h).thenAccept(img -> Platform.runLater(() -> {
+            if (key.equals(iv.getProperties().get(VIEW_KEY))) iv.setImage(img);
+        }));
+    }
+
+    /** Miniatura de path a w x h (0 = tamaño original); se completa fuera del hilo FX. */
+    public CompletableFuture<Image> load(String path, int w, int h) {
+        String key = key(path, w, h);
+        Image cached = get(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        CompletableFuture<Image> f;
+        try {
+            f = inFlight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+                Image img = decode(path, w, h);
+                put(k, img);
+                return img;
+            }, TaskRuntime.shared().executor(TaskRuntime.Pool.IMAGE_IO)));
+        } catch (RejectedExecutionException ex) {
+            // cola de imágenes llena (computeIfAbsent no dejó entrada): placeholder sin
+            // cachear, la próxima vez se reintenta
+            return CompletableFuture.completedFuture(ProductImageHelper.placeholder());
+        }
+        // termine bien o con error, la carga deja de estar en curso
+        f.whenComplete((img, ex) -> inFlight.remove(key, f));
+        return f;
+    }
+
+    /** Olvida las miniaturas de una ruta (p. ej. al borrar la imagen). */
+    public synchronized void invalidate(String path) {
+        String prefix = resolve(path) + "@";
+        for (Iterator<Map.Entry<String, Image>> it = lru.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Image> e = it.next();
+            if (e.getKey().startsWith(prefix)) {
+                bytes -= sizeOf(e.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized long getBytes() { return bytes; }
+    public synchronized int size() { return lru.size(); }
+    /** Lecturas de disco hechas por la caché (para verificar que el scroll no relee). */
+    public int getDiskLoads() { return diskLoads.get(); }
+
+    private Image decode(String path, int w, int h) {
+        File f = ProductImageHelper.resolveFile(path);
+        if (f == null) return ProductImageHelper.placeholder();
+        diskLoads.incrementAndGet();
+        try {
+            // carga síncrona en este hilo; smooth para que la reducción no se vea pixelada
+            Image img = new Image(f.toURI().toString(), w, h, true, true, false);
+            return img.isError() ? ProductImageHelper.placeholder() : img;
+        } catch (RuntimeException ex) {
+            return ProductImageHelper.placeholder();
+        }
+    }
+
+    private synchronized Image get(String key) {
+        return lru.get(key);
+    }
+
+    private synchronized void put(String key, Image img) {
+        Image old = lru.put(key, img);
+        if (old != null) bytes -= sizeOf(old);
+        bytes += sizeOf(img);
+        // expulsar las menos usadas; la recién cargada siempre queda
+        for (Iterator<Map.Entry<String, Image>> it = lru.entrySet().iterator(); bytes > maxBytes && it.hasNext(); ) {
+            Map.Entry<String, Image> e = it.next();
+            if (e.getKey().equals(key)) continue;
+            bytes -= sizeOf(e.getValue());
+            it.remove();
+        }
+    }
+
+    /** El placeholder es compartido: no cuenta contra el límite. */
+    private static long sizeOf(Image img) {
+        if (img == ProductImageHelper.placeholder()) return 0;
+        return (long) img.getWidth() * (long) img.getHeight() * 4;
+    }
+
+    private static String key(String path, int w, int h) {
+        return resolve(path) + "@" + w + "x" + h;
+    }
+
+    private static String resolve(String path) {
+        return path.trim().replace('\\', '/');
+    }
+}
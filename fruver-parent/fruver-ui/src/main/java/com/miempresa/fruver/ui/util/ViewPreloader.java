@@ -0,0 +1,116 @@
+package com.miempresa.fruver.ui.util;
+
+import com.miempresa.fruver.infra.task.TaskRuntime;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vistas FXML parseadas por adelantado fuera del hilo FX.
+ *
+ * FXMLLoader puede construir el grafo en otro hilo mientras no esté conectado a una Scene;
+ * la navegación sólo crea la Scene con el grafo ya listo. Cada grafo (y su controlador)
+ * sirve una sola vez, así que al tomarlo se deja otro parseándose en el carril IMAGE_IO de
+ * TaskRuntime para la próxima vez. Si el parseo en segundo plano falla (o el carril está
+ * lleno), la vista se carga en el hilo FX como antes.
+ */
+public final class ViewPreloader {
+
+    /** Grafo raíz y controlador de un FXML. */
+    public static final class View {
+        private final Parent root;
+        private final Object controller;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+
+        public Parent getRoot() { return root; }
+        public Object getController() { return controller; }
+    }
+
+    private final Map<String, CompletableFuture<View>> ready = new ConcurrentHashMap<>();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /** Parsea fxml en el hilo que llama (no el FX) y lo deja listo para take(). */
+    public View preload(String fxml) throws IOException {
+        CompletableFuture<View> f = new CompletableFuture<>();
+        ready.put(fxml, f);
+        try {
+            View v = load(fxml);
+            f.complete(v);
+            return v;
+        } catch (IOException | RuntimeException ex) {
+            failed.add(fxml);
+            f.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /** Igual que preload pero en el carril IMAGE_IO; no hace nada si ya hay una en curso. */
+    public void preloadAsync(String fxml) {
+        if (failed.contains(fxml)) return;
+        try {
+            ready.computeIfAbsent(fxml, k -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return load(k);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } catch (RuntimeException ex) {
+                    failed.add(k);
+                    throw ex;
+                }
+            }, TaskRuntime.shared().executor(TaskRuntime.Pool.IMAGE_IO)));
+        } catch (RejectedExecutionException ex) {
+            // carril lleno: take() la cargará en el hilo FX
+        }
+    }
+
+    /**
+     * Vista lista para mostrar: la precargada (esperándola si aún se está parseando) o, si no
+     * hay o falló, cargada aquí. Llamar desde el hilo FX.
+     */
+    public View take(String fxml) throws IOException {
+        CompletableFuture<View> f = ready.remove(fxml);
+        View v = null;
+        if (f != null) {
+            try {
+                v = f.join();
+            } catch (RuntimeException ex) {
+                System.err.println("[ViewPreloader] Precarga de " + fxml + " falló, se carga en el hilo FX: " + ex.getMessage());
+            }
+        }
+        if (v != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            v = load(fxml);
+        }
+        preloadAsync(fxml);
+        return v;
+    }
+
+    /** Vistas servidas ya parseadas / cargadas en el momento. */
+    public int getHits() { return hits.get(); }
+    public int getMisses() { return misses.get(); }
+
+    private static View load(String fxml) throws IOException {
+        URL url = ViewPreloader.class.getResource(fxml);
+        if (url == null) throw new IOException("No existe " + fxml);
+        FXMLLoader fx = new FXMLLoader(url);
+        Parent root = fx.load();
+        return new View(root, fx.getController());
+    }
+}
@@ -1,6 +1,7 @@
 package com.miempresa.fruver.ui.viewmodel;
 
 import com.miempresa.fruver.domain.model.Usuario;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.port.CreateUserRequest;
 import com.miempresa.fruver.service.port.UpdateUserRequest;
 import com.miempresa.fruver.service.usecase.CreateUserUseCase;
@@ -176,7 +177,7 @@ public class AdminViewModel {
     /** Carga la lista de usuarios desde el usecase (background). */
     public void loadUsers() {
         setBusy(true);
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
             try {
                 if (listUsersUseCase == null) {
                     Platform.runLater(() -> {
@@ -199,13 +200,13 @@ public class AdminViewModel {
                     setBusy(false);
                 });
             }
-        }, "admin-load-users").start();
+        });
     }
 
     /** Crear usuario (background). */
     public void createUser(String nombre, Usuario.Role rol, String password) {
         setBusy(true);
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
             try {
                 if (createUserUseCase == null) {
                     Platform.runLater(() -> {
@@ -232,13 +233,13 @@ public class AdminViewModel {
                     setBusy(false);
                 });
             }
-        }, "admin-create-user").start();
+        });
     }
 
     /** Actualizar usuario (background). */
     public void updateUser(Integer usuarioId, String nombre, Usuario.Role rol, String password) {
         setBusy(true);
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
             try {
                 if (updateUserUseCase == null) {
                     Platform.runLater(() -> {
@@ -266,13 +267,13 @@ public class AdminViewModel {
                     setBusy(false);
                 });
             }
-        }, "admin-update-user").start();
+        });
     }
 
     /** Eliminar usuario (background). */
     public void deleteUser(Integer usuarioId) {
         setBusy(true);
-        new Thread(() -> {
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, () -> {
             try {
                 if (deleteUserUseCase == null) {
                     Platform.runLater(() -> {
@@ -295,7 +296,7 @@ public class AdminViewModel {
                     setBusy(false);
                 });
             }
-        }, "admin-delete-user").start();
+        });
     }
 
     /* --------------------- small setters --------------------- */
@@ -314,4 +315,12 @@ public class AdminViewModel {
             return null;
         }
     }
+
+    public com.miempresa.fruver.service.port.ConnectionPoolStats getConnectionPoolStats() {
+        try {
+            return adminService.getConnectionPoolStats();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
 }
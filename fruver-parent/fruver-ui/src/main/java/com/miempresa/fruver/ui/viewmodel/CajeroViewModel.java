@@ -3,9 +3,16 @@ package com.miempresa.fruver.ui.viewmodel;
 import com.miempresa.fruver.domain.model.Producto;
 import com.miempresa.fruver.domain.model.Usuario;
 import com.miempresa.fruver.domain.model.VentaItem;
+import com.miempresa.fruver.domain.exceptions.InvalidOperationException;
+import com.miempresa.fruver.infra.hardware.barcode.VariableMeasureDecoder;
 import com.miempresa.fruver.service.usecase.ListProductsUseCase;
+import com.miempresa.fruver.infra.hardware.printer.PrinterService;
+import com.miempresa.fruver.infra.hardware.printer.spool.PrintJob;
+import com.miempresa.fruver.infra.hardware.scale.ScaleSession;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.usecase.RegistrarVentaUseCase;
 import com.miempresa.fruver.ui.ServiceLocator;
+import com.miempresa.fruver.ui.util.ProductSearchIndex;
 import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
@@ -15,8 +22,8 @@ import javafx.concurrent.Task;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
 
 /**
  * ViewModel para la vista Cajero.
@@ -25,9 +32,19 @@ import java.util.concurrent.Executors;
  */
 public class CajeroViewModel {
 
+    // espera máxima a que el peso se asiente antes de tomar la lectura directa
+    private static final long STABLE_WEIGHT_TIMEOUT_MS = 1500;
+
     private final ObservableList<Producto> allProducts = FXCollections.observableArrayList();
+    // índice de búsqueda reconstruido en cada carga de catálogo (en el hilo de la carga)
+    private volatile ProductSearchIndex searchIndex = ProductSearchIndex.empty();
     private final ObservableList<Producto> filteredProducts = FXCollections.observableArrayList();
     private final ObservableList<CartItem> cart = FXCollections.observableArrayList();
+    // índice por código (mayúsculas) reconstruido en cada carga de catálogo
+    private volatile Map<String, Producto> productsByCode = Map.of();
+    // índice por PLU (código numérico sin ceros a la izquierda) para códigos de medida variable
+    private volatile Map<String, Producto> productsByPlu = Map.of();
+    private final VariableMeasureDecoder barcodeDecoder = VariableMeasureDecoder.fromSystemProperties();
 
     private final ObjectProperty<BigDecimal> subtotal = new SimpleObjectProperty<>(BigDecimal.ZERO);
     private final ObjectProperty<BigDecimal> iva = new SimpleObjectProperty<>(BigDecimal.ZERO);
@@ -35,6 +52,7 @@ public class CajeroViewModel {
 
     private final StringProperty scaleStatus = new SimpleStringProperty("Desconocido");
     private final StringProperty readerStatus = new SimpleStringProperty("Desconocido");
+    private final StringProperty printerStatus = new SimpleStringProperty("Desconocido");
     private final StringProperty lastWeight = new SimpleStringProperty("-- kg");
     private final StringProperty statusMessage = new SimpleStringProperty();
 
@@ -44,16 +62,17 @@ public class CajeroViewModel {
     private final ServiceLocator.AdminService adminService;
     private RegistrarVentaUseCase registrarVentaUseCase;
 
-    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
-        Thread t = new Thread(r);
-        t.setDaemon(true);
-        return t;
-    });
+    // BD y báscula en los carriles acotados del runtime compartido
+    private final TaskRuntime tasks = TaskRuntime.shared();
+    private volatile Task<ProductSearchIndex> pendingLoad;
 
     // Datos para commit
     private Usuario cajero;
     private BigDecimal received = BigDecimal.ZERO;
     private Runnable onSaleCompleted;
+    private volatile boolean printListenerInstalled;
+    // un solo listener por view model; se quita en dispose() (la cola es de todo el proceso)
+    private final Consumer<PrintJob> printListener = j -> Platform.runLater(() -> printerStatus.set(describe(j)));
 
     public CajeroViewModel(ListProductsUseCase listProductsUseCase, ServiceLocator.AdminService adminService) {
         this.listProductsUseCase = listProductsUseCase;
@@ -71,6 +90,7 @@ public class CajeroViewModel {
 
     public StringProperty scaleStatusProperty() { return scaleStatus; }
     public StringProperty readerStatusProperty() { return readerStatus; }
+    public StringProperty printerStatusProperty() { return printerStatus; }
     public StringProperty lastWeightProperty() { return lastWeight; }
 
     public StringProperty statusMessageProperty() { return statusMessage; }
@@ -81,18 +101,29 @@ public class CajeroViewModel {
     public void loadProducts() {
         busy.set(true);
         statusMessage.set("Cargando productos...");
-        Task<java.util.List<Producto>> t = new Task<>() {
+        Task<ProductSearchIndex> t = new Task<>() {
             @Override
-            protected java.util.List<Producto> call() throws Exception {
+            protected ProductSearchIndex call() throws Exception {
                 // El usecase en tu proyecto espera execute(Void) -> pasamos null
-                return listProductsUseCase.execute(null);
+                return new ProductSearchIndex(listProductsUseCase.execute(null));
             }
         };
         t.setOnSucceeded(evt -> {
-            java.util.List<Producto> list = t.getValue();
-            if (list == null) list = Collections.emptyList();
+            searchIndex = t.getValue();
+            java.util.List<Producto> list = searchIndex.getProducts();
             allProducts.setAll(list);
             filteredProducts.setAll(list);
+            Map<String, Producto> byCode = new HashMap<>(list.size() * 2);
+            Map<String, Producto> byPlu = new HashMap<>(list.size() * 2);
+            for (Producto p : list) {
+                if (p.getCodigo() == null) continue;
+                String code = p.getCodigo().trim();
+                byCode.putIfAbsent(code.toUpperCase(Locale.ROOT), p);
+                if (!code.isEmpty() && code.chars().allMatch(Character::isDigit))
+                    byPlu.putIfAbsent(VariableMeasureDecoder.stripLeadingZeros(code), p);
+            }
+            productsByCode = byCode;
+            productsByPlu = byPlu;
             busy.set(false);
             statusMessage.set("");
             recalcTotals();
@@ -102,19 +133,23 @@ public class CajeroViewModel {
             statusMessage.set("Error cargando productos: " + t.getException().getMessage());
             t.getException().printStackTrace();
         });
-        executor.execute(t);
+        // una recarga más reciente descarta ésta; sólo se informa si nadie la reemplazó
+        t.setOnCancelled(evt -> {
+            if (pendingLoad == t) {
+                busy.set(false);
+                statusMessage.set("Carga de productos cancelada (sistema ocupado).");
+            }
+        });
+        pendingLoad = t;
+        tasks.submitLatest(TaskRuntime.Pool.DB, "cajero.productos", t);
     }
 
+    /**
+     * Filtra con el índice (prefijos de palabras del nombre y del código, sin tildes); si la
+     * consulta extiende la anterior sólo se refina el resultado previo.
+     */
     public void filterBy(String q, boolean onlyPeso) {
-        java.util.List<Producto> out = new ArrayList<>();
-        for (Producto p : allProducts) {
-            boolean ok = (q == null || q.isBlank()) ||
-                    p.getNombre().toLowerCase().contains(q.toLowerCase()) ||
-                    (p.getCodigo() != null && p.getCodigo().toLowerCase().contains(q.toLowerCase()));
-            if (!ok) continue;
-            if (onlyPeso && p.getTipo() != Producto.TipoProducto.PESO) continue;
-            out.add(p);
-        }
+        java.util.List<Producto> out = searchIndex.search(q, onlyPeso ? Producto.TipoProducto.PESO : null);
         Platform.runLater(() -> filteredProducts.setAll(out));
     }
 
@@ -124,7 +159,8 @@ public class CajeroViewModel {
         if (p == null || qty == null || qty.compareTo(BigDecimal.ZERO) <= 0) return;
         boolean merged = false;
         for (CartItem it : cart) {
-            if (Objects.equals(it.product.getProductoId(), p.getProductoId())) {
+            // las líneas con importe de etiqueta no se mezclan: cada paquete conserva su precio
+            if (it.fixedAmount == null && Objects.equals(it.product.getProductoId(), p.getProductoId())) {
                 it.quantity = it.quantity.add(qty);
                 it.recalcSubtotal();
                 merged = true;
@@ -137,6 +173,8 @@ public class CajeroViewModel {
 
     public void updateItemQuantity(CartItem item, BigDecimal newQty) {
         if (item == null || newQty == null || newQty.compareTo(BigDecimal.ZERO) <= 0) return;
+        // cambiar la cantidad a mano deja sin efecto el importe de la etiqueta
+        item.fixedAmount = null;
         item.quantity = newQty;
         item.recalcSubtotal();
         recalcTotals();
@@ -164,56 +202,14 @@ public class CajeroViewModel {
             @Override
             protected Void call() {
                 try {
-                    java.util.List<String> configs = adminService.listDeviceConfigs();
-                    String port = null;
-                    String params = "{}";
-                    for (String c : configs) {
-                        if (c == null) continue;
-                        if (c.toUpperCase().startsWith("BASCULA@")) {
-                            String after = c.substring("BASCULA@".length());
-                            int pipe = after.indexOf("|");
-                            if (pipe >= 0) { port = after.substring(0, pipe); params = after.substring(pipe + 1); }
-                            else port = after;
-                            break;
-                        }
-                    }
-                    if (port == null || port.isBlank()) {
+                    // sesión compartida: el puerto ya está abierto, sólo se toma el peso
+                    ScaleSession session = ServiceLocator.getScaleSession();
+                    if (session == null) {
                         error = "Configuración de báscula no encontrada (ADMIN debe configurar).";
                         return null;
                     }
-                    int baud = 9600;
-                    try {
-                        java.util.regex.Matcher m = java.util.regex.Pattern.compile("\"baudRate\"\\s*:\\s*(\\d+)").matcher(params);
-                        if (m.find()) baud = Integer.parseInt(m.group(1));
-                    } catch (Exception ignored) {}
-
-                    try {
-                        Class<?> cls = Class.forName("com.miempresa.fruver.infra.hardware.scale.ScaleService");
-                        Object svc = cls.getDeclaredConstructor().newInstance();
-                        try {
-                            try { cls.getMethod("open", String.class, int.class).invoke(svc, port, baud); }
-                            catch (NoSuchMethodException nm) {
-                                try { cls.getMethod("open", String.class).invoke(svc, port); } catch (NoSuchMethodException ignored) {}
-                            }
-                            Object val = null;
-                            try { val = cls.getMethod("readWeightKg").invoke(svc); } catch (NoSuchMethodException ignored) {}
-                            if (val == null) {
-                                try { val = cls.getMethod("readWeight").invoke(svc); } catch (NoSuchMethodException ignored) {}
-                            }
-                            if (val == null) {
-                                try { val = cls.getMethod("readWeightGrams").invoke(svc); } catch (NoSuchMethodException ignored) {}
-                                if (val instanceof Number) {
-                                    Number n = (Number) val;
-                                    weight = BigDecimal.valueOf(n.doubleValue()).divide(BigDecimal.valueOf(1000), 3, RoundingMode.HALF_UP);
-                                }
-                            } else {
-                                if (val instanceof Number) weight = BigDecimal.valueOf(((Number) val).doubleValue()).setScale(3, RoundingMode.HALF_UP);
-                                else if (val instanceof String) weight = new BigDecimal(((String) val).trim()).setScale(3, RoundingMode.HALF_UP);
-                            }
-                        } finally {
-                            try { cls.getMethod("close").invoke(svc); } catch (Throwable ignored) {}
-                        }
-                    } catch (ClassNotFoundException cnf) { error = "ScaleService no disponible en classpath."; }
+                    double kg = session.readWeightKg(STABLE_WEIGHT_TIMEOUT_MS);
+                    weight = BigDecimal.valueOf(kg).setScale(3, RoundingMode.HALF_UP);
                 } catch (Throwable t) { error = t.getMessage(); }
                 return null;
             }
@@ -235,8 +231,14 @@ public class CajeroViewModel {
                 busy.set(false);
                 statusMessage.set("Error leyendo báscula: " + getException().getMessage());
             }
+
+            @Override
+            protected void cancelled() {
+                busy.set(false);
+                statusMessage.set("Báscula ocupada, intenta de nuevo.");
+            }
         };
-        executor.execute(t);
+        tasks.execute(TaskRuntime.Pool.HARDWARE, t);
     }
 
     /* ------------------ Sale commit ------------------ */
@@ -250,9 +252,9 @@ public class CajeroViewModel {
         if (cart.isEmpty()) { statusMessage.set("Carrito vacío."); return; }
         busy.set(true);
         statusMessage.set("Registrando venta...");
-        Task<Void> t = new Task<>() {
+        Task<Boolean> t = new Task<>() {
             @Override
-            protected Void call() throws Exception {
+            protected Boolean call() throws Exception {
                 BigDecimal totalVal = total.get();
                 BigDecimal vuelto = (received == null ? BigDecimal.ZERO : received.subtract(totalVal).setScale(2, RoundingMode.HALF_UP));
 
@@ -265,7 +267,8 @@ public class CajeroViewModel {
                             null, // ventaId -> NULL, será asignado al persistir
                             it.product.getProductoId(),
                             it.quantity,
-                            it.product.getPrecioUnitario()
+                            it.product.getPrecioUnitario(),
+                            it.getSubtotal() // lo cobrado: cantidad × precio o el importe de la etiqueta
                     );
                     items.add(vi);
                 }
@@ -275,16 +278,16 @@ public class CajeroViewModel {
                     try { registrarVentaUseCase = ServiceLocator.getRegistrarVentaUseCase(); } catch (Throwable ignored) {}
                 }
 
-                if (registrarVentaUseCase != null) {
-                    // Firma esperada: execute(List<VentaItem>)
-                    registrarVentaUseCase.execute(items);
-                } else {
-                    // dry-run: log para depuración
-                    System.out.println("[DryRun RegistrarVenta] total=" + totalVal + ", recibido=" + received + ", vuelto=" + vuelto);
-                    for (VentaItem vi : items) System.out.println("  item: producto=" + vi.getProductoId() + " qty=" + vi.getCantidad() + " precio=" + vi.getPrecioUnit());
+                if (registrarVentaUseCase == null) {
+                    // sin BD ni copia local del catálogo no hay dónde anotar la venta: no se cobra
+                    throw new IllegalStateException("Sin conexión a BD ni diario local; la venta no se puede registrar.");
                 }
 
-                return null;
+                Integer cajeroId = cajero == null ? null : cajero.getUsuarioId();
+                // la venta se anota primero en el diario local; si la BD no responde queda pendiente
+                var saved = registrarVentaUseCase.execute(cajeroId, items, received);
+                spoolReceipt(buildReceipt(saved.getVentaId(), totalVal, vuelto));
+                return saved.getVentaId() != null;
             }
 
             @Override
@@ -292,7 +295,9 @@ public class CajeroViewModel {
                 busy.set(false);
                 cart.clear();
                 recalcTotals();
-                statusMessage.set("Venta completada.");
+                statusMessage.set(Boolean.TRUE.equals(getValue())
+                        ? "Venta completada."
+                        : "Venta guardada localmente (sin conexión a BD); se sincronizará al volver la conexión.");
                 if (onSaleCompleted != null) onSaleCompleted.run();
             }
 
@@ -302,41 +307,173 @@ public class CajeroViewModel {
                 statusMessage.set("Error registrando venta: " + getException().getMessage());
                 getException().printStackTrace();
             }
+
+            @Override
+            protected void cancelled() {
+                busy.set(false);
+                statusMessage.set("Sistema ocupado: la venta no se registró, intenta de nuevo.");
+            }
         };
-        executor.execute(t);
+        tasks.execute(TaskRuntime.Pool.DB, t);
+    }
+
+    /* ------------------ Recibo (cola de impresión) ------------------ */
+
+    /** Cuerpo del recibo con el marcado de la plantilla ESC/POS ("--" separador, TAB = columna derecha). */
+    private String buildReceipt(Integer ventaId, BigDecimal totalVal, BigDecimal vuelto) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Venta:\t").append(ventaId == null ? "pendiente" : ventaId).append('\n');
+        sb.append("--\n");
+        for (CartItem it : cart) {
+            sb.append(it.product.getNombre()).append(' ')
+                    .append(it.quantity.stripTrailingZeros().toPlainString());
+            if (it.fixedAmount != null) sb.append(" (etiqueta)");
+            else sb.append(" x ").append(it.product.getPrecioUnitario().toPlainString());
+            sb.append('\t').append(it.getSubtotal().toPlainString()).append('\n');
+        }
+        sb.append("--\n");
+        sb.append("Total\t").append(totalVal).append('\n');
+        sb.append("Recibido\t").append(received == null ? BigDecimal.ZERO : received).append('\n');
+        sb.append("Vuelto\t").append(vuelto).append('\n');
+        return sb.toString();
+    }
+
+    /** Encola el recibo; un fallo de impresión nunca impide cerrar la venta. */
+    private void spoolReceipt(String text) {
+        try {
+            PrintJob job = ServiceLocator.spoolReceipt(text);
+            if (job == null) return;
+            if (!printListenerInstalled) {
+                printListenerInstalled = true;
+                ServiceLocator.getPrintSpooler().addListener(printListener);
+            }
+            Platform.runLater(() -> printerStatus.set(describe(job)));
+        } catch (Throwable t) {
+            System.err.println("[CajeroViewModel] No se pudo encolar el recibo: " + t.getMessage());
+            Platform.runLater(() -> printerStatus.set("Error"));
+        }
+    }
+
+    private static String describe(PrintJob j) {
+        switch (j.getStatus()) {
+            case PENDIENTE: return "En cola";
+            case IMPRIMIENDO: return "Imprimiendo...";
+            case REINTENTANDO: return "Reintentando (" + j.getAttempts() + ")";
+            case IMPRESO: return "OK";
+            default: return "Falló: " + j.getLastError();
+        }
+    }
+
+    private static String describe(PrinterService.Status s) {
+        switch (s) {
+            case LISTA: return "Lista";
+            case FUERA_DE_LINEA: return "Fuera de línea";
+            case SIN_PAPEL: return "Sin papel";
+            case SIN_RESPUESTA: return "Sin respuesta";
+            default: return "Desconectada";
+        }
     }
 
     /* ------------------ Barcode helper ------------------ */
 
     public boolean addProductByBarcode(String codigo) {
         if (codigo == null || codigo.isBlank()) return false;
-        for (Producto p : allProducts) {
-            if (codigo.equalsIgnoreCase(p.getCodigo())) {
-                if (p.getTipo() == Producto.TipoProducto.PESO) readWeightAndAdd(p);
-                else addOrMergeCartItem(p, BigDecimal.ONE);
-                return true;
-            }
+        String c = codigo.trim();
+        Producto p = productsByCode.get(c.toUpperCase(Locale.ROOT));
+        if (p != null) {
+            if (p.getTipo() == Producto.TipoProducto.PESO) readWeightAndAdd(p);
+            else addOrMergeCartItem(p, BigDecimal.ONE);
+            return true;
+        }
+        // paquete prepesado (EAN-13 2x): PLU + peso/precio en el código, sin pasar por la báscula
+        VariableMeasureDecoder.Code vm;
+        try {
+            vm = barcodeDecoder.decode(c);
+        } catch (InvalidOperationException ex) {
+            statusMessage.set(ex.getMessage());
+            return false;
         }
+        if (vm != null) return addVariableMeasure(vm, c);
         statusMessage.set("Producto no registrado: " + codigo);
         return false;
     }
 
+    private boolean addVariableMeasure(VariableMeasureDecoder.Code vm, String codigo) {
+        Producto p = productsByPlu.get(vm.getPlu());
+        if (p == null) {
+            statusMessage.set("PLU no registrado: " + vm.getPlu() + " (" + codigo + ")");
+            return false;
+        }
+        boolean porPeso = p.getTipo() == Producto.TipoProducto.PESO;
+        BigDecimal qty;
+        BigDecimal labelAmount = null;
+        if (vm.getMeasure() == VariableMeasureDecoder.Measure.PESO) {
+            if (!porPeso) {
+                statusMessage.set("El producto " + p.getNombre() + " no se vende por peso: " + codigo);
+                return false;
+            }
+            qty = vm.getValue().setScale(3, RoundingMode.HALF_UP);
+        } else {
+            BigDecimal unit = p.getPrecioUnitario();
+            if (unit == null || unit.signum() <= 0) {
+                statusMessage.set("Producto sin precio unitario: " + p.getNombre());
+                return false;
+            }
+            // se cobra el precio impreso; la cantidad (kg con 3 decimales, o unidades enteras,
+            // mínimo 1) es aproximada y sólo sirve para el stock
+            labelAmount = vm.getValue().setScale(2, RoundingMode.HALF_UP);
+            qty = porPeso ? vm.getValue().divide(unit, 3, RoundingMode.HALF_UP)
+                          : vm.getValue().divide(unit, 0, RoundingMode.HALF_UP).max(BigDecimal.ONE);
+        }
+        if (qty.signum() <= 0 || (labelAmount != null && labelAmount.signum() <= 0)) {
+            statusMessage.set("Cantidad inválida en el código: " + codigo);
+            return false;
+        }
+        if (labelAmount != null) {
+            cart.add(new CartItem(p, qty, labelAmount));
+            recalcTotals();
+        } else {
+            addOrMergeCartItem(p, qty);
+        }
+        if (porPeso) lastWeight.set(qty.stripTrailingZeros().toPlainString() + " kg");
+        statusMessage.set(p.getNombre() + ": " + qty.stripTrailingZeros().toPlainString() + (porPeso ? " kg" : " und") + " (etiqueta)");
+        return true;
+    }
+
+    /** Al cerrar sesión: deja de escuchar la cola de impresión compartida. */
+    public void dispose() {
+        if (printListenerInstalled) {
+            printListenerInstalled = false;
+            ServiceLocator.getPrintSpooler().removeListener(printListener);
+        }
+    }
+
     /* ------------------ Device indicators ------------------ */
 
     public void refreshDeviceIndicators() {
-        executor.execute(() -> {
+        // refrescos seguidos: sólo cuenta el último
+        tasks.submitLatest(TaskRuntime.Pool.DB, "cajero.dispositivos", new FutureTask<Void>(() -> {
             try {
                 java.util.List<String> configs = adminService.listDeviceConfigs();
                 boolean hasScale = configs.stream().anyMatch(s -> s != null && s.toUpperCase().startsWith("BASCULA@"));
                 boolean hasReader = configs.stream().anyMatch(s -> s != null && s.toUpperCase().startsWith("LECTOR@"));
+                boolean hasPrinter = configs.stream().anyMatch(s -> s != null && s.toUpperCase().startsWith("IMPRESORA@"));
+                ScaleSession session = hasScale ? ServiceLocator.getScaleSession() : null;
+                String scaleText = session != null ? session.getStatus() : (hasScale ? "Configurada" : "No configurada");
+                PrinterService.Status printer = hasPrinter ? ServiceLocator.getPrinterStatus() : null;
                 Platform.runLater(() -> {
-                    scaleStatus.set(hasScale ? "Configurada" : "No configurada");
+                    scaleStatus.set(scaleText);
                     readerStatus.set(hasReader ? "Configurado" : "No configurado");
+                    if (!hasPrinter) printerStatus.set("No configurada");
+                    // un problema de la impresora tiene prioridad sobre el estado del último recibo
+                    else if (printer != null && (printer != PrinterService.Status.LISTA || !printListenerInstalled))
+                        printerStatus.set(describe(printer));
+                    else if (!printListenerInstalled) printerStatus.set("Configurada");
                 });
             } catch (Throwable t) {
-                Platform.runLater(() -> { scaleStatus.set("Error"); readerStatus.set("Error"); });
+                Platform.runLater(() -> { scaleStatus.set("Error"); readerStatus.set("Error"); printerStatus.set("Error"); });
             }
-        });
+        }, null));
     }
 
     /* ------------------ DTO / small class ------------------ */
@@ -344,16 +481,26 @@ public class CajeroViewModel {
     public static class CartItem {
         public final Producto product;
         public BigDecimal quantity;
+        private BigDecimal fixedAmount; // importe de etiqueta; null = cantidad × precio
         private BigDecimal subtotal;
 
         public CartItem(Producto p, BigDecimal q) {
+            this(p, q, null);
+        }
+
+        /** Línea de un paquete con precio en la etiqueta: se cobra fixedAmount tal cual. */
+        public CartItem(Producto p, BigDecimal q, BigDecimal fixedAmount) {
             this.product = p;
             this.quantity = q;
+            this.fixedAmount = fixedAmount;
             recalcSubtotal();
         }
         public void recalcSubtotal() {
-            this.subtotal = product.getPrecioUnitario().multiply(quantity).setScale(2, RoundingMode.HALF_UP);
+            this.subtotal = fixedAmount != null
+                    ? fixedAmount.setScale(2, RoundingMode.HALF_UP)
+                    : product.getPrecioUnitario().multiply(quantity).setScale(2, RoundingMode.HALF_UP);
         }
+        public BigDecimal getFixedAmount() { return fixedAmount; }
         public BigDecimal getSubtotal() { return subtotal; }
         public BigDecimal getQuantity() { return quantity; }
         public Producto getProduct() { return product; }
@@ -1,6 +1,7 @@
 package com.miempresa.fruver.ui.viewmodel;
 
 import com.miempresa.fruver.domain.model.Usuario;
+import com.miempresa.fruver.infra.task.TaskRuntime;
 import com.miempresa.fruver.service.usecase.LoginUseCase;
 import com.miempresa.fruver.service.security.SecurityContext;
 import javafx.beans.property.*;
@@ -49,8 +50,11 @@ public class LoginViewModel {
             password.set("");
         });
 
-        Thread th = new Thread(t, "login-thread");
-        th.setDaemon(true);
-        th.start();
+        t.setOnCancelled(evt -> {
+            busy.set(false);
+            statusMessage.set("Sistema ocupado, intenta de nuevo.");
+        });
+
+        TaskRuntime.shared().execute(TaskRuntime.Pool.DB, t);
     }
 }
@@ -1,5 +1,6 @@
 package com.miempresa.fruver.ui.viewmodel;
 
+import com.miempresa.fruver.domain.model.EstadisticasVentas;
 import com.miempresa.fruver.domain.model.Producto;
 import com.miempresa.fruver.service.port.CreateProductRequest;
 import com.miempresa.fruver.service.usecase.CreateProductUseCase;
@@ -7,10 +8,10 @@ import com.miempresa.fruver.service.usecase.DeleteProductUseCase;
 import com.miempresa.fruver.service.usecase.ListProductsUseCase;
 import com.miempresa.fruver.service.usecase.UpdateProductUseCase;
 import com.miempresa.fruver.ui.ServiceLocator;
+import com.miempresa.fruver.ui.util.ProductSearchIndex;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -33,11 +34,10 @@ public class SupervisorViewModel {
 
     private final ObservableList<Producto> allProducts = FXCollections.observableArrayList();
 
-    private final FilteredList<Producto> filteredPeso =
-            new FilteredList<>(allProducts, p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("PESO"));
-
-    private final FilteredList<Producto> filteredUnidad =
-            new FilteredList<>(allProducts, p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("UNIDAD"));
+    // resultados por pestaña; se llenan desde el índice de búsqueda
+    private final ObservableList<Producto> filteredPeso = FXCollections.observableArrayList();
+    private final ObservableList<Producto> filteredUnidad = FXCollections.observableArrayList();
+    private volatile ProductSearchIndex searchIndex = ProductSearchIndex.empty();
 
     private String filter = "";
 
@@ -52,31 +52,28 @@ public class SupervisorViewModel {
     public ObservableList<Producto> getProductosUnidad() { return filteredUnidad; }
 
     public void setFilter(String filter) {
-        this.filter = filter == null ? "" : filter.trim().toLowerCase();
+        this.filter = filter == null ? "" : filter.trim();
         applyFilter();
     }
 
+    /** Una consulta al índice por pestaña (refinamiento incremental mientras se escribe). */
     private void applyFilter() {
         final String f = this.filter;
+        final ProductSearchIndex index = searchIndex;
+        List<Producto> peso = index.search(f, Producto.TipoProducto.PESO);
+        List<Producto> unidad = index.search(f, Producto.TipoProducto.UNIDAD);
         Platform.runLater(() -> {
-            if (f == null || f.isBlank()) {
-                filteredPeso.setPredicate(p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("PESO"));
-                filteredUnidad.setPredicate(p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("UNIDAD"));
-            } else {
-                filteredPeso.setPredicate(p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("PESO") &&
-                        ((p.getNombre() != null && p.getNombre().toLowerCase().contains(f)) ||
-                                (p.getCodigo() != null && p.getCodigo().toLowerCase().contains(f))));
-                filteredUnidad.setPredicate(p -> p != null && p.getTipo() != null && p.getTipo().name().equalsIgnoreCase("UNIDAD") &&
-                        ((p.getNombre() != null && p.getNombre().toLowerCase().contains(f)) ||
-                                (p.getCodigo() != null && p.getCodigo().toLowerCase().contains(f))));
-            }
+            filteredPeso.setAll(peso);
+            filteredUnidad.setAll(unidad);
         });
     }
 
     public void loadProducts() {
         List<Producto> all = listProductsUseCase.execute(null);
+        ProductSearchIndex index = new ProductSearchIndex(all == null ? List.of() : all);
         Platform.runLater(() -> {
-            allProducts.setAll(all);
+            searchIndex = index;
+            allProducts.setAll(index.getProducts());
             applyFilter();
         });
     }
@@ -245,9 +242,9 @@ public class SupervisorViewModel {
         try {
             try {
                 var uc = ServiceLocator.getObtenerEstadisticasUseCase();
-                Map<String, Object> res = uc.execute(new LocalDate[]{from, to});
+                EstadisticasVentas res = uc.execute(new LocalDate[]{from, to});
                 if (res != null) {
-                    return res;
+                    return toStatsMap(res);
                 }
             } catch (IllegalStateException ise) {
                 System.out.println("[SupervisorViewModel] ObtenerEstadisticasUseCase no registrado, usando fallback local.");
@@ -276,4 +273,31 @@ public class SupervisorViewModel {
             return out;
         }
     }
+
+    /**
+     * Adapta el resultado tipado al mapa que consume la vista.
+     * - totalVentas / topProductos (nombre, cantidad) se mantienen por compatibilidad.
+     * - "estadisticas" lleva el objeto completo para vistas que lo necesiten.
+     */
+    private Map<String, Object> toStatsMap(EstadisticasVentas e) {
+        Map<String, Object> out = new HashMap<>();
+        out.put("totalVentas", e.getTickets());
+        out.put("ingresos", e.getIngresos());
+        out.put("ticketPromedio", e.getTicketPromedio());
+        out.put("unidadesVendidas", e.getUnidadesVendidas());
+        out.put("kilosVendidos", e.getKilosVendidos());
+
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (EstadisticasVentas.ProductoVendido pv : e.getTopPorIngreso()) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("productoId", pv.getProductoId());
+            m.put("nombre", pv.getNombre());
+            m.put("cantidad", pv.getCantidad());
+            m.put("ingresos", pv.getIngresos());
+            top.add(m);
+        }
+        out.put("topProductos", top);
+        out.put("estadisticas", e);
+        return out;
+    }
 }
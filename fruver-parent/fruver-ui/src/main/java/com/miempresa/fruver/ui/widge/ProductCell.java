@@ -2,6 +2,7 @@ package com.miempresa.fruver.ui.widget;
 
 import com.miempresa.fruver.domain.model.Producto;
 import com.miempresa.fruver.ui.util.ProductImageHelper;
+import com.miempresa.fruver.ui.util.ThumbnailCache;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
@@ -118,14 +119,10 @@ public class ProductCell extends ListCell<Producto> {
         }
 
         try {
-            String path = item.getImagenPath();
-            if (path != null && !path.isBlank()) {
-                iv.setImage(ProductImageHelper.loadImage(path));
-            } else {
-                iv.setImage(ProductImageHelper.loadImage(null));
-            }
+            // miniatura al tamaño del ImageView, desde caché o cargada en segundo plano
+            ThumbnailCache.shared().bind(iv, item.getImagenPath());
         } catch (Throwable t) {
-            iv.setImage(ProductImageHelper.loadImage(null));
+            iv.setImage(ProductImageHelper.placeholder());
         }
 
         if (!metaBox.getChildren().contains(lblTypeBadge)) {
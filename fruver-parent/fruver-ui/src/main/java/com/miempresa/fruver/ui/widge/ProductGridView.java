@@ -0,0 +1,121 @@
+package com.miempresa.fruver.ui.widge;
+
+import com.miempresa.fruver.domain.model.Producto;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.HBox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Grilla de productos virtualizada para la vista Cajero.
+ *
+ * Es un ListView cuyas filas son tramos de "columnas" productos: el VirtualFlow sólo crea
+ * celdas para las filas visibles y las recicla al hacer scroll, y cada celda reutiliza sus
+ * tiles (ProductTile.fxml cargado una vez por tile) llamando setProducto. Así la cantidad
+ * de nodos depende del tamaño de la ventana y no del catálogo; filtrar sólo reparte la
+ * lista en filas nuevas. Las columnas se recalculan con el ancho disponible.
+ */
+public class ProductGridView extends ListView<List<Producto>> {
+
+    // medidas de ProductTile.fxml y separación entre tiles
+    private static final double TILE_WIDTH = 230;
+    private static final double GAP = 12;
+    // padding de la lista + barra de scroll vertical
+    private static final double CHROME = 30;
+
+    private List<Producto> products = List.of();
+    private int columns = 1;
+    private Consumer<Producto> onAdd = p -> {};
+    private int tilesCreated;
+
+    public ProductGridView() {
+        getStyleClass().add("product-grid");
+        setFocusTraversable(false);
+        setCellFactory(list -> new RowCell());
+        widthProperty().addListener((obs, o, n) -> {
+            int c = columnsFor(n.doubleValue());
+            if (c != columns) {
+                columns = c;
+                rebuildRows();
+            }
+        });
+    }
+
+    /** Muestra los productos dados (normalmente la lista filtrada) desde la primera fila. */
+    public void setProducts(List<Producto> products) {
+        this.products = products == null ? List.of() : List.copyOf(products);
+        rebuildRows();
+        if (!getItems().isEmpty()) scrollTo(0);
+    }
+
+    public void setOnAdd(Consumer<Producto> onAdd) {
+        this.onAdd = Objects.requireNonNull(onAdd);
+    }
+
+    /** Tiles instanciados desde que se creó la grilla (acotado por el viewport, no por el catálogo). */
+    public int getTilesCreated() { return tilesCreated; }
+
+    private static int columnsFor(double width) {
+        if (width <= 0) return 1;
+        return Math.max(1, (int) ((width - CHROME + GAP) / (TILE_WIDTH + GAP)));
+    }
+
+    private void rebuildRows() {
+        List<List<Producto>> rows = new ArrayList<>((products.size() + columns - 1) / columns);
+        for (int i = 0; i < products.size(); i += columns) {
+            rows.add(products.subList(i, Math.min(products.size(), i + columns)));
+        }
+        getItems().setAll(rows);
+    }
+
+    /** Fila de la grilla: conserva sus tiles entre usos y sólo cambia el producto mostrado. */
+    private final class RowCell extends ListCell<List<Producto>> {
+        private final HBox box = new HBox(GAP);
+        private final List<ProductTileController> tiles = new ArrayList<>();
+
+        RowCell() {
+            box.setFillHeight(false);
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(List<Producto> row, boolean empty) {
+            super.updateItem(row, empty);
+            if (empty || row == null) {
+                setGraphic(null);
+                return;
+            }
+            while (tiles.size() < row.size()) {
+                ProductTileController t = newTile();
+                if (t == null) break;
+                tiles.add(t);
+                box.getChildren().add(t.getRoot());
+            }
+            for (int i = 0; i < tiles.size(); i++) {
+                ProductTileController t = tiles.get(i);
+                boolean used = i < row.size();
+                t.setProducto(used ? row.get(i) : null);
+                t.getRoot().setVisible(used);
+                t.getRoot().setManaged(used);
+            }
+            setGraphic(box);
+        }
+
+        private ProductTileController newTile() {
+            try {
+                ProductTileController t = ProductTileController.load();
+                t.setOnAdd(p -> onAdd.accept(p));
+                tilesCreated++;
+                return t;
+            } catch (IOException ex) {
+                System.err.println("[ProductGridView] No se pudo cargar ProductTile.fxml: " + ex.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.miempresa.fruver.ui.widge;
 
 import com.miempresa.fruver.domain.model.Producto;
+import com.miempresa.fruver.ui.util.ThumbnailCache;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
 
@@ -46,7 +46,7 @@ public class ProductTileController {
             lblName.setText("");
             lblMeta.setText("");
             lblBadge.setText("");
-            imgProduct.setImage(null);
+            ThumbnailCache.shared().bind(imgProduct, null);
             btnAdd.setDisable(true);
             return;
         }
@@ -59,16 +59,8 @@ public class ProductTileController {
 
         btnAdd.setDisable(false);
 
-        try {
-            if (p.getImagenPath() != null && !p.getImagenPath().isBlank()) {
-                Image img = new Image("file:" + p.getImagenPath(), 64, 64, true, true, true);
-                imgProduct.setImage(img);
-            } else {
-                imgProduct.setImage(null);
-            }
-        } catch (Exception ex) {
-            imgProduct.setImage(null);
-        }
+        // miniatura 64x64 compartida: al reciclar el tile no se vuelve a leer del disco
+        ThumbnailCache.shared().bind(imgProduct, p.getImagenPath());
     }
 
     private String formatPrice(java.math.BigDecimal v) {
@@ -80,12 +72,19 @@ public class ProductTileController {
         this.onAdd = Objects.requireNonNull(onAdd);
     }
 
-    public static Node createNode(Producto p, Consumer<Producto> onAdd) throws IOException {
+    public Node getRoot() { return root; }
+
+    /** Carga un tile vacío; ProductGridView lo reutiliza llamando setProducto al hacer scroll o filtrar. */
+    public static ProductTileController load() throws IOException {
         FXMLLoader loader = new FXMLLoader(ProductTileController.class.getResource("/fxml/ProductTile.fxml"));
-        Node node = loader.load();
-        ProductTileController ctrl = loader.getController();
+        loader.load();
+        return loader.getController();
+    }
+
+    public static Node createNode(Producto p, Consumer<Producto> onAdd) throws IOException {
+        ProductTileController ctrl = load();
         ctrl.setProducto(p);
         if (onAdd != null) ctrl.setOnAdd(onAdd);
-        return node;
+        return ctrl.getRoot();
     }
 }